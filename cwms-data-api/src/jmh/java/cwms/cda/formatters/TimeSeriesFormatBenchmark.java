@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package cwms.cda.formatters;
+
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.cbor.CborV1;
+import cwms.cda.formatters.json.JsonV2;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the JSON (version 2) and columnar CBOR time series encodings.
+ * Run with {@code ./gradlew :cwms-data-api:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeSeriesFormatBenchmark {
+
+    @Param({"96", "35040"}) // one day and one year of 15 minute data
+    int points;
+
+    private final JsonV2 json = new JsonV2();
+    private final CborV1 cbor = new CborV1();
+
+    private TimeSeries timeSeries;
+    private String jsonContent;
+    private byte[] cborContent;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ZonedDateTime begin = ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]");
+        Duration interval = Duration.ofMinutes(15);
+        timeSeries = new TimeSeries(null, 0, points, "Alder Springs.Precip-Cumulative.Inst.15Minutes.0.Calc-val",
+                "SPK", begin, begin.plus(interval.multipliedBy(points)), "in", interval);
+        Random random = new Random(42);
+        for (int i = 0; i < points; i++) {
+            Double value = random.nextInt(100) == 0 ? null : random.nextDouble() * 1000.0;
+            timeSeries.addValue(Timestamp.from(begin.plus(interval.multipliedBy(i)).toInstant()),
+                    value, value == null ? 5 : 0);
+        }
+        jsonContent = json.format(timeSeries);
+        cborContent = cbor.formatBytes(timeSeries);
+    }
+
+    @Benchmark
+    public byte[] formatJsonV2() {
+        return json.formatBytes(timeSeries);
+    }
+
+    @Benchmark
+    public byte[] formatCbor() {
+        return cbor.formatBytes(timeSeries);
+    }
+
+    @Benchmark
+    public TimeSeries parseJsonV2() {
+        return json.parseContent(new ByteArrayInputStream(jsonContent.getBytes(StandardCharsets.UTF_8)),
+                TimeSeries.class);
+    }
+
+    @Benchmark
+    public TimeSeries parseCbor() {
+        return cbor.parseContent(new ByteArrayInputStream(cborContent), TimeSeries.class);
+    }
+}
@@ -24,6 +24,7 @@
 
 package cwms.cda;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static cwms.cda.api.Controllers.NAME;
 import cwms.cda.api.LookupTypeController;
 import static io.javalin.apibuilder.ApiBuilder.crud;
@@ -45,7 +46,9 @@ import cwms.cda.api.BasinController;
 import cwms.cda.api.BinaryTimeSeriesController;
 import cwms.cda.api.BinaryTimeSeriesValueController;
 import cwms.cda.api.BlobController;
+import cwms.cda.api.Bulkhead;
 import cwms.cda.api.CatalogController;
+import cwms.cda.api.CatalogExportController;
 import cwms.cda.api.ClobController;
 import cwms.cda.api.Controllers;
 import cwms.cda.api.CountyController;
@@ -58,7 +61,10 @@ import cwms.cda.api.LevelsController;
 import cwms.cda.api.LocationCategoryController;
 import cwms.cda.api.LocationController;
 import cwms.cda.api.LocationGroupController;
+import cwms.cda.api.LocationSpatialController;
+import cwms.cda.api.LocationTileController;
 import cwms.cda.api.OfficeController;
+import cwms.cda.api.OpenApiDocument;
 import cwms.cda.api.ParametersController;
 import cwms.cda.api.PoolController;
 import cwms.cda.api.ProjectController;
@@ -67,16 +73,22 @@ import cwms.cda.api.RatingController;
 import cwms.cda.api.RatingMetadataController;
 import cwms.cda.api.RatingSpecController;
 import cwms.cda.api.RatingTemplateController;
+import cwms.cda.api.RequestCoalescer;
+import cwms.cda.api.SlowQueryController;
 import cwms.cda.api.SpecifiedLevelController;
 import cwms.cda.api.StandardTextController;
 import cwms.cda.api.StateController;
 import cwms.cda.api.TextTimeSeriesController;
 import cwms.cda.api.TextTimeSeriesValueController;
+import cwms.cda.api.TimeSeriesBulkController;
+import cwms.cda.api.TimeSeriesBulkStoreController;
 import cwms.cda.api.TimeSeriesCategoryController;
+import cwms.cda.api.TimeSeriesChangesController;
 import cwms.cda.api.TimeSeriesController;
 import cwms.cda.api.TimeSeriesGroupController;
 import cwms.cda.api.TimeSeriesIdentifierDescriptorController;
 import cwms.cda.api.TimeSeriesRecentController;
+import cwms.cda.api.TimeSeriesStreamController;
 import cwms.cda.api.TimeZoneController;
 import cwms.cda.api.TurbineChangesDeleteController;
 import cwms.cda.api.TurbineChangesGetController;
@@ -92,11 +104,20 @@ import cwms.cda.api.errors.FieldException;
 import cwms.cda.api.errors.InvalidItemException;
 import cwms.cda.api.errors.JsonFieldsException;
 import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.api.errors.QueryTimeoutException;
 import cwms.cda.api.errors.RequiredQueryParameterException;
+import cwms.cda.api.errors.StreamAbortedException;
+import cwms.cda.api.errors.TooBusyException;
+import cwms.cda.data.dao.IdentifierAliases;
 import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.LocationIndex;
+import cwms.cda.data.dao.ReferenceData;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.datasource.DataSourceRouter;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
 import cwms.cda.formatters.UnsupportedFormatException;
+import cwms.cda.helpers.RequestTiming;
 import cwms.cda.security.CwmsAuthException;
 import cwms.cda.security.Role;
 import cwms.cda.spi.AccessManagers;
@@ -110,8 +131,10 @@ import io.javalin.core.security.RouteRole;
 import io.javalin.core.util.Header;
 import io.javalin.core.validation.JavalinValidation;
 import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
 import io.javalin.http.Handler;
 import io.javalin.http.JavalinServlet;
+import io.javalin.plugin.openapi.OpenApiHandler;
 import io.javalin.plugin.openapi.OpenApiOptions;
 import io.javalin.plugin.openapi.OpenApiPlugin;
 import io.swagger.v3.oas.models.Components;
@@ -136,6 +159,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.jar.Manifest;
 import javax.annotation.Resource;
 import javax.management.ServiceNotFoundException;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -145,6 +170,7 @@ import javax.servlet.http.HttpServletResponse;
 import javax.sql.DataSource;
 import org.apache.http.entity.ContentType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.owasp.html.HtmlPolicyBuilder;
 import org.owasp.html.PolicyFactory;
 
@@ -180,19 +206,24 @@ import org.owasp.html.PolicyFactory;
         "/lookup-types/*",
         "/embankments/*",
         "/projects/turbines/*",
-        "/projects/turbine-changes/*"
-})
+        "/projects/turbine-changes/*",
+        "/status/slow-queries"
+}, asyncSupported = true)
 public class ApiServlet extends HttpServlet {
 
     public static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
     // based on https://bitbucket.hecdev.net/projects/CWMS/repos/cwms_aaa/browse/IntegrationTests/src/test/resources/sql/load_testusers.sql
     public static final String CWMS_USERS_ROLE = "CWMS Users";
+    /** Required for the administrative routes and for extending query timeouts. */
+    public static final String CWMS_ADMIN_ROLE = "CWMS DBA Users";
     /** Default OFFICE where needed. Based on context. e.g. /cwms-data -> HQ, /spk-data -> SPK */
     public static final String OFFICE_ID = "office_id";
     public static final String DATA_SOURCE = "data_source";
     public static final String RAW_DATA_SOURCE = "data_source";
     public static final String DATABASE = "database";
+    /** Default statement timeout in seconds for the route, see QueryTimeouts. */
+    public static final String QUERY_TIMEOUT = "query_timeout";
 
     // The VERSION should match the gradle version but not contain the patch version.
     // For example 2.4 not 2.4.13
@@ -202,6 +233,11 @@ public class ApiServlet extends HttpServlet {
     public static final String PROVIDER_KEY = "cwms.dataapi.access.provider";
     public static final String DEFAULT_OFFICE_KEY = "cwms.dataapi.default.office";
     public static final String DEFAULT_PROVIDER = "MultipleAccessManager";
+    /** Comma separated names of read only DataSource resources, missing resources are skipped. */
+    public static final String READ_DATA_SOURCES_KEY = "cwms.dataapi.read.datasources";
+    public static final String DEFAULT_READ_DATA_SOURCES = "jdbc/CWMS3-RO";
+    /** Set to true to send the per-phase timing of requests in the Server-Timing header. */
+    public static final String SERVER_TIMING_KEY = "cwms.dataapi.server.timing";
 
     private MetricRegistry metrics;
     private Meter totalRequests;
@@ -213,10 +249,31 @@ public class ApiServlet extends HttpServlet {
     @Resource(name = "jdbc/CWMS3")
     DataSource cwms;
 
+    DataSourceRouter dataSourceRouter;
+    WarmUp warmUp;
+    private OpenApiOptions openApiOptions;
+    private List<SecurityRequirement> securityRequirements;
+    private OpenApiDocument openApiDocument;
+    private TimeSeriesStreamController tsStreamController;
 
 
     @Override
     public void destroy() {
+        int cancelled = JooqDao.cancelRunningStatements();
+        if (cancelled > 0) {
+            logger.atInfo().log("Cancelled %d running statements.", cancelled);
+        }
+        if (warmUp != null) {
+            warmUp.stop();
+            CdaHealthCheckContextListener.HEALTH_CHECK_REGISTRY.unregister(WarmUp.HEALTH_CHECK);
+        }
+        ReferenceData.stop();
+        LocationIndex.stop();
+        IdentifierAliases.stop();
+        TimeSeriesDaoImpl.shutdownBulkExecutor();
+        if (tsStreamController != null) {
+            tsStreamController.close();
+        }
         javalin.destroy();
     }
 
@@ -227,6 +284,15 @@ public class ApiServlet extends HttpServlet {
                 .getAttribute(MetricsServlet.METRICS_REGISTRY);
         totalRequests = metrics.meter("cwms.dataapi.total_requests");
         super.init(config);
+        dataSourceRouter = new DataSourceRouter(cwms, lookupReadDataSources(), metrics);
+        ReferenceData.start(cwms);
+        LocationIndex.start(cwms);
+        IdentifierAliases.start(cwms);
+        warmUp = new WarmUp(config.getServletContext(), openApiDocument::prepare);
+        CdaHealthCheckContextListener.HEALTH_CHECK_REGISTRY.unregister(WarmUp.HEALTH_CHECK);
+        CdaHealthCheckContextListener.HEALTH_CHECK_REGISTRY.register(WarmUp.HEALTH_CHECK,
+                warmUp.readiness());
+        warmUp.start();
     }
 
     @SuppressWarnings({"java:S125","java:S2095"}) // closed in destroy handler
@@ -241,21 +307,39 @@ public class ApiServlet extends HttpServlet {
 
         PolicyFactory sanitizer = new HtmlPolicyBuilder().disallowElements("<script>").toFactory();
         String context = this.getServletContext().getContextPath();
-        javalin = Javalin.createStandalone(config -> {
+        Javalin app = Javalin.createStandalone(config -> {
                     config.defaultContentType = "application/json";
                     config.contextPath = context;
                     getOpenApiOptions(config);
                     config.autogenerateEtags = true;
                     config.requestLogger((ctx, ms) -> logger.atFinest().log(ctx.toString()));
-                })
+                });
+        // must exist before the routes are added, it collects them as they are registered
+        OpenApiHandler openApiHandler = new OpenApiHandler(app, openApiOptions);
+        openApiDocument = new OpenApiDocument(openApiHandler::createOpenAPISchema,
+                api -> api.getPaths().forEach((key, path) ->
+                        setSecurityRequirements(key, path, securityRequirements)),
+                openApiOptions.getToJsonMapper());
+        javalin = app.get("/swagger-docs", openApiDocument)
                 .attribute("PolicyFactory", sanitizer)
                 .attribute("ObjectMapper", om)
                 .before(ctx -> {
+                    RequestTiming.start();
                     ctx.attribute("sanitizer", sanitizer);
                     ctx.header("X-Content-Type-Options", "nosniff");
                     ctx.header("X-Frame-Options", "SAMEORIGIN");
                     ctx.header("X-XSS-Protection", "1; mode=block");
                 })
+                .after(this::recordTiming)
+                .after(ctx -> {
+                    // whatever still runs belongs to a request that failed, e.g. because
+                    // its client went away while the response was written
+                    int cancelled = JooqDao.cancelRunningStatements(ctx);
+                    if (cancelled > 0) {
+                        logger.atInfo().log("Cancelled %d statements of request: %s",
+                                cancelled, ctx.req.getRequestURI());
+                    }
+                })
                 .exception(UnsupportedFormatException.class, (e, ctx) -> {
                     CdaError re = new CdaError(e.getMessage());
                     logger.atInfo().withCause(e).log(re.toString());
@@ -320,6 +404,23 @@ public class ApiServlet extends HttpServlet {
                     logger.atInfo().withCause(e).log(re.toString(), e);
                     ctx.status(HttpServletResponse.SC_CONFLICT).json(re);
                 })
+                .exception(TooBusyException.class, (e, ctx) -> {
+                    CdaError re = new CdaError(e.getMessage());
+                    logger.atInfo().atMostEvery(1, TimeUnit.MINUTES).log(re.toString());
+                    ctx.header(Header.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+                    ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE).json(re);
+                })
+                .exception(StreamAbortedException.class, (e, ctx) -> {
+                    logger.atInfo().withCause(e.getCause()).log("Aborting the response to %s",
+                            ctx.req.getRequestURI());
+                    // nothing may be written now, service fails the request after Javalin
+                    ctx.req.setAttribute(StreamAbortedException.class.getName(), e);
+                })
+                .exception(QueryTimeoutException.class, (e, ctx) -> {
+                    CdaError re = new CdaError(e.getMessage());
+                    logger.atInfo().withCause(e).log("%s for request: %s", re, ctx.fullUrl());
+                    ctx.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE).json(re);
+                })
                 .exception(NotFoundException.class, (e, ctx) -> {
                     CdaError re = new CdaError("Not Found.");
                     logger.atInfo().withCause(e).log(re.toString());
@@ -397,6 +498,12 @@ public class ApiServlet extends HttpServlet {
     protected void configureRoutes() {
 
         RouteRole[] requiredRoles = {new Role(CWMS_USERS_ROLE)};
+        RequestCoalescer coalescer = new RequestCoalescer(metrics);
+        // expensive route groups get their own share of the connection pool
+        Bulkhead catalogBulkhead = Bulkhead.forGroup("catalog", 4, metrics);
+        Bulkhead timeSeriesBulkhead = Bulkhead.forGroup("timeseries", 16, metrics);
+        Bulkhead bulkBulkhead = Bulkhead.forGroup("timeseries-bulk", 2, metrics);
+        Bulkhead catalogExportBulkhead = Bulkhead.forGroup("catalog-export", 2, metrics);
 
         get("/", ctx -> ctx.result("Welcome to the CWMS REST API")
                 .contentType(Formats.PLAIN));
@@ -406,6 +513,9 @@ public class ApiServlet extends HttpServlet {
                 new LocationCategoryController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
         cdaCrudCache("/location/group/{group-id}",
                 new LocationGroupController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
+        // before the locations crud so "spatial" is not taken for a location id
+        get("/locations/spatial", new LocationSpatialController(metrics));
+        get("/locations/tiles/{z}/{x}/{y}.mvt", new LocationTileController(metrics));
         cdaCrudCache("/locations/{location-id}",
                 new LocationController(metrics), requiredRoles, 5, TimeUnit.MINUTES);
         cdaCrudCache("/states/{state}",
@@ -423,12 +533,26 @@ public class ApiServlet extends HttpServlet {
         cdaCrudCache(format("/levels/{%s}", Controllers.LEVEL_ID),
                 new LevelsController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         String levelTsPath = format("/levels/{%s}/timeseries", Controllers.LEVEL_ID);
-        get(levelTsPath, new LevelsAsTimeSeriesController(metrics));
+        get(levelTsPath, coalescer.wrap(
+                timeSeriesBulkhead.wrap(new LevelsAsTimeSeriesController(metrics))));
         addCacheControl(levelTsPath, 5, TimeUnit.MINUTES);
+        addQueryTimeout(levelTsPath, "timeseries", 120);
         TimeSeriesController tsController = new TimeSeriesController(metrics);
         String recentPath = "/timeseries/recent/";
         get(recentPath, new TimeSeriesRecentController(metrics));
         addCacheControl(recentPath, 5, TimeUnit.MINUTES);
+        String bulkPath = "/timeseries/bulk";
+        get(bulkPath, bulkBulkhead.wrap(new TimeSeriesBulkController(metrics)));
+        // like the other writes the batched store is not held back by the read bulkheads
+        post(bulkPath, new TimeSeriesBulkStoreController(metrics), requiredRoles);
+        addCacheControl(bulkPath, 5, TimeUnit.MINUTES);
+        addQueryTimeout(bulkPath, "timeseries-bulk", 300);
+        String changesPath = "/timeseries/changes";
+        get(changesPath, bulkBulkhead.wrap(new TimeSeriesChangesController(metrics)));
+        addQueryTimeout(changesPath, "timeseries-bulk", 300);
+        // before the timeseries crud so "stream" is not taken for a time series id
+        tsStreamController = new TimeSeriesStreamController(metrics);
+        get("/timeseries/stream", tsStreamController);
 
         cdaCrudCache(format("/standard-text-id/{%s}", Controllers.STANDARD_TEXT_ID),
                 new StandardTextController(metrics), requiredRoles,1, TimeUnit.DAYS);
@@ -451,7 +575,10 @@ public class ApiServlet extends HttpServlet {
                 new TimeSeriesIdentifierDescriptorController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/timeseries/group/{group-id}",
                 new TimeSeriesGroupController(metrics), requiredRoles,5, TimeUnit.MINUTES);
-        cdaCrudCache("/timeseries/{timeseries}", tsController, requiredRoles,5, TimeUnit.MINUTES);
+        cdaCrudCache("/timeseries/{timeseries}", tsController, requiredRoles,5, TimeUnit.MINUTES,
+                coalescer, timeSeriesBulkhead);
+        addQueryTimeout("/timeseries/{timeseries}", "timeseries", 120);
+        addQueryTimeout("/timeseries/", "timeseries", 120);
         cdaCrudCache("/ratings/template/{template-id}",
                 new RatingTemplateController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/ratings/spec/{rating-id}",
@@ -460,8 +587,15 @@ public class ApiServlet extends HttpServlet {
                 new RatingMetadataController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/ratings/{rating-id}",
                 new RatingController(metrics), requiredRoles,5, TimeUnit.MINUTES);
+        String catalogExportPath = "/catalog/{dataset}/export";
+        get(catalogExportPath, catalogExportBulkhead.wrap(new CatalogExportController(metrics)));
+        addCacheControl(catalogExportPath, 5, TimeUnit.MINUTES);
+        addQueryTimeout(catalogExportPath, "catalog-export", 300);
         cdaCrudCache("/catalog/{dataset}",
-                new CatalogController(metrics), requiredRoles,5, TimeUnit.MINUTES);
+                new CatalogController(metrics), requiredRoles,5, TimeUnit.MINUTES, coalescer,
+                catalogBulkhead);
+        addQueryTimeout("/catalog/{dataset}", "catalog", 60);
+        addQueryTimeout("/catalog/", "catalog", 60);
         cdaCrudCache("/basins/{basin-id}",
                 new BasinController(metrics), requiredRoles,5, TimeUnit.MINUTES);
         cdaCrudCache("/blobs/{blob-id}",
@@ -495,6 +629,9 @@ public class ApiServlet extends HttpServlet {
                 new LookupTypeController(metrics), requiredRoles,1, TimeUnit.DAYS);
         cdaCrudCache(format("/embankments/{%s}", Controllers.NAME),
                 new EmbankmentController(metrics), requiredRoles,1, TimeUnit.DAYS);
+        // the statistics include statement text, only administrators may see them
+        get("/status/slow-queries", new SlowQueryController(metrics),
+                new Role(CWMS_ADMIN_ROLE));
     }
 
     /**
@@ -514,7 +651,32 @@ public class ApiServlet extends HttpServlet {
      */
     public static void cdaCrudCache(@NotNull String path, @NotNull CrudHandler crudHandler,
                                     @NotNull RouteRole[] roles, long duration, TimeUnit timeUnit) {
-        cdaCrud(path, crudHandler, roles);
+        cdaCrudCache(path, crudHandler, roles, duration, timeUnit, null);
+    }
+
+    /**
+     * Same as {@link #cdaCrudCache(String, CrudHandler, RouteRole[], long, TimeUnit)} but
+     * identical concurrent getOne and getAll requests are coalesced so only one of them
+     * runs the handler.
+     * @param coalescer shares responses between identical requests, null to disable.
+     */
+    public static void cdaCrudCache(@NotNull String path, @NotNull CrudHandler crudHandler,
+                                    @NotNull RouteRole[] roles, long duration, TimeUnit timeUnit,
+                                    @Nullable RequestCoalescer coalescer) {
+        cdaCrudCache(path, crudHandler, roles, duration, timeUnit, coalescer, null);
+    }
+
+    /**
+     * Same as {@link #cdaCrudCache(String, CrudHandler, RouteRole[], long, TimeUnit,
+     * RequestCoalescer)} but getOne and getAll only run while holding a permit of the
+     * bulkhead, so a burst of reads can not block the writes of the resource or the reverse.
+     * @param bulkhead limits concurrent reads of the route group, null for no limit.
+     */
+    public static void cdaCrudCache(@NotNull String path, @NotNull CrudHandler crudHandler,
+                                    @NotNull RouteRole[] roles, long duration, TimeUnit timeUnit,
+                                    @Nullable RequestCoalescer coalescer,
+                                    @Nullable Bulkhead bulkhead) {
+        cdaCrud(path, crudHandler, coalescer, bulkhead, roles);
 
         // path like /offices/{office} will match /offices/SWT getOne style url
         addCacheControl(path, duration, timeUnit);
@@ -538,6 +700,24 @@ public class ApiServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Adds a before filter giving requests to the path a default statement timeout,
+     * configurable with cda.api.query.timeout.{group}.seconds. The first matching
+     * filter wins so more specific paths must be registered first.
+     * @param path the route path
+     * @param group name of the route group
+     * @param defaultSeconds the timeout when not configured, 0 for none
+     */
+    private static void addQueryTimeout(@NotNull String path, String group, int defaultSeconds) {
+        int seconds = Integer.getInteger("cda.api.query.timeout." + group + ".seconds",
+                defaultSeconds);
+        staticInstance().before(path, ctx -> {
+            if (ctx.attribute(QUERY_TIMEOUT) == null) {
+                ctx.attribute(QUERY_TIMEOUT, seconds);
+            }
+        });
+    }
+
     /**
      * This method is very similar to the ApiBuilder.crud method but the specified roles
      * are only required for the post, patch and delete methods.  getOne and getAll are always
@@ -549,6 +729,13 @@ public class ApiServlet extends HttpServlet {
      */
     public static void cdaCrud(@NotNull String path, @NotNull CrudHandler crudHandler,
                                  @NotNull RouteRole... roles) {
+        cdaCrud(path, crudHandler, null, null, roles);
+    }
+
+    private static void cdaCrud(@NotNull String path, @NotNull CrudHandler crudHandler,
+                                @Nullable RequestCoalescer coalescer,
+                                @Nullable Bulkhead bulkhead,
+                                @NotNull RouteRole... roles) {
         String fullPath = prefixPath(path);
         String resourceId = getResourceId(fullPath);
 
@@ -556,12 +743,23 @@ public class ApiServlet extends HttpServlet {
         Map<CrudFunction, Handler> crudFunctions =
                 CrudHandlerKt.getCrudFunctions(crudHandler, resourceId);
 
+        Handler getOne = crudFunctions.get(CrudFunction.GET_ONE);
+        Handler getAll = crudFunctions.get(CrudFunction.GET_ALL);
+        if (bulkhead != null) {
+            getOne = bulkhead.wrap(getOne);
+            getAll = bulkhead.wrap(getAll);
+        }
+        // coalesce outside the bulkhead so waiting requests do not hold permits
+        if (coalescer != null) {
+            getOne = coalescer.wrap(getOne);
+            getAll = coalescer.wrap(getAll);
+        }
+
         Javalin instance = staticInstance();
         // getOne and getAll are assumed not to need authorization
-        instance.get(fullPath, crudFunctions.get(CrudFunction.GET_ONE));
+        instance.get(fullPath, getOne);
         String pathWithoutResource = fullPath.replace(resourceId, "");
-        instance.get(pathWithoutResource,
-                crudFunctions.get(CrudFunction.GET_ALL));
+        instance.get(pathWithoutResource, getAll);
 
         // create, update and delete need authorization.
         instance.post(pathWithoutResource,
@@ -627,11 +825,8 @@ public class ApiServlet extends HttpServlet {
                                    .info(applicationInfo)
                                    .addSecurityItem(new SecurityRequirement().addList(provider))
         );
-        ops.path("/swagger-docs")
-            .responseModifier((ctx,api) -> {
-                api.getPaths().forEach((key,path) -> setSecurityRequirements(key,path,secReqs));
-                return api;
-            })
+        // served by OpenApiDocument, which generates and post-processes the document once
+        ops.ignorePath("/swagger-docs")
             .defaultDocumentation(doc -> {
                 doc.json("500", CdaError.class);
                 doc.json("400", CdaError.class);
@@ -641,6 +836,8 @@ public class ApiServlet extends HttpServlet {
             })
             .activateAnnotationScanningFor("cwms.cda.api");
         config.registerPlugin(new OpenApiPlugin(ops));
+        openApiOptions = ops;
+        securityRequirements = secReqs;
 
     }
 
@@ -682,17 +879,42 @@ public class ApiServlet extends HttpServlet {
         return System.getProperty(PROVIDER_KEY, System.getProperty(PROVIDER_KEY_OLD,defProvider));
     }
 
+    /**
+     * Records the phases of the request in timers named after the route, and adds the
+     * Server-Timing header when {@value #SERVER_TIMING_KEY} is true.
+     */
+    private void recordTiming(Context ctx) {
+        RequestTiming timing = RequestTiming.finish();
+        if (timing == null) {
+            return;
+        }
+        String route = ctx.endpointHandlerPath();
+        if (route != null && !route.isEmpty()) {
+            timing.getPhases().forEach((phase, nanos) ->
+                    metrics.timer(name("cwms.dataapi.timing", route, phase))
+                            .update(nanos, TimeUnit.NANOSECONDS));
+        }
+        if (Boolean.getBoolean(SERVER_TIMING_KEY)) {
+            ctx.header(RequestTiming.HEADER, timing.toServerTiming());
+        }
+    }
+
     @Override
     protected void service(HttpServletRequest req, HttpServletResponse resp)
             throws ServletException, IOException {
         totalRequests.mark();
+        StreamAbortedException aborted = null;
         try {
             String office = officeFromContext(req.getContextPath());
             req.setAttribute(OFFICE_ID, office);
             //logger.atInfo().log("Connection user name is: %s")
-            req.setAttribute(DATA_SOURCE, cwms);
-            req.setAttribute(RAW_DATA_SOURCE,cwms);
+            DataSource dataSource = dataSourceRouter.select(req.getMethod(),
+                    req.getHeader("Cache-Control"));
+            req.setAttribute(DATA_SOURCE, dataSource);
+            req.setAttribute(RAW_DATA_SOURCE, dataSource);
             javalin.service(req, resp);
+            aborted = (StreamAbortedException) req.getAttribute(
+                    StreamAbortedException.class.getName());
         } catch (Exception ex) {
             CdaError re = new CdaError("Major Database Issue");
             logger.atSevere().withCause(ex).log(re + " for url " + req.getRequestURI());
@@ -702,7 +924,44 @@ public class ApiServlet extends HttpServlet {
                 ObjectMapper om = new ObjectMapper();
                 out.println(om.writeValueAsString(re));
             }
+        } finally {
+            // normally finished by the after handler
+            RequestTiming.finish();
+        }
+        if (aborted != null) {
+            // the response is committed, failing it makes the container close the
+            // connection instead of ending the response normally
+            throw new IOException(aborted.getMessage(), aborted.getCause());
+        }
+    }
+
+    /**
+     * Looks up the read only DataSources named by {@value #READ_DATA_SOURCES_KEY}.
+     * Names that are not bound are skipped so replicas stay optional.
+     */
+    private static Map<String, DataSource> lookupReadDataSources() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        String names = System.getProperty(READ_DATA_SOURCES_KEY, DEFAULT_READ_DATA_SOURCES);
+        InitialContext naming;
+        try {
+            naming = new InitialContext();
+        } catch (NamingException ex) {
+            logger.atInfo().log("No naming context, all requests will use the primary DataSource.");
+            return replicas;
+        }
+        for (String name : names.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                replicas.put(trimmed, (DataSource) naming.lookup("java:comp/env/" + trimmed));
+                logger.atInfo().log("Routing read only requests to %s", trimmed);
+            } catch (NamingException ex) {
+                logger.atFine().log("Read only DataSource %s is not configured.", trimmed);
+            }
         }
+        return replicas;
     }
 
     public static String officeFromContext(String contextPath) {
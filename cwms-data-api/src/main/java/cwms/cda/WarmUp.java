@@ -0,0 +1,225 @@
+package cwms.cda;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.data.dao.ReferenceData;
+import cwms.cda.data.dto.CwmsDTOBase;
+import cwms.cda.formatters.Formats;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletContext;
+
+/**
+ * Warms up a freshly started node before it reports ready.
+ *
+ * <p>The warm-up runs in the background after the servlet initialized. It builds the
+ * formatters and JSON mappers of every data type, runs the startup tasks given by the
+ * servlet, e.g. generating the OpenAPI document, waits for the first load of the
+ * {@link ReferenceData} and then replays the requests listed in cda.api.warmup.requests
+ * (comma separated paths with query, relative to cda.api.warmup.base.url) a few times.
+ * Until it is done the "ready" health check in
+ * {@link CdaHealthCheckContextListener#HEALTH_CHECK_REGISTRY} is unhealthy, so
+ * /status/healthcheck can be used as the readiness probe. After
+ * cda.api.warmup.timeout.seconds the node reports ready whether or not the warm-up
+ * finished.
+ */
+public final class WarmUp implements Runnable {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String HEALTH_CHECK = "ready";
+    public static final String REQUESTS_KEY = "cda.api.warmup.requests";
+    public static final String BASE_URL_KEY = "cda.api.warmup.base.url";
+    public static final String ITERATIONS_KEY = "cda.api.warmup.iterations";
+    public static final String TIMEOUT_KEY = "cda.api.warmup.timeout.seconds";
+
+    private static final String DTO_CLASSES = "/WEB-INF/classes/cwms/cda/data/dto/";
+    private static final int REQUEST_TIMEOUT_MS = 60_000;
+
+    private final ServletContext context;
+    private final List<Runnable> tasks;
+    private final long deadline;
+    private volatile boolean ready;
+    private volatile String stage = "starting";
+    private Thread thread;
+
+    public WarmUp(ServletContext context, Runnable... tasks) {
+        this.context = context;
+        this.tasks = Arrays.asList(tasks);
+        this.deadline = System.nanoTime()
+                + TimeUnit.SECONDS.toNanos(Long.getLong(TIMEOUT_KEY, 300L));
+    }
+
+    /**
+     * @return a health check that is healthy once the warm-up finished or timed out.
+     */
+    public HealthCheck readiness() {
+        return new HealthCheck() {
+            @Override
+            protected Result check() {
+                if (ready || System.nanoTime() - deadline >= 0) {
+                    return Result.healthy();
+                }
+                return Result.unhealthy("Warming up: " + stage);
+            }
+        };
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void start() {
+        thread = new Thread(this, WarmUp.class.getSimpleName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long started = System.nanoTime();
+        try {
+            stage = "formatters";
+            int formatters = warmUpFormatters();
+            stage = "startup tasks";
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            stage = "reference data";
+            if (!ReferenceData.awaitFirstLoad(remainingNanos(), TimeUnit.NANOSECONDS)) {
+                logger.atWarning().log("Reference data was not loaded during the warm-up.");
+            }
+            stage = "requests";
+            int replayed = replayRequests();
+            logger.atInfo().log("Warm-up done in %d ms: %d formatters, %d requests.",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), formatters,
+                    replayed);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            logger.atWarning().withCause(ex).log("Warm-up failed during %s.", stage);
+        } finally {
+            ready = true;
+        }
+    }
+
+    private long remainingNanos() {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    @SuppressWarnings("unchecked")
+    int warmUpFormatters() {
+        int count = 0;
+        for (String className : classNames(DTO_CLASSES)) {
+            try {
+                Class<?> klass = Class.forName(className, true,
+                        WarmUp.class.getClassLoader());
+                if (CwmsDTOBase.class.isAssignableFrom(klass)) {
+                    count += Formats.warmUp((Class<? extends CwmsDTOBase>) klass);
+                }
+            } catch (ClassNotFoundException | LinkageError | RuntimeException ex) {
+                logger.atFine().withCause(ex).log("Unable to warm up %s", className);
+            }
+        }
+        return count;
+    }
+
+    private List<String> classNames(String directory) {
+        List<String> retVal = new ArrayList<>();
+        Set<String> paths = context.getResourcePaths(directory);
+        if (paths == null) {
+            return retVal;
+        }
+        for (String path : paths) {
+            if (path.endsWith("/")) {
+                retVal.addAll(classNames(path));
+            } else if (path.endsWith(".class") && !path.contains("$")) {
+                retVal.add(path.substring("/WEB-INF/classes/".length(),
+                        path.length() - ".class".length()).replace('/', '.'));
+            }
+        }
+        return retVal;
+    }
+
+    private int replayRequests() throws InterruptedException {
+        String requests = System.getProperty(REQUESTS_KEY, "").trim();
+        String baseUrl = System.getProperty(BASE_URL_KEY);
+        if (requests.isEmpty()) {
+            return 0;
+        }
+        if (baseUrl == null) {
+            logger.atWarning().log("%s is set but %s is not, no requests are replayed.",
+                    REQUESTS_KEY, BASE_URL_KEY);
+            return 0;
+        }
+        int iterations = Integer.getInteger(ITERATIONS_KEY, 3);
+        int count = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String request : requests.split(",")) {
+                if (request.trim().isEmpty() || remainingNanos() == 0) {
+                    continue;
+                }
+                if (replay(baseUrl + request.trim())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sends a GET and reads the response. The connector starts after the servlets, so
+     * refused connections are retried until the warm-up times out.
+     */
+    private boolean replay(String url) throws InterruptedException {
+        while (remainingNanos() > 0) {
+            HttpURLConnection connection = null;
+            try {
+                connection = (HttpURLConnection) new URL(url).openConnection();
+                connection.setConnectTimeout(REQUEST_TIMEOUT_MS);
+                connection.setReadTimeout(REQUEST_TIMEOUT_MS);
+                int status = connection.getResponseCode();
+                try (InputStream body = status < 400 ? connection.getInputStream()
+                        : connection.getErrorStream()) {
+                    drain(body);
+                }
+                logger.atFine().log("Warm-up request %s: %d", url, status);
+                return status < 400;
+            } catch (ConnectException ex) {
+                TimeUnit.SECONDS.sleep(1);
+            } catch (IOException ex) {
+                logger.atWarning().withCause(ex).log("Warm-up request %s failed.", url);
+                return false;
+            } finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        if (body == null) {
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        while (body.read(buffer) >= 0) {
+            // only the work on the server side matters
+        }
+    }
+}
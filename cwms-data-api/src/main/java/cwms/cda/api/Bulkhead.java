@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.api.errors.TooBusyException;
+import io.javalin.http.Handler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Limits how many requests of a route group run at the same time so a few expensive
+ * requests cannot hold every database connection. Requests over the limit wait in a
+ * short queue; when the queue is full or the wait runs out they are turned away with
+ * a {@link TooBusyException}, answered as 503 with Retry-After.
+ *
+ * <p>Limits are read from system properties, e.g. for the catalog group:
+ * <ul>
+ *     <li>cda.api.bulkhead.catalog.limit  concurrent requests, 0 disables the bulkhead</li>
+ *     <li>cda.api.bulkhead.catalog.queue  requests allowed to wait for a permit</li>
+ *     <li>cda.api.bulkhead.catalog.wait.ms  how long a request may wait</li>
+ *     <li>cda.api.bulkhead.catalog.retry.after.seconds  value of the Retry-After header</li>
+ * </ul>
+ */
+public final class Bulkhead {
+    private static final String PROP_BASE = "cda.api.bulkhead.";
+
+    private final String group;
+    private final int limit;
+    private final int maxQueued;
+    private final long waitMillis;
+    private final long retryAfterSeconds;
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Meter rejected;
+
+    Bulkhead(String group, int limit, int maxQueued, long waitMillis, long retryAfterSeconds,
+             MetricRegistry metrics) {
+        this.group = group;
+        this.limit = limit;
+        this.maxQueued = maxQueued;
+        this.waitMillis = waitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(Math.max(limit, 1), true);
+        metrics.gauge(name(Bulkhead.class, group, "in-flight"),
+                () -> (Gauge<Integer>) inFlight::get);
+        metrics.gauge(name(Bulkhead.class, group, "queued"),
+                () -> (Gauge<Integer>) queued::get);
+        rejected = metrics.meter(name(Bulkhead.class, group, "rejected"));
+    }
+
+    /**
+     * Create the bulkhead for a route group using the configured or default limits.
+     * @param group name of the group, used for the properties and metrics.
+     * @param defaultLimit concurrent requests allowed when not configured.
+     * @param metrics registry for the in-flight, queued and rejected metrics.
+     * @return the bulkhead
+     */
+    public static Bulkhead forGroup(String group, int defaultLimit, MetricRegistry metrics) {
+        String base = PROP_BASE + group;
+        return new Bulkhead(group,
+                Integer.getInteger(base + ".limit", defaultLimit),
+                Integer.getInteger(base + ".queue", defaultLimit),
+                Long.getLong(base + ".wait.ms", 2000L),
+                Long.getLong(base + ".retry.after.seconds", 5L),
+                metrics);
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Wraps a handler so it only runs while holding one of the group's permits.
+     * @param handler the handler to limit.
+     * @return the limited handler, or the handler itself when the bulkhead is disabled.
+     */
+    public Handler wrap(@NotNull Handler handler) {
+        if (limit <= 0) {
+            return handler;
+        }
+        return ctx -> {
+            acquire();
+            inFlight.incrementAndGet();
+            try {
+                handler.handle(ctx);
+            } finally {
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        };
+    }
+
+    private void acquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw reject();
+        }
+        try {
+            if (!permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                throw reject();
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private TooBusyException reject() {
+        rejected.mark();
+        return new TooBusyException("Too many " + group + " requests are running, try again later.",
+                retryAfterSeconds);
+    }
+}
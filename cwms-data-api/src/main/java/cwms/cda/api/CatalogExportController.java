@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BOUNDING_OFFICE_LIKE;
+import static cwms.cda.api.Controllers.EXCLUDE_EMPTY;
+import static cwms.cda.api.Controllers.GET_ALL;
+import static cwms.cda.api.Controllers.INCLUDE_EXTENTS;
+import static cwms.cda.api.Controllers.LIKE;
+import static cwms.cda.api.Controllers.LOCATIONS;
+import static cwms.cda.api.Controllers.LOCATION_CATEGORY_LIKE;
+import static cwms.cda.api.Controllers.LOCATION_GROUP_LIKE;
+import static cwms.cda.api.Controllers.LOCATION_KIND_LIKE;
+import static cwms.cda.api.Controllers.LOCATION_TYPE_LIKE;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.TIMESERIES;
+import static cwms.cda.api.Controllers.TIMESERIES_CATEGORY_LIKE;
+import static cwms.cda.api.Controllers.TIMESERIES_GROUP_LIKE;
+import static cwms.cda.api.Controllers.UNIT_SYSTEM;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.api.errors.CdaError;
+import cwms.cda.data.dao.CatalogRequestParameters;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.LocationsDaoImpl;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.Office;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.json.NdJsonWriter;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HttpCode;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Writes the whole catalog of a data set as newline delimited JSON, one catalog entry per
+ * line, read in a single pass instead of page by page.
+ */
+public class CatalogExportController implements Handler {
+    private static final Logger logger = Logger.getLogger(CatalogExportController.class.getName());
+    public static final String DATASET = "dataset";
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public CatalogExportController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(CatalogExportController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @OpenApi(
+            pathParams = {
+                @OpenApiParam(name = DATASET, type = CatalogableEndpoint.class,
+                        description = "The data set to export, Timeseries or Locations.")
+            },
+            queryParams = {
+                @OpenApiParam(name = OFFICE, description = "3-4 letter office name representing "
+                        + "the district you want to export. If this field is not specified, "
+                        + "the entries of all offices are returned."),
+                @OpenApiParam(name = LIKE, description = "Posix <a href=\"regexp.html\">regular "
+                        + "expression</a> matching the entry names."),
+                @OpenApiParam(name = UNIT_SYSTEM, type = UnitSystem.class,
+                        description = UnitSystem.DESCRIPTION + " Locations only."),
+                @OpenApiParam(name = TIMESERIES_CATEGORY_LIKE, description = "Posix regular "
+                        + "expression matching the timeseries category id. Timeseries only."),
+                @OpenApiParam(name = TIMESERIES_GROUP_LIKE, description = "Posix regular "
+                        + "expression matching the timeseries group id. Timeseries only."),
+                @OpenApiParam(name = LOCATION_CATEGORY_LIKE, description = "Posix regular "
+                        + "expression matching the location category id."),
+                @OpenApiParam(name = LOCATION_GROUP_LIKE, description = "Posix regular "
+                        + "expression matching the location group id."),
+                @OpenApiParam(name = BOUNDING_OFFICE_LIKE, description = "Posix regular "
+                        + "expression matching the location bounding office."),
+                @OpenApiParam(name = LOCATION_KIND_LIKE, description = "Posix regular "
+                        + "expression matching the location kind."),
+                @OpenApiParam(name = LOCATION_TYPE_LIKE, description = "Posix regular "
+                        + "expression matching the location type."),
+                @OpenApiParam(name = INCLUDE_EXTENTS, type = Boolean.class, description =
+                        "Whether the entries include the timeseries extents. Default "
+                        + CatalogController.INCLUDE_EXTENTS_DEFAULT + ". Timeseries only."),
+                @OpenApiParam(name = EXCLUDE_EMPTY, type = Boolean.class, description =
+                        "Whether timeseries without values are left out. Default "
+                        + CatalogController.EXCLUDE_EMPTY_DEFAULT + ". Timeseries only."),
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "One catalog entry per "
+                        + "line, in the same form as the entries of the catalog end point. The "
+                        + "last line is {\"" + NdJsonWriter.TRAILER_COUNT + "\":n} with the "
+                        + "number of entries; if the export fails part way the connection is "
+                        + "closed before it, so a response without it is incomplete.",
+                        content = {@OpenApiContent(type = Formats.NDJSON)}),
+                @OpenApiResponse(status = STATUS_404, description = "There is no catalog of "
+                        + "the data set.")
+            },
+            path = "/catalog/{dataset}/export",
+            description = "Streams the complete catalog of a data set in one response, for "
+                    + "harvesters that would otherwise request every page of the catalog.",
+            tags = {"Catalog"},
+            method = HttpMethod.GET
+    )
+    @Override
+    public void handle(@NotNull Context ctx) throws Exception {
+        try (final Timer.Context ignored = markAndTime(GET_ALL)) {
+            DSLContext dsl = JooqDao.getDslContext(ctx);
+            String dataSet = ctx.pathParam(DATASET);
+            String office = ctx.queryParamAsClass(OFFICE, String.class).allowNullable()
+                    .check(Office::validOfficeCanNull, "Invalid office provided")
+                    .get();
+
+            CatalogRequestParameters.Builder builder = new CatalogRequestParameters.Builder()
+                    .withOffice(office)
+                    .withIdLike(ctx.queryParamAsClass(LIKE, String.class).getOrDefault(".*"))
+                    .withLocCatLike(ctx.queryParam(LOCATION_CATEGORY_LIKE))
+                    .withLocGroupLike(ctx.queryParam(LOCATION_GROUP_LIKE))
+                    .withBoundingOfficeLike(ctx.queryParam(BOUNDING_OFFICE_LIKE))
+                    .withLocationKind(ctx.queryParam(LOCATION_KIND_LIKE))
+                    .withLocationType(ctx.queryParam(LOCATION_TYPE_LIKE));
+
+            Consumer<NdJsonWriter> export;
+            if (TIMESERIES.equalsIgnoreCase(dataSet)) {
+                CatalogRequestParameters parameters = builder
+                        .withTsCatLike(ctx.queryParam(TIMESERIES_CATEGORY_LIKE))
+                        .withTsGroupLike(ctx.queryParam(TIMESERIES_GROUP_LIKE))
+                        .withIncludeExtents(ctx.queryParamAsClass(INCLUDE_EXTENTS, Boolean.class)
+                                .getOrDefault(CatalogController.INCLUDE_EXTENTS_DEFAULT))
+                        .withExcludeEmpty(ctx.queryParamAsClass(EXCLUDE_EMPTY, Boolean.class)
+                                .getOrDefault(CatalogController.EXCLUDE_EMPTY_DEFAULT))
+                        .build();
+                export = writer -> new TimeSeriesDaoImpl(dsl, metrics)
+                        .streamTimeSeriesCatalog(parameters, writer::write);
+            } else if (LOCATIONS.equalsIgnoreCase(dataSet)) {
+                CatalogRequestParameters parameters = builder
+                        .withUnitSystem(ctx.queryParamAsClass(UNIT_SYSTEM, String.class)
+                                .getOrDefault(UnitSystem.SI.getValue()))
+                        .build();
+                export = writer -> new LocationsDaoImpl(dsl)
+                        .streamLocationCatalog(parameters, writer::write);
+            } else {
+                final CdaError re = new CdaError("Cannot create catalog of requested "
+                        + "information");
+                logger.info(() -> re + " with url:" + ctx.fullUrl());
+                ctx.json(re).status(HttpCode.NOT_FOUND);
+                return;
+            }
+
+            ctx.contentType(Formats.NDJSON);
+            ctx.status(HttpServletResponse.SC_OK);
+            try (NdJsonWriter writer = new NdJsonWriter(JsonV2.buildObjectMapper(),
+                    ctx.res.getOutputStream())) {
+                export.accept(writer);
+                writer.finish();
+                requestResultSize.update(writer.getCount());
+            } catch (IOException | RuntimeException ex) {
+                throw Controllers.streamFailed(ctx, ex);
+            }
+        }
+    }
+}
@@ -29,9 +29,11 @@ import static com.codahale.metrics.MetricRegistry.name;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.Aggregate;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.api.errors.RequiredQueryParameterException;
+import cwms.cda.api.errors.StreamAbortedException;
 import cwms.cda.data.dao.JooqDao;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
@@ -39,6 +41,8 @@ import cwms.cda.helpers.DateUtils;
 import io.javalin.core.validation.JavalinValidation;
 import io.javalin.core.validation.Validator;
 import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import org.jetbrains.annotations.Nullable;
@@ -160,6 +164,7 @@ public final class Controllers {
     public static final String STATUS_404 = "404";
     public static final String STATUS_501 = "501";
     public static final String STATUS_400 = "400";
+    public static final String STATUS_503 = "503";
     public static final String TEXT_MASK = "text-mask";
     public static final String DELETE_MODE = "delete-mode";
     public static final String MIN_ATTRIBUTE = "min-attribute";
@@ -170,10 +175,19 @@ public final class Controllers {
     public static final String DESIGNATOR = "designator";
     public static final String DESIGNATOR_MASK = "designator-mask";
     public static final String INCLUDE_EXTENTS = "include-extents";
+    public static final String INCLUDE_FILE_DATA = "include-file-data";
     public static final String EXCLUDE_EMPTY = "exclude-empty";
     public static final String DEFAULT_VALUE = "default-value";
     public static final String CATEGORY = "category";
     public static final String PREFIX = "prefix";
+    public static final String AGGREGATE = "aggregate";
+    public static final String MAX_POINTS = "max-points";
+    public static final String BBOX = "bbox";
+    public static final String PROPERTIES = "properties";
+    public static final String LATITUDE = "latitude";
+    public static final String LONGITUDE = "longitude";
+    public static final String RADIUS = "radius";
+    public static final String CHANGED_SINCE = "changed-since";
 
     private static final String DEPRECATED_HEADER = "CWMS-DATA-Format-Deprecated";
     private static final String DEPRECATED_TAB = "2024-11-01 TAB is not used often.";
@@ -184,6 +198,7 @@ public final class Controllers {
         JavalinValidation.register(JooqDao.DeleteMethod.class, Controllers::getDeleteMethod);
         JavalinValidation.register(VersionType.class, VersionType::versionTypeFor);
         JavalinValidation.register(UnitSystem.class, UnitSystem::systemFor);
+        JavalinValidation.register(Aggregate.class, Aggregate::aggregateFor);
     }
 
     private Controllers() {
@@ -373,4 +388,26 @@ public final class Controllers {
             ctx.res.addHeader(DEPRECATED_HEADER, DEPRECATED_CSV);
         }
     }
+
+    /**
+     * Picks what to throw when writing a streamed response body failed. If nothing was
+     * sent yet the partial body is dropped and the failure is reported as usual,
+     * otherwise the connection is aborted.
+     * @param ctx Request Context
+     * @param ex the failure
+     * @return the exception to throw
+     */
+    public static RuntimeException streamFailed(Context ctx, Exception ex) {
+        if (ctx.res.isCommitted()) {
+            return new StreamAbortedException("Failed after part of the response was sent.", ex);
+        }
+        ctx.res.resetBuffer();
+        if (ex instanceof RuntimeException) {
+            return (RuntimeException) ex;
+        }
+        if (ex instanceof IOException) {
+            return new UncheckedIOException((IOException) ex);
+        }
+        return new IllegalStateException(ex);
+    }
 }
@@ -40,6 +40,10 @@ public final class ForecastInstanceController implements CrudHandler {
 
     private final Histogram requestResultSize;
     private static final int KILO_BYTE_LIMIT = Integer.parseInt(System.getProperty("cda.api.forecast.file.max.length.kB", "64"));
+    private static final long LISTING_KILO_BYTE_LIMIT = Long.parseLong(System.getProperty("cda.api.forecast.listing.max.length.kB", "1024"));
+    // the dao limits are in bytes
+    private static final int BYTE_LIMIT = KILO_BYTE_LIMIT * 1024;
+    private static final long LISTING_BYTE_LIMIT = LISTING_KILO_BYTE_LIMIT * 1024;
 
     public ForecastInstanceController(MetricRegistry metrics) {
         this.metrics = metrics;
@@ -133,6 +137,11 @@ public final class ForecastInstanceController implements CrudHandler {
                 @OpenApiParam(name = DESIGNATOR, description = "Specifies the "
                         + "designator of the forecast spec whose forecast instance data to be included "
                         + "in the response. "),
+                @OpenApiParam(name = INCLUDE_FILE_DATA, type = Boolean.class, description = "If true, "
+                        + "small forecast files are included inline in the response until the "
+                        + "per-response byte budget is used up; remaining instances reference their "
+                        + "file through file-data-url. Default is false, in which case only the file "
+                        + "size, media type and file-data-url are returned."),
             },
             responses = {
                 @OpenApiResponse(status = STATUS_200,
@@ -152,6 +161,8 @@ public final class ForecastInstanceController implements CrudHandler {
             String office = ctx.queryParam(OFFICE);
             String desionatorMask = ctx.queryParam(DESIGNATOR_MASK);
             String name = ctx.queryParam(NAME);
+            boolean includeFileData = ctx.queryParamAsClass(INCLUDE_FILE_DATA, Boolean.class)
+                    .getOrDefault(false);
 
             ForecastInstanceDao dao = new ForecastInstanceDao(getDslContext(ctx));
             String path = ctx.path();
@@ -167,7 +178,8 @@ public final class ForecastInstanceController implements CrudHandler {
             ReplaceUtils.OperatorBuilder urlBuilder = new ReplaceUtils.OperatorBuilder()
                     .withTemplate(url)
                     .withOperatorKey("{spec-id}");
-            List<ForecastInstance> instances = dao.getForecastInstances(KILO_BYTE_LIMIT, urlBuilder,
+            List<ForecastInstance> instances = dao.getForecastInstances(includeFileData,
+                    BYTE_LIMIT, LISTING_BYTE_LIMIT, urlBuilder,
                     office, name, desionatorMask);
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
@@ -237,7 +249,7 @@ public final class ForecastInstanceController implements CrudHandler {
                     .toString();
             ReplaceUtils.OperatorBuilder urlBuilder = new ReplaceUtils.OperatorBuilder()
                     .withTemplate(url);
-            ForecastInstance instance = dao.getForecastInstance(KILO_BYTE_LIMIT, urlBuilder, office, name,
+            ForecastInstance instance = dao.getForecastInstance(BYTE_LIMIT, urlBuilder, office, name,
                     designator, forecastInstant, issueInstant);
             String formatHeader = ctx.header(Header.ACCEPT);
             ContentType contentType = Formats.parseHeaderAndQueryParm(formatHeader, null);
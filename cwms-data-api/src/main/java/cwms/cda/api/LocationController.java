@@ -25,6 +25,7 @@
 package cwms.cda.api;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BBOX;
 import static cwms.cda.api.Controllers.CASCADE_DELETE;
 import static cwms.cda.api.Controllers.CREATE;
 import static cwms.cda.api.Controllers.DATUM;
@@ -33,6 +34,7 @@ import static cwms.cda.api.Controllers.FORMAT;
 import static cwms.cda.api.Controllers.GET_ALL;
 import static cwms.cda.api.Controllers.GET_ONE;
 import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.PROPERTIES;
 import static cwms.cda.api.Controllers.RESULTS;
 import static cwms.cda.api.Controllers.SIZE;
 import static cwms.cda.api.Controllers.STATUS_200;
@@ -58,6 +60,7 @@ import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.api.errors.DeleteConflictException;
 import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.api.errors.StreamAbortedException;
 import cwms.cda.data.dao.LocationsDao;
 import cwms.cda.data.dao.LocationsDaoImpl;
 import cwms.cda.data.dto.Location;
@@ -65,6 +68,8 @@ import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.FormattingException;
 import cwms.cda.formatters.UnsupportedFormatException;
+import cwms.cda.formatters.json.GeoJsonFeatureWriter;
+import cwms.cda.helpers.BoundingBox;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
@@ -80,10 +85,10 @@ import java.time.ZoneId;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletResponse;
-import org.geojson.FeatureCollection;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
@@ -144,7 +149,14 @@ public class LocationController implements CrudHandler {
                         + "\n* `xml`"
                         + "\n* `wml2` (only if name field is specified)"
                         + "\n* `json` (default)\n"
-                        + "\n* `geojson`")
+                        + "\n* `geojson`"),
+                @OpenApiParam(name = BBOX, description = "Only used for GeoJSON. Limits the "
+                        + "features to locations inside the box given as "
+                        + "`west,south,east,north` in decimal degrees."),
+                @OpenApiParam(name = PROPERTIES, description = "Only used for GeoJSON. Comma "
+                        + "separated list of the location columns, e.g. `location_id,"
+                        + "location_kind`, to include in the feature properties. All "
+                        + "columns are included if not specified.")
             },
             responses = {
                 @OpenApiResponse(status = STATUS_200,
@@ -165,6 +177,8 @@ public class LocationController implements CrudHandler {
     )
     @Override
     public void getAll(@NotNull Context ctx) {
+        BoundingBox bbox = BoundingBox.parse(ctx.queryParam(BBOX));
+        Set<String> properties = GeoJsonFeatureWriter.parseProjection(ctx.queryParam(PROPERTIES));
 
         try (final Timer.Context ignored = markAndTime(GET_ALL)) {
             DSLContext dsl = getDslContext(ctx);
@@ -186,12 +200,17 @@ public class LocationController implements CrudHandler {
             boolean isLegacyFormat = version.equalsIgnoreCase("1");
 
             if (contentType.getType().equals(Formats.GEOJSON)) {
-                FeatureCollection collection = locationsDao.buildFeatureCollection(names, units,
-                        office);
-                ctx.json(collection);
-
-                requestResultSize.update(ctx.res.getBufferSize());
                 ctx.contentType(contentType.toString());
+                ctx.status(HttpServletResponse.SC_OK);
+                ObjectMapper mapper = ctx.appAttribute("ObjectMapper");
+                try (GeoJsonFeatureWriter writer = new GeoJsonFeatureWriter(mapper,
+                        ctx.res.getOutputStream(), properties)) {
+                    locationsDao.streamFeatures(names, units, office, bbox, writer::write);
+                    writer.finish();
+                    requestResultSize.update(writer.getCount());
+                } catch (IOException | RuntimeException ex) {
+                    throw Controllers.streamFailed(ctx, ex);
+                }
             }
             else if (formatParm.isEmpty() && !isLegacyFormat)
             {
@@ -221,6 +240,8 @@ public class LocationController implements CrudHandler {
 
             ctx.status(HttpServletResponse.SC_OK);
 
+        } catch (StreamAbortedException ex) {
+            throw ex;
         } catch (Exception ex) {
             CdaError re = new CdaError("failed to process request");
             logger.log(Level.SEVERE, re.toString(), ex);
@@ -31,7 +31,6 @@ import static cwms.cda.data.dao.JooqDao.getDslContext;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.data.dao.LocationGroupDao;
@@ -39,6 +38,8 @@ import cwms.cda.data.dto.LocationGroup;
 import cwms.cda.formatters.ContentType;
 import cwms.cda.formatters.Formats;
 import cwms.cda.formatters.csv.CsvV1LocationGroup;
+import cwms.cda.formatters.json.GeoJsonFeatureWriter;
+import cwms.cda.helpers.BoundingBox;
 import io.javalin.apibuilder.CrudHandler;
 import io.javalin.core.util.Header;
 import io.javalin.http.Context;
@@ -48,12 +49,12 @@ import io.javalin.plugin.openapi.annotations.OpenApiContent;
 import io.javalin.plugin.openapi.annotations.OpenApiParam;
 import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
 import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
-import java.util.logging.Level;
+import java.util.Set;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletResponse;
-import org.geojson.FeatureCollection;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 
@@ -144,6 +145,13 @@ public class LocationGroupController implements CrudHandler {
             @OpenApiParam(name = CATEGORY_ID, required = true, description = "Specifies"
                     + " the category containing the location group whose data is to be "
                     + "included in the response."),
+            @OpenApiParam(name = BBOX, description = "Only used for GeoJSON. Limits the "
+                    + "features to locations inside the box given as "
+                    + "`west,south,east,north` in decimal degrees."),
+            @OpenApiParam(name = PROPERTIES, description = "Only used for GeoJSON. Comma "
+                    + "separated list of the location and assignment columns, e.g. "
+                    + "`location_id,attribute`, to include in the feature properties. All "
+                    + "columns are included if not specified."),
         },
         responses = {
             @OpenApiResponse(status = STATUS_200, content = {
@@ -167,10 +175,22 @@ public class LocationGroupController implements CrudHandler {
 
             String result;
             if (Formats.GEOJSON.equals(contentType.getType())) {
-                FeatureCollection fc = cdm.buildFeatureCollectionForLocationGroup(office,
-                        categoryId, groupId, "EN");
+                BoundingBox bbox = BoundingBox.parse(ctx.queryParam(BBOX));
+                Set<String> properties =
+                        GeoJsonFeatureWriter.parseProjection(ctx.queryParam(PROPERTIES));
+                ctx.contentType(contentType.toString());
+                ctx.status(HttpServletResponse.SC_OK);
                 ObjectMapper mapper = ctx.appAttribute("ObjectMapper");
-                result = mapper.writeValueAsString(fc);
+                try (GeoJsonFeatureWriter writer = new GeoJsonFeatureWriter(mapper,
+                        ctx.res.getOutputStream(), properties)) {
+                    cdm.streamFeaturesForLocationGroup(office, categoryId, groupId, "EN", bbox,
+                            writer::write);
+                    writer.finish();
+                    requestResultSize.update(writer.getCount());
+                } catch (IOException | RuntimeException ex) {
+                    throw Controllers.streamFailed(ctx, ex);
+                }
+                return;
             } else {
                 Optional<LocationGroup> grp = cdm.getLocationGroup(office, categoryId, groupId);
                 if (grp.isPresent()) {
@@ -189,10 +209,6 @@ public class LocationGroupController implements CrudHandler {
             requestResultSize.update(result.length());
 
             ctx.status(HttpServletResponse.SC_OK);
-        } catch (JsonProcessingException e) {
-            CdaError re = new CdaError("Failed to process request");
-            logger.log(Level.SEVERE, re.toString(), e);
-            ctx.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).json(re);
         }
 
     }
@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BBOX;
+import static cwms.cda.api.Controllers.COUNT;
+import static cwms.cda.api.Controllers.GET_ALL;
+import static cwms.cda.api.Controllers.LATITUDE;
+import static cwms.cda.api.Controllers.LONGITUDE;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.RADIUS;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.errors.TooBusyException;
+import cwms.cda.data.dao.LocationIndex;
+import cwms.cda.data.dto.LocationPoint;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.helpers.BoundingBox;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds locations by coordinates using the {@link LocationIndex}: inside a bounding box,
+ * within a radius of a point or the ones nearest to a point.
+ */
+public class LocationSpatialController implements Handler {
+    public static final String TAG = "Locations";
+    private static final int DEFAULT_NEAREST = 10;
+    private static final int MAX_RESULTS = 10_000;
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public LocationSpatialController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram(
+                name(LocationSpatialController.class, RESULTS, SIZE));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @OpenApi(
+            description = "Finds locations by their coordinates. Give either `" + BBOX + "` for "
+                    + "the locations inside a box, or `" + LATITUDE + "` and `" + LONGITUDE
+                    + "` for the locations nearest to a point. Add `" + RADIUS + "` to get "
+                    + "all locations within that distance of the point instead. Locations "
+                    + "changed through other servers may take up to an hour to be found at "
+                    + "their new coordinates.",
+            queryParams = {
+                @OpenApiParam(name = OFFICE, description = "Only locations of this office. "
+                        + "All offices if not specified."),
+                @OpenApiParam(name = BBOX, description = "The box to search given as "
+                        + "`west,south,east,north` in decimal degrees. Results are ordered "
+                        + "by office and location id."),
+                @OpenApiParam(name = LATITUDE, type = Double.class, description = "Latitude "
+                        + "of the point to search around in decimal degrees."),
+                @OpenApiParam(name = LONGITUDE, type = Double.class, description = "Longitude "
+                        + "of the point to search around in decimal degrees."),
+                @OpenApiParam(name = RADIUS, type = Double.class, description = "Great circle "
+                        + "distance from the point in kilometers. Results are ordered by "
+                        + "distance."),
+                @OpenApiParam(name = COUNT, type = Integer.class, description = "The most "
+                        + "locations to return. Default " + DEFAULT_NEAREST + " for the "
+                        + "nearest locations, " + MAX_RESULTS + " otherwise.")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(isArray = true, from = LocationPoint.class,
+                            type = Formats.JSONV2)}),
+                @OpenApiResponse(status = STATUS_400, description = "Neither a box nor a "
+                        + "point, or both, were given.")
+            },
+            method = HttpMethod.GET,
+            path = "/locations/spatial",
+            tags = TAG
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        String office = ctx.queryParam(OFFICE);
+        BoundingBox bbox = BoundingBox.parse(ctx.queryParam(BBOX));
+        Double latitude = ctx.queryParamAsClass(LATITUDE, Double.class)
+                .check(l -> Math.abs(l) <= 90, "latitude must be between -90 and 90")
+                .getOrDefault(null);
+        Double longitude = ctx.queryParamAsClass(LONGITUDE, Double.class)
+                .check(l -> Math.abs(l) <= 180, "longitude must be between -180 and 180")
+                .getOrDefault(null);
+        Double radius = ctx.queryParamAsClass(RADIUS, Double.class)
+                .check(r -> r >= 0, "radius must not be negative")
+                .getOrDefault(null);
+        boolean point = latitude != null && longitude != null;
+        if ((bbox == null) == !point || (latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("Either " + BBOX + " or both " + LATITUDE
+                    + " and " + LONGITUDE + " must be given.");
+        }
+        int defaultCount = point && radius == null ? DEFAULT_NEAREST : MAX_RESULTS;
+        int count = ctx.queryParamAsClass(COUNT, Integer.class)
+                .check(c -> c > 0 && c <= MAX_RESULTS,
+                        "count must be between 1 and " + MAX_RESULTS)
+                .getOrDefault(defaultCount);
+
+        LocationIndex index = LocationIndex.current();
+        if (index == null) {
+            throw new TooBusyException("The location index is not loaded yet.",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        try (final Timer.Context ignored = markAndTime(GET_ALL)) {
+            List<LocationPoint> points;
+            if (bbox != null) {
+                points = index.within(bbox, office, count);
+            } else if (radius != null) {
+                points = index.withinRadius(latitude, longitude, radius, office, count);
+            } else {
+                points = index.nearest(latitude, longitude, count, office);
+            }
+            ContentType contentType = Formats.parseHeader(Formats.JSONV2, LocationPoint.class);
+            String result = Formats.format(contentType, points, LocationPoint.class);
+            ctx.result(result).contentType(contentType.toString());
+            requestResultSize.update(result.length());
+            ctx.status(HttpServletResponse.SC_OK);
+        }
+    }
+}
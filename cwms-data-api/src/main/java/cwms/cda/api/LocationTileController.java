@@ -0,0 +1,263 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.GET_ONE;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.PROPERTIES;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.errors.TooBusyException;
+import cwms.cda.data.dao.LocationIndex;
+import cwms.cda.data.dto.LocationPoint;
+import cwms.cda.formatters.mvt.VectorTileEncoder;
+import cwms.cda.helpers.BoundingBox;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Serves the locations of the {@link LocationIndex} as Mapbox Vector Tiles.
+ *
+ * <p>Each tile has one layer, "locations", with a point feature per location and the
+ * location id as the "name" attribute. Built tiles are kept per office, zoom level, tile
+ * and attributes in a least recently used cache of cda.api.location.tiles.cache.size
+ * tiles (default 5000). A cached tile is built again once its office changed in the index,
+ * i.e. after a location of the office was stored, renamed or deleted, or the index was read
+ * again. The tiles of all offices are built again after any change.
+ */
+public class LocationTileController implements Handler {
+    public static final String TAG = "Locations";
+    public static final String LAYER = "locations";
+    public static final String CACHE_SIZE_KEY = "cda.api.location.tiles.cache.size";
+    static final int MAX_ZOOM = 22;
+    static final double MAX_LATITUDE = 85.0511287798066;
+    private static final String ZOOM = "z";
+    private static final String COLUMN = "x";
+    private static final String ROW = "y";
+    private static final String NAME_ATTRIBUTE = "name";
+    private static final String OFFICE_ATTRIBUTE = "office";
+    private static final String KIND_ATTRIBUTE = "kind";
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+    private final Map<String, CachedTile> cache;
+
+    private static final class CachedTile {
+        final long generation;
+        final byte[] bytes;
+
+        CachedTile(long generation, byte[] bytes) {
+            this.generation = generation;
+            this.bytes = bytes;
+        }
+    }
+
+    public LocationTileController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram(
+                name(LocationTileController.class, RESULTS, SIZE));
+        int cacheSize = Integer.getInteger(CACHE_SIZE_KEY, 5000);
+        cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedTile>(16, 0.75f,
+                true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTile> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @OpenApi(
+            description = "Returns the locations inside a Web Mercator tile as a Mapbox "
+                    + "Vector Tile. The tile has a single layer named `" + LAYER + "` with "
+                    + "a point for each location and the location id as the `"
+                    + NAME_ATTRIBUTE + "` attribute. An empty tile has no content. Locations "
+                    + "changed through other servers may take up to an hour to show up.",
+            pathParams = {
+                @OpenApiParam(name = ZOOM, type = Integer.class, description = "Zoom level, "
+                        + "0 to " + MAX_ZOOM + "."),
+                @OpenApiParam(name = COLUMN, type = Integer.class, description = "Tile "
+                        + "column, 0 to 2^z - 1 from west to east."),
+                @OpenApiParam(name = ROW, type = Integer.class, description = "Tile row, "
+                        + "0 to 2^z - 1 from north to south.")
+            },
+            queryParams = {
+                @OpenApiParam(name = OFFICE, description = "Only locations of this office. "
+                        + "All offices if not specified."),
+                @OpenApiParam(name = PROPERTIES, description = "Comma separated attributes "
+                        + "to add to each point: `" + OFFICE_ATTRIBUTE + "` and `"
+                        + KIND_ATTRIBUTE + "`.")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(type = VectorTileEncoder.CONTENT_TYPE)}),
+                @OpenApiResponse(status = STATUS_400, description = "The tile does not exist "
+                        + "or an unknown attribute was asked for.")
+            },
+            method = HttpMethod.GET,
+            path = "/locations/tiles/{z}/{x}/{y}.mvt",
+            tags = TAG
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        int zoom = ctx.pathParamAsClass(ZOOM, Integer.class)
+                .check(z -> z >= 0 && z <= MAX_ZOOM, "z must be between 0 and " + MAX_ZOOM)
+                .get();
+        int tiles = 1 << zoom;
+        int column = ctx.pathParamAsClass(COLUMN, Integer.class)
+                .check(x -> x >= 0 && x < tiles, "x must be between 0 and " + (tiles - 1))
+                .get();
+        int row = ctx.pathParamAsClass(ROW, Integer.class)
+                .check(y -> y >= 0 && y < tiles, "y must be between 0 and " + (tiles - 1))
+                .get();
+        String office = ctx.queryParam(OFFICE);
+        Set<String> attributes = parseAttributes(ctx.queryParam(PROPERTIES));
+
+        LocationIndex index = LocationIndex.current();
+        if (index == null) {
+            throw new TooBusyException("The location index is not loaded yet.",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        try (final Timer.Context ignored = markAndTime(GET_ONE)) {
+            String key = (office == null ? "" : office.toUpperCase(Locale.ROOT)) + "|" + zoom
+                    + "|" + column + "|" + row + "|" + String.join(",", attributes);
+            long generation = LocationIndex.generation(office);
+            CachedTile tile = cache.get(key);
+            if (tile == null || tile.generation != generation) {
+                tile = new CachedTile(generation,
+                        buildTile(index, office, zoom, column, row, attributes));
+                cache.put(key, tile);
+            }
+            ctx.contentType(VectorTileEncoder.CONTENT_TYPE);
+            if (tile.bytes.length == 0) {
+                ctx.status(HttpServletResponse.SC_NO_CONTENT);
+            } else {
+                ctx.result(tile.bytes);
+                ctx.status(HttpServletResponse.SC_OK);
+            }
+            requestResultSize.update(tile.bytes.length);
+        }
+    }
+
+    static Set<String> parseAttributes(String attributes) {
+        Set<String> retVal = new LinkedHashSet<>();
+        if (attributes == null || attributes.trim().isEmpty()) {
+            return retVal;
+        }
+        for (String attribute : attributes.split(",")) {
+            String name = attribute.trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(OFFICE_ATTRIBUTE) && !name.equals(KIND_ATTRIBUTE)) {
+                throw new IllegalArgumentException("Unknown tile attribute: " + attribute
+                        + ", only " + OFFICE_ATTRIBUTE + " and " + KIND_ATTRIBUTE
+                        + " can be added.");
+            }
+            retVal.add(name);
+        }
+        return retVal;
+    }
+
+    static byte[] buildTile(LocationIndex index, String office, int zoom, int column, int row,
+                            Set<String> attributes) {
+        VectorTileEncoder encoder = new VectorTileEncoder(LAYER,
+                VectorTileEncoder.DEFAULT_EXTENT);
+        List<LocationPoint> points = index.within(tileBounds(zoom, column, row), office,
+                Integer.MAX_VALUE);
+        double tiles = 1 << zoom;
+        long id = 1;
+        for (LocationPoint point : points) {
+            double x = (longitudeToTile(point.getLongitude(), tiles) - column)
+                    * encoder.getExtent();
+            double y = (latitudeToTile(point.getLatitude(), tiles) - row) * encoder.getExtent();
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put(NAME_ATTRIBUTE, point.getName());
+            if (attributes.contains(OFFICE_ATTRIBUTE)) {
+                values.put(OFFICE_ATTRIBUTE, point.getOfficeId());
+            }
+            if (attributes.contains(KIND_ATTRIBUTE)) {
+                values.put(KIND_ATTRIBUTE, point.getKind());
+            }
+            encoder.addPoint(id++, clamp(x, encoder.getExtent()), clamp(y, encoder.getExtent()),
+                    values);
+        }
+        return encoder.encode();
+    }
+
+    /**
+     * @return the longitudes and latitudes covered by a tile. The top and bottom rows
+     *     reach to the poles so no location is left out.
+     */
+    static BoundingBox tileBounds(int zoom, int column, int row) {
+        double tiles = 1 << zoom;
+        double west = column / tiles * 360 - 180;
+        double east = (column + 1) / tiles * 360 - 180;
+        double north = row == 0 ? 90 : tileToLatitude(row, tiles);
+        double south = row + 1 == tiles ? -90 : tileToLatitude(row + 1, tiles);
+        return new BoundingBox(west, south, east, north);
+    }
+
+    static double longitudeToTile(double longitude, double tiles) {
+        return (longitude + 180) / 360 * tiles;
+    }
+
+    static double latitudeToTile(double latitude, double tiles) {
+        double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double radians = Math.toRadians(clamped);
+        return (1 - Math.log(Math.tan(radians) + 1 / Math.cos(radians)) / Math.PI) / 2 * tiles;
+    }
+
+    private static double tileToLatitude(double row, double tiles) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * row / tiles))));
+    }
+
+    private static int clamp(double value, int extent) {
+        return (int) Math.max(0, Math.min(extent, Math.round(value)));
+    }
+}
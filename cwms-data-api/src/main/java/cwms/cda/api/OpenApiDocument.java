@@ -0,0 +1,131 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import com.google.common.flogger.FluentLogger;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HttpCode;
+import io.javalin.plugin.openapi.OpenApiHandler;
+import io.javalin.plugin.openapi.jackson.ToJsonMapper;
+import io.swagger.v3.oas.models.OpenAPI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Serves the OpenAPI document at /swagger-docs.
+ *
+ * <p>The document is generated, post-processed and serialized once, normally by the
+ * startup warm-up, and then served from memory with an ETag so clients that already
+ * have it get a 304.
+ */
+public final class OpenApiDocument implements Handler {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final Supplier<OpenAPI> generator;
+    private final Consumer<OpenAPI> postProcessor;
+    private final ToJsonMapper mapper;
+    private volatile Rendered rendered;
+
+    private static final class Rendered {
+        final byte[] body;
+        final String etag;
+
+        Rendered(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Create the document.
+     * @param generator creates the document, e.g. {@link OpenApiHandler#createOpenAPISchema()}
+     * @param postProcessor applied once to the generated document
+     * @param mapper serializes the document
+     */
+    public OpenApiDocument(Supplier<OpenAPI> generator, Consumer<OpenAPI> postProcessor,
+                           ToJsonMapper mapper) {
+        this.generator = generator;
+        this.postProcessor = postProcessor;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Generates the document if that didn't happen yet.
+     */
+    public void prepare() {
+        render();
+    }
+
+    private Rendered render() {
+        Rendered retVal = rendered;
+        if (retVal == null) {
+            synchronized (this) {
+                retVal = rendered;
+                if (retVal == null) {
+                    long start = System.nanoTime();
+                    OpenAPI api = generator.get();
+                    postProcessor.accept(api);
+                    byte[] body = mapper.map(api).getBytes(StandardCharsets.UTF_8);
+                    retVal = new Rendered(body, etag(body));
+                    rendered = retVal;
+                    logger.atInfo().log("Generated the OpenAPI document in %d ms, %d bytes.",
+                            (System.nanoTime() - start) / 1_000_000, body.length);
+                }
+            }
+        }
+        return retVal;
+    }
+
+    static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder builder = new StringBuilder("\"");
+            for (int i = 0; i < 16; i++) {
+                builder.append(String.format("%02x", digest[i]));
+            }
+            return builder.append('"').toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    @Override
+    public void handle(@NotNull Context ctx) {
+        Rendered document = render();
+        ctx.header(Header.ETAG, document.etag);
+        if (document.etag.equals(ctx.header(Header.IF_NONE_MATCH))) {
+            ctx.status(HttpCode.NOT_MODIFIED);
+            return;
+        }
+        ctx.contentType("application/json");
+        ctx.result(document.body);
+    }
+}
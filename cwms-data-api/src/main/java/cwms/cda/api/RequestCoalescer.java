@@ -0,0 +1,229 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.ApiServlet;
+import cwms.cda.data.dao.AuthDao;
+import cwms.cda.security.DataApiPrincipal;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Coalesces identical GET requests that arrive while the first one is still running.
+ * Requests are identical when the path, query parameters, Accept header, office and
+ * user match. The first request runs the wrapped handler, the others wait for it and
+ * answer with the same status, headers and body bytes.
+ *
+ * <p>Handlers that answer asynchronously are not shared, waiting requests then run the
+ * handler themselves. So do waiting requests that time out.
+ */
+public final class RequestCoalescer {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final long WAIT_SECONDS = Long.parseLong(
+            System.getProperty("cda.api.coalesce.wait.seconds", "60"));
+
+    private final ConcurrentHashMap<String, CompletableFuture<SharedResponse>> inFlight =
+            new ConcurrentHashMap<>();
+    private final Meter executed;
+    private final Meter coalesced;
+
+    public RequestCoalescer(MetricRegistry metrics) {
+        executed = metrics.meter(name(RequestCoalescer.class, "executed"));
+        coalesced = metrics.meter(name(RequestCoalescer.class, "coalesced"));
+    }
+
+    /**
+     * Wraps a handler so identical concurrent GET requests share one execution.
+     * @param handler the handler to wrap
+     * @return the coalescing handler
+     */
+    public Handler wrap(@NotNull Handler handler) {
+        return ctx -> handle(handler, ctx);
+    }
+
+    private void handle(Handler handler, Context ctx) throws Exception {
+        if (!"GET".equals(ctx.req.getMethod())) {
+            handler.handle(ctx);
+            return;
+        }
+        String key = key(ctx);
+        CompletableFuture<SharedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running == null) {
+            lead(handler, ctx, key, mine);
+        } else {
+            follow(handler, ctx, running);
+        }
+    }
+
+    private void lead(Handler handler, Context ctx, String key,
+                      CompletableFuture<SharedResponse> mine) throws Exception {
+        executed.mark();
+        try {
+            handler.handle(ctx);
+            mine.complete(SharedResponse.capture(ctx));
+        } catch (Exception | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void follow(Handler handler, Context ctx, CompletableFuture<SharedResponse> running)
+            throws Exception {
+        SharedResponse shared;
+        try {
+            shared = running.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException ex) {
+            logger.atInfo().atMostEvery(1, TimeUnit.MINUTES)
+                  .log("Coalesced request waited %d seconds, running it again.", WAIT_SECONDS);
+            handler.handle(ctx);
+            return;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+        if (shared == null) {
+            handler.handle(ctx);
+            return;
+        }
+        coalesced.mark();
+        shared.apply(ctx);
+    }
+
+    static String key(Context ctx) {
+        StringBuilder key = new StringBuilder(ctx.path());
+        // sorted so parameter order does not matter
+        new TreeMap<>(ctx.queryParamMap()).forEach((k, v) -> key.append('&').append(k)
+                .append('=').append(String.join(",", v)));
+        key.append('|').append(ctx.header("Accept"));
+        key.append('|').append((Object) ctx.attribute(ApiServlet.OFFICE_ID));
+        DataApiPrincipal principal = ctx.attribute(AuthDao.DATA_API_PRINCIPAL);
+        key.append('|').append(principal == null ? null : principal.getName());
+        return key.toString();
+    }
+
+    private static final class SharedResponse {
+        private final int status;
+        private final String contentType;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        private SharedResponse(int status, String contentType, Map<String, List<String>> headers,
+                               byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /**
+         * Reads the response of the executed request, null when it cannot be shared.
+         */
+        static SharedResponse capture(Context ctx) throws IOException {
+            // results are always held in a future, only completed byte results are shared
+            CompletableFuture<?> future = ctx.resultFuture();
+            if (future != null && (!future.isDone() || future.isCompletedExceptionally()
+                    || !isSharable(future.getNow(null)))) {
+                return null;
+            }
+            byte[] body = null;
+            InputStream stream = ctx.resultStream();
+            if (stream != null) {
+                body = readAll(stream);
+                // the executing request still needs to send its body
+                ctx.result(body);
+            }
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (String header : ctx.res.getHeaderNames()) {
+                if (!"Set-Cookie".equalsIgnoreCase(header)
+                        && !"Content-Type".equalsIgnoreCase(header)
+                        && !"Content-Length".equalsIgnoreCase(header)) {
+                    Collection<String> values = ctx.res.getHeaders(header);
+                    headers.put(header, new ArrayList<>(values));
+                }
+            }
+            return new SharedResponse(ctx.status(), ctx.res.getContentType(), headers, body);
+        }
+
+        private static boolean isSharable(Object result) {
+            return result == null || result instanceof InputStream;
+        }
+
+        void apply(Context ctx) {
+            ctx.status(status);
+            // replaces what the waiting request already set, e.g. by the cors filter
+            headers.forEach((header, values) -> {
+                for (int i = 0; i < values.size(); i++) {
+                    if (i == 0) {
+                        ctx.res.setHeader(header, values.get(i));
+                    } else {
+                        ctx.res.addHeader(header, values.get(i));
+                    }
+                }
+            });
+            if (contentType != null) {
+                ctx.contentType(contentType);
+            }
+            if (body != null) {
+                ctx.result(body);
+            }
+        }
+
+        private static byte[] readAll(InputStream stream) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.GET_ALL;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.ApiServlet;
+import cwms.cda.data.dao.SlowQueries;
+import cwms.cda.data.dto.QueryStatistics;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reports the database statements that took the most time since the server started.
+ */
+public class SlowQueryController implements Handler {
+    public static final String TAG = "Status";
+    static final String LIMIT = "limit";
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public SlowQueryController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(SlowQueryController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @OpenApi(
+            description = "Statistics of the database statements that took the most total time. "
+                    + "Statements are grouped by fingerprint, the statement with its literals "
+                    + "and bind values removed. Statements slower than the configured threshold "
+                    + "are also logged with their bind values. Requires the "
+                    + ApiServlet.CWMS_ADMIN_ROLE + " role.",
+            queryParams = {
+                @OpenApiParam(name = LIMIT, type = Integer.class, description = "Number of "
+                        + "fingerprints to return. Default " + DEFAULT_LIMIT + ".")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(isArray = true, from = QueryStatistics.class,
+                            type = Formats.JSONV2)})
+            },
+            method = HttpMethod.GET,
+            path = "/status/slow-queries",
+            tags = TAG
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        int limit = ctx.queryParamAsClass(LIMIT, Integer.class)
+                .check(l -> l > 0, "limit must be greater than 0")
+                .getOrDefault(DEFAULT_LIMIT);
+
+        try (final Timer.Context ignored = markAndTime(GET_ALL)) {
+            List<QueryStatistics> statistics = SlowQueries.top(limit);
+            ContentType contentType = Formats.parseHeader(Formats.JSONV2, QueryStatistics.class);
+            String result = Formats.format(contentType, statistics, QueryStatistics.class);
+            ctx.result(result).contentType(contentType.toString());
+            requestResultSize.update(result.length());
+            ctx.status(HttpServletResponse.SC_OK);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.AGGREGATE;
+import static cwms.cda.api.Controllers.BEGIN;
+import static cwms.cda.api.Controllers.CATEGORY_ID;
+import static cwms.cda.api.Controllers.DATE_FORMAT;
+import static cwms.cda.api.Controllers.END;
+import static cwms.cda.api.Controllers.EXAMPLE_DATE;
+import static cwms.cda.api.Controllers.GET_ALL;
+import static cwms.cda.api.Controllers.GROUP_ID;
+import static cwms.cda.api.Controllers.MAX_POINTS;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.PAGE_SIZE;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.STATUS_501;
+import static cwms.cda.api.Controllers.TIMEZONE;
+import static cwms.cda.api.Controllers.TRIM;
+import static cwms.cda.api.Controllers.TS_IDS;
+import static cwms.cda.api.Controllers.UNIT;
+import static cwms.cda.api.Controllers.VERSION_DATE;
+import static cwms.cda.api.Controllers.queryParamAsClass;
+import static cwms.cda.api.Controllers.queryParamAsZdt;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.Aggregate;
+import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dao.TimeSeriesGroupDao;
+import cwms.cda.data.dto.AssignedTimeSeries;
+import cwms.cda.data.dto.CwmsId;
+import cwms.cda.data.dto.TimeSeriesCollection;
+import cwms.cda.data.dto.TimeSeriesGroup;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.helpers.DateUtils;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Retrieves the data of several time series over one time window in a single request.
+ */
+public class TimeSeriesBulkController implements Handler {
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_SERIES = Integer.parseInt(System.getProperty("cda.api.ts.bulk.max.series", "500"));
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public TimeSeriesBulkController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(TimeSeriesBulkController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @NotNull
+    private TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+        return new TimeSeriesDaoImpl(dsl, metrics);
+    }
+
+    @OpenApi(
+            queryParams = {
+                @OpenApiParam(name = TS_IDS, description = "Accepts a comma separated list of "
+                        + "timeseries ids to be included in the response. "
+                        + "Cannot be used in combination with category-id and group-id."),
+                @OpenApiParam(name = OFFICE, description = "Specifies the owning office of the "
+                        + "time series listed in " + TS_IDS + ", or of the timeseries group. "
+                        + "Required with " + TS_IDS + ". The time series assigned to a group "
+                        + "are retrieved for the office they were assigned with."),
+                @OpenApiParam(name = CATEGORY_ID, description = "Specifies the category id "
+                        + "of the timeseries group whose time series are to be included in the "
+                        + "response. Requires " + GROUP_ID + "."),
+                @OpenApiParam(name = GROUP_ID, description = "Specifies the group id "
+                        + "of the timeseries group whose time series are to be included in the "
+                        + "response. Requires " + CATEGORY_ID + "."),
+                @OpenApiParam(name = UNIT, description = "Specifies the unit or unit system of "
+                        + "the response, applied to every time series. Valid values for the unit "
+                        + "field are: "
+                        + "\n* `EN`  (default) Specifies English unit system."
+                        + "\n* `SI`  Specifies the SI unit system."
+                        + "\n* `Other`  Any unit returned in the response to the units URI "
+                        + "request that is appropriate for the requested parameters."),
+                @OpenApiParam(name = BEGIN, description = "Specifies the start of the time "
+                        + "window shared by all the time series. If this field is not specified, "
+                        + "the time window begins 24 hours prior to the specified or default end "
+                        + "time. The format for this field is ISO 8601 extended, with optional "
+                        + "offset and timezone, i.e., '"
+                        + DATE_FORMAT + "', e.g., '" + EXAMPLE_DATE + "'."),
+                @OpenApiParam(name = END, description = "Specifies the end of the time window "
+                        + "shared by all the time series. If this field is not specified, the "
+                        + "time window ends at the current time. The format for this field is "
+                        + "ISO 8601 extended, with optional timezone, i.e., '"
+                        + DATE_FORMAT + "', e.g., '" + EXAMPLE_DATE + "'."),
+                @OpenApiParam(name = TIMEZONE, description = "Specifies the time zone of the "
+                        + "values of the begin and end fields (unless otherwise specified). "
+                        + "The results are returned in UTC. If this field is not specified, the "
+                        + "default time zone of UTC shall be used."),
+                @OpenApiParam(name = VERSION_DATE, description = "Specifies the version date of "
+                        + "the time series traces to be selected. The format for this field is "
+                        + "ISO 8601 extended, e.g., '2021-06-10T13:00:00-0700'. If field is empty, "
+                        + "query will return a max aggregate for each timeseries."),
+                @OpenApiParam(name = TRIM, type = Boolean.class, description = "Specifies "
+                        + "whether to trim missing values from the beginning and end of the "
+                        + "retrieved values. Default is true."),
+                @OpenApiParam(name = PAGE_SIZE, type = Integer.class, description = "The maximum "
+                        + "number of values returned for each time series. A series with more "
+                        + "values includes a 'next-page' that can be used with the single "
+                        + "timeseries retrieval. Default " + DEFAULT_PAGE_SIZE + "."),
+                @OpenApiParam(name = AGGREGATE, type = Aggregate.class, description = "Reduces "
+                        + "the values of each time series to at most " + MAX_POINTS + " values, "
+                        + "see the " + AGGREGATE + " parameter of the timeseries retrieval. "
+                        + "Default lttb when " + MAX_POINTS + " is provided."),
+                @OpenApiParam(name = MAX_POINTS, type = Integer.class, description = "The maximum "
+                        + "number of values to return for each time series, at least 3. "
+                        + "Required with " + AGGREGATE + ". Replaces paging."),
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(from = TimeSeriesCollection.class, type = Formats.JSONV2),
+                    @OpenApiContent(from = TimeSeriesCollection.class, type = Formats.XMLV2)}),
+                @OpenApiResponse(status = STATUS_400, description = "Invalid parameter "
+                        + "combination, or too many time series requested."),
+                @OpenApiResponse(status = STATUS_404, description = "The timeseries group was "
+                        + "not found."),
+                @OpenApiResponse(status = STATUS_501, description = "Requested format is not "
+                        + "implemented")
+            },
+            path = "/timeseries/bulk",
+            description = "Returns the data of several CWMS Timeseries over the same time "
+                    + "window. Time series that could not be retrieved are listed in the errors "
+                    + "of the response.",
+            tags = TimeSeriesController.TAG,
+            method = HttpMethod.GET
+    )
+    public void handle(@NotNull Context ctx) {
+
+        try (final Timer.Context ignored = markAndTime(GET_ALL)) {
+            String office = ctx.queryParam(OFFICE);
+            String categoryId = ctx.queryParam(CATEGORY_ID);
+            String groupId = ctx.queryParam(GROUP_ID);
+            List<String> tsIds = TimeSeriesRecentController.getTsIds(ctx.queryParam(TS_IDS));
+            String unit = ctx.queryParamAsClass(UNIT, String.class)
+                    .getOrDefault(UnitSystem.EN.getValue());
+            String timezone = ctx.queryParamAsClass(TIMEZONE, String.class).getOrDefault("UTC");
+            boolean trim = ctx.queryParamAsClass(TRIM, Boolean.class).getOrDefault(true);
+            ZonedDateTime versionDate = queryParamAsZdt(ctx, VERSION_DATE);
+            int pageSize = queryParamAsClass(ctx, new String[]{PAGE_SIZE}, Integer.class,
+                    DEFAULT_PAGE_SIZE, metrics, name(TimeSeriesBulkController.class.getName(), GET_ALL));
+            Aggregate aggregate = ctx.queryParamAsClass(AGGREGATE, Aggregate.class)
+                    .allowNullable().get();
+            Integer maxPoints = ctx.queryParamAsClass(MAX_POINTS, Integer.class)
+                    .allowNullable().get();
+            if (maxPoints != null && aggregate == null) {
+                aggregate = Aggregate.LTTB;
+            } else if (aggregate != null && maxPoints == null) {
+                throw new IllegalArgumentException(AGGREGATE + " requires " + MAX_POINTS);
+            }
+
+            String begin = ctx.queryParam(BEGIN);
+            String end = ctx.queryParam(END);
+            ZonedDateTime beginZdt = DateUtils.parseUserDate(begin != null ? begin : "PT-24H", timezone);
+            ZonedDateTime endZdt = end != null
+                    ? DateUtils.parseUserDate(end, timezone)
+                    : ZonedDateTime.now(ZoneId.of(timezone, ZoneId.SHORT_IDS));
+
+            DSLContext dsl = JooqDao.getDslContext(ctx);
+            List<CwmsId> ids = requestedIds(dsl, office, tsIds, categoryId, groupId);
+
+            String acceptHeader = ctx.header(Header.ACCEPT);
+            ContentType contentType = Formats.parseHeader(acceptHeader, TimeSeriesCollection.class);
+
+            TimeSeriesCollection collection = getTimeSeriesDao(dsl).getTimeseries(pageSize, ids,
+                    unit, beginZdt, endZdt, versionDate, trim, aggregate,
+                    maxPoints == null ? 0 : maxPoints);
+
+            String result = Formats.format(contentType, collection);
+            ctx.result(result).contentType(contentType.toString());
+            requestResultSize.update(result.length());
+            ctx.status(HttpServletResponse.SC_OK);
+        }
+    }
+
+    /**
+     * Lists the time series named by ts-ids, or assigned to the group given by category-id
+     * and group-id.
+     * @throws IllegalArgumentException if the parameters don't name exactly one of them or
+     *     too many time series are named
+     * @throws NotFoundException if the group does not exist
+     */
+    static List<CwmsId> requestedIds(DSLContext dsl, String office, List<String> tsIds,
+                                     String categoryId, String groupId) {
+        boolean hasTsIds = tsIds != null && !tsIds.isEmpty();
+        boolean hasTsGroupInfo = categoryId != null || groupId != null;
+        if (hasTsIds == hasTsGroupInfo) {
+            throw new IllegalArgumentException("Either " + TS_IDS + " or " + CATEGORY_ID
+                    + " and " + GROUP_ID + " must be provided.");
+        }
+
+        List<CwmsId> ids = new ArrayList<>();
+        if (hasTsIds) {
+            if (office == null) {
+                throw new IllegalArgumentException(OFFICE + " is required with " + TS_IDS + ".");
+            }
+            for (String tsId : tsIds) {
+                ids.add(new CwmsId.Builder().withOfficeId(office).withName(tsId).build());
+            }
+        } else {
+            if (categoryId == null || groupId == null) {
+                throw new IllegalArgumentException("Both " + CATEGORY_ID + " and " + GROUP_ID
+                        + " are required to retrieve the time series of a group.");
+            }
+            List<TimeSeriesGroup> groups = new TimeSeriesGroupDao(dsl)
+                    .getTimeSeriesGroups(office, categoryId, groupId);
+            if (groups.isEmpty()) {
+                throw new NotFoundException("Could not find timeseries group " + categoryId
+                        + "/" + groupId);
+            }
+            for (TimeSeriesGroup group : groups) {
+                if (group.getAssignedTimeSeries() == null) {
+                    continue;
+                }
+                for (AssignedTimeSeries assigned : group.getAssignedTimeSeries()) {
+                    if (assigned.getTimeseriesId() != null) {
+                        ids.add(new CwmsId.Builder()
+                                .withOfficeId(assigned.getOfficeId())
+                                .withName(assigned.getTimeseriesId())
+                                .build());
+                    }
+                }
+            }
+        }
+
+        if (ids.size() > MAX_SERIES) {
+            throw new IllegalArgumentException("At most " + MAX_SERIES
+                    + " time series can be retrieved in one request, " + ids.size()
+                    + " were requested.");
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.CREATE;
+import static cwms.cda.api.Controllers.CREATE_AS_LRTS;
+import static cwms.cda.api.Controllers.OVERRIDE_PROTECTION;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STORE_RULE;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.StoreRule;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.TimeSeriesCollection;
+import cwms.cda.data.dto.TimeSeriesStoreResult;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiRequestBody;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Stores several time series from one request body in a single transaction.
+ */
+public class TimeSeriesBulkStoreController implements Handler {
+    private static final int MAX_SERIES = Integer.parseInt(System.getProperty("cda.api.ts.bulk.max.series", "500"));
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public TimeSeriesBulkStoreController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(TimeSeriesBulkStoreController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @NotNull
+    private TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+        return new TimeSeriesDaoImpl(dsl, metrics);
+    }
+
+    @OpenApi(
+            description = "Used to store several time series in one request. Data to be stored "
+                    + "must have time stamps in UTC represented as epoch milliseconds. Each time "
+                    + "series is stored or rejected on its own; the response lists the outcome "
+                    + "for each of them.",
+            requestBody = @OpenApiRequestBody(
+                    content = {
+                        @OpenApiContent(from = TimeSeriesCollection.class, type = Formats.JSONV2),
+                        @OpenApiContent(from = TimeSeriesCollection.class, type = Formats.XMLV2)
+                    },
+                    required = true
+            ),
+            queryParams = {
+                @OpenApiParam(name = CREATE_AS_LRTS, type = Boolean.class, description = "Flag "
+                        + "indicating if new timeseries should be created as Local Regular Time "
+                        + "Series. 'True' or 'False', default is 'False'"),
+                @OpenApiParam(name = STORE_RULE, type = StoreRule.class,
+                        description = TimeSeriesController.STORE_RULE_DESC),
+                @OpenApiParam(name = OVERRIDE_PROTECTION, type = Boolean.class, description = "A "
+                        + "flag to ignore the protected data quality when storing data. "
+                        + "'True' or 'False'")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(isArray = true, from = TimeSeriesStoreResult.class,
+                            type = Formats.JSONV2)}),
+                @OpenApiResponse(status = STATUS_400, description = "Too many time series in the "
+                        + "request body.")
+            },
+            method = HttpMethod.POST,
+            path = "/timeseries/bulk",
+            tags = TimeSeriesController.TAG
+    )
+    @Override
+    public void handle(@NotNull Context ctx) {
+        boolean createAsLrts = ctx.queryParamAsClass(CREATE_AS_LRTS, Boolean.class)
+                .getOrDefault(false);
+        StoreRule storeRule = ctx.queryParamAsClass(STORE_RULE, StoreRule.class)
+                .getOrDefault(StoreRule.REPLACE_ALL);
+        boolean overrideProtection = ctx.queryParamAsClass(OVERRIDE_PROTECTION, Boolean.class)
+                .getOrDefault(TimeSeriesDaoImpl.OVERRIDE_PROTECTION);
+
+        try (final Timer.Context ignored = markAndTime(CREATE)) {
+            ContentType contentType = Formats.parseHeader(ctx.req.getContentType(),
+                    TimeSeriesCollection.class);
+            TimeSeriesCollection collection = Formats.parseContent(contentType,
+                    ctx.bodyAsInputStream(), TimeSeriesCollection.class);
+            if (collection.getTimeSeries().size() > MAX_SERIES) {
+                throw new IllegalArgumentException("At most " + MAX_SERIES
+                        + " time series can be stored in one request, "
+                        + collection.getTimeSeries().size() + " were provided.");
+            }
+
+            DSLContext dsl = JooqDao.getDslContext(ctx);
+            List<TimeSeriesStoreResult> results = getTimeSeriesDao(dsl).store(
+                    collection.getTimeSeries(), createAsLrts, storeRule, overrideProtection);
+
+            String acceptHeader = ctx.header(Header.ACCEPT);
+            ContentType resultType = Formats.parseHeader(
+                    acceptHeader != null ? acceptHeader : Formats.JSONV2, TimeSeriesStoreResult.class);
+            String result = Formats.format(resultType, results, TimeSeriesStoreResult.class);
+            ctx.result(result).contentType(resultType.toString());
+            requestResultSize.update(result.length());
+            ctx.status(HttpServletResponse.SC_OK);
+        }
+    }
+}
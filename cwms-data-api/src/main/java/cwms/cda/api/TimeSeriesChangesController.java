@@ -0,0 +1,202 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.BEGIN;
+import static cwms.cda.api.Controllers.CATEGORY_ID;
+import static cwms.cda.api.Controllers.CHANGED_SINCE;
+import static cwms.cda.api.Controllers.DATE_FORMAT;
+import static cwms.cda.api.Controllers.END;
+import static cwms.cda.api.Controllers.EXAMPLE_DATE;
+import static cwms.cda.api.Controllers.GET_ALL;
+import static cwms.cda.api.Controllers.GROUP_ID;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.PAGE;
+import static cwms.cda.api.Controllers.PAGE_SIZE;
+import static cwms.cda.api.Controllers.RESULTS;
+import static cwms.cda.api.Controllers.SIZE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STATUS_404;
+import static cwms.cda.api.Controllers.STATUS_501;
+import static cwms.cda.api.Controllers.TIMEZONE;
+import static cwms.cda.api.Controllers.TS_IDS;
+import static cwms.cda.api.Controllers.UNIT;
+import static cwms.cda.api.Controllers.queryParamAsClass;
+import static cwms.cda.api.Controllers.queryParamAsZdt;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.data.dao.JooqDao;
+import cwms.cda.data.dao.TimeSeriesDao;
+import cwms.cda.data.dao.TimeSeriesDaoImpl;
+import cwms.cda.data.dto.CwmsId;
+import cwms.cda.data.dto.TimeSeriesChanges;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.time.ZonedDateTime;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.DSLContext;
+
+/**
+ * Returns the time series values entered or updated after a watermark, so a mirror can
+ * read the changes instead of re-reading whole time windows.
+ */
+public class TimeSeriesChangesController implements Handler {
+    private static final int DEFAULT_PAGE_SIZE = 5000;
+    private static final int MAX_PAGE_SIZE = Integer.getInteger("cda.api.ts.changes.max.page.size", 50000);
+
+    private final MetricRegistry metrics;
+    private final Histogram requestResultSize;
+
+    public TimeSeriesChangesController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        requestResultSize = this.metrics.histogram((name(TimeSeriesChangesController.class, RESULTS, SIZE)));
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @NotNull
+    private TimeSeriesDao getTimeSeriesDao(DSLContext dsl) {
+        return new TimeSeriesDaoImpl(dsl, metrics);
+    }
+
+    @OpenApi(
+            queryParams = {
+                @OpenApiParam(name = CHANGED_SINCE, required = true, description = "Only "
+                        + "values entered or updated after this instant are returned. Pass the "
+                        + "watermark of the previous response to continue from it. The format "
+                        + "for this field is ISO 8601 extended, i.e., '" + DATE_FORMAT + "', "
+                        + "e.g., '" + EXAMPLE_DATE + "'."),
+                @OpenApiParam(name = TS_IDS, description = "Accepts a comma separated list of "
+                        + "timeseries ids to be included in the response. "
+                        + "Cannot be used in combination with category-id and group-id."),
+                @OpenApiParam(name = OFFICE, description = "Specifies the owning office of the "
+                        + "time series listed in " + TS_IDS + ", or of the timeseries group. "
+                        + "Required with " + TS_IDS + "."),
+                @OpenApiParam(name = CATEGORY_ID, description = "Specifies the category id "
+                        + "of the timeseries group whose time series are to be included in the "
+                        + "response. Requires " + GROUP_ID + "."),
+                @OpenApiParam(name = GROUP_ID, description = "Specifies the group id "
+                        + "of the timeseries group whose time series are to be included in the "
+                        + "response. Requires " + CATEGORY_ID + "."),
+                @OpenApiParam(name = UNIT, description = "Specifies the unit or unit system of "
+                        + "the response, applied to every time series. Valid values for the unit "
+                        + "field are: "
+                        + "\n* `EN`  (default) Specifies English unit system."
+                        + "\n* `SI`  Specifies the SI unit system."
+                        + "\n* `Other`  Any unit returned in the response to the units URI "
+                        + "request that is appropriate for the requested parameters."),
+                @OpenApiParam(name = BEGIN, description = "Optionally limits the changes to "
+                        + "values at or after this time. Narrowing the times lets the database "
+                        + "skip the values that can't have changed, but changes to values "
+                        + "outside of the times are never returned, the watermark moves past "
+                        + "them. All times by default. The format for this field is ISO 8601 "
+                        + "extended, i.e., '" + DATE_FORMAT + "'."),
+                @OpenApiParam(name = END, description = "Optionally limits the changes to "
+                        + "values at or before this time, all times by default. The format for "
+                        + "this field is ISO 8601 extended, i.e., '" + DATE_FORMAT + "'."),
+                @OpenApiParam(name = TIMEZONE, description = "Specifies the time zone of "
+                        + CHANGED_SINCE + ", begin and end (unless otherwise specified). "
+                        + "Default UTC."),
+                @OpenApiParam(name = PAGE, description = "The next-page of the previous "
+                        + "response, set when the values of a single store did not fit in it. "
+                        + "Pass it with the same " + CHANGED_SINCE + "."),
+                @OpenApiParam(name = PAGE_SIZE, type = Integer.class, description = "The maximum "
+                        + "number of values returned, default " + DEFAULT_PAGE_SIZE + "."),
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, content = {
+                    @OpenApiContent(from = TimeSeriesChanges.class, type = Formats.JSONV2)}),
+                @OpenApiResponse(status = STATUS_400, description = "Invalid parameter "
+                        + "combination, or too many time series requested."),
+                @OpenApiResponse(status = STATUS_404, description = "The timeseries group was "
+                        + "not found."),
+                @OpenApiResponse(status = STATUS_501, description = "Requested format is not "
+                        + "implemented")
+            },
+            path = "/timeseries/changes",
+            description = "Returns the values of several CWMS Timeseries that were entered or "
+                    + "updated after " + CHANGED_SINCE + ", oldest first, with the watermark to "
+                    + "request the following changes with. The most recent seconds of changes "
+                    + "are held back until concurrent stores have committed.",
+            tags = TimeSeriesController.TAG,
+            method = HttpMethod.GET
+    )
+    public void handle(@NotNull Context ctx) {
+
+        try (final Timer.Context ignored = markAndTime(GET_ALL)) {
+            String office = ctx.queryParam(OFFICE);
+            String categoryId = ctx.queryParam(CATEGORY_ID);
+            String groupId = ctx.queryParam(GROUP_ID);
+            List<String> tsIds = TimeSeriesRecentController.getTsIds(ctx.queryParam(TS_IDS));
+            String unit = ctx.queryParamAsClass(UNIT, String.class)
+                    .getOrDefault(UnitSystem.EN.getValue());
+            ZonedDateTime changedSince = queryParamAsZdt(ctx, CHANGED_SINCE);
+            if (changedSince == null) {
+                throw new IllegalArgumentException(CHANGED_SINCE + " is required.");
+            }
+            ZonedDateTime begin = queryParamAsZdt(ctx, BEGIN);
+            ZonedDateTime end = queryParamAsZdt(ctx, END);
+            String page = ctx.queryParam(PAGE);
+            int pageSize = queryParamAsClass(ctx, new String[]{PAGE_SIZE}, Integer.class,
+                    DEFAULT_PAGE_SIZE, metrics, name(TimeSeriesChangesController.class.getName(), GET_ALL));
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException(PAGE_SIZE + " must be between 1 and "
+                        + MAX_PAGE_SIZE + ".");
+            }
+
+            DSLContext dsl = JooqDao.getDslContext(ctx);
+            List<CwmsId> ids = TimeSeriesBulkController.requestedIds(dsl, office, tsIds,
+                    categoryId, groupId);
+
+            String acceptHeader = ctx.header(Header.ACCEPT);
+            ContentType contentType = Formats.parseHeader(acceptHeader, TimeSeriesChanges.class);
+
+            TimeSeriesChanges changes = getTimeSeriesDao(dsl).getChangedSince(ids, unit,
+                    changedSince, begin, end, page, pageSize);
+
+            String result = Formats.format(contentType, changes);
+            ctx.result(result).contentType(contentType.toString());
+            requestResultSize.update(result.length());
+            ctx.status(HttpServletResponse.SC_OK);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package cwms.cda.api;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.AGGREGATE;
 import static cwms.cda.api.Controllers.BEGIN;
 import static cwms.cda.api.Controllers.CREATE;
 import static cwms.cda.api.Controllers.CREATE_AS_LRTS;
@@ -14,6 +15,7 @@ import static cwms.cda.api.Controllers.EXAMPLE_DATE;
 import static cwms.cda.api.Controllers.FORMAT;
 import static cwms.cda.api.Controllers.GET_ALL;
 import static cwms.cda.api.Controllers.GET_ONE;
+import static cwms.cda.api.Controllers.MAX_POINTS;
 import static cwms.cda.api.Controllers.MAX_VERSION;
 import static cwms.cda.api.Controllers.NAME;
 import static cwms.cda.api.Controllers.NOT_SUPPORTED_YET;
@@ -44,6 +46,7 @@ import static cwms.cda.api.Controllers.requiredZdt;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import cwms.cda.api.enums.Aggregate;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.errors.CdaError;
 import cwms.cda.api.errors.NotFoundException;
@@ -167,7 +170,8 @@ public class TimeSeriesController implements CrudHandler {
             requestBody = @OpenApiRequestBody(
                     content = {
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSONV2),
-                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2)
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2),
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.CBOR_TIMESERIES)
                     },
                     required = true
             ),
@@ -320,7 +324,8 @@ public class TimeSeriesController implements CrudHandler {
                 @OpenApiParam(name = OFFICE,  description = "Specifies the"
                         + " owning office of the time series(s) whose data is to be included "
                         + "in the response. "
-                        + "Required for:" + Formats.JSONV2 + " and " + Formats.XMLV2 + ". "
+                        + "Required for:" + Formats.JSONV2 + ", " + Formats.XMLV2 + " and "
+                        + Formats.CBOR_TIMESERIES + ". "
                         + "For other formats, if this field is not specified, matching location "
                         + "level information from all offices shall be returned."),
                 @OpenApiParam(name = UNIT,  description = "Specifies the "
@@ -374,6 +379,25 @@ public class TimeSeriesController implements CrudHandler {
                         + "retrieved values. "
                         + "Only supported for:" + Formats.JSONV2 + " and " + Formats.XMLV2 + ". "
                         + "Default is true."),
+                @OpenApiParam(name = AGGREGATE, type = Aggregate.class, description = "Reduces "
+                        + "the values to at most " + MAX_POINTS + " values. The time window is "
+                        + "split into equal buckets. "
+                        + "\n* `min`, `max`, `mean`, `sum`, `first`, `last`  one value per "
+                        + "bucket, stamped with the start of the bucket."
+                        + "\n* `lttb`  (default) Largest Triangle Three Buckets, keeps the first, "
+                        + "the last and the most significant value of each bucket."
+                        + "\n* `min-max`  keeps the smallest and largest value of each bucket."
+                        + "\nMissing values are not used. Selected values keep their quality; "
+                        + "mean and sum keep a shared quality, otherwise they are rejected if any "
+                        + "value is rejected, questionable if any value is questionable, okay "
+                        + "if all values are screened okay, and unscreened otherwise. "
+                        + "Paging is not used when reducing the values. "
+                        + "Only supported for:" + Formats.JSONV2 + ", " + Formats.XMLV2 + " and "
+                        + Formats.CBOR_TIMESERIES + "."),
+                @OpenApiParam(name = MAX_POINTS, type = Integer.class, description = "The maximum "
+                        + "number of values to return, at least 3. Required with " + AGGREGATE
+                        + ". Only supported for:" + Formats.JSONV2 + ", " + Formats.XMLV2
+                        + " and " + Formats.CBOR_TIMESERIES + "."),
                 @OpenApiParam(name = FORMAT,  description = "Specifies the"
                         + " encoding format of the response. Valid values for the format "
                         + "field for this URI are:"
@@ -397,6 +421,7 @@ public class TimeSeriesController implements CrudHandler {
                     content = {
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSONV2),
                         @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2),
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.CBOR_TIMESERIES),
                         @OpenApiContent(from = TimeSeries.class, type = Formats.XML),
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSON),
                         @OpenApiContent(from = TimeSeries.class, type = ""),}),
@@ -428,6 +453,10 @@ public class TimeSeriesController implements CrudHandler {
             String timezone = ctx.queryParamAsClass(TIMEZONE, String.class)
                     .getOrDefault("UTC");
             Validator<Boolean> trim = ctx.queryParamAsClass(Controllers.TRIM, Boolean.class);
+            Aggregate aggregate = ctx.queryParamAsClass(AGGREGATE, Aggregate.class)
+                    .allowNullable().get();
+            Integer maxPoints = ctx.queryParamAsClass(MAX_POINTS, Integer.class)
+                    .allowNullable().get();
 
             ZonedDateTime versionDate = queryParamAsZdt(ctx, VERSION_DATE);
 
@@ -444,6 +473,7 @@ public class TimeSeriesController implements CrudHandler {
             ContentType contentType = Formats.parseHeaderAndQueryParm(acceptHeader, format, TimeSeries.class);
 
             String results;
+            int resultsLength;
             String version = contentType.getParameters().get(VERSION);
 
             ZoneId tz = ZoneId.of(timezone, ZoneId.SHORT_IDS);
@@ -454,18 +484,23 @@ public class TimeSeriesController implements CrudHandler {
                     ? DateUtils.parseUserDate(end, timezone)
                     : ZonedDateTime.now(tz);
 
-            if (version != null && version.equals("2")) {
+            if ((version != null && version.equals("2")) || Formats.isBinary(contentType)) {
 
                 if (datum != null) {
                     throw new IllegalArgumentException(String.format("Datum is not supported for:%s and %s",
                             Formats.JSONV2, Formats.XMLV2));
                 }
 
+                if (maxPoints != null && aggregate == null) {
+                    aggregate = Aggregate.LTTB;
+                } else if (aggregate != null && maxPoints == null) {
+                    throw new IllegalArgumentException(AGGREGATE + " requires " + MAX_POINTS);
+                }
+
                 String office = requiredParam(ctx, OFFICE);
                 TimeSeries ts = dao.getTimeseries(cursor, pageSize, names, office, unit,
-                        beginZdt, endZdt, versionDate, trim.getOrDefault(true));
-
-                results = Formats.format(contentType, ts);
+                        beginZdt, endZdt, versionDate, trim.getOrDefault(true),
+                        aggregate, maxPoints == null ? 0 : maxPoints);
 
                 ctx.status(HttpServletResponse.SC_OK);
 
@@ -482,7 +517,15 @@ public class TimeSeriesController implements CrudHandler {
                 }
 
                 ctx.header("Link", linkValue.toString());
-                ctx.result(results).contentType(contentType.toString());
+                if (Formats.isBinary(contentType)) {
+                    byte[] bytes = Formats.formatBytes(contentType, ts);
+                    resultsLength = bytes.length;
+                    ctx.result(bytes).contentType(contentType.toString());
+                } else {
+                    results = Formats.format(contentType, ts);
+                    resultsLength = results.length();
+                    ctx.result(results).contentType(contentType.toString());
+                }
             } else {
                 if (versionDate != null) {
                     throw new IllegalArgumentException(String.format("Version date is only supported for:%s and %s",
@@ -494,17 +537,23 @@ public class TimeSeriesController implements CrudHandler {
                             Formats.JSONV2, Formats.XMLV2));
                 }
 
+                if (aggregate != null || maxPoints != null) {
+                    throw new IllegalArgumentException(String.format("%s and %s are only supported for:%s and %s",
+                            AGGREGATE, MAX_POINTS, Formats.JSONV2, Formats.XMLV2));
+                }
+
                 if (format == null || format.isEmpty()) {
                     format = "json";
                 }
 
                 String office = ctx.queryParam(OFFICE);
                 results = dao.getTimeseries(format, names, office, unit, datum, beginZdt, endZdt, tz);
+                resultsLength = results.length();
                 ctx.status(HttpServletResponse.SC_OK);
                 ctx.result(results);
             }
             addDeprecatedContentTypeWarning(ctx, contentType);
-            requestResultSize.update(results.length());
+            requestResultSize.update(resultsLength);
         } catch (NotFoundException e) {
             CdaError re = new CdaError("Not found.");
             logger.log(Level.WARNING, re.toString(), e);
@@ -536,7 +585,8 @@ public class TimeSeriesController implements CrudHandler {
             requestBody = @OpenApiRequestBody(
                     content = {
                         @OpenApiContent(from = TimeSeries.class, type = Formats.JSONV2),
-                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2)
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.XMLV2),
+                        @OpenApiContent(from = TimeSeries.class, type = Formats.CBOR_TIMESERIES)
                     },
                     required = true),
             queryParams = {
@@ -0,0 +1,354 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package cwms.cda.api;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static cwms.cda.api.Controllers.GET_ALL;
+import static cwms.cda.api.Controllers.OFFICE;
+import static cwms.cda.api.Controllers.STATUS_200;
+import static cwms.cda.api.Controllers.STATUS_400;
+import static cwms.cda.api.Controllers.STATUS_503;
+import static cwms.cda.api.Controllers.TS_IDS;
+import static cwms.cda.formatters.Formats.EVENT_STREAM;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.api.errors.TooBusyException;
+import cwms.cda.data.dao.TimeSeriesEvents;
+import cwms.cda.data.dto.TimeSeriesChanges;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.json.JsonV2;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.sse.SseClient;
+import io.javalin.http.sse.SseHandler;
+import io.javalin.plugin.openapi.annotations.HttpMethod;
+import io.javalin.plugin.openapi.annotations.OpenApi;
+import io.javalin.plugin.openapi.annotations.OpenApiContent;
+import io.javalin.plugin.openapi.annotations.OpenApiParam;
+import io.javalin.plugin.openapi.annotations.OpenApiResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Streams the values stored to matching time series as Server-Sent Events, so a dashboard
+ * keeps one connection open instead of polling.
+ *
+ * <p>Each stored batch of values is written to JSON once and queued for every client with
+ * a matching pattern. A small pool writes the queues to the clients; a client that falls
+ * more than cda.api.ts.stream.client.queue events behind is disconnected instead of
+ * slowing down the stores. Only the stores seen by {@link TimeSeriesEvents} are streamed.
+ */
+public class TimeSeriesStreamController implements Handler {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String EVENT_NAME = "value";
+    private static final int MAX_CLIENTS = Integer.getInteger("cda.api.ts.stream.max.clients", 500);
+    private static final int CLIENT_QUEUE = Integer.getInteger("cda.api.ts.stream.client.queue", 1000);
+    private static final int WRITERS = Integer.getInteger("cda.api.ts.stream.writers", 4);
+    private static final long KEEP_ALIVE_SECONDS =
+            Long.getLong("cda.api.ts.stream.keep.alive.seconds", 20L);
+
+    private final MetricRegistry metrics;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final ObjectMapper mapper = JsonV2.buildObjectMapper();
+    private final ExecutorService writers;
+    private final ScheduledExecutorService keepAlive;
+    private final Meter published;
+    private final Meter slowClients;
+    private final TimeSeriesEvents.Listener listener = this::publish;
+
+    public TimeSeriesStreamController(MetricRegistry metrics) {
+        this.metrics = metrics;
+        writers = Executors.newFixedThreadPool(WRITERS, daemon("writer"));
+        keepAlive = Executors.newSingleThreadScheduledExecutor(daemon("keep-alive"));
+        keepAlive.scheduleWithFixedDelay(this::keepAlive, KEEP_ALIVE_SECONDS,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        metrics.gauge(name(TimeSeriesStreamController.class, "clients"),
+                () -> (Gauge<Integer>) subscribers::size);
+        published = metrics.meter(name(TimeSeriesStreamController.class, "events"));
+        slowClients = metrics.meter(name(TimeSeriesStreamController.class, "slow-clients"));
+        TimeSeriesEvents.addListener(listener);
+    }
+
+    private static ThreadFactory daemon(String role) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, TimeSeriesStreamController.class.getSimpleName()
+                    + "-" + role + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private Timer.Context markAndTime(String subject) {
+        return Controllers.markAndTime(metrics, getClass().getName(), subject);
+    }
+
+    @OpenApi(
+            queryParams = {
+                @OpenApiParam(name = TS_IDS, required = true, description = "Accepts a comma "
+                        + "separated list of timeseries ids to stream the values of. The ids "
+                        + "are case insensitive and may contain the wildcards * (any text) and "
+                        + "? (any character), e.g. 'Folsom.*.Inst.1Hour.0.*'."),
+                @OpenApiParam(name = OFFICE, description = "Only streams the time series of "
+                        + "this office. Default all offices."),
+            },
+            headers = {
+                @OpenApiParam(name = Header.ACCEPT, required = true,
+                        description = "Must accept " + EVENT_STREAM + ".")
+            },
+            responses = {
+                @OpenApiResponse(status = STATUS_200, description = "A '" + EVENT_NAME + "' "
+                        + "event with the values and their units for every store to a matching "
+                        + "time series. The data entry date of the values is not included.",
+                        content = {@OpenApiContent(from = TimeSeriesChanges.Series.class,
+                                type = EVENT_STREAM)}),
+                @OpenApiResponse(status = STATUS_400, description = "No " + TS_IDS + " or the "
+                        + "request does not accept " + EVENT_STREAM + "."),
+                @OpenApiResponse(status = STATUS_503, description = "Too many clients are "
+                        + "streaming."),
+            },
+            path = "/timeseries/stream",
+            description = "Streams the values stored to the matching CWMS Timeseries as "
+                    + "Server-Sent Events. Values stored while a client was disconnected are "
+                    + "not replayed, use /timeseries/changes to catch up.",
+            tags = TimeSeriesController.TAG,
+            method = HttpMethod.GET
+    )
+    public void handle(@NotNull Context ctx) throws Exception {
+        try (final Timer.Context ignored = markAndTime(GET_ALL)) {
+            if (!Formats.accepts(ctx.header(Header.ACCEPT), EVENT_STREAM)) {
+                throw new IllegalArgumentException("The " + Header.ACCEPT + " header must "
+                        + "accept " + EVENT_STREAM + ".");
+            }
+            List<String> tsIds = TimeSeriesRecentController.getTsIds(ctx.queryParam(TS_IDS));
+            if (tsIds == null || tsIds.isEmpty()) {
+                throw new IllegalArgumentException(TS_IDS + " is required.");
+            }
+            if (subscribers.size() >= MAX_CLIENTS) {
+                throw new TooBusyException("Too many clients are streaming time series values.",
+                        KEEP_ALIVE_SECONDS);
+            }
+            Subscriber subscriber = new Subscriber(new Filter(ctx.queryParam(OFFICE), tsIds));
+            new SseHandler(subscriber::open).handle(ctx);
+        }
+    }
+
+    /**
+     * Stops streaming and disconnects all clients.
+     */
+    public void close() {
+        TimeSeriesEvents.removeListener(listener);
+        keepAlive.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        writers.shutdownNow();
+    }
+
+    private void publish(TimeSeriesChanges.Series values) {
+        Event event = null;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.filter.matches(values.getOfficeId(), values.getName())) {
+                continue;
+            }
+            if (event == null) {
+                try {
+                    event = new Event(Long.toString(eventIds.incrementAndGet()),
+                            mapper.writeValueAsString(values));
+                } catch (JsonProcessingException ex) {
+                    logger.atWarning().withCause(ex).log("Unable to stream %s", values.getName());
+                    return;
+                }
+                published.mark();
+            }
+            subscriber.offer(event);
+        }
+    }
+
+    private void keepAlive() {
+        Event comment = new Event(null, "keep-alive");
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(comment);
+        }
+    }
+
+    /**
+     * The time series a client streams.
+     */
+    static final class Filter {
+        private final String office;
+        private final Set<String> names = new HashSet<>();
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        Filter(String office, List<String> tsIds) {
+            this.office = office;
+            for (String tsId : tsIds) {
+                if (tsId.indexOf('*') >= 0 || tsId.indexOf('?') >= 0) {
+                    patterns.add(globPattern(tsId));
+                } else {
+                    names.add(tsId.toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+
+        boolean matches(String officeId, String tsId) {
+            if (office != null && !office.equalsIgnoreCase(officeId)) {
+                return false;
+            }
+            if (names.contains(tsId.toUpperCase(Locale.ROOT))) {
+                return true;
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(tsId).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Pattern globPattern(String glob) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return Pattern.compile(regex.toString(),
+                    Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        }
+    }
+
+    /**
+     * An event, or a comment when it has no id.
+     */
+    private static final class Event {
+        final String id;
+        final String data;
+
+        Event(String id, String data) {
+            this.id = id;
+            this.data = data;
+        }
+    }
+
+    /**
+     * A connected client. Its events are written by one writer at a time, in order.
+     */
+    private final class Subscriber {
+        final Filter filter;
+        private final BlockingQueue<Event> pending = new ArrayBlockingQueue<>(CLIENT_QUEUE);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile SseClient client;
+
+        Subscriber(Filter filter) {
+            this.filter = filter;
+        }
+
+        void open(SseClient client) {
+            this.client = client;
+            client.onClose(() -> subscribers.remove(this));
+            subscribers.add(this);
+            offer(new Event(null, "connected"));
+        }
+
+        void offer(Event event) {
+            if (!pending.offer(event)) {
+                slowClients.mark();
+                close();
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while ((event = pending.poll()) != null) {
+                    if (event.id == null) {
+                        client.sendComment(event.data);
+                    } else {
+                        client.sendEvent(EVENT_NAME, event.data, event.id);
+                    }
+                }
+            } catch (RuntimeException ex) {
+                logger.atFine().withCause(ex).log("Unable to write to a client, disconnecting.");
+                close();
+            } finally {
+                scheduled.set(false);
+                if (!pending.isEmpty() && subscribers.contains(this)
+                        && scheduled.compareAndSet(false, true)) {
+                    writers.execute(this::drain);
+                }
+            }
+        }
+
+        void close() {
+            subscribers.remove(this);
+            pending.clear();
+            try {
+                client.close();
+            } catch (RuntimeException ex) {
+                logger.atFine().withCause(ex).log("Client was already closed.");
+            }
+        }
+    }
+}
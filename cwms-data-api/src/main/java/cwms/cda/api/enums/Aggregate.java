@@ -0,0 +1,56 @@
+package cwms.cda.api.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(
+        name = "Aggregate",
+        description = "How the values of a time series are reduced to at most max-points values. "
+                + "min, max, mean, sum, first and last reduce each time bucket to one value. "
+                + "lttb (Largest Triangle Three Buckets) and min-max select actual values."
+)
+public enum Aggregate {
+    MIN("min"),
+    MAX("max"),
+    MEAN("mean"),
+    SUM("sum"),
+    FIRST("first"),
+    LAST("last"),
+    LTTB("lttb"),
+    MIN_MAX("min-max");
+
+    private final String value;
+
+    Aggregate(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Whether each bucket is reduced to one computed value, as opposed to selecting actual
+     * values from the series.
+     */
+    public boolean isBucketAggregate() {
+        return this != LTTB && this != MIN_MAX;
+    }
+
+    public static Aggregate aggregateFor(String aggregate) {
+        Aggregate retval = null;
+
+        if (aggregate != null) {
+            for (Aggregate candidate : values()) {
+                if (candidate.value.equalsIgnoreCase(aggregate)
+                        || candidate.name().equalsIgnoreCase(aggregate)) {
+                    retval = candidate;
+                    break;
+                }
+            }
+            if (retval == null) {
+                throw new IllegalArgumentException("Unknown aggregate: " + aggregate);
+            }
+        }
+        return retval;
+    }
+}
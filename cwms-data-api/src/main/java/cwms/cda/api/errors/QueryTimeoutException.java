@@ -0,0 +1,12 @@
+package cwms.cda.api.errors;
+
+/**
+ * Thrown when a database statement ran longer than the request allowed and was
+ * cancelled.
+ */
+public class QueryTimeoutException extends RuntimeException {
+
+    public QueryTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,13 @@
+package cwms.cda.api.errors;
+
+/**
+ * Thrown when a streamed response fails after part of it was sent. The connection is
+ * aborted instead of writing an error, which would leave a cut off response looking
+ * complete to the client.
+ */
+public class StreamAbortedException extends RuntimeException {
+
+    public StreamAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
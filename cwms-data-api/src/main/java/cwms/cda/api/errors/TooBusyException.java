@@ -0,0 +1,18 @@
+package cwms.cda.api.errors;
+
+/**
+ * Thrown when a request is turned away because its route group is already running
+ * as many requests as it is allowed to.
+ */
+public class TooBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -44,6 +44,14 @@ public class CountyDao extends JooqDao<County> {
      * @see List
      */
     public List<County> getCounties() {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.getCounties();
+        }
+        return fetchCounties();
+    }
+
+    List<County> fetchCounties() {
         return dsl.select(AV_COUNTY.COUNTY_NAME, AV_COUNTY.COUNTY_ID, AV_COUNTY.STATE_INITIAL)
                 .from(AV_COUNTY)
                 .orderBy(AV_COUNTY.STATE_INITIAL.asc(), AV_COUNTY.COUNTY_ID.asc())
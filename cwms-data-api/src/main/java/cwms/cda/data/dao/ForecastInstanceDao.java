@@ -17,6 +17,7 @@ import usace.cwms.db.jooq.codegen.udt.records.BLOB_FILE_T;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.sql.Blob;
 import java.sql.Connection;
@@ -150,7 +151,25 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
         }
     }
 
-    public List<ForecastInstance> getForecastInstances(int byteLimit, ReplaceUtils.OperatorBuilder urlBuilder,
+    /**
+     * Lists the forecast instances matching the provided filters.
+     *
+     * <p>When {@code includeFileData} is false the blob contents are never read; each instance
+     * only carries the file size, media type and a {@code file-data} URL.  When it is true files
+     * no larger than {@code byteLimit} are returned inline until {@code totalByteLimit} bytes
+     * have been inlined for the response, after which the remaining instances get a URL.</p>
+     *
+     * @param includeFileData whether small files may be returned inline
+     * @param byteLimit largest single file, in bytes, that may be returned inline
+     * @param totalByteLimit total number of bytes that may be inlined across the listing
+     * @param urlBuilder builds the {@code file-data} URL for a spec id
+     * @param office office filter, may be null
+     * @param name spec id filter, may be null
+     * @param designator designator filter, may be null
+     * @return the matching forecast instances
+     */
+    public List<ForecastInstance> getForecastInstances(boolean includeFileData, int byteLimit,
+            long totalByteLimit, ReplaceUtils.OperatorBuilder urlBuilder,
             String office, String name, String designator) {
 
         String query = INSTANCE_QUERY + GET_ALL_CONDITIONS;
@@ -165,8 +184,14 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
                 preparedStatement.setString(6, designator);
                 try (ResultSet resultSet = preparedStatement.executeQuery()) {
                     List<ForecastInstance> instances = new ArrayList<>();
+                    long remaining = includeFileData ? totalByteLimit : 0L;
                     while (resultSet.next()) {
-                        instances.add(map(byteLimit, urlBuilder, resultSet));
+                        int limit = (int) Math.max(Math.min(byteLimit, remaining), -1L);
+                        ForecastInstance instance = map(includeFileData, limit, urlBuilder, resultSet);
+                        if (instance.getFileData() != null) {
+                            remaining -= instance.getFileData().length;
+                        }
+                        instances.add(instance);
                     }
                     return instances;
                 }
@@ -174,7 +199,8 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
         });
     }
 
-    private static ForecastInstance map(int byteLimit, ReplaceUtils.OperatorBuilder urlBuilder, ResultSet resultSet) throws SQLException, IOException {
+    private static ForecastInstance map(boolean includeFileData, int byteLimit,
+            ReplaceUtils.OperatorBuilder urlBuilder, ResultSet resultSet) throws SQLException, IOException {
         List<String> timeSeriesIdentifiers = new ArrayList<>();
         String tsIds = resultSet.getString(5);
         if (tsIds != null) {
@@ -199,24 +225,23 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
         String url = null;
         String fileName = null;
         String mediaType = null;
+        Long fileSize = null;
         if (blobFile != null) {
             Object[] attributes = blobFile.getAttributes();
             if (attributes != null) {
                 fileName = (String) attributes[0];
                 mediaType = (String) attributes[1];
                 Blob blob = (Blob) attributes[4];
-                if (blob.length() > byteLimit) {
-                    String param = "&%s=%s";
-                    String utf8 = "UTF-8";
-                    url = urlBuilder.build().apply(specId) + "?"
-                            + format(param, Controllers.NAME, URLEncoder.encode(specId, utf8))
-                            + format(param, Controllers.FORECAST_DATE, URLEncoder.encode(forecastDate.toString(), utf8))
-                            + format(param, Controllers.ISSUE_DATE, URLEncoder.encode(issueDate.toString(), utf8))
-                            + format(param, Controllers.DESIGNATOR, URLEncoder.encode(designator, utf8))
-                            + format(param, Controllers.OFFICE, URLEncoder.encode(officeId, utf8));
-                } else {
-                    try (InputStream is = blob.getBinaryStream()) {
-                        fileData = BlobDao.readFully(is);
+                if (blob != null) {
+                    // Only the lob locator is consulted here, the contents stay in the database.
+                    fileSize = blob.length();
+                    if (includeFileData && fileSize <= byteLimit) {
+                        try (InputStream is = blob.getBinaryStream()) {
+                            fileData = BlobDao.readFully(is);
+                        }
+                    } else {
+                        url = buildFileDataUrl(urlBuilder, officeId, specId, designator,
+                                forecastDate, issueDate);
                     }
                 }
             }
@@ -238,6 +263,7 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
                 .withFileData(fileData)
                 .withFilename(fileName)
                 .withFileMediaType(mediaType)
+                .withFileSize(fileSize)
                 .withNotes(resultSet.getString(11))
                 .withFirstDateTime(firstDateTime)
                 .withLastDateTime(lastDateTime)
@@ -245,6 +271,19 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
                 .build();
     }
 
+    private static String buildFileDataUrl(ReplaceUtils.OperatorBuilder urlBuilder, String officeId,
+            String specId, String designator, Instant forecastDate, Instant issueDate)
+            throws UnsupportedEncodingException {
+        String param = "&%s=%s";
+        String utf8 = "UTF-8";
+        return urlBuilder.build().apply(specId) + "?"
+                + format(param, Controllers.NAME, URLEncoder.encode(specId, utf8))
+                + format(param, Controllers.FORECAST_DATE, URLEncoder.encode(forecastDate.toString(), utf8))
+                + format(param, Controllers.ISSUE_DATE, URLEncoder.encode(issueDate.toString(), utf8))
+                + format(param, Controllers.DESIGNATOR, URLEncoder.encode(designator, utf8))
+                + format(param, Controllers.OFFICE, URLEncoder.encode(officeId, utf8));
+    }
+
     public ForecastInstance getForecastInstance(int byteLimit, ReplaceUtils.OperatorBuilder urlBuilder,
             String office, String name, String designator,
             Instant forecastDate, Instant issueDate) {
@@ -258,7 +297,7 @@ public final class ForecastInstanceDao extends JooqDao<ForecastInstance> {
                 preparedStatement.setLong(5, issueDate.toEpochMilli());
                 try (ResultSet resultSet = preparedStatement.executeQuery()) {
                     if (resultSet.next()) {
-                        return map(byteLimit, urlBuilder, resultSet);
+                        return map(true, byteLimit, urlBuilder, resultSet);
                     } else {
                         String message = format("Could not find forecast instance for " +
                                         "office id: %s, spec id: %s, designator: %s, forecast date: %s, issue date: %s",
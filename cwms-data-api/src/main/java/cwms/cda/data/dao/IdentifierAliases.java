@@ -0,0 +1,301 @@
+package cwms.cda.data.dao;
+
+import com.google.common.flogger.FluentLogger;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * The location and time series aliases of the group assignments, by office, so an alias
+ * given by a caller can be turned into the actual id without asking the database.
+ *
+ * <p>The aliases are read from AV_LOC_GRP_ASSGN and AV_TS_GRP_ASSGN when the servlet
+ * starts and again every cda.api.alias.refresh.minutes (default 60, 0 turns the index
+ * off). The aliases of an office are read again right away when groups of that office
+ * are created, deleted or have their assignments changed through this node.
+ * An alias used for more than one id is left to the database to resolve, as is any
+ * name while the index is not loaded. So is an alias that is also the id of a location or
+ * time series of its office, the database takes the actual id first: such aliases are not
+ * read, and are dropped when a location or time series of that name is created through
+ * this node.
+ */
+public final class IdentifierAliases {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String REFRESH_MINUTES_KEY = "cda.api.alias.refresh.minutes";
+    private static final long REFRESH_MINUTES = Long.getLong(REFRESH_MINUTES_KEY, 60L);
+    // marks an alias that more than one id uses
+    private static final String AMBIGUOUS = "";
+
+    private static volatile IdentifierAliases current;
+    private static ScheduledExecutorService refresher;
+    // offices whose groups changed while a new index is read, read again before it is used
+    private static Set<String> pending;
+
+    private final Map<String, Office> offices = new ConcurrentHashMap<>();
+
+    /**
+     * Called with each assignment that has an alias.
+     */
+    @FunctionalInterface
+    interface AliasConsumer {
+        void accept(String officeId, String aliasId, String id);
+    }
+
+    static final class Office {
+        final Map<String, String> locations = new ConcurrentHashMap<>();
+        final Map<String, String> timeSeries = new ConcurrentHashMap<>();
+    }
+
+    IdentifierAliases() {
+    }
+
+    /**
+     * @return the loaded index, null until the first load succeeded.
+     */
+    public static IdentifierAliases current() {
+        return current;
+    }
+
+    /**
+     * @param officeId the office of the location
+     * @param name a location id or alias
+     * @return the location id the alias stands for, the name itself if it is not a known
+     *     alias.
+     */
+    public static String resolveLocation(String officeId, String name) {
+        IdentifierAliases index = current;
+        return index == null ? name : index.location(officeId, name);
+    }
+
+    /**
+     * Resolves a time series alias or, like the database does, a time series id whose
+     * location is given by an alias.
+     * @param officeId the office of the time series
+     * @param name a time series id or alias
+     * @return the time series id the alias stands for, the name itself if it is not a
+     *     known alias.
+     */
+    public static String resolveTimeSeries(String officeId, String name) {
+        IdentifierAliases index = current;
+        return index == null ? name : index.timeSeries(officeId, name);
+    }
+
+    /**
+     * Stops resolving the location id as an alias, after a location of that id was stored.
+     * @param officeId the office of the location
+     * @param locationId the location id
+     */
+    public static void locationStored(String officeId, String locationId) {
+        IdentifierAliases index = current;
+        if (index != null) {
+            index.removeLocation(officeId, locationId);
+        }
+    }
+
+    /**
+     * Stops resolving the time series id as an alias, after a time series of that id was
+     * created or stored.
+     * @param officeId the office of the time series
+     * @param tsId the time series id
+     */
+    public static void timeSeriesStored(String officeId, String tsId) {
+        IdentifierAliases index = current;
+        if (index != null) {
+            index.removeTimeSeries(officeId, tsId);
+        }
+    }
+
+    /**
+     * Reads all aliases and makes the result the current index.
+     * @param dsl the context to read the aliases with
+     * @return the new index
+     */
+    public static IdentifierAliases load(DSLContext dsl) {
+        synchronized (IdentifierAliases.class) {
+            pending = new HashSet<>();
+        }
+        IdentifierAliases index = new IdentifierAliases();
+        boolean loaded = false;
+        try {
+            index.read(dsl, null);
+            loaded = true;
+        } finally {
+            Set<String> changed;
+            synchronized (IdentifierAliases.class) {
+                changed = pending;
+                pending = null;
+                if (loaded) {
+                    // read before the groups changed, left to the database until read again
+                    changed.forEach(officeId -> index.offices.remove(
+                            officeId.toUpperCase(Locale.ROOT)));
+                    current = index;
+                }
+            }
+            if (loaded) {
+                changed.forEach(officeId -> index.reload(dsl, officeId));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Loads the index and schedules the background refresh. A failed load is logged and
+     * retried at the next refresh.
+     * @param dataSource where to read the aliases from
+     */
+    public static synchronized void start(DataSource dataSource) {
+        stop();
+        if (REFRESH_MINUTES <= 0) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, IdentifierAliases.class.getSimpleName() + "-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> refresh(dataSource), 0, REFRESH_MINUTES,
+                TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    static void refresh(DataSource dataSource) {
+        try {
+            long start = System.nanoTime();
+            IdentifierAliases index = load(DSL.using(dataSource, SQLDialect.ORACLE18C));
+            logger.atInfo().log("Indexed the aliases of %d offices in %d ms.",
+                    index.offices.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            logger.atWarning().withCause(ex).log("Unable to load the alias index.");
+        }
+    }
+
+    /**
+     * Reads the aliases of an office again after its groups or their assignments changed.
+     * If that fails the office is left out of the index until the next refresh, so its
+     * aliases are resolved by the database.
+     * @param dsl the context to read the aliases with
+     * @param officeId the office of the changed groups
+     */
+    public static void groupsChanged(DSLContext dsl, String officeId) {
+        if (officeId == null) {
+            return;
+        }
+        IdentifierAliases index;
+        synchronized (IdentifierAliases.class) {
+            if (pending != null) {
+                pending.add(officeId);
+            }
+            index = current;
+        }
+        if (index != null) {
+            index.reload(dsl, officeId);
+        }
+    }
+
+    private void reload(DSLContext dsl, String officeId) {
+        String key = officeId.toUpperCase(Locale.ROOT);
+        offices.remove(key);
+        try {
+            IdentifierAliases office = new IdentifierAliases();
+            office.read(dsl, officeId);
+            Office aliases = office.offices.get(key);
+            if (aliases != null) {
+                offices.put(key, aliases);
+            }
+        } catch (RuntimeException ex) {
+            logger.atWarning().withCause(ex).log("Unable to read the aliases of %s.", officeId);
+        }
+    }
+
+    private void read(DSLContext dsl, String officeId) {
+        new LocationGroupDao(dsl).fetchLocationAliases(officeId, this::putLocation);
+        new TimeSeriesGroupDao(dsl).fetchTimeSeriesAliases(officeId, this::putTimeSeries);
+    }
+
+    private Office office(String officeId) {
+        return offices.computeIfAbsent(officeId.toUpperCase(Locale.ROOT), k -> new Office());
+    }
+
+    private static void put(Map<String, String> aliases, String alias, String id) {
+        aliases.merge(alias.toUpperCase(Locale.ROOT), id,
+                (existing, added) -> existing.equalsIgnoreCase(added) ? existing : AMBIGUOUS);
+    }
+
+    void putLocation(String officeId, String alias, String id) {
+        put(office(officeId).locations, alias, id);
+    }
+
+    void putTimeSeries(String officeId, String alias, String id) {
+        put(office(officeId).timeSeries, alias, id);
+    }
+
+    void removeLocation(String officeId, String id) {
+        remove(officeId, id, false);
+    }
+
+    void removeTimeSeries(String officeId, String id) {
+        remove(officeId, id, true);
+    }
+
+    private void remove(String officeId, String id, boolean timeSeries) {
+        if (officeId == null || id == null) {
+            return;
+        }
+        Office office = offices.get(officeId.toUpperCase(Locale.ROOT));
+        if (office != null) {
+            (timeSeries ? office.timeSeries : office.locations)
+                    .remove(id.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    String location(String officeId, String name) {
+        String id = lookup(officeId, name, false);
+        return id == null ? name : id;
+    }
+
+    String timeSeries(String officeId, String name) {
+        String id = lookup(officeId, name, true);
+        if (id != null) {
+            return id;
+        }
+        int dot = name == null ? -1 : name.indexOf('.');
+        if (dot <= 0) {
+            return name;
+        }
+        String location = lookup(officeId, name.substring(0, dot), false);
+        return location == null ? name : location + name.substring(dot);
+    }
+
+    /**
+     * @return the id of an alias, null if it is not a known alias of the office.
+     */
+    private String lookup(String officeId, String name, boolean timeSeries) {
+        if (officeId == null || name == null) {
+            return null;
+        }
+        Office office = offices.get(officeId.toUpperCase(Locale.ROOT));
+        if (office == null) {
+            return null;
+        }
+        String id = (timeSeries ? office.timeSeries : office.locations)
+                .get(name.toUpperCase(Locale.ROOT));
+        return id == null || id.equals(AMBIGUOUS) ? null : id;
+    }
+}
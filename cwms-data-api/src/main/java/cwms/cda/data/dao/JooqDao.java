@@ -32,6 +32,7 @@ import cwms.cda.ApiServlet;
 import cwms.cda.api.errors.AlreadyExists;
 import cwms.cda.api.errors.InvalidItemException;
 import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.api.errors.QueryTimeoutException;
 import cwms.cda.datasource.ConnectionPreparingDataSource;
 import cwms.cda.security.CwmsAuthException;
 import io.javalin.http.Context;
@@ -39,10 +40,13 @@ import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.servlet.http.HttpServletResponse;
 import javax.sql.DataSource;
 import org.jetbrains.annotations.NotNull;
@@ -68,6 +72,9 @@ public abstract class JooqDao<T> extends Dao<T> {
     private static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
     static ExecuteListener listener = new ExceptionWrappingListener();
+    static ExecuteListener trackingListener = new StatementTrackingListener();
+    static ExecuteListener timingListener = new TimingListener();
+    static ExecuteListener slowQueryListener = new SlowQueryListener();
 
     public enum DeleteMethod {
         DELETE_ALL(DeleteRule.DELETE_ALL),
@@ -117,11 +124,30 @@ public abstract class JooqDao<T> extends Dao<T> {
             retVal = getDslContext(database, officeId);
         }
 
-        retVal.configuration().set(new DefaultExecuteListenerProvider(listener));
+        // the tracking listener must see the SQLException before it is wrapped
+        retVal.configuration().set(new DefaultExecuteListenerProvider(slowQueryListener),
+                new DefaultExecuteListenerProvider(timingListener),
+                new DefaultExecuteListenerProvider(trackingListener),
+                new DefaultExecuteListenerProvider(listener));
+        retVal.configuration().data(StatementTrackingListener.REQUEST_STATEMENTS,
+                requestStatements(ctx));
+        int timeout = QueryTimeouts.forRequest(ctx);
+        if (timeout > 0) {
+            retVal.settings().setQueryTimeout(timeout);
+        }
 
         return retVal;
     }
 
+    private static Set<Statement> requestStatements(Context ctx) {
+        Set<Statement> statements = ctx.attribute(StatementTrackingListener.REQUEST_STATEMENTS);
+        if (statements == null) {
+            statements = ConcurrentHashMap.newKeySet();
+            ctx.attribute(StatementTrackingListener.REQUEST_STATEMENTS, statements);
+        }
+        return statements;
+    }
+
     public static DSLContext getDslContext(Connection connection, String officeId) {
         // Because this dsl is constructed with a connection, jOOQ will reuse the provided
         // connection and not get new connections from a DataSource.  See:
@@ -235,6 +261,9 @@ public abstract class JooqDao<T> extends Dao<T> {
             retVal = buildNotAuthorizedForOffice(input);
         } else if (isInvalidUnits(input)) {
             retVal = buildInvalidUnits(input);
+        } else if (isQueryTimeout(input)) {
+            retVal = new QueryTimeoutException("The request took longer than it is allowed to.",
+                    input);
         }
 
         return retVal;
@@ -450,6 +479,29 @@ public abstract class JooqDao<T> extends Dao<T> {
         return new InvalidItemException(message, cause);
     }
 
+    public static boolean isQueryTimeout(RuntimeException input) {
+        return getSqlException(input).map(StatementTrackingListener::isTimeout).orElse(false);
+    }
+
+    /**
+     * Cancels the database statements that are still running.
+     * @return the number of statements cancelled
+     */
+    public static int cancelRunningStatements() {
+        return StatementTrackingListener.cancelAll();
+    }
+
+    /**
+     * Cancels the database statements of the request that are still running, e.g. the
+     * parallel fetches of a request that failed or whose client went away.
+     * @param ctx the request context
+     * @return the number of statements cancelled
+     */
+    public static int cancelRunningStatements(Context ctx) {
+        Set<Statement> statements = ctx.attribute(StatementTrackingListener.REQUEST_STATEMENTS);
+        return statements == null ? 0 : StatementTrackingListener.cancel(statements);
+    }
+
     public static boolean isInvalidUnits(RuntimeException input) {
         boolean retVal = false;
 
@@ -30,6 +30,7 @@ import static org.jooq.impl.DSL.noCondition;
 import cwms.cda.data.dto.AssignedLocation;
 import cwms.cda.data.dto.LocationCategory;
 import cwms.cda.data.dto.LocationGroup;
+import cwms.cda.helpers.BoundingBox;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -40,6 +41,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import kotlin.Pair;
 import org.geojson.Feature;
 import org.geojson.FeatureCollection;
@@ -357,27 +360,68 @@ public final class LocationGroupDao extends JooqDao<LocationGroup> {
     public FeatureCollection buildFeatureCollectionForLocationGroup(String officeId,
                                                                     String categoryId,
                                                                     String groupId, String units) {
+        List<Feature> features = new ArrayList<>();
+        streamFeaturesForLocationGroup(officeId, categoryId, groupId, units, null, features::add);
+        FeatureCollection collection = new FeatureCollection();
+        collection.setFeatures(features);
+
+        return collection;
+    }
+
+    /**
+     * Hands the features of a location group to the consumer while the rows are read.
+     * @param bbox only locations inside the box, null for all
+     */
+    public void streamFeaturesForLocationGroup(String officeId, String categoryId,
+                                               String groupId, String units,
+                                               @Nullable BoundingBox bbox,
+                                               Consumer<Feature> consumer) {
         AV_LOC_GRP_ASSGN alga = AV_LOC_GRP_ASSGN.AV_LOC_GRP_ASSGN;
         AV_LOC al = AV_LOC.AV_LOC;
 
+        Condition condition = alga.DB_OFFICE_ID.eq(officeId)
+                .and(alga.CATEGORY_ID.eq(categoryId)
+                        .and(alga.GROUP_ID.eq(groupId))
+                        .and(al.UNIT_SYSTEM.eq(units)));
+        if (bbox != null) {
+            condition = condition.and(bbox.condition(al.LONGITUDE, al.LATITUDE));
+        }
+
         SelectSeekStep1<Record, BigDecimal> select = dsl.select(al.asterisk(), alga.CATEGORY_ID,
                         alga.GROUP_ID, alga.ATTRIBUTE, alga.ALIAS_ID, alga.SHARED_REF_LOCATION_ID,
                         alga.SHARED_ALIAS_ID)
                 .from(al).join(alga).on(al.LOCATION_ID.eq(alga.LOCATION_ID))
-                .where(alga.DB_OFFICE_ID.eq(officeId)
-                        .and(alga.CATEGORY_ID.eq(categoryId)
-                                .and(alga.GROUP_ID.eq(groupId))
-                                .and(al.UNIT_SYSTEM.eq(units))))
+                .where(condition)
                 .orderBy(alga.ATTRIBUTE);
 
-        List<Feature> features =
-                select.stream()
-                        .map(this::buildFeatureFromAvLocRecordWithLocGroup)
-                        .collect(toList());
-        FeatureCollection collection = new FeatureCollection();
-        collection.setFeatures(features);
+        try (Stream<Record> records =
+                     select.fetchSize(LocationsDaoImpl.FEATURE_FETCH_SIZE).stream()) {
+            records.map(this::buildFeatureFromAvLocRecordWithLocGroup).forEach(consumer);
+        }
+    }
 
-        return collection;
+    /**
+     * Reads the alias of every location assignment that has one, leaving out aliases that
+     * are also the id of a location of the office, the database takes the location then.
+     * @param officeId only locations of this office, null for all offices
+     * @param consumer called with the office, alias and location id of each assignment
+     */
+    void fetchLocationAliases(@Nullable String officeId,
+                              IdentifierAliases.AliasConsumer consumer) {
+        AV_LOC_GRP_ASSGN alga = AV_LOC_GRP_ASSGN.AV_LOC_GRP_ASSGN;
+        AV_LOC al = AV_LOC.AV_LOC;
+        Condition condition = alga.ALIAS_ID.isNotNull()
+                .andNotExists(DSL.selectOne().from(al)
+                        .where(al.DB_OFFICE_ID.eq(alga.DB_OFFICE_ID))
+                        .and(DSL.upper(al.LOCATION_ID).eq(DSL.upper(alga.ALIAS_ID))));
+        if (officeId != null) {
+            condition = condition.and(alga.DB_OFFICE_ID.equalIgnoreCase(officeId));
+        }
+        dsl.select(alga.DB_OFFICE_ID, alga.ALIAS_ID, alga.LOCATION_ID)
+                .from(alga)
+                .where(condition)
+                .fetch()
+                .forEach(r -> consumer.accept(r.value1(), r.value2(), r.value3()));
     }
 
     /**
@@ -393,6 +437,7 @@ public final class LocationGroupDao extends JooqDao<LocationGroup> {
             CWMS_LOC_PACKAGE.call_DELETE_LOC_GROUP__2(dslContext.configuration(), categoryId,
                     groupId, OracleTypeMap.formatBool(cascadeDelete), office);
         });
+        IdentifierAliases.groupsChanged(dsl, office);
     }
 
     /**
@@ -442,6 +487,7 @@ public final class LocationGroupDao extends JooqDao<LocationGroup> {
             CWMS_LOC_PACKAGE.call_UNASSIGN_LOC_GROUP(dslContext.configuration(),
                     cat.getId(), group.getId(), null, "T", office);
         });
+        IdentifierAliases.groupsChanged(dsl, office);
     }
 
     public void assignLocs(LocationGroup group) {
@@ -459,6 +505,7 @@ public final class LocationGroupDao extends JooqDao<LocationGroup> {
                 CWMS_LOC_PACKAGE.call_ASSIGN_LOC_GROUPS3(dslContext.configuration(),
                         cat.getId(), group.getId(), assignedLocs, office);
             });
+            IdentifierAliases.groupsChanged(dsl, office);
         }
     }
 }
@@ -0,0 +1,361 @@
+package cwms.cda.data.dao;
+
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.data.dto.LocationPoint;
+import cwms.cda.helpers.BoundingBox;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * An in memory grid of the location coordinates for bounding box, radius and nearest
+ * location queries.
+ *
+ * <p>The grid has cells of {@link #CELL_DEGREES} degrees, a query only looks at the cells
+ * that overlap its area. The index is read from AV_LOC when the servlet starts and read
+ * again every cda.api.location.index.refresh.minutes (default 60, 0 turns the index off).
+ * Locations stored, renamed or deleted through this node are applied right away, changes
+ * made through other nodes or directly in the database show up at the next refresh.
+ */
+public final class LocationIndex {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String REFRESH_MINUTES_KEY = "cda.api.location.index.refresh.minutes";
+    private static final long REFRESH_MINUTES = Long.getLong(REFRESH_MINUTES_KEY, 60L);
+
+    static final double CELL_DEGREES = 0.5;
+    private static final int ROWS = (int) Math.ceil(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.ceil(360 / CELL_DEGREES);
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.toRadians(EARTH_RADIUS_KM);
+    private static final double HALF_CIRCUMFERENCE_KM = Math.PI * EARTH_RADIUS_KM;
+    private static final double FIRST_NEAREST_RADIUS_KM = 50;
+
+    private static volatile LocationIndex current;
+    private static ScheduledExecutorService refresher;
+    // changes made while a new index is read, replayed onto it before it is used
+    private static List<Consumer<LocationIndex>> pending;
+    private static final AtomicLong GENERATION = new AtomicLong();
+    // the generation of the last load, and of the last change to each office
+    private static volatile long loadedGeneration;
+    private static final Map<String, Long> OFFICE_GENERATIONS = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Map<String, LocationPoint>> cells = new ConcurrentHashMap<>();
+    private final Map<String, LocationPoint> points = new ConcurrentHashMap<>();
+
+    LocationIndex() {
+    }
+
+    /**
+     * @return the loaded index, null until the first load succeeded.
+     */
+    public static LocationIndex current() {
+        return current;
+    }
+
+    /**
+     * Reads the coordinates of all locations and makes the result the current index.
+     * @param dsl the context to read the locations with
+     * @return the new index
+     */
+    public static LocationIndex load(DSLContext dsl) {
+        synchronized (LocationIndex.class) {
+            pending = new ArrayList<>();
+        }
+        LocationIndex index = new LocationIndex();
+        boolean loaded = false;
+        try {
+            new LocationsDaoImpl(dsl).fetchLocationPoints(index::put);
+            loaded = true;
+        } finally {
+            synchronized (LocationIndex.class) {
+                if (loaded) {
+                    pending.forEach(change -> change.accept(index));
+                    current = index;
+                    loadedGeneration = GENERATION.incrementAndGet();
+                }
+                pending = null;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Loads the index and schedules the background refresh. A failed load is logged and
+     * retried at the next refresh.
+     * @param dataSource where to read the locations from
+     */
+    public static synchronized void start(DataSource dataSource) {
+        stop();
+        if (REFRESH_MINUTES <= 0) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, LocationIndex.class.getSimpleName() + "-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> refresh(dataSource), 0, REFRESH_MINUTES,
+                TimeUnit.MINUTES);
+    }
+
+    public static synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    static void refresh(DataSource dataSource) {
+        try {
+            long start = System.nanoTime();
+            LocationIndex index = load(DSL.using(dataSource, SQLDialect.ORACLE18C));
+            logger.atInfo().log("Indexed %d locations in %d ms.", index.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            logger.atWarning().withCause(ex).log("Unable to load the location index.");
+        }
+    }
+
+    /**
+     * @return a number that changes whenever a location in the index changed, for caches of
+     *     results derived from the index.
+     */
+    public static long generation() {
+        return GENERATION.get();
+    }
+
+    /**
+     * @param officeId the office, null for all
+     * @return a number that changes whenever a location of the office in the index changed,
+     *     so results for one office survive the changes to the others.
+     */
+    public static long generation(String officeId) {
+        if (officeId == null) {
+            return generation();
+        }
+        Long changed = OFFICE_GENERATIONS.get(officeId.toUpperCase(Locale.ROOT));
+        return changed == null ? loadedGeneration : Math.max(loadedGeneration, changed);
+    }
+
+    /**
+     * Records a stored location, a location without coordinates is removed from the index.
+     */
+    public static void locationStored(String officeId, String name, Double latitude,
+                                      Double longitude, String kind) {
+        update(officeId, index -> {
+            index.remove(officeId, name);
+            if (latitude != null && longitude != null) {
+                index.put(new LocationPoint.Builder()
+                        .withOfficeId(officeId)
+                        .withName(name)
+                        .withLatitude(latitude)
+                        .withLongitude(longitude)
+                        .withKind(kind)
+                        .build());
+            }
+        });
+    }
+
+    public static void locationRenamed(String officeId, String oldName, String newName,
+                                       Double latitude, Double longitude, String kind) {
+        update(officeId, index -> index.remove(officeId, oldName));
+        locationStored(officeId, newName, latitude, longitude, kind);
+    }
+
+    public static void locationDeleted(String officeId, String name) {
+        update(officeId, index -> index.remove(officeId, name));
+    }
+
+    private static synchronized void update(String officeId, Consumer<LocationIndex> change) {
+        LocationIndex index = current;
+        if (index != null) {
+            change.accept(index);
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+        OFFICE_GENERATIONS.put(String.valueOf(officeId).toUpperCase(Locale.ROOT),
+                GENERATION.incrementAndGet());
+    }
+
+    private static String key(String officeId, String name) {
+        return (officeId + "/" + name).toUpperCase(Locale.ROOT);
+    }
+
+    private static int cell(double latitude, double longitude) {
+        return row(latitude) * COLUMNS + column(longitude);
+    }
+
+    private static int row(double latitude) {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    private static int column(double longitude) {
+        return Math.max(0, Math.min(COLUMNS - 1,
+                (int) Math.floor((longitude + 180) / CELL_DEGREES)));
+    }
+
+    void put(LocationPoint point) {
+        double latitude = point.getLatitude();
+        double longitude = point.getLongitude();
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            return;
+        }
+        remove(point.getOfficeId(), point.getName());
+        String key = key(point.getOfficeId(), point.getName());
+        points.put(key, point);
+        cells.computeIfAbsent(cell(latitude, longitude), c -> new ConcurrentHashMap<>())
+             .put(key, point);
+    }
+
+    void remove(String officeId, String name) {
+        String key = key(officeId, name);
+        LocationPoint point = points.remove(key);
+        if (point != null) {
+            Map<String, LocationPoint> cell =
+                    cells.get(cell(point.getLatitude(), point.getLongitude()));
+            if (cell != null) {
+                cell.remove(key);
+            }
+        }
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * @param bbox the box to search
+     * @param officeId only locations of this office, null for all
+     * @param limit the most locations to return
+     * @return the locations inside the box ordered by office and name.
+     */
+    public List<LocationPoint> within(BoundingBox bbox, String officeId, int limit) {
+        List<LocationPoint> retVal = new ArrayList<>();
+        Consumer<LocationPoint> visitor = point -> {
+            if (matches(point, officeId)
+                    && bbox.contains(point.getLongitude(), point.getLatitude())) {
+                retVal.add(point);
+            }
+        };
+        if (bbox.crossesAntimeridian()) {
+            scan(bbox.getSouth(), bbox.getNorth(), bbox.getWest(), 180, visitor);
+            scan(bbox.getSouth(), bbox.getNorth(), -180, bbox.getEast(), visitor);
+        } else {
+            scan(bbox.getSouth(), bbox.getNorth(), bbox.getWest(), bbox.getEast(), visitor);
+        }
+        retVal.sort(Comparator.comparing(LocationPoint::getOfficeId)
+                .thenComparing(LocationPoint::getName));
+        return retVal.size() > limit ? new ArrayList<>(retVal.subList(0, limit)) : retVal;
+    }
+
+    /**
+     * @param radiusKm the great circle distance from the point to search
+     * @param officeId only locations of this office, null for all
+     * @param limit the most locations to return
+     * @return the locations within the radius, closest first, with their distance.
+     */
+    public List<LocationPoint> withinRadius(double latitude, double longitude, double radiusKm,
+                                            String officeId, int limit) {
+        List<LocationPoint> retVal = new ArrayList<>();
+        Consumer<LocationPoint> visitor = point -> {
+            if (matches(point, officeId)) {
+                double distance = distanceKm(latitude, longitude, point.getLatitude(),
+                        point.getLongitude());
+                if (distance <= radiusKm) {
+                    retVal.add(new LocationPoint.Builder(point).withDistanceKm(distance).build());
+                }
+            }
+        };
+
+        double deltaLatitude = radiusKm / KM_PER_DEGREE;
+        double south = Math.max(-90, latitude - deltaLatitude);
+        double north = Math.min(90, latitude + deltaLatitude);
+        // widest longitude span of the circle, all longitudes when it covers a pole
+        double sinSpan = Math.sin(Math.min(radiusKm, HALF_CIRCUMFERENCE_KM) / EARTH_RADIUS_KM)
+                / Math.cos(Math.toRadians(latitude));
+        if (south <= -90 || north >= 90 || radiusKm >= HALF_CIRCUMFERENCE_KM / 2
+                || sinSpan >= 1) {
+            scan(south, north, -180, 180, visitor);
+        } else {
+            double deltaLongitude = Math.toDegrees(Math.asin(sinSpan));
+            double west = longitude - deltaLongitude;
+            double east = longitude + deltaLongitude;
+            if (west < -180) {
+                scan(south, north, west + 360, 180, visitor);
+                scan(south, north, -180, east, visitor);
+            } else if (east > 180) {
+                scan(south, north, west, 180, visitor);
+                scan(south, north, -180, east - 360, visitor);
+            } else {
+                scan(south, north, west, east, visitor);
+            }
+        }
+        retVal.sort(Comparator.comparing(LocationPoint::getDistanceKm));
+        return retVal.size() > limit ? new ArrayList<>(retVal.subList(0, limit)) : retVal;
+    }
+
+    /**
+     * @param count how many locations to return
+     * @param officeId only locations of this office, null for all
+     * @return the count locations closest to the point, closest first, with their distance.
+     */
+    public List<LocationPoint> nearest(double latitude, double longitude, int count,
+                                       String officeId) {
+        // every location inside the radius is found, so the closest count of them are
+        // the closest overall once there are at least count
+        double radiusKm = FIRST_NEAREST_RADIUS_KM;
+        while (true) {
+            List<LocationPoint> found = withinRadius(latitude, longitude, radiusKm, officeId,
+                    count);
+            if (found.size() >= count || radiusKm >= HALF_CIRCUMFERENCE_KM) {
+                return found;
+            }
+            radiusKm = Math.min(radiusKm * 4, HALF_CIRCUMFERENCE_KM);
+        }
+    }
+
+    private static boolean matches(LocationPoint point, String officeId) {
+        return officeId == null || officeId.equalsIgnoreCase(point.getOfficeId());
+    }
+
+    private void scan(double south, double north, double west, double east,
+                      Consumer<LocationPoint> visitor) {
+        for (int row = row(south); row <= row(north); row++) {
+            for (int column = column(west); column <= column(east); column++) {
+                Map<String, LocationPoint> cell = cells.get(row * COLUMNS + column);
+                if (cell != null) {
+                    cell.values().forEach(visitor);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the great circle distance between two points in kilometers.
+     */
+    static double distanceKm(double latitude1, double longitude1, double latitude2,
+                             double longitude2) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double deltaPhi = phi2 - phi1;
+        double deltaLambda = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(deltaPhi / 2) * Math.sin(deltaPhi / 2)
+                + Math.cos(phi1) * Math.cos(phi2)
+                * Math.sin(deltaLambda / 2) * Math.sin(deltaLambda / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
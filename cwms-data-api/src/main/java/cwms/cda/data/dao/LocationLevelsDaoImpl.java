@@ -76,8 +76,12 @@ import org.jetbrains.annotations.Nullable;
 import org.jooq.Condition;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record1;
+import org.jooq.Record3;
+import org.jooq.Result;
+import org.jooq.ResultQuery;
 import org.jooq.SelectLimitPercentAfterOffsetStep;
 import org.jooq.TableField;
 import org.jooq.conf.ParamType;
@@ -120,12 +124,17 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
                                             String datum, ZonedDateTime beginZdt, ZonedDateTime endZdt) {
         Integer total = null;
         int offset = 0;
+        String[] seek = new String[0];
 
         if (cursor != null && !cursor.isEmpty()) {
             String[] parts = CwmsDTOPaginated.decodeCursor(cursor);
 
             if (parts.length > 2) {
-                offset = Integer.parseInt(parts[0]);
+                seek = LocationLevels.decodeKey(parts[0]);
+                if (seek.length == 0) {
+                    // offset cursor handed out before the seek cursor, only honored once
+                    offset = Integer.parseInt(parts[0]);
+                }
                 if (!"null".equals(parts[1])) {
                     try {
                         total = Integer.valueOf(parts[1]);
@@ -138,11 +147,13 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
         }
 
         usace.cwms.db.jooq.codegen.tables.AV_LOCATION_LEVEL view = AV_LOCATION_LEVEL;
+        Field<String> officeKey = DSL.upper(view.OFFICE_ID);
+        Field<String> levelKey = DSL.upper(view.LOCATION_LEVEL_ID);
 
         Condition whereCondition = DSL.upper(view.UNIT_SYSTEM).eq(unit.toUpperCase());
 
         if (office != null && !office.isEmpty()) {
-            whereCondition = whereCondition.and(DSL.upper(view.OFFICE_ID).eq(office.toUpperCase()));
+            whereCondition = whereCondition.and(officeKey.eq(office.toUpperCase()));
         }
 
         if (levelIdMask != null && !levelIdMask.isEmpty()) {
@@ -159,27 +170,50 @@ public class LocationLevelsDaoImpl extends JooqDao<LocationLevel> implements Loc
                     Timestamp.from(endZdt.toInstant())));
         }
 
+        if (seek.length > 2) {
+            whereCondition = whereCondition.and(DSL.row(officeKey, levelKey, view.LEVEL_DATE)
+                    .gt(seek[0].toUpperCase(), seek[1].toUpperCase(),
+                            new Timestamp(Long.parseLong(seek[2]))));
+        }
+
+        // A level has a row per seasonal value, so the page is cut on the distinct
+        // (office, level id, effective date) keys and then all rows up to the last key
+        // are read. Both queries start at the key of the previous page.
+        SelectLimitPercentAfterOffsetStep<Record3<String, String, Timestamp>> keyQuery =
+                dsl.selectDistinct(officeKey, levelKey, view.LEVEL_DATE)
+                        .from(view)
+                        .where(whereCondition)
+                        .orderBy(officeKey, levelKey, view.LEVEL_DATE)
+                        .offset(offset)
+                        .limit(pageSize);
+
+        logger.fine(() -> "getLocationLevels key query: " + keyQuery.getSQL(ParamType.INLINED));
+
         Map<LevelLookup, LocationLevel.Builder> builderMap = new LinkedHashMap<>();
 
-        SelectLimitPercentAfterOffsetStep<Record> query = dsl.selectDistinct(getAddSeasonalValueFields())
-                .from(view)
-                .where(whereCondition)
-                .orderBy(DSL.upper(view.OFFICE_ID), DSL.upper(view.LOCATION_LEVEL_ID),
-                        view.LEVEL_DATE, view.CALENDAR_OFFSET
-                )
-                .offset(offset)
-                .limit(pageSize);
+        Result<Record3<String, String, Timestamp>> keys = keyQuery.fetch();
+        if (!keys.isEmpty()) {
+            Record3<String, String, Timestamp> lastKey = keys.get(keys.size() - 1);
+            ResultQuery<Record> query = dsl.selectDistinct(getAddSeasonalValueFields())
+                    .from(view)
+                    .where(whereCondition)
+                    .and(DSL.row(officeKey, levelKey, view.LEVEL_DATE)
+                            .le(lastKey.value1(), lastKey.value2(), lastKey.value3()))
+                    .orderBy(officeKey, levelKey, view.LEVEL_DATE, view.CALENDAR_OFFSET);
 
-        logger.info(() -> "getLocationLevels query: " + query.getSQL(ParamType.INLINED));
+            logger.fine(() -> "getLocationLevels query: " + query.getSQL(ParamType.INLINED));
 
-        query.stream().forEach(r -> addSeasonalValue(r, builderMap));
+            query.stream().forEach(r -> addSeasonalValue(r, builderMap));
+        }
 
         List<LocationLevel> levels = new java.util.ArrayList<>();
         for (LocationLevel.Builder builder : builderMap.values()) {
             levels.add(builder.build());
         }
 
-        LocationLevels.Builder builder = new LocationLevels.Builder(offset, pageSize, total);
+        String page = seek.length > 2 ? CwmsDTOPaginated.decodeCursor(cursor)[0]
+                : Integer.toString(offset);
+        LocationLevels.Builder builder = new LocationLevels.Builder(page, pageSize, total);
         builder.addAll(levels);
         return builder.build();
     }
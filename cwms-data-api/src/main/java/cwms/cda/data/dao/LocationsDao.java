@@ -26,8 +26,12 @@ package cwms.cda.data.dao;
 
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.Location;
+import cwms.cda.data.dto.catalog.LocationCatalogEntry;
+import cwms.cda.helpers.BoundingBox;
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
+import org.geojson.Feature;
 import org.geojson.FeatureCollection;
 
 public interface LocationsDao {
@@ -47,6 +51,22 @@ public interface LocationsDao {
 
     FeatureCollection buildFeatureCollection(String names, String units, String officeId);
 
+    /**
+     * Same features as {@link #buildFeatureCollection(String, String, String)} but handed
+     * to the consumer while the rows are read, so they are never all in memory.
+     * @param bbox only locations inside the box, null for all
+     */
+    void streamFeatures(String names, String units, String officeId, BoundingBox bbox,
+                        Consumer<Feature> consumer);
+
     Catalog getLocationCatalog(String cursor, int pageSize, CatalogRequestParameters params);
 
+    /**
+     * Same entries as {@link #getLocationCatalog(String, int, CatalogRequestParameters)}
+     * but read in one ordered pass without pages, each handed to the consumer while the
+     * rows are read so they are never all in memory.
+     */
+    void streamLocationCatalog(CatalogRequestParameters params,
+                               Consumer<? super LocationCatalogEntry> consumer);
+
 }
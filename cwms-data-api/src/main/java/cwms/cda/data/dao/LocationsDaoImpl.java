@@ -46,9 +46,11 @@ import cwms.cda.api.enums.Unit;
 import cwms.cda.api.errors.NotFoundException;
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.Location;
+import cwms.cda.data.dto.LocationPoint;
 import cwms.cda.data.dto.catalog.CatalogEntry;
 import cwms.cda.data.dto.catalog.LocationAlias;
 import cwms.cda.data.dto.catalog.LocationCatalogEntry;
+import cwms.cda.helpers.BoundingBox;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.ZoneId;
@@ -59,8 +61,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 import org.geojson.Feature;
 import org.geojson.FeatureCollection;
 import org.geojson.Point;
@@ -68,10 +72,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.CommonTableExpression;
 import org.jooq.Condition;
 import org.jooq.Configuration;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
 import org.jooq.Record;
 import org.jooq.Record1;
+import org.jooq.Record5;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectSeekStep3;
 import org.jooq.Table;
@@ -87,6 +93,8 @@ import usace.cwms.db.jooq.codegen.tables.AV_LOC2;
 public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao {
     private static final Logger logger = Logger.getLogger(LocationsDaoImpl.class.getName());
     private static final long DELETED_TS_MARKER = 0L;
+    // rows per round trip while streaming all locations, the driver default is 10
+    static final int FEATURE_FETCH_SIZE = 500;
 
     public LocationsDaoImpl(DSLContext dsl) {
         super(dsl);
@@ -130,7 +138,9 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                 .from(AV_LOC)
                 .where(AV_LOC.DB_OFFICE_ID.equalIgnoreCase(officeId)
                         .and(AV_LOC.UNIT_SYSTEM.equalIgnoreCase(unitSystem)
-                                .and(AV_LOC.LOCATION_ID.equalIgnoreCase(locationName))))
+                                .and(AV_LOC.LOCATION_ID.equalIgnoreCase(
+                                        IdentifierAliases.resolveLocation(officeId,
+                                                locationName)))))
                 .fetchOne();
         if (loc == null) {
             throw new NotFoundException("Location not found for office:" + officeId + " and unit "
@@ -211,6 +221,8 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
                         DELETE_LOC.getRule(), officeId);
             }
         });
+        LocationIndex.locationDeleted(officeId, locationName);
+        TimeSeriesDaoImpl.invalidateLocationMetadata(officeId, locationName);
     }
 
     @Override
@@ -239,6 +251,10 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         } catch (DataAccessException ex) {
             throw new IOException("Failed to store Location", ex);
         }
+        LocationIndex.locationStored(location.getOfficeId(), location.getName(),
+                location.getLatitude(), location.getLongitude(), location.getLocationKind());
+        IdentifierAliases.locationStored(location.getOfficeId(), location.getName());
+        TimeSeriesDaoImpl.invalidateLocationMetadata(location.getOfficeId(), location.getName());
     }
 
     @Override
@@ -265,10 +281,28 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
         } catch (DataAccessException ex) {
             throw new IOException("Failed to rename Location", ex);
         }
+        LocationIndex.locationRenamed(renamedLocation.getOfficeId(), oldLocationName,
+                renamedLocation.getName(), renamedLocation.getLatitude(),
+                renamedLocation.getLongitude(), renamedLocation.getLocationKind());
+        IdentifierAliases.locationStored(renamedLocation.getOfficeId(),
+                renamedLocation.getName());
+        TimeSeriesDaoImpl.invalidateLocationMetadata(renamedLocation.getOfficeId(),
+                oldLocationName);
     }
 
     @Override
     public FeatureCollection buildFeatureCollection(String names, String units, String officeId) {
+        List<Feature> features = new ArrayList<>();
+        streamFeatures(names, units, officeId, null, features::add);
+        FeatureCollection collection = new FeatureCollection();
+        collection.setFeatures(features);
+
+        return collection;
+    }
+
+    @Override
+    public void streamFeatures(String names, String units, String officeId, BoundingBox bbox,
+                               Consumer<Feature> consumer) {
         if (!"EN".equals(units)) {
             units = "SI";
         }
@@ -290,13 +324,38 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
             selectQuery = selectQuery.and(AV_LOC.LOCATION_ID.in(identifiers));
         }
 
-        List<Feature> features = selectQuery.stream()
-                .map(LocationsDaoImpl::buildFeatureFromAvLocRecord)
-                .collect(toList());
-        FeatureCollection collection = new FeatureCollection();
-        collection.setFeatures(features);
+        if (bbox != null) {
+            selectQuery = selectQuery.and(bbox.condition(AV_LOC.LONGITUDE, AV_LOC.LATITUDE));
+        }
 
-        return collection;
+        try (Stream<Record> records = selectQuery.fetchSize(FEATURE_FETCH_SIZE).stream()) {
+            records.map(LocationsDaoImpl::buildFeatureFromAvLocRecord).forEach(consumer);
+        }
+    }
+
+    /**
+     * Reads the coordinates of every location that has them, for the {@link LocationIndex}.
+     */
+    void fetchLocationPoints(Consumer<LocationPoint> consumer) {
+        try (Stream<Record5<String, String, Double, Double, String>> records = dsl.select(
+                        AV_LOC.DB_OFFICE_ID, AV_LOC.LOCATION_ID,
+                        AV_LOC.LATITUDE.coerce(Double.class), AV_LOC.LONGITUDE.coerce(Double.class),
+                        AV_LOC.LOCATION_KIND_ID)
+                .from(AV_LOC)
+                .where(AV_LOC.UNIT_SYSTEM.eq("SI"))
+                .and(AV_LOC.LATITUDE.isNotNull())
+                .and(AV_LOC.LONGITUDE.isNotNull())
+                .fetchSize(FEATURE_FETCH_SIZE)
+                .stream()) {
+            records.map(r -> new LocationPoint.Builder()
+                            .withOfficeId(r.value1())
+                            .withName(r.value2())
+                            .withLatitude(r.value3())
+                            .withLongitude(r.value4())
+                            .withKind(r.value5())
+                            .build())
+                    .forEach(consumer);
+        }
     }
 
     public static Feature buildFeatureFromAvLocRecord(Record avLocRecord) {
@@ -438,20 +497,60 @@ public class LocationsDaoImpl extends JooqDao<Location> implements LocationsDao
             .collect(groupingBy(usace.cwms.db.jooq.codegen.tables.records.AV_LOC2::getLOCATION_CODE))
             .values()
             .stream()
-            .map(l -> {
-                usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 row = l.stream()
-                    .filter(r -> r.getALIASED_ITEM() == null)
-                    .findFirst()
-                    .orElseThrow(() -> new DataAccessException("Could not find location for list of aliases: " + l));
-                Set<LocationAlias> aliases = l.stream().filter(r -> r.getALIASED_ITEM() != null)
-                    .map(this::buildLocationAlias).collect(toSet());
-                return buildCatalogEntry(row, aliases);
-            })
+            .map(this::buildCatalogEntry)
             .collect(toList());
 
         return new Catalog(cursorLocation, total, pageSize, entries, params);
     }
 
+    @Override
+    public void streamLocationCatalog(CatalogRequestParameters params,
+                                      Consumer<? super LocationCatalogEntry> consumer) {
+        Objects.requireNonNull(params.getIdLike(),
+                "A value must be provided for the idLike field. Specify .* if you don't care.");
+
+        // the same locations as the pages, without the rownum limiter
+        SelectConditionStep<Record1<Long>> matching = select(AV_LOC2.AV_LOC2.LOCATION_CODE)
+                .from(AV_LOC2.AV_LOC2)
+                .where(buildWhereCondition(params).and(AV_LOC2.AV_LOC2.ALIASED_ITEM.isNull()));
+        final AV_LOC2 entry = AV_LOC2.AV_LOC2.as("entry");
+        SelectSeekStep3<Record, String, Long, String> query = dsl.select(entry.asterisk())
+                .from(entry)
+                .where(entry.LOCATION_CODE.in(matching))
+                .and(entry.UNIT_SYSTEM.equalIgnoreCase(params.getUnitSystem()))
+                .orderBy(entry.DB_OFFICE_ID.asc(), entry.LOCATION_CODE.asc(),
+                        entry.ALIASED_ITEM.asc());
+        logger.log(Level.FINER, () -> query.getSQL(ParamType.INLINED));
+
+        // a location and its aliases are next to each other, only they are held at a time
+        try (Cursor<Record> rows = query.fetchSize(FEATURE_FETCH_SIZE).fetchLazy()) {
+            List<usace.cwms.db.jooq.codegen.tables.records.AV_LOC2> location = new ArrayList<>();
+            for (Record row : rows) {
+                usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 loc = row.into(entry);
+                if (!location.isEmpty()
+                        && !location.get(0).getLOCATION_CODE().equals(loc.getLOCATION_CODE())) {
+                    consumer.accept(buildCatalogEntry(location));
+                    location.clear();
+                }
+                location.add(loc);
+            }
+            if (!location.isEmpty()) {
+                consumer.accept(buildCatalogEntry(location));
+            }
+        }
+    }
+
+    private LocationCatalogEntry buildCatalogEntry(
+            List<usace.cwms.db.jooq.codegen.tables.records.AV_LOC2> rows) {
+        usace.cwms.db.jooq.codegen.tables.records.AV_LOC2 row = rows.stream()
+            .filter(r -> r.getALIASED_ITEM() == null)
+            .findFirst()
+            .orElseThrow(() -> new DataAccessException("Could not find location for list of aliases: " + rows));
+        Set<LocationAlias> aliases = rows.stream().filter(r -> r.getALIASED_ITEM() != null)
+            .map(this::buildLocationAlias).collect(toSet());
+        return buildCatalogEntry(row, aliases);
+    }
+
     private static Condition buildWhereCondition(CatalogRequestParameters params) {
         String idLike = params.getIdLike();
 
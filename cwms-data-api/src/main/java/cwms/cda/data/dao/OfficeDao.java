@@ -26,6 +26,14 @@ public class OfficeDao extends JooqDao<Office> {
      * @see List
      */
     public List<Office> getOffices(Boolean hasData) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.getOffices(Boolean.TRUE.equals(hasData));
+        }
+        return fetchOffices(hasData);
+    }
+
+    List<Office> fetchOffices(Boolean hasData) {
         List<Office> retVal;
         AV_OFFICE view = AV_OFFICE.AV_OFFICE;
 
@@ -67,6 +75,10 @@ public class OfficeDao extends JooqDao<Office> {
      * @see Optional
      */
     public Optional<Office> getOfficeById(String officeId) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return Optional.ofNullable(reference.getOffice(officeId));
+        }
         AV_OFFICE view = AV_OFFICE.AV_OFFICE;
         // The .as snippets lets it map directly into the Office ctor fields.
         Record4<String, String, String, String> fetchOne = dsl.select(view.OFFICE_ID.as("name"),
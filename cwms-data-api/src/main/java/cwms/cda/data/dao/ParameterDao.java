@@ -1,11 +1,20 @@
 package cwms.cda.data.dao;
 
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.table;
+
+import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.data.dto.Parameter;
 import org.jooq.DSLContext;
 import org.jooq.Record;
 import usace.cwms.db.jooq.codegen.packages.CWMS_CAT_PACKAGE;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class ParameterDao extends JooqDao<ParameterDao> {
@@ -15,10 +24,50 @@ public class ParameterDao extends JooqDao<ParameterDao> {
     }
 
     public String getParameters(String format) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.onDemand("parameters:" + format,
+                    () -> CWMS_CAT_PACKAGE.call_RETRIEVE_PARAMETERS_F(dsl.configuration(), format));
+        }
         return CWMS_CAT_PACKAGE.call_RETRIEVE_PARAMETERS_F(dsl.configuration(), format);
     }
 
     public List<Parameter> getParametersV2(String office)
+    {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.onDemand("parameters-v2:" + office,
+                    () -> Collections.unmodifiableList(fetchParameters(office)));
+        }
+        return fetchParameters(office);
+    }
+
+    /**
+     * Reads the default SI and EN units of every base parameter, the same values
+     * cwms_util.get_default_units returns.
+     * @return base parameter id in upper case to unit id, by unit system
+     */
+    Map<UnitSystem, Map<String, String>> fetchDefaultUnits()
+    {
+        Map<UnitSystem, Map<String, String>> retVal = new EnumMap<>(UnitSystem.class);
+        retVal.put(UnitSystem.SI, new HashMap<>());
+        retVal.put(UnitSystem.EN, new HashMap<>());
+        dsl.select(field("BP.BASE_PARAMETER_ID", String.class),
+                   field("SI.UNIT_ID", String.class),
+                   field("EN.UNIT_ID", String.class))
+           .from(table("CWMS_20.CWMS_BASE_PARAMETER BP"))
+           .join(table("CWMS_20.CWMS_UNIT SI")).on("SI.UNIT_CODE = BP.DISPLAY_UNIT_CODE_SI")
+           .join(table("CWMS_20.CWMS_UNIT EN")).on("EN.UNIT_CODE = BP.DISPLAY_UNIT_CODE_EN")
+           .fetch()
+           .forEach(rec -> {
+               String baseParameter = rec.value1().toUpperCase(Locale.ROOT);
+               retVal.get(UnitSystem.SI).put(baseParameter, rec.value2());
+               retVal.get(UnitSystem.EN).put(baseParameter, rec.value3());
+           });
+        return retVal;
+    }
+
+    private List<Parameter> fetchParameters(String office)
     {
         return CWMS_CAT_PACKAGE.call_CAT_PARAMETER(dsl.configuration(), office)
                                                       .stream()
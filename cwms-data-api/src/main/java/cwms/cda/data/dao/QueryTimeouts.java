@@ -0,0 +1,63 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.ApiServlet;
+import cwms.cda.security.DataApiPrincipal;
+import cwms.cda.security.Role;
+import io.javalin.http.Context;
+
+/**
+ * Works out how long the database statements of a request may run.
+ *
+ * <p>Routes set their default through the {@link ApiServlet#QUERY_TIMEOUT} request
+ * attribute, requests without one use cda.api.query.timeout.seconds, which is 0 (no
+ * timeout) unless configured. Callers may ask for a different limit with the
+ * {@value #HEADER} header: anyone may shorten it, only callers with the
+ * {@value ApiServlet#CWMS_ADMIN_ROLE} role may extend it, up to
+ * cda.api.query.timeout.max.seconds.
+ *
+ * <p>Statements are not cancelled when the client goes away, a request keeps running
+ * until it finishes or reaches its timeout.
+ */
+public final class QueryTimeouts {
+    public static final String HEADER = "X-CDA-Query-Timeout";
+    public static final int DEFAULT_SECONDS =
+            Integer.getInteger("cda.api.query.timeout.seconds", 0);
+    public static final int MAX_SECONDS =
+            Integer.getInteger("cda.api.query.timeout.max.seconds", 1800);
+
+    private QueryTimeouts() {
+    }
+
+    /**
+     * Returns the statement timeout for the request.
+     * @param ctx the current request context.
+     * @return the timeout in seconds, 0 for no timeout.
+     */
+    public static int forRequest(Context ctx) {
+        Integer routeDefault = ctx.attribute(ApiServlet.QUERY_TIMEOUT);
+        int timeout = routeDefault == null ? DEFAULT_SECONDS : routeDefault;
+
+        String requested = ctx.header(HEADER);
+        if (requested != null) {
+            int seconds;
+            try {
+                seconds = Integer.parseInt(requested.trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(HEADER + " must be a number of seconds.", ex);
+            }
+            if (seconds <= 0) {
+                throw new IllegalArgumentException(HEADER + " must be greater than 0.");
+            }
+            DataApiPrincipal principal = ctx.attribute(AuthDao.DATA_API_PRINCIPAL);
+            boolean privileged = principal != null
+                    && principal.getRoles().contains(new Role(ApiServlet.CWMS_ADMIN_ROLE));
+            if (privileged) {
+                timeout = Math.min(seconds, MAX_SECONDS);
+            } else if (timeout <= 0 || seconds < timeout) {
+                // anyone may ask for less time
+                timeout = seconds;
+            }
+        }
+        return timeout;
+    }
+}
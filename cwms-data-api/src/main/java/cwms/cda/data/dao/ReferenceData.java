@@ -0,0 +1,227 @@
+package cwms.cda.data.dao;
+
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.data.dto.County;
+import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.State;
+import cwms.cda.data.dto.TimeZones;
+import cwms.cda.data.dto.Unit;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+
+/**
+ * An immutable snapshot of the reference tables that change maybe once a year: offices,
+ * units, time zones, states, counties, the default units of the base parameters and the
+ * unit conversions.
+ *
+ * <p>The snapshot is loaded when the servlet starts and replaced in the background every
+ * cda.api.reference.refresh.minutes (default 60, 0 turns the snapshot off). The DAOs
+ * serve these tables from {@link #current()} and only go to the database while no
+ * snapshot has been loaded.
+ * Tables that need a format or an office, like the legacy catalog formats or the
+ * parameters of an office, are kept in the snapshot the first time they are asked for.
+ */
+public final class ReferenceData {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final String REFRESH_MINUTES_KEY = "cda.api.reference.refresh.minutes";
+    private static final long REFRESH_MINUTES = Long.getLong(REFRESH_MINUTES_KEY, 60L);
+
+    private static volatile ReferenceData current;
+    private static ScheduledExecutorService refresher;
+    private static volatile CountDownLatch firstLoad = new CountDownLatch(0);
+
+    private final Instant loaded = Instant.now();
+    private final List<Office> offices;
+    private final List<Office> officesWithData;
+    private final Map<String, Office> officesById;
+    private final List<Unit> units;
+    private final TimeZones timeZones;
+    private final List<State> states;
+    private final List<County> counties;
+    private final Map<UnitSystem, Map<String, String>> defaultUnits;
+    private final UnitConverter unitConverter;
+    private final Map<String, Object> onDemand = new ConcurrentHashMap<>();
+
+    ReferenceData(List<Office> offices, List<Office> officesWithData, List<Unit> units,
+                  TimeZones timeZones, List<State> states, List<County> counties,
+                  Map<UnitSystem, Map<String, String>> defaultUnits,
+                  UnitConverter unitConverter) {
+        this.offices = Collections.unmodifiableList(offices);
+        this.officesWithData = Collections.unmodifiableList(officesWithData);
+        Map<String, Office> byId = new LinkedHashMap<>();
+        for (Office office : offices) {
+            byId.put(office.getName().toUpperCase(Locale.ROOT), office);
+        }
+        this.officesById = Collections.unmodifiableMap(byId);
+        this.units = Collections.unmodifiableList(units);
+        this.timeZones = new TimeZones(Collections.unmodifiableList(timeZones.getTimeZones()));
+        this.states = Collections.unmodifiableList(states);
+        this.counties = Collections.unmodifiableList(counties);
+        Map<UnitSystem, Map<String, String>> units2 = new EnumMap<>(UnitSystem.class);
+        for (Map.Entry<UnitSystem, Map<String, String>> entry : defaultUnits.entrySet()) {
+            units2.put(entry.getKey(), Collections.unmodifiableMap(entry.getValue()));
+        }
+        this.defaultUnits = Collections.unmodifiableMap(units2);
+        this.unitConverter = unitConverter;
+    }
+
+    /**
+     * @return the loaded snapshot, null until the first load succeeded.
+     */
+    public static ReferenceData current() {
+        return current;
+    }
+
+    /**
+     * Reads all tables and makes the result the current snapshot.
+     * @param dsl the context to read the tables with
+     * @return the new snapshot
+     */
+    public static ReferenceData load(DSLContext dsl) {
+        ParameterDao parameterDao = new ParameterDao(dsl);
+        UnitsDao unitsDao = new UnitsDao(dsl);
+        ReferenceData data = new ReferenceData(
+                new OfficeDao(dsl).fetchOffices(false),
+                new OfficeDao(dsl).fetchOffices(true),
+                unitsDao.fetchUnits(),
+                new TimeZoneDao(dsl).fetchTimeZones(),
+                new StateDao(dsl).fetchStates(),
+                new CountyDao(dsl).fetchCounties(),
+                parameterDao.fetchDefaultUnits(),
+                unitsDao.fetchUnitConversions());
+        current = data;
+        return data;
+    }
+
+    /**
+     * Loads the snapshot and schedules the background refresh. A failed load is logged
+     * and retried at the next refresh, the DAOs use the database until then.
+     * @param dataSource where to read the tables from
+     */
+    public static synchronized void start(DataSource dataSource) {
+        stop();
+        if (REFRESH_MINUTES <= 0) {
+            return;
+        }
+        CountDownLatch loaded = new CountDownLatch(1);
+        firstLoad = loaded;
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, ReferenceData.class.getSimpleName() + "-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> {
+            refresh(dataSource);
+            loaded.countDown();
+        }, 0, REFRESH_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Waits until the first load after {@link #start(DataSource)} finished, successful or not.
+     * @return false if the time ran out first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static boolean awaitFirstLoad(long timeout, TimeUnit unit) throws InterruptedException {
+        return firstLoad.await(timeout, unit);
+    }
+
+    public static synchronized void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    static void refresh(DataSource dataSource) {
+        try {
+            ReferenceData data = load(DSL.using(dataSource, SQLDialect.ORACLE18C));
+            logger.atInfo().log("Loaded reference data: %d offices, %d units, %d time zones,"
+                            + " %d states, %d counties, %d unit conversions.",
+                    data.offices.size(), data.units.size(),
+                    data.timeZones.getTimeZones().size(), data.states.size(),
+                    data.counties.size(), data.unitConverter.size());
+        } catch (RuntimeException ex) {
+            logger.atWarning().withCause(ex).log("Unable to load reference data.");
+        }
+    }
+
+    public Instant getLoaded() {
+        return loaded;
+    }
+
+    public List<Office> getOffices(boolean hasData) {
+        return hasData ? officesWithData : offices;
+    }
+
+    /**
+     * @param officeId case insensitive office id
+     * @return the office, null if there is no such office
+     */
+    public Office getOffice(String officeId) {
+        return officeId == null ? null : officesById.get(officeId.toUpperCase(Locale.ROOT));
+    }
+
+    public List<Unit> getUnits() {
+        return units;
+    }
+
+    public TimeZones getTimeZones() {
+        return timeZones;
+    }
+
+    public List<State> getStates() {
+        return states;
+    }
+
+    public List<County> getCounties() {
+        return counties;
+    }
+
+    /**
+     * Same as cwms_util.get_default_units.
+     * @param parameter a parameter or base parameter id, case insensitive
+     * @param unitSystem the unit system
+     * @return the default unit of the base parameter, null if the base parameter is unknown.
+     */
+    public String getDefaultUnits(String parameter, UnitSystem unitSystem) {
+        if (parameter == null || unitSystem == null) {
+            return null;
+        }
+        int dash = parameter.indexOf('-');
+        String baseParameter = dash < 0 ? parameter : parameter.substring(0, dash);
+        Map<String, String> bySystem = defaultUnits.get(unitSystem);
+        return bySystem == null ? null : bySystem.get(baseParameter.toUpperCase(Locale.ROOT));
+    }
+
+    public UnitConverter getUnitConverter() {
+        return unitConverter;
+    }
+
+    /**
+     * Returns a value that is kept for the life of this snapshot, reading it on first use.
+     * @param key identifies the value, e.g. the table and the format or office
+     * @param loader reads the value, a value of null is not kept
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T onDemand(String key, Supplier<T> loader) {
+        return (T) onDemand.computeIfAbsent(key, k -> loader.get());
+    }
+}
@@ -0,0 +1,173 @@
+package cwms.cda.data.dao;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.data.dto.QueryStatistics;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps execution statistics per SQL fingerprint and logs statements slower than
+ * cda.api.slow.query.threshold.ms together with their bind values.
+ *
+ * <p>A fingerprint is the statement with string and number literals replaced by ?,
+ * lists of binds collapsed and whitespace normalized, so executions that only differ
+ * in their values share statistics. At most cda.api.slow.query.max.fingerprints
+ * fingerprints are kept; when full the one with the least total time is dropped.
+ */
+public final class SlowQueries {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    public static final long THRESHOLD_MILLIS =
+            Long.getLong("cda.api.slow.query.threshold.ms", 1000L);
+    private static final int MAX_FINGERPRINTS =
+            Integer.getInteger("cda.api.slow.query.max.fingerprints", 1000);
+    private static final int MAX_BIND_LENGTH = 100;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern BIND_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, Entry> STATISTICS = new ConcurrentHashMap<>();
+    // rendered statements repeat, so the regular expressions run once per statement text
+    private static final Map<String, String> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private SlowQueries() {
+    }
+
+    private static final class Entry {
+        final String sql;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final Histogram nanos = new Histogram(new ExponentiallyDecayingReservoir());
+
+        Entry(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * Replaces literals by ? and normalizes whitespace.
+     */
+    public static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = BIND_LIST.matcher(normalized).replaceAll("?, ...");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * @return a short stable identifier of the normalized statement.
+     */
+    public static String fingerprint(String normalizedSql) {
+        UUID uuid = UUID.nameUUIDFromBytes(normalizedSql.getBytes(StandardCharsets.UTF_8));
+        return String.format("%016x", uuid.getMostSignificantBits());
+    }
+
+    /**
+     * Records one execution of a statement.
+     * @param sql the statement as sent to the database
+     * @param elapsedNanos how long it took, including fetching the rows
+     * @param rows rows fetched or changed, negative when unknown
+     * @param bindValues the bind values, only asked for when the statement was slow
+     */
+    static void record(String sql, long elapsedNanos, long rows,
+                       Supplier<List<Object>> bindValues) {
+        String fingerprint = FINGERPRINTS.get(sql);
+        if (fingerprint == null) {
+            if (FINGERPRINTS.size() >= MAX_FINGERPRINTS * 4) {
+                FINGERPRINTS.clear();
+            }
+            fingerprint = fingerprint(normalize(sql));
+            FINGERPRINTS.put(sql, fingerprint);
+        }
+        Entry entry = STATISTICS.get(fingerprint);
+        if (entry == null) {
+            if (STATISTICS.size() >= MAX_FINGERPRINTS) {
+                evictLeastUsed();
+            }
+            entry = STATISTICS.computeIfAbsent(fingerprint, k -> new Entry(normalize(sql)));
+        }
+        entry.count.increment();
+        entry.totalNanos.add(elapsedNanos);
+        entry.nanos.update(elapsedNanos);
+        entry.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        if (rows > 0) {
+            entry.rows.add(rows);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (millis >= THRESHOLD_MILLIS) {
+            logger.atWarning().log("Slow query %s took %d ms, %d rows: %s binds: %s",
+                    fingerprint, millis, rows, sql, describe(bindValues.get()));
+        }
+    }
+
+    private static void evictLeastUsed() {
+        STATISTICS.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().totalNanos.sum()))
+                .ifPresent(e -> STATISTICS.remove(e.getKey(), e.getValue()));
+    }
+
+    private static String describe(List<Object> bindValues) {
+        return bindValues.stream()
+                .map(String::valueOf)
+                .map(v -> v.length() > MAX_BIND_LENGTH
+                        ? v.substring(0, MAX_BIND_LENGTH) + "..." : v)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * @param limit the number of fingerprints to return
+     * @return the fingerprints that took the most total time, slowest first
+     */
+    public static List<QueryStatistics> top(int limit) {
+        return STATISTICS.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, Entry> e) -> e.getValue().totalNanos.sum()).reversed())
+                .limit(limit)
+                .map(e -> toStatistics(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Forgets all statistics.
+     */
+    public static void reset() {
+        STATISTICS.clear();
+        FINGERPRINTS.clear();
+    }
+
+    private static QueryStatistics toStatistics(String fingerprint, Entry entry) {
+        Snapshot snapshot = entry.nanos.getSnapshot();
+        return new QueryStatistics.Builder()
+                .withFingerprint(fingerprint)
+                .withSql(entry.sql)
+                .withCount(entry.count.sum())
+                .withTotalMillis(toMillis(entry.totalNanos.sum()))
+                .withP50Millis(toMillis(snapshot.getMedian()))
+                .withP99Millis(toMillis(snapshot.get99thPercentile()))
+                .withMaxMillis(toMillis(entry.maxNanos.get()))
+                .withRows(entry.rows.sum())
+                .build();
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
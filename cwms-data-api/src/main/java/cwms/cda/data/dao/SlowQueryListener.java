@@ -0,0 +1,43 @@
+package cwms.cda.data.dao;
+
+import java.util.Collections;
+import org.jooq.ExecuteContext;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * Feeds every statement executed through jOOQ into {@link SlowQueries}.
+ */
+class SlowQueryListener extends DefaultExecuteListener {
+    private static final String START = "cda.slow-query.start";
+    private static final String ROWS = "cda.slow-query.rows";
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        super.executeStart(ctx);
+        ctx.data(START, System.nanoTime());
+        ctx.data(ROWS, new long[1]);
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        super.recordEnd(ctx);
+        long[] rows = (long[]) ctx.data(ROWS);
+        if (rows != null) {
+            rows[0]++;
+        }
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        super.end(ctx);
+        Long start = (Long) ctx.data(START);
+        if (start == null || ctx.sql() == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] fetched = (long[]) ctx.data(ROWS);
+        long rows = fetched != null && fetched[0] > 0 ? fetched[0] : ctx.rows();
+        SlowQueries.record(ctx.sql(), elapsed, rows, () -> ctx.query() != null
+                ? ctx.query().getBindValues() : Collections.emptyList());
+    }
+}
@@ -0,0 +1,122 @@
+package cwms.cda.data.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.jooq.DSLContext;
+import org.jooq.Param;
+import org.jooq.QueryPart;
+import org.jooq.Record;
+import org.jooq.ResultQuery;
+import org.jooq.impl.DSL;
+
+/**
+ * A jOOQ query rendered to SQL once and afterwards executed with only the bind values
+ * changing.
+ *
+ * <p>The query is built with named parameters ({@link DSL#param(String, Class)}) for
+ * every value that varies between calls; all other values are inlined into the SQL.
+ * Each distinct query shape, e.g. with or without a version date, needs its own key.
+ * Building and rendering the larger queries is a noticeable part of a request and
+ * always producing the same text lets the driver reuse its cached statements.
+ */
+final class SqlTemplate {
+    private static final Map<String, SqlTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final String sql;
+    private final List<Param<?>> binds;
+
+    private SqlTemplate(String sql, List<Param<?>> binds) {
+        this.sql = sql;
+        this.binds = Collections.unmodifiableList(binds);
+    }
+
+    /**
+     * Returns the template for a query shape, building and rendering it on first use.
+     * @param dsl the context the query will run in, its dialect is part of the key
+     * @param key identifies the shape of the query
+     * @param builder builds the query, only called when the template is not cached
+     * @return the template
+     */
+    static SqlTemplate get(DSLContext dsl, String key, Supplier<? extends QueryPart> builder) {
+        return TEMPLATES.computeIfAbsent(dsl.dialect() + ":" + key,
+                k -> render(dsl, builder.get()));
+    }
+
+    static SqlTemplate render(DSLContext dsl, QueryPart query) {
+        String named = dsl.renderNamedOrInlinedParams(query);
+        Map<String, Param<?>> params = dsl.extractParams(query);
+        StringBuilder indexed = new StringBuilder(named.length());
+        List<Param<?>> binds = new ArrayList<>();
+        int i = 0;
+        while (i < named.length()) {
+            char c = named.charAt(i);
+            if (c == '\'' || c == '"') {
+                int end = endOfQuoted(named, i, c);
+                indexed.append(named, i, end);
+                i = end;
+            } else if (c == ':' && i + 1 < named.length()
+                    && Character.isJavaIdentifierStart(named.charAt(i + 1))) {
+                int end = i + 1;
+                while (end < named.length() && Character.isJavaIdentifierPart(named.charAt(end))) {
+                    end++;
+                }
+                Param<?> param = params.get(named.substring(i + 1, end));
+                if (param != null) {
+                    indexed.append('?');
+                    binds.add(param);
+                } else {
+                    indexed.append(named, i, end);
+                }
+                i = end;
+            } else {
+                indexed.append(c);
+                i++;
+            }
+        }
+        return new SqlTemplate(indexed.toString(), binds);
+    }
+
+    private static int endOfQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                // a doubled quote is an escaped quote
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    /**
+     * Creates the query for one execution.
+     * @param dsl the context to run the query in
+     * @param values the value of each named parameter, values may be null
+     * @return the query
+     * @throws IllegalArgumentException if a parameter has no value
+     */
+    ResultQuery<Record> query(DSLContext dsl, Map<String, ?> values) {
+        Object[] bindValues = new Object[binds.size()];
+        for (int i = 0; i < bindValues.length; i++) {
+            Param<?> param = binds.get(i);
+            if (!values.containsKey(param.getParamName())) {
+                throw new IllegalArgumentException("No value for parameter "
+                        + param.getParamName());
+            }
+            bindValues[i] = DSL.val(values.get(param.getParamName()), param.getDataType());
+        }
+        return dsl.resultQuery(sql, bindValues);
+    }
+}
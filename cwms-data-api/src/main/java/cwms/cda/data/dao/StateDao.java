@@ -44,6 +44,14 @@ public class StateDao extends JooqDao<State> {
      * @see List
      */
     public List<State> getStates() {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.getStates();
+        }
+        return fetchStates();
+    }
+
+    List<State> fetchStates() {
         return CWMS_CAT_PACKAGE.call_CAT_STATE(dsl.configuration())
                 .map(r -> new State(r.get(AV_STATE.AV_STATE.STATE_INITIAL), r.get("STATE_NAME", String.class)));
     }
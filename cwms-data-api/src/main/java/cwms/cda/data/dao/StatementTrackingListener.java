@@ -0,0 +1,109 @@
+package cwms.cda.data.dao;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.CdaMetricsContextListener;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jooq.ExecuteContext;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * Keeps track of the statements that are running so they can be cancelled, and counts
+ * statements that ran into their query timeout. Statements of a request are also tracked
+ * in the set found under {@link #REQUEST_STATEMENTS} in the configuration data, so they
+ * can be cancelled when the request is over.
+ */
+class StatementTrackingListener extends DefaultExecuteListener {
+    static final String REQUEST_STATEMENTS = "cda.request.statements";
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    // ORA-01013: user requested cancel of current operation
+    private static final int ORA_CANCELLED = 1013;
+
+    private static final Set<Statement> RUNNING = ConcurrentHashMap.newKeySet();
+    private static final Meter TIMEOUTS = CdaMetricsContextListener.METRIC_REGISTRY
+            .meter(name(StatementTrackingListener.class, "timeouts"));
+    private static final Meter CANCELLED = CdaMetricsContextListener.METRIC_REGISTRY
+            .meter(name(StatementTrackingListener.class, "cancelled"));
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        super.executeStart(ctx);
+        if (ctx.statement() != null) {
+            RUNNING.add(ctx.statement());
+            Set<Statement> request = requestStatements(ctx);
+            if (request != null) {
+                request.add(ctx.statement());
+            }
+        }
+    }
+
+    @Override
+    public void executeEnd(ExecuteContext ctx) {
+        super.executeEnd(ctx);
+        release(ctx);
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        super.exception(ctx);
+        release(ctx);
+        if (isTimeout(ctx.sqlException())) {
+            TIMEOUTS.mark();
+        }
+    }
+
+    private static void release(ExecuteContext ctx) {
+        if (ctx.statement() != null) {
+            RUNNING.remove(ctx.statement());
+            Set<Statement> request = requestStatements(ctx);
+            if (request != null) {
+                request.remove(ctx.statement());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Statement> requestStatements(ExecuteContext ctx) {
+        return (Set<Statement>) ctx.configuration().data(REQUEST_STATEMENTS);
+    }
+
+    static boolean isTimeout(SQLException ex) {
+        return ex instanceof SQLTimeoutException
+                || (ex != null && ex.getErrorCode() == ORA_CANCELLED);
+    }
+
+    /**
+     * Cancels every statement that is still running, e.g. when the application is
+     * stopped.
+     * @return the number of statements cancelled
+     */
+    static int cancelAll() {
+        return cancel(RUNNING);
+    }
+
+    /**
+     * Cancels the statements of the set that are still running.
+     * @return the number of statements cancelled
+     */
+    static int cancel(Set<Statement> statements) {
+        int count = 0;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+                CANCELLED.mark();
+                count++;
+            } catch (SQLException ex) {
+                logger.atWarning().withCause(ex).log("Unable to cancel statement.");
+            }
+            statements.remove(statement);
+            RUNNING.remove(statement);
+        }
+        return count;
+    }
+}
@@ -1,18 +1,33 @@
 package cwms.cda.data.dao;
 
+import cwms.cda.api.enums.Aggregate;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.data.dto.Catalog;
+import cwms.cda.data.dto.CwmsId;
 import cwms.cda.data.dto.RecentValue;
 import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesChanges;
+import cwms.cda.data.dto.TimeSeriesCollection;
+import cwms.cda.data.dto.TimeSeriesStoreResult;
+import cwms.cda.data.dto.catalog.TimeseriesCatalogEntry;
 import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TimeSeriesDao {
 
     Catalog getTimeSeriesCatalog(String page, int pageSize, CatalogRequestParameters inputParams);
 
+    /**
+     * Same entries as {@link #getTimeSeriesCatalog(String, int, CatalogRequestParameters)}
+     * but read in one ordered pass without pages, each handed to the consumer while the
+     * rows are read so they are never all in memory.
+     */
+    void streamTimeSeriesCatalog(CatalogRequestParameters params,
+                                 Consumer<? super TimeseriesCatalogEntry> consumer);
+
     void create(TimeSeries input);
 
     void create(TimeSeries input,
@@ -23,12 +38,25 @@ public interface TimeSeriesDao {
     void store(TimeSeries timeSeries, boolean createAsLrts,
                StoreRule replaceAll, boolean overrideProtection);
 
+    List<TimeSeriesStoreResult> store(List<TimeSeries> timeSeries, boolean createAsLrts,
+                                      StoreRule storeRule, boolean overrideProtection);
+
     void delete(String officeId, String tsId, TimeSeriesDeleteOptions options);
 
     TimeSeries getTimeseries(String cursor, int pageSize, String names, String office,
                              String unit, ZonedDateTime begin, ZonedDateTime end,
                              ZonedDateTime versionDate, boolean trim);
 
+    TimeSeries getTimeseries(String cursor, int pageSize, String names, String office,
+                             String unit, ZonedDateTime begin, ZonedDateTime end,
+                             ZonedDateTime versionDate, boolean trim,
+                             Aggregate aggregate, int maxPoints);
+
+    TimeSeriesCollection getTimeseries(int pageSize, List<CwmsId> ids, String unit,
+                                       ZonedDateTime begin, ZonedDateTime end,
+                                       ZonedDateTime versionDate, boolean trim,
+                                       Aggregate aggregate, int maxPoints);
+
     String getTimeseries(String format, String names, String office, String unit, String datum,
                          ZonedDateTime begin, ZonedDateTime end, ZoneId timezone);
 
@@ -38,4 +66,8 @@ public interface TimeSeriesDao {
     List<RecentValue> findMostRecentsInRange(List<String> tsIds, Timestamp pastLimit,
                                              Timestamp futureLimit, UnitSystem unitSystem);
 
+    TimeSeriesChanges getChangedSince(List<CwmsId> ids, String unit, ZonedDateTime changedSince,
+                                      ZonedDateTime begin, ZonedDateTime end, String page,
+                                      int maxValues);
+
 }
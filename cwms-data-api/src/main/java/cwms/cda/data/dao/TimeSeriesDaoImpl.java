@@ -16,13 +16,22 @@ import com.codahale.metrics.MetricRegistry;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheStats;
+import cwms.cda.api.enums.Aggregate;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.enums.VersionType;
+import cwms.cda.api.errors.InvalidItemException;
+import cwms.cda.api.errors.NotFoundException;
+import cwms.cda.api.errors.TooBusyException;
+import cwms.cda.data.dao.downsample.Downsampler;
 import cwms.cda.data.dto.Catalog;
 import cwms.cda.data.dto.CwmsDTOPaginated;
+import cwms.cda.data.dto.CwmsId;
 import cwms.cda.data.dto.RecentValue;
 import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesChanges;
+import cwms.cda.data.dto.TimeSeriesCollection;
 import cwms.cda.data.dto.TimeSeriesExtents;
+import cwms.cda.data.dto.TimeSeriesStoreResult;
 import cwms.cda.data.dto.Tsv;
 import cwms.cda.data.dto.TsvDqu;
 import cwms.cda.data.dto.TsvId;
@@ -33,10 +42,12 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -44,11 +55,26 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -59,14 +85,19 @@ import org.jetbrains.annotations.Nullable;
 import org.jooq.CommonTableExpression;
 import org.jooq.Condition;
 import org.jooq.Configuration;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.Param;
 import org.jooq.Record;
 import org.jooq.Record1;
 import org.jooq.Record3;
 import org.jooq.Record7;
 import org.jooq.Result;
+import org.jooq.ResultQuery;
 import org.jooq.SQL;
+import org.jooq.SQLDialect;
+import org.jooq.Select;
 import org.jooq.SelectConditionStep;
 import org.jooq.SelectHavingStep;
 import org.jooq.SelectJoinStep;
@@ -81,7 +112,6 @@ import org.jooq.WindowSpecificationRowsStep;
 import org.jooq.conf.ParamType;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
-import org.jooq.impl.SQLDataType;
 import usace.cwms.db.dao.ifc.ts.CwmsDbTs;
 import usace.cwms.db.dao.util.OracleTypeMap;
 import usace.cwms.db.dao.util.services.CwmsDbServiceLookup;
@@ -102,9 +132,10 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     public static final int TS_ID_MISSING_CODE = 20001;
     public static final String MAX_DATE_TIME = "max_date_time";
     public static final String DEFAULT_UNITS = "def_units";
+    private static final String RECENT_TS_FIELD = "TSVIEW_CWMS_TS_ID";
     public static final String PROP_BASE = "cwms.cda.data.dao.ts";
 
-    public static final String VERSIONED_NAME = "isVersioned";
+    public static final String METADATA_NAME = "tsMetadata";
 
     /** To be able to use a named inner table (otherwise JOOQ creates a random alias which messes
      * with the planner) we need to use fixed names to be able to reference the required columns.
@@ -123,14 +154,106 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     private static final Field<String> locGroupField = locGroupView.GROUP_ID;
     private static final Field<String> locCategoryField = locGroupView.CATEGORY_ID;
 
-    private static final Cache<List<String>, Boolean> isVersionedCache = CacheBuilder.newBuilder()
-            .maximumSize(Integer.getInteger(PROP_BASE + "." + VERSIONED_NAME
+    /**
+     * What the retrieval learned about a time series identifier by (office, ts id), both
+     * upper case. Stores keep the versioned flag up to date; creating, deleting, renaming
+     * or changing an identifier, or storing, renaming or deleting its location, through this
+     * node removes its entry. A hit still has the database check the id exists.
+     */
+    private static final Cache<List<String>, TsMetadata> metadataCache = CacheBuilder.newBuilder()
+            .maximumSize(Integer.getInteger(PROP_BASE + "." + METADATA_NAME
                     + ".maxSize", 32000))
-            .expireAfterWrite(Integer.getInteger(PROP_BASE + "." + VERSIONED_NAME
+            .expireAfterWrite(Integer.getInteger(PROP_BASE + "." + METADATA_NAME
                             + ".expireAfterSeconds", 600), TimeUnit.SECONDS)
             .recordStats()
             .build();
 
+    /**
+     * The base parameter of each ts id as AV_CWMS_TS_ID2 has it, so an alias uses the
+     * parameter of the series it stands for. An id whose offices disagree maps to "".
+     */
+    private static final Cache<String, String> baseParameterCache = CacheBuilder.newBuilder()
+            .maximumSize(Integer.getInteger(PROP_BASE + ".baseParameter.maxSize", 32000))
+            .expireAfterWrite(Integer.getInteger(PROP_BASE + ".baseParameter.expireAfterSeconds",
+                    600), TimeUnit.SECONDS)
+            .build();
+
+    private static final class TsMetadata {
+        private volatile Boolean versioned;
+        // by the requested units, upper case
+        private final Map<String, SeriesHeader> headers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The result of the metadata query, without the total which depends on the time window.
+     */
+    private static final class SeriesHeader {
+        private final String name;
+        private final String officeId;
+        private final String units;
+        private final String storageUnits;
+        private final long intervalMinutes;
+        private final String verticalDatum;
+        private final Long intervalUtcOffset;
+        private final String timeZoneId;
+
+        private SeriesHeader(Record tsMetadata, boolean hasTimeZone) {
+            name = tsMetadata.get("NAME", String.class);
+            officeId = tsMetadata.get("office_id", String.class);
+            units = tsMetadata.get("units", String.class);
+            storageUnits = tsMetadata.get("STORAGE_UNITS", String.class);
+            intervalMinutes = tsMetadata.get("interval") == null ? 0
+                    : tsMetadata.get("interval", Long.class);
+            verticalDatum = tsMetadata.get("VERTICAL_DATUM", String.class);
+            intervalUtcOffset = tsMetadata.get("INTERVAL_UTC_OFFSET", Long.class);
+            timeZoneId = hasTimeZone ? tsMetadata.get("TIME_ZONE_ID", String.class) : null;
+        }
+    }
+
+    /**
+     * Rows fetched per round trip while the values of a downsampled retrieval are read.
+     */
+    private static final int DOWNSAMPLE_FETCH_SIZE = 5000;
+
+    /**
+     * Values entered within this many seconds are left out of the changes, a store that
+     * is still running can commit values with an earlier data entry date.
+     */
+    private static final int CHANGES_LAG_SECONDS =
+            Integer.getInteger(PROP_BASE + ".changes.lag.seconds", 30);
+
+    /**
+     * Rows fetched per round trip while the catalog is exported.
+     */
+    private static final int CATALOG_FETCH_SIZE = 1000;
+
+    /**
+     * Multi-series retrievals share this pool so that, no matter how many requests are in
+     * flight, at most this many connections are used for the per-series fetches.
+     */
+    private static final int BULK_PARALLELISM = Integer.getInteger(PROP_BASE + ".bulk.parallelism", 4);
+    // each request only queues this many series at a time, so a large request can't hold
+    // the other requests' series back, a full queue is answered with a 503
+    private static final int BULK_REQUEST_WINDOW = BULK_PARALLELISM;
+    private static final int BULK_QUEUE = Integer.getInteger(PROP_BASE + ".bulk.queue", 64);
+    private static final ThreadPoolExecutor bulkExecutor = new ThreadPoolExecutor(BULK_PARALLELISM,
+            BULK_PARALLELISM, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(BULK_QUEUE), r -> {
+                Thread thread = new Thread(r, TimeSeriesDaoImpl.class.getSimpleName() + "-bulk");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        bulkExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Stops the threads of the multi-series retrievals, for when the application is stopped.
+     */
+    public static void shutdownBulkExecutor() {
+        bulkExecutor.shutdownNow();
+    }
+
 
     public TimeSeriesDaoImpl(DSLContext dsl) {
         this(dsl, null);
@@ -140,13 +263,13 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         super(dsl);
 
         if (metrics != null) {
-            CacheStats stats = isVersionedCache.stats();
-            String hrName = MetricRegistry.name(this.getClass().getName(), VERSIONED_NAME, "hit-rate");
+            CacheStats stats = metadataCache.stats();
+            String hrName = MetricRegistry.name(this.getClass().getName(), METADATA_NAME, "hit-rate");
             if (metrics.getGauges().get(hrName) == null) {
                 MetricRegistry.MetricSupplier<? extends Gauge> hr = () -> (Gauge<Double>) stats::hitRate;
                 metrics.gauge(hrName, hr);
             }
-            String mrName = MetricRegistry.name(this.getClass().getName(),VERSIONED_NAME, "miss-rate");
+            String mrName = MetricRegistry.name(this.getClass().getName(),METADATA_NAME, "miss-rate");
             if (metrics.getGauges().get(mrName) == null) {
                 MetricRegistry.MetricSupplier<? extends Gauge> mr = () -> (Gauge<Double>) stats::missRate;
                 metrics.gauge(mrName, mr);
@@ -170,6 +293,25 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                                        String units,
                                        ZonedDateTime beginTime, ZonedDateTime endTime,
                                     ZonedDateTime versionDate, boolean shouldTrim) {
+        return getTimeseries(page, pageSize, names, office, units, beginTime, endTime,
+                versionDate, shouldTrim, null, 0);
+    }
+
+    /**
+     * Retrieves a time series, optionally reduced to at most maxPoints values.
+     * When an aggregate is provided the rows of the time window are read in one pass and
+     * reduced as they are read (see {@link Downsampler}); paging does not apply and the
+     * page size is ignored.
+     *
+     * @param aggregate how to reduce the values, null to return every value
+     * @param maxPoints the maximum number of values to return when aggregate is set
+     */
+    @Override
+    public TimeSeries getTimeseries(String page, int pageSize, String names, String office,
+                                    String units,
+                                    ZonedDateTime beginTime, ZonedDateTime endTime,
+                                    ZonedDateTime versionDate, boolean shouldTrim,
+                                    Aggregate aggregate, int maxPoints) {
         TimeSeries retVal = null;
         String cursor = null;
         Timestamp tsCursor = null;
@@ -201,13 +343,159 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         }
 
         final String recordCursor = cursor;
-        final int recordPageSize = pageSize;
+        // the reduced values are bounded by maxPoints and returned as a single page
+        final int recordPageSize = aggregate == null ? pageSize : -1;
+
+        final boolean versioned = versionDate != null;
+        final boolean limited = pageSize > 0 && aggregate == null;
+        final boolean unitSystem = units.compareToIgnoreCase("SI") == 0
+                || units.compareToIgnoreCase("EN") == 0;
+        final boolean totalKnown = total != null;
+
+        // resolving a known alias here spares the database looking through the groups
+        final String name = IdentifierAliases.resolveTimeSeries(office, names);
+        Map<String, Object> binds = new HashMap<>();
+        binds.put("office", office);
+        binds.put("name", name);
+        binds.put("units", units);
+        binds.put("begin", beginTime.toInstant().toEpochMilli());
+        binds.put("end", endTime.toInstant().toEpochMilli());
+        binds.put("trim", OracleTypeMap.formatBool(shouldTrim));
+        binds.put("version", versioned ? versionDate.toInstant().toEpochMilli() : null);
+        binds.put("total", total);
+        binds.put("cursor", tsCursor == null ? null : tsCursor.toInstant().toEpochMilli());
+        binds.put("limit", pageSize + 1);
+
+        final boolean hasTimeZone = this.getDbVersion() >= Dao.CWMS_21_1_1;
+        VersionType finalDateVersionType = getVersionType(dsl, name, office, versionDate != null);
+        List<String> metadataKey = metadataKey(office, name);
+        TsMetadata cached = metadataKey == null ? null : metadataCache.getIfPresent(metadataKey);
+        SeriesHeader header = cached == null ? null
+                : cached.headers.get(units.toUpperCase(Locale.ROOT));
+        final boolean headerCached = header != null;
+        Integer count = total;
+        if (header == null) {
+            // The statements are rendered once per shape, only the bind values change.
+            SqlTemplate metadataTemplate = SqlTemplate.get(dsl,
+                    String.format("ts.metadata:%b:%b:%b:%b", office != null, unitSystem,
+                            versioned, totalKnown),
+                    () -> buildMetadataQuery(office != null, unitSystem, versioned, totalKnown));
+            ResultQuery<Record> metadataQuery = metadataTemplate.query(dsl, binds);
+
+            logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
+
+            Record tsMetadata = metadataQuery.fetchOne();
+            if (tsMetadata == null) {
+                return null;
+            }
+            header = new SeriesHeader(tsMetadata, hasTimeZone);
+            count = tsMetadata.get("TOTAL", Integer.class);
+            if (metadataKey != null) {
+                metadataCache.asMap().computeIfAbsent(metadataKey, k -> new TsMetadata())
+                        .headers.put(units.toUpperCase(Locale.ROOT), header);
+            }
+        }
+        // the values are read with what the metadata resolved: the ts id of an alias, the
+        // units of a unit system and the session office when none was requested
+        binds.put("name", header.name);
+        binds.put("units", header.units);
+        binds.put("office", header.officeId);
+        // with the conversion known the values are read in their storage unit and converted
+        // here, so retrieve_ts_out_tab doesn't convert every value it reads
+        final DoubleUnaryOperator conversion = storageConversion(header);
+        if (conversion != null) {
+            binds.put("units", header.storageUnits);
+        }
+        // with a cached header the total or the values query makes the not found check
+        if (headerCached && (!totalKnown || pageSize == 0)) {
+            SqlTemplate totalTemplate = SqlTemplate.get(dsl,
+                    String.format("ts.total:%b", versioned), () -> buildTotalQuery(versioned));
+            ResultQuery<Record> totalQuery = totalTemplate.query(dsl, binds);
+
+            logger.fine(() -> totalQuery.getSQL(ParamType.INLINED));
+
+            Integer counted = totalQuery.fetchOne(0, Integer.class);
+            if (!totalKnown) {
+                count = counted;
+            }
+        }
+
+        final TimeSeries timeseries = new TimeSeries(recordCursor, recordPageSize, count,
+                header.name, header.officeId, beginTime, endTime, header.units,
+                Duration.ofMinutes(header.intervalMinutes),
+                parseVerticalDatumInfo(header.verticalDatum), header.intervalUtcOffset,
+                header.timeZoneId, versionDate, finalDateVersionType);
+
+        if (pageSize != 0) {
+            SqlTemplate valuesTemplate = SqlTemplate.get(dsl,
+                    String.format("ts.values:%b:%b", versioned, limited),
+                    () -> buildValuesQuery(versioned, limited));
+            ResultQuery<Record> query = valuesTemplate.query(dsl, binds);
+
+            logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+            if (aggregate == null) {
+                query.forEach(tsRecord -> timeseries.addValue(
+                                tsRecord.get("DATE_TIME", Timestamp.class),
+                                convert(conversion, tsRecord.get("VALUE", Double.class)),
+                                tsRecord.get("QUALITY_NORM", Integer.class)
+                        )
+                );
+            } else {
+                Downsampler downsampler = Downsampler.create(aggregate, maxPoints,
+                        beginTime.toInstant().toEpochMilli(), endTime.toInstant().toEpochMilli(),
+                        (dateTime, value, quality) -> timeseries.addValue(new Timestamp(dateTime),
+                                value, quality));
+                try (Cursor<Record> rows = query.fetchSize(DOWNSAMPLE_FETCH_SIZE).fetchLazy()) {
+                    for (Record tsRecord : rows) {
+                        if (!downsampler.add(tsRecord.get("DATE_TIME", Timestamp.class).getTime(),
+                                convert(conversion, tsRecord.get("VALUE", Double.class)),
+                                tsRecord.get("QUALITY_NORM", Integer.class))) {
+                            break;
+                        }
+                    }
+                }
+                downsampler.finish();
+            }
+
+            retVal = timeseries;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @return the conversion from the storage unit of the series to the unit of the header,
+     *     null when nothing needs converting or the database has to convert
+     */
+    private static DoubleUnaryOperator storageConversion(SeriesHeader header) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference == null || header.storageUnits == null
+                || header.storageUnits.equals(header.units)) {
+            return null;
+        }
+        return reference.getUnitConverter().conversion(header.storageUnits, header.units);
+    }
+
+    private static Double convert(DoubleUnaryOperator conversion, Double value) {
+        return conversion == null || value == null ? value : conversion.applyAsDouble(value);
+    }
+
+    /**
+     * Builds the query for the metadata of a single time series.  The values that change
+     * between calls are named parameters so the rendered statement can be reused, see
+     * {@link SqlTemplate}.
+     */
+    private static Select<?> buildMetadataQuery(boolean officeGiven, boolean unitSystem,
+                                                boolean versioned, boolean totalKnown) {
+        Param<String> name = DSL.param("name", String.class);
+        Param<String> units = DSL.param("units", String.class);
 
         // Call some stored_procs to validate the user input and get the ts_code and tsid for the provided name.
         final Field<String> officeId = CWMS_UTIL_PACKAGE.call_GET_DB_OFFICE_ID(
-                office != null ? DSL.val(office) : CWMS_UTIL_PACKAGE.call_USER_OFFICE_ID());
-        final Field<String> tsId = CWMS_TS_PACKAGE.call_GET_TS_ID__2(DSL.val(names), officeId);
-        final Field<BigDecimal> tsCode = CWMS_TS_PACKAGE.call_GET_TS_CODE__2(DSL.val(names), officeId);
+                officeGiven ? DSL.param("office", String.class) : CWMS_UTIL_PACKAGE.call_USER_OFFICE_ID());
+        final Field<String> tsId = CWMS_TS_PACKAGE.call_GET_TS_ID__2(name, officeId);
+        final Field<BigDecimal> tsCode = CWMS_TS_PACKAGE.call_GET_TS_CODE__2(name, officeId);
 
         Table<Record3<BigDecimal, String, String>> validTs =
                 select(tsCode.as("tscode"),
@@ -225,16 +513,12 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 DSL.val(BigInteger.valueOf(6L))));
 
         // possibly call another procedure to get the units
-        Field<String> unit = units.compareToIgnoreCase("SI") == 0
-                ||
-                units.compareToIgnoreCase("EN") == 0
+        Field<String> unit = unitSystem
                 ?
                 CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(
-                        CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(tsCode),
-                        DSL.val(units, String.class)
-                )
+                        CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(tsCode), units)
                 :
-                DSL.val(units, String.class);
+                units;
 
         // another call to get the interval
         Field<BigDecimal> ival = CWMS_TS_PACKAGE.call_GET_TS_INTERVAL__2(validTs.field("tsid", String.class));
@@ -257,170 +541,198 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                                 ).from(validTs)
                         );
 
-        // Give the TVQ (time, value, quality) columns names
-        Field<Timestamp> dateTimeCol = field("DATE_TIME", Timestamp.class).as("DATE_TIME");
-        Field<Double> valueCol = field("VALUE", Double.class).as("VALUE");
-        Field<Integer> qualityCol = field("QUALITY_CODE", Integer.class).as("QUALITY_CODE");
-
-        Field<BigDecimal> qualityNormCol = CWMS_TS_PACKAGE.call_NORMALIZE_QUALITY(
-                DSL.nvl(qualityCol, DSL.inline(5))).as("QUALITY_NORM");
-
-        Long beginTimeMilli = beginTime.toInstant().toEpochMilli();
-        Long endTimeMilli = endTime.toInstant().toEpochMilli();
-        String trim = OracleTypeMap.formatBool(shouldTrim);
-        String startInclusive = "T";
-        String endInclusive = "T";
-        String previous = "F";
-        String next = "F";
-        Long versionDateMilli = null;
-        String maxVersion = "F";
-
-        if (versionDate != null) {
-            versionDateMilli = versionDate.toInstant().toEpochMilli();
-        } else {
-            maxVersion = "T";
-        }
-
-        // Now we're going to call the retrieve_ts_out_tab function to get the data and build an
-        // internal table from it so we can manipulate it further
-        // This code assumes the database timezone is in UTC (per Oracle recommendation)
-        SQL retrieveSelectData = DSL.sql(
-                "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,"
-                        + "cwms_20.cwms_util.to_timestamp(?), cwms_20.cwms_util.to_timestamp(?), 'UTC',"
-                        + "?,?,?,?,?,"
-                        + getVersionPart(versionDate) + ",?,?) ) retrieveTs",
-                tsId, unit,
-                beginTimeMilli, endTimeMilli,  //tz hardcoded
-                trim, startInclusive, endInclusive, previous, next,
-                versionDateMilli, maxVersion, officeId);
-
-        Field<String> tzName;
-        if (this.getDbVersion() >= Dao.CWMS_21_1_1) {
-            tzName = AV_CWMS_TS_ID2.TIME_ZONE_ID;
-        } else {
-            tzName = DSL.inline(null, SQLDataType.VARCHAR);
-        }
-
-
         Field<Integer> totalField;
-        if (total != null) {
-            totalField = DSL.val(total).as("TOTAL");
+        if (totalKnown) {
+            totalField = DSL.param("total", Integer.class).as("TOTAL");
         } else {
             // If we don't know the total, fetch it from the database (only for first fetch).
             // Total is only an estimate, as it can change if fetching current data,
             // or the timeseries otherwise changes between queries.
-
             SelectJoinStep<Record3<Timestamp, Double, Integer>> retrieveSelectCount = select(
-                    dateTimeCol, valueCol, qualityCol
-            ).from(DSL.sql(
-                    "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,"
-                            + "cwms_20.cwms_util.to_timestamp(?),cwms_20.cwms_util.to_timestamp(?),"
-                            + "'UTC',?,?,?,?,?," + getVersionPart(versionDate) + ",?,?) ) retrieveTsTotal",
-                    valid.field("tsid", String.class),
-                    valid.field("units", String.class),
-                    beginTimeMilli,
-                    endTimeMilli,
-                    trim, startInclusive, endInclusive, previous, next, versionDateMilli, maxVersion,
-                    valid.field("office_id", String.class)
-            ));
+                    field("DATE_TIME", Timestamp.class).as("DATE_TIME"),
+                    field("VALUE", Double.class).as("VALUE"),
+                    field("QUALITY_CODE", Integer.class).as("QUALITY_CODE")
+            ).from(retrieveTsOutTab("retrieveTsTotal", valid.field("tsid", String.class),
+                    valid.field("units", String.class), versioned,
+                    valid.field("office_id", String.class)));
 
             totalField = DSL.selectCount().from(DSL.table(retrieveSelectCount)).asField("TOTAL");
         }
 
-        SelectJoinStep<?> metadataQuery =
-                dsl.with(valid)
-                        .select(
-                                valid.field("tsid", String.class).as("NAME"),
-                                valid.field("office_id", String.class).as("office_id"),
-                                valid.field("units", String.class).as("units"),
-                                valid.field("interval", BigDecimal.class).as("interval"),
-                                valid.field("loc_part", String.class).as("loc_part"),
-                                valid.field("parm_part", String.class).as("parm_part"),
-                                DSL.choose(valid.field("parm_part", String.class))
-                                        .when(
-                                                "ELEV",
-                                                CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
-                                                        valid.field("loc_part", String.class),
-                                                        valid.field("units", String.class),
-                                                        valid.field("office_id", String.class)))
-                                        .otherwise("")
-                                        .as("VERTICAL_DATUM"),
-                                totalField,
-                                AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
-                                AV_CWMS_TS_ID2.TIME_ZONE_ID
-                        )
-                        .from(valid)
-                        .leftOuterJoin(AV_CWMS_TS_ID2)
-                        .on(
-                                AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(valid.field("office_id",
-                                                String.class))
-                                        .and(AV_CWMS_TS_ID2.TS_CODE.eq(valid.field("tscode",
-                                                BigDecimal.class)))
-                                        .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull())
-                        );
+        return DSL.with(valid)
+                .select(
+                        valid.field("tsid", String.class).as("NAME"),
+                        valid.field("office_id", String.class).as("office_id"),
+                        valid.field("units", String.class).as("units"),
+                        valid.field("interval", BigDecimal.class).as("interval"),
+                        valid.field("loc_part", String.class).as("loc_part"),
+                        valid.field("parm_part", String.class).as("parm_part"),
+                        DSL.choose(valid.field("parm_part", String.class))
+                                .when(
+                                        "ELEV",
+                                        CWMS_LOC_PACKAGE.call_GET_VERTICAL_DATUM_INFO_F__2(
+                                                valid.field("loc_part", String.class),
+                                                valid.field("units", String.class),
+                                                valid.field("office_id", String.class)))
+                                .otherwise("")
+                                .as("VERTICAL_DATUM"),
+                        totalField,
+                        AV_CWMS_TS_ID2.UNIT_ID.as("STORAGE_UNITS"),
+                        AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET,
+                        AV_CWMS_TS_ID2.TIME_ZONE_ID
+                )
+                .from(valid)
+                .leftOuterJoin(AV_CWMS_TS_ID2)
+                .on(
+                        AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(valid.field("office_id",
+                                        String.class))
+                                .and(AV_CWMS_TS_ID2.TS_CODE.eq(valid.field("tscode",
+                                        BigDecimal.class)))
+                                .and(AV_CWMS_TS_ID2.ALIASED_ITEM.isNull())
+                );
+    }
 
-        logger.fine(() -> metadataQuery.getSQL(ParamType.INLINED));
-
-        VersionType finalDateVersionType = getVersionType(dsl, names, office, versionDate != null);
-        TimeSeries timeseries = metadataQuery.fetchOne(tsMetadata -> {
-            String vert = (String) tsMetadata.getValue("VERTICAL_DATUM");
-            VerticalDatumInfo verticalDatumInfo = parseVerticalDatumInfo(vert);
-
-            return new TimeSeries(recordCursor, recordPageSize, tsMetadata.getValue("TOTAL",
-                    Integer.class), tsMetadata.getValue("NAME", String.class),
-                    tsMetadata.getValue("office_id", String.class),
-                    beginTime, endTime, tsMetadata.getValue("units", String.class),
-                    Duration.ofMinutes(tsMetadata.get("interval") == null ? 0 :
-                            tsMetadata.getValue("interval", Long.class)),
-                    verticalDatumInfo,
-                    tsMetadata.getValue(AV_CWMS_TS_ID2.INTERVAL_UTC_OFFSET).longValue(),
-                    tsMetadata.getValue(tzName),
-                    versionDate, finalDateVersionType
-            );
-        });
+    /**
+     * Builds the query for the number of values of a time series whose metadata is cached,
+     * the same count {@link #buildMetadataQuery(boolean, boolean, boolean, boolean)} makes.
+     */
+    private static Select<?> buildTotalQuery(boolean versioned) {
+        return DSL.selectCount()
+                .from(retrieveTsOutTab("retrieveTsTotal", checkedTsId(),
+                        DSL.param("units", String.class), versioned,
+                        DSL.param("office", String.class)));
+    }
 
-        if (pageSize != 0) {
-            SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
-                    dsl.select(
-                                    dateTimeCol,
-                                    valueCol,
-                                    qualityNormCol
-                            )
-                            .from(retrieveSelectData)
-                            .where(dateTimeCol
-                                    .greaterOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
-                                            DSL.nvl(DSL.val(tsCursor == null ? null :
-                                                            tsCursor.toInstant().toEpochMilli()),
-                                                    DSL.val(beginTime.toInstant().toEpochMilli())))))
-                            .and(dateTimeCol
-                                    .lessOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
-                                            DSL.val(endTime.toInstant().toEpochMilli())))
-                            );
-
-            if (pageSize > 0) {
-                query.limit(DSL.val(pageSize + 1));
-            }
+    /**
+     * The name parameter passed through get_ts_id, so that a time series whose metadata is
+     * cached still fails as not found, or not permitted for the session, like the metadata
+     * query does.
+     */
+    private static Field<String> checkedTsId() {
+        return CWMS_TS_PACKAGE.call_GET_TS_ID__2(DSL.param("name", String.class),
+                DSL.param("office", String.class));
+    }
 
-            logger.fine(() -> query.getSQL(ParamType.INLINED));
+    /**
+     * Builds the query for the values of a single time series, see
+     * {@link #buildMetadataQuery(boolean, boolean, boolean, boolean)}.
+     */
+    private static Select<?> buildValuesQuery(boolean versioned, boolean limited) {
+        Field<Timestamp> dateTimeCol = field("DATE_TIME", Timestamp.class).as("DATE_TIME");
+        Field<Double> valueCol = field("VALUE", Double.class).as("VALUE");
+        Field<Integer> qualityCol = field("QUALITY_CODE", Integer.class).as("QUALITY_CODE");
+        Field<BigDecimal> qualityNormCol = CWMS_TS_PACKAGE.call_NORMALIZE_QUALITY(
+                DSL.nvl(qualityCol, DSL.inline(5))).as("QUALITY_NORM");
 
-            query.forEach(tsRecord -> timeseries.addValue(
-                            tsRecord.getValue(dateTimeCol),
-                            tsRecord.getValue(valueCol),
-                            tsRecord.getValue(qualityNormCol).intValue()
-                    )
-            );
+        Param<String> office = DSL.param("office", String.class);
+        Param<Long> begin = DSL.param("begin", Long.class);
+        Param<Long> end = DSL.param("end", Long.class);
 
-            retVal = timeseries;
+        // Now we're going to call the retrieve_ts_out_tab function to get the data and build an
+        // internal table from it so we can manipulate it further
+        SelectConditionStep<Record3<Timestamp, Double, BigDecimal>> query =
+                select(
+                        dateTimeCol,
+                        valueCol,
+                        qualityNormCol
+                )
+                .from(retrieveTsOutTab("retrieveTs", checkedTsId(),
+                        DSL.param("units", String.class), versioned, office))
+                .where(dateTimeCol
+                        .greaterOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(
+                                DSL.nvl(DSL.param("cursor", Long.class), begin))))
+                .and(dateTimeCol
+                        .lessOrEqual(CWMS_UTIL_PACKAGE.call_TO_TIMESTAMP__2(end)));
+
+        if (limited) {
+            return query.limit(DSL.param("limit", Integer.class));
         }
+        return query;
+    }
 
-        return retVal;
+    /**
+     * The retrieve_ts_out_tab table function as a table named alias.
+     * This code assumes the database timezone is in UTC (per Oracle recommendation)
+     */
+    private static SQL retrieveTsOutTab(String alias, Field<String> tsId, Field<String> units,
+                                        boolean versioned, Field<String> officeId) {
+        // no version date means the max version, an unversioned series has only that one
+        return DSL.sql(
+                "table(cwms_20.cwms_ts.retrieve_ts_out_tab(?,?,"
+                        + "cwms_20.cwms_util.to_timestamp(?), cwms_20.cwms_util.to_timestamp(?), 'UTC',"
+                        + "?,?,?,?,?,"
+                        + (versioned ? "cwms_20.cwms_util.to_timestamp(?)" : "?") + ",?,?) ) "
+                        + alias,
+                tsId, units,
+                DSL.param("begin", Long.class), DSL.param("end", Long.class),  //tz hardcoded
+                DSL.param("trim", String.class), "T", "T", "F", "F",
+                DSL.param("version", Long.class), versioned ? "F" : "T", officeId);
     }
 
-    private static String getVersionPart(ZonedDateTime versionDate) {
-        if (versionDate != null) {
-            return "cwms_20.cwms_util.to_timestamp(?)";
+    /**
+     * Retrieves several time series over the same time window.  The individual series are
+     * fetched in parallel on a bounded pool, a few at a time per request; each series is
+     * limited to pageSize values and carries its own next-page cursor for use with the single
+     * series retrieval, unless an aggregate is requested in which case each series is reduced
+     * to at most maxPoints values.
+     * Series that do not exist, or that can't be returned in the requested units, are reported
+     * in the errors of the result instead of failing the entire request.
+     * @return the series in the order of the provided ids
+     */
+    @Override
+    public TimeSeriesCollection getTimeseries(int pageSize, List<CwmsId> ids, String units,
+                                              ZonedDateTime beginTime, ZonedDateTime endTime,
+                                              ZonedDateTime versionDate, boolean shouldTrim,
+                                              Aggregate aggregate, int maxPoints) {
+        List<CompletableFuture<TimeSeries>> futures = new ArrayList<>(ids.size());
+        Semaphore window = new Semaphore(BULK_REQUEST_WINDOW);
+        try {
+            for (CwmsId id : ids) {
+                window.acquire();
+                CompletableFuture<TimeSeries> future = CompletableFuture.supplyAsync(() ->
+                        getTimeseries(null, pageSize, id.getName(), id.getOfficeId(), units,
+                                beginTime, endTime, versionDate, shouldTrim, aggregate, maxPoints),
+                        bulkExecutor);
+                future.whenComplete((ts, ex) -> window.release());
+                futures.add(future);
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(f -> f.cancel(false));
+            throw new TooBusyException("Too many time series are being retrieved, "
+                    + "try again later.", 5);
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        TimeSeriesCollection.Builder builder = new TimeSeriesCollection.Builder();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                TimeSeries ts = futures.get(i).join();
+                if (ts != null) {
+                    builder.addTimeSeries(ts);
+                }
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof NotFoundException || cause instanceof InvalidItemException) {
+                    CwmsId id = ids.get(i);
+                    builder.addError(new TimeSeriesCollection.SeriesError.Builder()
+                            .withOfficeId(id.getOfficeId())
+                            .withName(id.getName())
+                            .withMessage(cause.getMessage())
+                            .build());
+                } else {
+                    // Anything else is not specific to the series, don't keep the pool busy.
+                    futures.forEach(f -> f.cancel(false));
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw e;
+                }
+            }
         }
-        return "?";
+        return builder.build();
     }
 
     public static String parseLocFromTimeSeriesId(String tsId) {
@@ -456,22 +768,72 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     }
 
     private static boolean isVersioned(DSLContext dsl, String tsId, String office) {
-        final List<String> cacheKey = Arrays.asList(office, tsId);
-
-        Boolean cachedValue = isVersionedCache.getIfPresent(cacheKey);
+        List<String> cacheKey = metadataKey(office, tsId);
+        TsMetadata cached = cacheKey == null ? null : metadataCache.getIfPresent(cacheKey);
+        Boolean cachedValue = cached == null ? null : cached.versioned;
         if (cachedValue == null) {
             cachedValue = connectionResult(dsl, connection -> {
                 Configuration configuration = getDslContext(connection, office).configuration();
-                boolean isVersioned =
-                        OracleTypeMap.parseBool(CWMS_TS_PACKAGE.call_IS_TSID_VERSIONED(configuration,
-                                tsId, office));
-                isVersionedCache.put(cacheKey, isVersioned);
-                return isVersioned;
+                return OracleTypeMap.parseBool(CWMS_TS_PACKAGE.call_IS_TSID_VERSIONED(
+                        configuration, tsId, office));
             });
+            if (cacheKey != null) {
+                metadataCache.asMap().computeIfAbsent(cacheKey, k -> new TsMetadata())
+                        .versioned = cachedValue;
+            }
         }
         return cachedValue;
     }
 
+    /**
+     * @return the key of a time series in the metadata cache, null if the office is not
+     *     known.
+     */
+    private static List<String> metadataKey(String officeId, String tsId) {
+        if (officeId == null || tsId == null) {
+            return null;
+        }
+        return Arrays.asList(officeId.toUpperCase(Locale.ROOT), tsId.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Forgets what is cached about a time series identifier after it was created, deleted,
+     * renamed or changed. Entries cached under an alias of the identifier are removed too.
+     * @param officeId the office of the time series
+     * @param tsId the time series id
+     */
+    static void invalidateMetadata(String officeId, String tsId) {
+        if (tsId != null) {
+            baseParameterCache.invalidate(tsId);
+        }
+        List<String> key = metadataKey(officeId, tsId);
+        if (key == null) {
+            return;
+        }
+        metadataCache.asMap().entrySet().removeIf(entry -> entry.getKey().get(0)
+                .equals(key.get(0)) && (entry.getKey().get(1).equals(key.get(1))
+                || entry.getValue().headers.values().stream()
+                        .anyMatch(header -> header.name.equalsIgnoreCase(tsId))));
+    }
+
+    /**
+     * Forgets what is cached about the time series of a location after the location was
+     * stored, renamed or deleted, e.g. because its vertical datum changed.
+     * @param officeId the office of the location
+     * @param locationId the location id
+     */
+    static void invalidateLocationMetadata(String officeId, String locationId) {
+        if (officeId == null || locationId == null) {
+            return;
+        }
+        String office = officeId.toUpperCase(Locale.ROOT);
+        String prefix = locationId.toUpperCase(Locale.ROOT) + ".";
+        metadataCache.asMap().entrySet().removeIf(entry -> entry.getKey().get(0).equals(office)
+                && (entry.getKey().get(1).startsWith(prefix)
+                || entry.getValue().headers.values().stream().anyMatch(header ->
+                        header.name.toUpperCase(Locale.ROOT).startsWith(prefix))));
+    }
+
     // datumInfo comes back like:
     //        <vertical-datum-info office="LRL" unit="m">
     //          <location>Buckhorn</location>
@@ -530,28 +892,11 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         }
         final CatalogRequestParameters params = inputParams;
 
-        List<TableField<?,?>> pageEntryFields = new ArrayList<>(getCwmsTsIdFields());
-        if (params.isIncludeExtents()) {
-            pageEntryFields.addAll(getExtentsFields());
-        }
-
         List<Condition> whereConditions = buildWhereConditions(params);
         List<Condition> pagingConditions = buildPagingConditions(cursorOffice, cursorTsId);
         CommonTableExpression<?> limiter = buildWithClause(params, whereConditions, pagingConditions, pageSize, false);
-        Field<BigDecimal> limiterCode = limiter.field(AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE);
-        SelectJoinStep<?> tmpQuery = dsl.with(limiter)
-                                        .select(pageEntryFields)
-                                        .from(limiter)
-                                        .join(AV_CWMS_TS_ID.AV_CWMS_TS_ID).on(limiterCode.eq(AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE));
-
-        if (params.isIncludeExtents()) {
-
-            tmpQuery = tmpQuery.leftOuterJoin(AV_TS_EXTENTS_UTC)
-                                       .on(limiterCode
-                                         .eq(AV_TS_EXTENTS_UTC.TS_CODE.coerce(limiterCode)));
-        }
-        final SelectSeekStep2<?, String, String> overallQuery = tmpQuery.orderBy(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID, AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID);
-        logger.info(() -> overallQuery.getSQL(ParamType.INLINED));
+        final SelectSeekStep2<?, String, String> overallQuery = buildCatalogQuery(params, limiter);
+        logger.fine(() -> overallQuery.getSQL(ParamType.INLINED));
         Result<?> result = overallQuery.fetch();
 
         Map<String, TimeseriesCatalogEntry.Builder> tsIdExtentMap = new LinkedHashMap<>();
@@ -560,29 +905,11 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                     + "/"
                     + row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID);
             if (!tsIdExtentMap.containsKey(officeTsId)) {
-                TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
-                        .officeId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID))
-                        .cwmsTsId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID))
-                        .units(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.UNIT_ID))
-                        .interval(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_ID))
-                        .intervalOffset(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_UTC_OFFSET));
-                if (this.getDbVersion() > Dao.CWMS_21_1_1) {
-                    builder.timeZone(row.get("TIME_ZONE_ID", String.class));
-                }
-                if (params.isIncludeExtents()) {
-                    builder.withExtents(new ArrayList<>());
-                }
-                tsIdExtentMap.put(officeTsId, builder);
+                tsIdExtentMap.put(officeTsId, buildCatalogEntry(row, params));
             }
 
             if (params.isIncludeExtents()) {
-                TimeSeriesExtents extents =
-                        new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
-                                row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE)
-                        );
-                tsIdExtentMap.get(officeTsId).withExtent(extents);
+                tsIdExtentMap.get(officeTsId).withExtent(buildCatalogExtents(row));
             }
         });
 
@@ -594,6 +921,86 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 total, pageSize, entries, params);
     }
 
+    @Override
+    public void streamTimeSeriesCatalog(CatalogRequestParameters params,
+                                        Consumer<? super TimeseriesCatalogEntry> consumer) {
+        // the counting form of the limiter has no rownum limit, so it covers the whole catalog
+        CommonTableExpression<?> limiter = buildWithClause(params, buildWhereConditions(params),
+                new ArrayList<>(), 0, true);
+        final SelectSeekStep2<?, String, String> query = buildCatalogQuery(params, limiter);
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
+
+        // rows of a time series are next to each other, one builder at a time is enough
+        try (Cursor<? extends Record> rows = query.fetchSize(CATALOG_FETCH_SIZE).fetchLazy()) {
+            String currentId = null;
+            TimeseriesCatalogEntry.Builder current = null;
+            for (Record row : rows) {
+                String officeTsId = row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID)
+                        + "/"
+                        + row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID);
+                if (!officeTsId.equals(currentId)) {
+                    if (current != null) {
+                        consumer.accept(current.build());
+                    }
+                    current = buildCatalogEntry(row, params);
+                    currentId = officeTsId;
+                }
+                if (params.isIncludeExtents()) {
+                    current.withExtent(buildCatalogExtents(row));
+                }
+            }
+            if (current != null) {
+                consumer.accept(current.build());
+            }
+        }
+    }
+
+    private SelectSeekStep2<?, String, String> buildCatalogQuery(CatalogRequestParameters params,
+                                                                 CommonTableExpression<?> limiter) {
+        List<TableField<?,?>> pageEntryFields = new ArrayList<>(getCwmsTsIdFields());
+        if (params.isIncludeExtents()) {
+            pageEntryFields.addAll(getExtentsFields());
+        }
+
+        Field<BigDecimal> limiterCode = limiter.field(AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE);
+        SelectJoinStep<?> tmpQuery = dsl.with(limiter)
+                                        .select(pageEntryFields)
+                                        .from(limiter)
+                                        .join(AV_CWMS_TS_ID.AV_CWMS_TS_ID).on(limiterCode.eq(AV_CWMS_TS_ID.AV_CWMS_TS_ID.TS_CODE));
+
+        if (params.isIncludeExtents()) {
+
+            tmpQuery = tmpQuery.leftOuterJoin(AV_TS_EXTENTS_UTC)
+                                       .on(limiterCode
+                                         .eq(AV_TS_EXTENTS_UTC.TS_CODE.coerce(limiterCode)));
+        }
+        return tmpQuery.orderBy(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID, AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID);
+    }
+
+    private TimeseriesCatalogEntry.Builder buildCatalogEntry(Record row, CatalogRequestParameters params) {
+        TimeseriesCatalogEntry.Builder builder = new TimeseriesCatalogEntry.Builder()
+                .officeId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.DB_OFFICE_ID))
+                .cwmsTsId(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.CWMS_TS_ID))
+                .units(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.UNIT_ID))
+                .interval(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_ID))
+                .intervalOffset(row.get(AV_CWMS_TS_ID.AV_CWMS_TS_ID.INTERVAL_UTC_OFFSET));
+        if (this.getDbVersion() > Dao.CWMS_21_1_1) {
+            builder.timeZone(row.get("TIME_ZONE_ID", String.class));
+        }
+        if (params.isIncludeExtents()) {
+            builder.withExtents(new ArrayList<>());
+        }
+        return builder;
+    }
+
+    private static TimeSeriesExtents buildCatalogExtents(Record row) {
+        return new TimeSeriesExtents(row.get(AV_TS_EXTENTS_UTC.VERSION_TIME),
+                row.get(AV_TS_EXTENTS_UTC.EARLIEST_TIME),
+                row.get(AV_TS_EXTENTS_UTC.LATEST_TIME),
+                row.get(AV_TS_EXTENTS_UTC.LAST_UPDATE)
+        );
+    }
+
     private static @NotNull List<Condition> buildPagingConditions(String cursorOffice, String cursorTsId) {
         List<Condition> pagingConditions = new ArrayList<>();
 
@@ -900,82 +1307,316 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
         List<RecentValue> retval = Collections.emptyList();
 
         if (tsIds != null && !tsIds.isEmpty()) {
-            String tsFieldName = "TSVIEW_CWMS_TS_ID";
-            Field<String> tsField = AV_CWMS_TS_ID2.CWMS_TS_ID.as(tsFieldName);
-
-            Field<Timestamp> maxDateField = max(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME)
-                    .over(partitionBy(AV_TSV_DQU.AV_TSV_DQU.TS_CODE))
-                    .as(MAX_DATE_TIME);
-
-            Field<String> defUnitsField = CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(
-                    CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(AV_TSV_DQU.AV_TSV_DQU.TS_CODE),
-                    DSL.val(unitSystem, String.class))
-                    .as(DEFAULT_UNITS);
-
-            SelectConditionStep<? extends Record> innerSelect = dsl.select(
-                            AV_TSV_DQU.AV_TSV_DQU.OFFICE_ID,
-                            AV_TSV_DQU.AV_TSV_DQU.CWMS_TS_ID,
-                            AV_TSV_DQU.AV_TSV_DQU.TS_CODE,
-                            AV_TSV_DQU.AV_TSV_DQU.UNIT_ID,
-                            AV_TSV_DQU.AV_TSV_DQU.DATE_TIME,
-                            AV_TSV_DQU.AV_TSV_DQU.VERSION_DATE,
-                            AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE,
-                            AV_TSV_DQU.AV_TSV_DQU.VALUE,
-                            AV_TSV_DQU.AV_TSV_DQU.QUALITY_CODE,
-                            AV_TSV_DQU.AV_TSV_DQU.START_DATE,
-                            AV_TSV_DQU.AV_TSV_DQU.END_DATE,
-                            defUnitsField,
-                            maxDateField,
-                            tsField
-                    )
-                    .from(AV_TSV_DQU.AV_TSV_DQU.join(AV_CWMS_TS_ID2)
-                            .on(AV_TSV_DQU.AV_TSV_DQU.TS_CODE.eq(
-                                    AV_CWMS_TS_ID2.TS_CODE.cast(Long.class))))
-                    .where(
-                            AV_CWMS_TS_ID2.CWMS_TS_ID.in(tsIds)
-                                    .and(AV_TSV_DQU.AV_TSV_DQU.VALUE.isNotNull())
-                                    .and(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME.lt(futuredate))
-                                    .and(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME.gt(pastdate))
-                                    .and(AV_TSV_DQU.AV_TSV_DQU.START_DATE.le(futuredate))
-                                    .and(AV_TSV_DQU.AV_TSV_DQU.END_DATE.gt(pastdate)));
-
-            // We want to use some of the fields from the innerSelect statement in our WHERE clause
-            // Its cleaner if we call them out individually.
-            Field<Timestamp> dateTimeField = innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME);
-            Field<String> unitField = innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.UNIT_ID);
-
-            // We want to return fields from the innerSelect.
-            // Note: Although they are both fields, jOOQ treats
-            //      innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE)
-            //      differently than
-            //      AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE
-            // Using the innerSelect field makes DATA_ENTRY_DATE correctly map to Timestamp
-            // and the generated sql refers to columns from the alias_??? table.
-            Field[] queryFields = new Field[]{
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.CWMS_TS_ID),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.OFFICE_ID),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.TS_CODE),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.VERSION_DATE),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.VALUE),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.QUALITY_CODE),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.START_DATE),
-                    innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.END_DATE),
-                    unitField,
-                    dateTimeField,
-                    innerSelect.field(tsField)
-            };
-
-            SelectConditionStep<? extends Record> query = dsl.select(queryFields)
-                    .from(innerSelect)
-                    .where(dateTimeField.eq(maxDateField).and(unitField.eq(defUnitsField)));
+            // Round the number of ids up to a power of two, repeating the last id, so a
+            // handful of statements covers every request size.
+            int idCount = Integer.highestOneBit(tsIds.size());
+            if (idCount < tsIds.size()) {
+                idCount <<= 1;
+            }
+            Map<String, Object> binds = new HashMap<>();
+            for (int i = 0; i < idCount; i++) {
+                binds.put("id" + i, tsIds.get(Math.min(i, tsIds.size() - 1)));
+            }
+            binds.put("past", pastdate);
+            binds.put("future", futuredate);
+            binds.put("unit_system", unitSystem == null ? null : unitSystem.getValue());
+
+            // With the unit conversions loaded the values are read in their storage units
+            // and converted here instead of by AV_TSV_DQU for every row it reads.
+            List<RecentValue> converted = findMostRecentsInStorageUnits(idCount, unitSystem,
+                    binds);
+            if (converted != null) {
+                return converted;
+            }
+
+            // With the reference data loaded the default unit of each id is known up front
+            // and the view doesn't need to call get_default_units for every row.
+            final boolean resolvedUnits = resolveDefaultUnits(tsIds, idCount, unitSystem, binds);
+            final int templateIds = idCount;
+            SqlTemplate template = SqlTemplate.get(dsl,
+                    "ts.recent:" + idCount + ":" + resolvedUnits,
+                    () -> buildMostRecentsQuery(templateIds, resolvedUnits));
+            ResultQuery<Record> query = template.query(dsl, binds);
 
             logger.fine(() -> query.getSQL(ParamType.INLINED));
-            retval = query.fetch(r -> buildRecentValue(AV_TSV_DQU.AV_TSV_DQU, r, tsFieldName));
+            retval = query.fetch(r -> buildRecentValue(AV_TSV_DQU.AV_TSV_DQU, r, RECENT_TS_FIELD));
+        }
+        return retval;
+    }
+
+    /**
+     * Puts the default unit of each ts id into binds as unit0, unit1, ... matching the
+     * ids id0, id1, ... The unit comes from the base parameter of the series the id names,
+     * not from the id as requested, which may be an alias.
+     * @return false if the reference data is not loaded or a base parameter is unknown
+     */
+    private boolean resolveDefaultUnits(List<String> tsIds, int idCount,
+                                        UnitSystem unitSystem, Map<String, Object> binds) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference == null || unitSystem == null) {
+            return false;
+        }
+        Map<String, String> baseParameters = baseParameters(tsIds);
+        Map<String, Object> units = new HashMap<>();
+        for (int i = 0; i < idCount; i++) {
+            String tsId = tsIds.get(Math.min(i, tsIds.size() - 1));
+            if (!baseParameters.containsKey(tsId)) {
+                // an id that doesn't exist has no values to match
+                units.put("unit" + i, null);
+                continue;
+            }
+            String unit = reference.getDefaultUnits(baseParameters.get(tsId), unitSystem);
+            if (unit == null) {
+                return false;
+            }
+            units.put("unit" + i, unit);
+        }
+        binds.putAll(units);
+        return true;
+    }
+
+    /**
+     * @return the base parameter of each of the ids that exists, read from AV_CWMS_TS_ID2
+     *     for the ids that are not cached yet
+     */
+    private Map<String, String> baseParameters(List<String> tsIds) {
+        Map<String, String> retval = new HashMap<>(baseParameterCache.getAllPresent(tsIds));
+        Set<String> missing = new LinkedHashSet<>(tsIds);
+        missing.removeAll(retval.keySet());
+        if (!missing.isEmpty()) {
+            Map<String, Set<String>> found = new HashMap<>();
+            dsl.selectDistinct(AV_CWMS_TS_ID2.CWMS_TS_ID, AV_CWMS_TS_ID2.BASE_PARAMETER_ID)
+                    .from(AV_CWMS_TS_ID2)
+                    .where(AV_CWMS_TS_ID2.CWMS_TS_ID.in(missing))
+                    .forEach(r -> found.computeIfAbsent(r.value1(), k -> new HashSet<>())
+                            .add(r.value2()));
+            found.forEach((tsId, parameters) -> {
+                String parameter = parameters.size() == 1 ? parameters.iterator().next() : "";
+                baseParameterCache.put(tsId, parameter);
+                retval.put(tsId, parameter);
+            });
+        }
+        return retval;
+    }
+
+    /**
+     * Builds the query for {@link #findMostRecentsInRange(List, Timestamp, Timestamp, UnitSystem)}
+     * with idCount ts id parameters named id0, id1, ..., see {@link SqlTemplate}.
+     * @param resolvedUnits true if the default unit of each id is passed as unit0, unit1, ...
+     *                      instead of being looked up by the database for every row
+     */
+    private static Select<?> buildMostRecentsQuery(int idCount, boolean resolvedUnits) {
+        Field<String> tsField = AV_CWMS_TS_ID2.CWMS_TS_ID.as(RECENT_TS_FIELD);
+        Param<Timestamp> pastdate = DSL.param("past", Timestamp.class);
+        Param<Timestamp> futuredate = DSL.param("future", Timestamp.class);
+        List<Param<String>> tsIds = new ArrayList<>();
+        List<Condition> idAndUnit = new ArrayList<>();
+        for (int i = 0; i < idCount; i++) {
+            tsIds.add(DSL.param("id" + i, String.class));
+            idAndUnit.add(AV_CWMS_TS_ID2.CWMS_TS_ID.eq(tsIds.get(i))
+                    .and(AV_TSV_DQU.AV_TSV_DQU.UNIT_ID.eq(DSL.param("unit" + i, String.class))));
+        }
+
+        Field<Timestamp> maxDateField = max(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME)
+                .over(partitionBy(AV_TSV_DQU.AV_TSV_DQU.TS_CODE))
+                .as(MAX_DATE_TIME);
+
+        Field<String> defUnitsField = resolvedUnits
+                ? AV_TSV_DQU.AV_TSV_DQU.UNIT_ID.as(DEFAULT_UNITS)
+                : CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(
+                        CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(AV_TSV_DQU.AV_TSV_DQU.TS_CODE),
+                        DSL.param("unit_system", String.class))
+                .as(DEFAULT_UNITS);
+
+        SelectConditionStep<? extends Record> innerSelect = select(
+                        AV_TSV_DQU.AV_TSV_DQU.OFFICE_ID,
+                        AV_TSV_DQU.AV_TSV_DQU.CWMS_TS_ID,
+                        AV_TSV_DQU.AV_TSV_DQU.TS_CODE,
+                        AV_TSV_DQU.AV_TSV_DQU.UNIT_ID,
+                        AV_TSV_DQU.AV_TSV_DQU.DATE_TIME,
+                        AV_TSV_DQU.AV_TSV_DQU.VERSION_DATE,
+                        AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE,
+                        AV_TSV_DQU.AV_TSV_DQU.VALUE,
+                        AV_TSV_DQU.AV_TSV_DQU.QUALITY_CODE,
+                        AV_TSV_DQU.AV_TSV_DQU.START_DATE,
+                        AV_TSV_DQU.AV_TSV_DQU.END_DATE,
+                        defUnitsField,
+                        maxDateField,
+                        tsField
+                )
+                .from(AV_TSV_DQU.AV_TSV_DQU.join(AV_CWMS_TS_ID2)
+                        .on(AV_TSV_DQU.AV_TSV_DQU.TS_CODE.eq(
+                                AV_CWMS_TS_ID2.TS_CODE.cast(Long.class))))
+                .where(
+                        (resolvedUnits ? DSL.or(idAndUnit) : AV_CWMS_TS_ID2.CWMS_TS_ID.in(tsIds))
+                                .and(AV_TSV_DQU.AV_TSV_DQU.VALUE.isNotNull())
+                                .and(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME.lt(futuredate))
+                                .and(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME.gt(pastdate))
+                                .and(AV_TSV_DQU.AV_TSV_DQU.START_DATE.le(futuredate))
+                                .and(AV_TSV_DQU.AV_TSV_DQU.END_DATE.gt(pastdate)));
+
+        // We want to use some of the fields from the innerSelect statement in our WHERE clause
+        // Its cleaner if we call them out individually.
+        Field<Timestamp> dateTimeField = innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.DATE_TIME);
+        Field<String> unitField = innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.UNIT_ID);
+
+        // We want to return fields from the innerSelect.
+        // Note: Although they are both fields, jOOQ treats
+        //      innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE)
+        //      differently than
+        //      AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE
+        // Using the innerSelect field makes DATA_ENTRY_DATE correctly map to Timestamp
+        // and the generated sql refers to columns from the alias_??? table.
+        Field[] queryFields = new Field[]{
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.CWMS_TS_ID),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.OFFICE_ID),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.TS_CODE),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.VERSION_DATE),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.DATA_ENTRY_DATE),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.VALUE),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.QUALITY_CODE),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.START_DATE),
+                innerSelect.field(AV_TSV_DQU.AV_TSV_DQU.END_DATE),
+                unitField,
+                dateTimeField,
+                innerSelect.field(tsField)
+        };
+
+        // the resolved units are already matched to their ids by the inner select
+        Condition latest = dateTimeField.eq(maxDateField);
+        return select(queryFields)
+                .from(innerSelect)
+                .where(resolvedUnits ? latest : latest.and(unitField.eq(defUnitsField)));
+    }
+
+    /**
+     * Reads the most recent values in their storage units and converts them to the default
+     * units of the unit system with the {@link ReferenceData#getUnitConverter()}.
+     * @return null if the reference data is not loaded or a value can't be converted in
+     *     the JVM, the caller then lets the database convert
+     */
+    private List<RecentValue> findMostRecentsInStorageUnits(int idCount, UnitSystem unitSystem,
+                                                            Map<String, Object> binds) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference == null || unitSystem == null
+                || reference.getUnitConverter().size() == 0) {
+            return null;
+        }
+        SqlTemplate template = SqlTemplate.get(dsl, "ts.recent.storage:" + idCount,
+                () -> buildMostRecentsStorageQuery(idCount));
+        ResultQuery<Record> query = template.query(dsl, binds);
+
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
+        List<RecentValue> retval = new ArrayList<>();
+        for (Record r : query.fetch()) {
+            RecentValue value = convertRecentValue(reference, unitSystem, r);
+            if (value == null) {
+                return null;
+            }
+            retval.add(value);
         }
         return retval;
     }
 
+    /**
+     * Builds the query for {@link #findMostRecentsInStorageUnits(int, UnitSystem, Map)}, the
+     * same as {@link #buildMostRecentsQuery(int, boolean)} but reading AV_TSV, which doesn't
+     * convert, and the storage unit from AV_CWMS_TS_ID.
+     */
+    private static Select<?> buildMostRecentsStorageQuery(int idCount) {
+        AV_TSV tsvView = AV_TSV.AV_TSV;
+        AV_CWMS_TS_ID tsView = AV_CWMS_TS_ID.AV_CWMS_TS_ID;
+        Field<String> tsField = AV_CWMS_TS_ID2.CWMS_TS_ID.as(RECENT_TS_FIELD);
+        Param<Timestamp> pastdate = DSL.param("past", Timestamp.class);
+        Param<Timestamp> futuredate = DSL.param("future", Timestamp.class);
+        List<Param<String>> tsIds = new ArrayList<>();
+        for (int i = 0; i < idCount; i++) {
+            tsIds.add(DSL.param("id" + i, String.class));
+        }
+
+        Field<Timestamp> maxDateField = max(tsvView.DATE_TIME)
+                .over(partitionBy(tsvView.TS_CODE))
+                .as(MAX_DATE_TIME);
+
+        SelectConditionStep<? extends Record> innerSelect = select(
+                        tsView.DB_OFFICE_ID,
+                        tsView.CWMS_TS_ID,
+                        tsView.UNIT_ID,
+                        tsView.BASE_PARAMETER_ID,
+                        tsvView.DATE_TIME,
+                        tsvView.VERSION_DATE,
+                        tsvView.DATA_ENTRY_DATE,
+                        tsvView.VALUE,
+                        tsvView.QUALITY_CODE,
+                        tsvView.START_DATE,
+                        tsvView.END_DATE,
+                        maxDateField,
+                        tsField
+                )
+                .from(tsvView.join(AV_CWMS_TS_ID2)
+                        .on(tsvView.TS_CODE.eq(AV_CWMS_TS_ID2.TS_CODE.cast(Long.class)))
+                        .join(tsView)
+                        .on(tsvView.TS_CODE.eq(tsView.TS_CODE.cast(Long.class))))
+                .where(AV_CWMS_TS_ID2.CWMS_TS_ID.in(tsIds)
+                        .and(tsvView.VALUE.isNotNull())
+                        .and(tsvView.DATE_TIME.lt(futuredate))
+                        .and(tsvView.DATE_TIME.gt(pastdate))
+                        .and(tsvView.START_DATE.le(futuredate))
+                        .and(tsvView.END_DATE.gt(pastdate)));
+
+        Field<Timestamp> dateTimeField = innerSelect.field(tsvView.DATE_TIME);
+        Field[] queryFields = new Field[]{
+                innerSelect.field(tsView.CWMS_TS_ID),
+                innerSelect.field(tsView.DB_OFFICE_ID),
+                innerSelect.field(tsView.UNIT_ID),
+                innerSelect.field(tsView.BASE_PARAMETER_ID),
+                innerSelect.field(tsvView.VERSION_DATE),
+                innerSelect.field(tsvView.DATA_ENTRY_DATE),
+                innerSelect.field(tsvView.VALUE),
+                innerSelect.field(tsvView.QUALITY_CODE),
+                innerSelect.field(tsvView.START_DATE),
+                innerSelect.field(tsvView.END_DATE),
+                dateTimeField,
+                innerSelect.field(tsField)
+        };
+
+        return select(queryFields)
+                .from(innerSelect)
+                .where(dateTimeField.eq(maxDateField));
+    }
+
+    /**
+     * @return the value converted to the default unit of its parameter, null if the default
+     *     unit or the conversion from the storage unit is unknown
+     */
+    private static RecentValue convertRecentValue(ReferenceData reference, UnitSystem unitSystem,
+                                                  Record jrecord) {
+        AV_TSV tsvView = AV_TSV.AV_TSV;
+        AV_CWMS_TS_ID tsView = AV_CWMS_TS_ID.AV_CWMS_TS_ID;
+        String cwmsTsId = jrecord.getValue(tsView.CWMS_TS_ID.getName(), String.class);
+        String unit = reference.getDefaultUnits(
+                jrecord.getValue(tsView.BASE_PARAMETER_ID.getName(), String.class), unitSystem);
+        DoubleUnaryOperator conversion = unit == null ? null : reference.getUnitConverter()
+                .conversion(jrecord.getValue(tsView.UNIT_ID.getName(), String.class), unit);
+        if (conversion == null) {
+            return null;
+        }
+        Double value = jrecord.getValue(tsvView.VALUE.getName(), Double.class);
+        TsvDqu tsv = new TsvDqu.Builder()
+                .withOfficeId(jrecord.getValue(tsView.DB_OFFICE_ID.getName(), String.class))
+                .withCwmsTsId(cwmsTsId)
+                .withUnitId(unit)
+                .withDateTime(jrecord.getValue(tsvView.DATE_TIME.getName(), Timestamp.class))
+                .withVersionDate(jrecord.getValue(tsvView.VERSION_DATE.getName(), Timestamp.class))
+                .withDataEntryDate(jrecord.getValue(tsvView.DATA_ENTRY_DATE.getName(),
+                        Timestamp.class))
+                .withValue(value == null ? null : conversion.applyAsDouble(value))
+                .withQualityCode(jrecord.getValue(tsvView.QUALITY_CODE.getName(), Long.class))
+                .withStartDate(jrecord.getValue(tsvView.START_DATE.getName(), Timestamp.class))
+                .withEndDate(jrecord.getValue(tsvView.END_DATE.getName(), Timestamp.class))
+                .build();
+        return new RecentValue(jrecord.getValue(RECENT_TS_FIELD, String.class), tsv);
+    }
 
     @NotNull
     private RecentValue buildRecentValue(AV_TSV_DQU tsvView, Record jrecord, String tsColumnName) {
@@ -1071,6 +1712,170 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                 ;
     }
 
+    /**
+     * Retrieves the values of the time series that were entered or updated after
+     * changedSince, oldest data entry date first.
+     *
+     * <p>A value is only returned once it is older than the lag of
+     * cwms.cda.data.dao.ts.changes.lag.seconds (default 30) by the database clock. The data
+     * entry date is set when a store starts and a slow store could otherwise commit behind
+     * a watermark that was already handed out. The watermark never splits the values of
+     * one data entry date. A single store larger than maxValues is paged instead, by
+     * (ts_code, date_time) within its data entry date, and the response keeps the old
+     * watermark and carries the page to continue with.
+     * @param begin optional start of the value times to look at, lets the database skip
+     *              the older partitions of the value tables. Changes to older values are
+     *              not returned and the watermark still moves past them.
+     * @param end optional end of the value times to look at
+     * @param page the next page of a previous response, or null
+     */
+    @Override
+    public TimeSeriesChanges getChangedSince(List<CwmsId> ids, String unit,
+                                             ZonedDateTime changedSince, ZonedDateTime begin,
+                                             ZonedDateTime end, String page, int maxValues) {
+        AV_TSV_DQU view = AV_TSV_DQU.AV_TSV_DQU;
+        List<String> names = new ArrayList<>(ids.size());
+        for (CwmsId id : ids) {
+            names.add(IdentifierAliases.resolveTimeSeries(id.getOfficeId(), id.getName()));
+        }
+        UnitSystem unitSystem = UnitSystem.EN.getValue().equalsIgnoreCase(unit)
+                || UnitSystem.SI.getValue().equalsIgnoreCase(unit)
+                ? UnitSystem.systemFor(unit) : null;
+        Map<String, String> baseParameters = unitSystem == null ? Collections.emptyMap()
+                : baseParameters(names);
+        List<Condition> series = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String officeId = ids.get(i).getOfficeId();
+            String name = names.get(i);
+            if (unitSystem != null && !baseParameters.containsKey(name)) {
+                // an id that doesn't exist has no changes
+                continue;
+            }
+            // AV_CWMS_TS_ID2 also lists the aliases, the database resolves the ids the
+            // alias index didn't
+            series.add(view.TS_CODE.in(DSL.select(AV_CWMS_TS_ID2.TS_CODE.cast(Long.class))
+                            .from(AV_CWMS_TS_ID2)
+                            .where(AV_CWMS_TS_ID2.DB_OFFICE_ID.eq(officeId))
+                            .and(AV_CWMS_TS_ID2.CWMS_TS_ID.eq(name)))
+                    .and(view.UNIT_ID.eq(changesUnit(unit, unitSystem,
+                            baseParameters.get(name)))));
+        }
+        Condition where = DSL.or(series)
+                .and(view.DATA_ENTRY_DATE.le(DSL.field(
+                        "sys_extract_utc(systimestamp) - numtodsinterval({0}, 'SECOND')",
+                        Timestamp.class, DSL.inline(CHANGES_LAG_SECONDS))));
+        if (begin != null) {
+            where = where.and(view.DATE_TIME.ge(Timestamp.from(begin.toInstant())));
+        }
+        if (end != null) {
+            where = where.and(view.DATE_TIME.le(Timestamp.from(end.toInstant())));
+        }
+
+        Timestamp since = Timestamp.from(changedSince.toInstant());
+        Timestamp watermark = since;
+        boolean complete;
+        String nextPage = null;
+        List<Record> rows;
+        if (page != null) {
+            // continue inside the data entry date a previous page could not hold
+            String[] parts = CwmsDTOPaginated.decodeCursor(page);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid page provided.");
+            }
+            Timestamp boundary = new Timestamp(Long.parseLong(parts[0]));
+            rows = selectChanges(where.and(view.DATA_ENTRY_DATE.eq(boundary))
+                    .and(DSL.row(view.TS_CODE, view.DATE_TIME).gt(
+                            DSL.val(parts[1], view.TS_CODE),
+                            DSL.val(new Timestamp(Long.parseLong(parts[2]))))),
+                    maxValues + 1);
+            complete = false;
+            if (rows.size() > maxValues) {
+                rows = rows.subList(0, maxValues);
+                nextPage = changesPage(rows.get(maxValues - 1));
+            } else {
+                watermark = boundary;
+            }
+        } else {
+            rows = selectChanges(where.and(view.DATA_ENTRY_DATE.gt(since)), maxValues + 1);
+            complete = rows.size() <= maxValues;
+            if (!complete) {
+                // drop the values of the data entry date the page ended in, they come next time
+                Timestamp boundary = rows.get(maxValues).get(view.DATA_ENTRY_DATE);
+                int keep = maxValues;
+                while (keep > 0 && boundary.equals(rows.get(keep - 1).get(view.DATA_ENTRY_DATE))) {
+                    keep--;
+                }
+                if (keep > 0) {
+                    rows = rows.subList(0, keep);
+                } else {
+                    // the page holds nothing but that date, hand it out in pages
+                    rows = rows.subList(0, maxValues);
+                    nextPage = changesPage(rows.get(maxValues - 1));
+                }
+            }
+            if (nextPage == null && !rows.isEmpty()) {
+                watermark = rows.get(rows.size() - 1).get(view.DATA_ENTRY_DATE);
+            }
+        }
+
+        TimeSeriesChanges.Builder builder = new TimeSeriesChanges.Builder()
+                .withChangedSince(changedSince)
+                .withComplete(complete)
+                .withNextPage(nextPage);
+        for (Record row : rows) {
+            Long quality = row.get(view.QUALITY_CODE);
+            builder.addChange(row.get(view.OFFICE_ID), row.get(view.CWMS_TS_ID),
+                    row.get(view.UNIT_ID), new TimeSeriesChanges.Change(
+                            row.get(view.DATE_TIME), row.get(view.VALUE),
+                            quality == null ? 0 : quality, row.get(view.VERSION_DATE),
+                            row.get(view.DATA_ENTRY_DATE)));
+        }
+        return builder.withWatermark(ZonedDateTime.ofInstant(watermark.toInstant(), ZoneOffset.UTC))
+                .build();
+    }
+
+    private static String changesPage(Record last) {
+        AV_TSV_DQU view = AV_TSV_DQU.AV_TSV_DQU;
+        return CwmsDTOPaginated.encodeCursor(last.get(view.DATA_ENTRY_DATE).getTime(),
+                last.get(view.TS_CODE), last.get(view.DATE_TIME).getTime());
+    }
+
+    /**
+     * @param baseParameter the base parameter of the series from AV_CWMS_TS_ID2, empty if
+     *                      the id names several series
+     * @return the unit to read a time series in, for a unit system the default unit of
+     *     its base parameter
+     */
+    private static Field<String> changesUnit(String unit, UnitSystem unitSystem,
+                                             String baseParameter) {
+        if (unitSystem == null) {
+            return DSL.val(unit);
+        }
+        ReferenceData reference = ReferenceData.current();
+        String defaultUnit = reference == null || baseParameter == null
+                || baseParameter.isEmpty() ? null
+                : reference.getDefaultUnits(baseParameter, unitSystem);
+        if (defaultUnit != null) {
+            return DSL.val(defaultUnit);
+        }
+        return CWMS_UTIL_PACKAGE.call_GET_DEFAULT_UNITS(
+                CWMS_TS_PACKAGE.call_GET_BASE_PARAMETER_ID(AV_TSV_DQU.AV_TSV_DQU.TS_CODE),
+                DSL.val(unitSystem.getValue()));
+    }
+
+    private List<Record> selectChanges(Condition where, int limit) {
+        AV_TSV_DQU view = AV_TSV_DQU.AV_TSV_DQU;
+        ResultQuery<? extends Record> query = dsl.select(
+                        view.OFFICE_ID, view.CWMS_TS_ID, view.UNIT_ID, view.TS_CODE,
+                        view.DATE_TIME, view.VALUE, view.QUALITY_CODE, view.VERSION_DATE,
+                        view.DATA_ENTRY_DATE)
+                .from(view)
+                .where(where)
+                .orderBy(view.DATA_ENTRY_DATE, view.TS_CODE, view.DATE_TIME)
+                .limit(limit);
+        logger.fine(() -> query.getSQL(ParamType.INLINED));
+        return new ArrayList<>(query.fetch());
+    }
 
     @Override
     public void create(TimeSeries input) {
@@ -1102,6 +1907,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     @SuppressWarnings("unused")
     public void create(TimeSeries input,
                        boolean createAsLrts, StoreRule storeRule, boolean overrideProtection) {
+        final Timestamp versionDate = input.getVersionDate() == null ? null
+                : Timestamp.from(input.getVersionDate().toInstant());
         connection(dsl, connection -> {
             int intervalForward = 0;
             int intervalBackward = 0;
@@ -1109,16 +1916,15 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
             // the code does not need to be created before hand.
             // do not add a call to create_ts_code
             if (!input.getValues().isEmpty()) {
-                Timestamp versionDate = null;
-                if (input.getVersionDate() != null) {
-                    versionDate = Timestamp.from(input.getVersionDate().toInstant());
-                }
-
                 store(connection, input.getOfficeId(), input.getName(), input.getUnits(),
                         versionDate, input.getValues(), createAsLrts, storeRule,
                         overrideProtection);
             }
         });
+        if (!input.getValues().isEmpty()) {
+            TimeSeriesEvents.stored(input.getOfficeId(), input.getName(), input.getUnits(),
+                    versionDate, input.getValues());
+        }
     }
 
     @Override
@@ -1127,15 +1933,102 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
     }
 
     public void store(TimeSeries input, boolean createAsLrts, StoreRule replaceAll, boolean overrideProtection) {
+        final Timestamp versionDate = input.getVersionDate() == null ? null
+                : Timestamp.from(input.getVersionDate().toInstant());
         connection(dsl, connection -> {
-            Timestamp versionDate = null;
-            if (input.getVersionDate() != null) {
-                versionDate = Timestamp.from(input.getVersionDate().toInstant());
-            }
-
             store(connection, input.getOfficeId(), input.getName(), input.getUnits(),
                     versionDate, input.getValues(), createAsLrts, replaceAll, overrideProtection);
         });
+        TimeSeriesEvents.stored(input.getOfficeId(), input.getName(), input.getUnits(),
+                versionDate, input.getValues());
+    }
+
+    /**
+     * Stores a batch of time series using a single connection and transaction.
+     * The session office is only changed when it differs from the previous series, and each
+     * series is stored behind a savepoint so that a failure is reported for that series
+     * without discarding the others.
+     *
+     * @return the outcome for each time series, in the order they were provided
+     */
+    @Override
+    public List<TimeSeriesStoreResult> store(List<TimeSeries> timeSeries, boolean createAsLrts,
+                                             StoreRule storeRule, boolean overrideProtection) {
+        List<TimeSeriesStoreResult> stored = connectionResult(dsl, connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
+                List<TimeSeriesStoreResult> results = new ArrayList<>(timeSeries.size());
+                // the versioned flags are only cached once the transaction is committed
+                List<List<String>> versioned = new ArrayList<>();
+                String sessionOffice = null;
+                for (TimeSeries input : timeSeries) {
+                    if (!Objects.equals(sessionOffice, input.getOfficeId())) {
+                        setOffice(connection, input.getOfficeId());
+                        sessionOffice = input.getOfficeId();
+                    }
+                    Timestamp versionDate = null;
+                    if (input.getVersionDate() != null) {
+                        versionDate = Timestamp.from(input.getVersionDate().toInstant());
+                    }
+                    TimeSeriesStoreResult.Builder result = new TimeSeriesStoreResult.Builder()
+                            .withOfficeId(input.getOfficeId())
+                            .withName(input.getName())
+                            .withValueCount(input.getValues().size());
+                    Savepoint savepoint = connection.setSavepoint();
+                    List<List<String>> seriesVersioned = new ArrayList<>(1);
+                    try {
+                        store(tsDao, connection, input.getOfficeId(), input.getName(),
+                                input.getUnits(), versionDate, input.getValues(), createAsLrts,
+                                storeRule, overrideProtection, seriesVersioned);
+                        versioned.addAll(seriesVersioned);
+                        result.withStored(true);
+                    } catch (SQLException | RuntimeException e) {
+                        connection.rollback(savepoint);
+                        seriesVersioned.forEach(metadataCache::invalidate);
+                        logger.log(Level.FINE, e, () -> "Unable to store " + input.getName());
+                        result.withStored(false).withMessage(firstLine(e));
+                    }
+                    results.add(result.build());
+                }
+                try {
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    versioned.forEach(metadataCache::invalidate);
+                    throw e;
+                }
+                versioned.forEach(key -> metadataCache.asMap()
+                        .computeIfAbsent(key, k -> new TsMetadata()).versioned = true);
+                return results;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        for (int i = 0; i < stored.size(); i++) {
+            if (stored.get(i).isStored()) {
+                TimeSeries input = timeSeries.get(i);
+                TimeSeriesEvents.stored(input.getOfficeId(), input.getName(), input.getUnits(),
+                        input.getVersionDate() == null ? null
+                                : Timestamp.from(input.getVersionDate().toInstant()),
+                        input.getValues());
+            }
+        }
+        return stored;
+    }
+
+    private static String firstLine(Exception e) {
+        Exception wrapped = e instanceof RuntimeException ? wrapException((RuntimeException) e) : e;
+        String message = wrapped.getLocalizedMessage();
+        if (message == null) {
+            return wrapped.getClass().getSimpleName();
+        }
+        // Oracle errors carry the whole pl/sql stack, the first line is the useful part.
+        int newline = message.indexOf('\n');
+        return newline > 0 ? message.substring(0, newline) : message;
     }
 
     private void store(Connection connection, String officeId, String tsId, String units,
@@ -1143,7 +2036,20 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                        StoreRule storeRule, boolean overrideProtection) throws SQLException {
         setOffice(connection,officeId);
         CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
+        store(tsDao, connection, officeId, tsId, units, versionDate, values, createAsLrts,
+                storeRule, overrideProtection, null);
+    }
 
+    /**
+     * Stores the values, the session office of the connection must already be set.
+     * @param versionedKeys when the connection is in a transaction, collects the cache keys
+     *     of the series marked versioned instead of caching them, null to cache them now
+     */
+    private void store(CwmsDbTs tsDao, Connection connection, String officeId, String tsId,
+                       String units, Timestamp versionDate, List<TimeSeries.Record> values,
+                       boolean createAsLrts, StoreRule storeRule, boolean overrideProtection,
+                       List<List<String>> versionedKeys)
+            throws SQLException {
         final int count = values == null ? 0 : values.size();
 
         final long[] timeArray = new long[count];
@@ -1160,10 +2066,19 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
             }
         }
 
-        if (versionDate != null) {
+        final List<String> versionedKey = metadataKey(officeId, tsId);
+        TsMetadata cached = versionedKey == null ? null : metadataCache.getIfPresent(versionedKey);
+        if (versionDate != null && (cached == null || !Boolean.TRUE.equals(cached.versioned))) {
             try {
-                CWMS_TS_PACKAGE.call_SET_TSID_VERSIONED(getDslContext(connection, officeId).configuration(),
+                CWMS_TS_PACKAGE.call_SET_TSID_VERSIONED(
+                        DSL.using(connection, SQLDialect.ORACLE18C).configuration(),
                         tsId, "T", officeId);
+                if (versionedKey != null && versionedKeys != null) {
+                    versionedKeys.add(versionedKey);
+                } else if (versionedKey != null) {
+                    metadataCache.asMap().computeIfAbsent(versionedKey, k -> new TsMetadata())
+                            .versioned = true;
+                }
             } catch (DataAccessException e) {
                 if (e.getCause() instanceof SQLException) {
                     SQLException cause = (SQLException)e.getCause();
@@ -1181,6 +2096,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
 
         tsDao.store(connection, officeId, tsId, units, timeArray, valueArray, qualityArray, count,
                 storeRule.getRule(), overrideProtection, versionDate, createAsLrts);
+        // the store may have created a time series whose id was used as an alias
+        IdentifierAliases.timeSeriesStored(officeId, tsId);
 
     }
 
@@ -1196,6 +2113,8 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
             store(connection, input.getOfficeId(), name, input.getUnits(), versionDate,
                     input.getValues(), createAsLrts, storeRule, overrideProtection);
         });
+        TimeSeriesEvents.stored(input.getOfficeId(), name, input.getUnits(), versionDate,
+                input.getValues());
     }
 
 
@@ -1221,6 +2140,7 @@ public class TimeSeriesDaoImpl extends JooqDao<TimeSeries> implements TimeSeries
                     options.getVersionDate(), null, options.getMaxVersion(),
                     options.getTsItemMask(), options.getOverrideProtection());
         });
+        invalidateMetadata(officeId, tsId);
     }
 
 
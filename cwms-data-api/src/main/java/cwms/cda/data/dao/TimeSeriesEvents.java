@@ -0,0 +1,74 @@
+package cwms.cda.data.dao;
+
+import com.google.common.flogger.FluentLogger;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.TimeSeriesChanges;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tells listeners about time series values once they are stored.
+ *
+ * <p>{@link TimeSeriesDaoImpl} publishes after its stores committed. Values stored without
+ * this node, e.g. by a loader writing to the database directly or by another node, can be
+ * fed in with {@link #stored(TimeSeriesChanges.Series)} by whatever learns about them.
+ * Listeners run on the storing thread and must hand the values off instead of blocking.
+ */
+public final class TimeSeriesEvents {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param values the stored values in the units they were stored with, without a
+         *               data entry date
+         */
+        void stored(TimeSeriesChanges.Series values);
+    }
+
+    private TimeSeriesEvents() {
+    }
+
+    public static void addListener(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    public static boolean hasListeners() {
+        return !LISTENERS.isEmpty();
+    }
+
+    /**
+     * Passes stored values to every listener. A failing listener is logged and does not
+     * fail the store.
+     */
+    public static void stored(TimeSeriesChanges.Series values) {
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.stored(values);
+            } catch (RuntimeException ex) {
+                logger.atWarning().withCause(ex).log("Listener failed for %s", values.getName());
+            }
+        }
+    }
+
+    static void stored(String officeId, String tsId, String units, Timestamp versionDate,
+                       List<TimeSeries.Record> values) {
+        if (LISTENERS.isEmpty() || values == null || values.isEmpty()) {
+            return;
+        }
+        List<TimeSeriesChanges.Change> changes = new ArrayList<>(values.size());
+        for (TimeSeries.Record value : values) {
+            changes.add(new TimeSeriesChanges.Change(value.getDateTime(), value.getValue(),
+                    value.getQualityCode(), versionDate, null));
+        }
+        stored(new TimeSeriesChanges.Series(officeId, tsId, units, changes));
+    }
+}
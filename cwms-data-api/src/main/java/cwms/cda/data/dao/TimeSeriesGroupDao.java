@@ -34,6 +34,7 @@ import org.jooq.conf.ParamType;
 import org.jooq.impl.DSL;
 import usace.cwms.db.dao.util.OracleTypeMap;
 import usace.cwms.db.jooq.codegen.packages.CWMS_TS_PACKAGE;
+import usace.cwms.db.jooq.codegen.tables.AV_CWMS_TS_ID;
 import usace.cwms.db.jooq.codegen.tables.AV_TS_CAT_GRP;
 import usace.cwms.db.jooq.codegen.tables.AV_TS_GRP_ASSGN;
 import usace.cwms.db.jooq.codegen.udt.records.TS_ALIAS_T;
@@ -244,6 +245,7 @@ public class TimeSeriesGroupDao extends JooqDao<TimeSeriesGroup> {
                 getDslContext(c,office).configuration(), categoryId, groupId, office
             )
         );
+        IdentifierAliases.groupsChanged(dsl, office);
     }
 
     public void create(TimeSeriesGroup group, boolean failIfExists) {
@@ -256,7 +258,7 @@ public class TimeSeriesGroupDao extends JooqDao<TimeSeriesGroup> {
             group.getSharedRefTsId(), group.getOfficeId());
             assignTs(configuration,group);
         });
-        
+        IdentifierAliases.groupsChanged(dsl, group.getOfficeId());
     }
 
     private void assignTs(Configuration configuration,TimeSeriesGroup group) {
@@ -274,6 +276,7 @@ public class TimeSeriesGroupDao extends JooqDao<TimeSeriesGroup> {
 
     public void assignTs(TimeSeriesGroup group) {
         dsl.connection(c->assignTs(getDslContext(c,group.getOfficeId()).configuration(),group));
+        IdentifierAliases.groupsChanged(dsl, group.getOfficeId());
     }
 
     private static TS_ALIAS_T convertToTsAliasType(AssignedTimeSeries assignedTimeSeries) {
@@ -282,6 +285,30 @@ public class TimeSeriesGroupDao extends JooqDao<TimeSeriesGroup> {
             assignedTimeSeries.getAliasId(), assignedTimeSeries.getRefTsId());
     }
 
+    /**
+     * Reads the alias of every time series assignment that has one, leaving out aliases
+     * that are also the id of a time series of the office, the database takes the time
+     * series then.
+     * @param officeId only time series of this office, null for all offices
+     * @param consumer called with the office, alias and time series id of each assignment
+     */
+    void fetchTimeSeriesAliases(String officeId, IdentifierAliases.AliasConsumer consumer) {
+        AV_TS_GRP_ASSGN grpAssgn = AV_TS_GRP_ASSGN.AV_TS_GRP_ASSGN;
+        AV_CWMS_TS_ID tsView = AV_CWMS_TS_ID.AV_CWMS_TS_ID;
+        Condition condition = grpAssgn.ALIAS_ID.isNotNull()
+                .andNotExists(DSL.selectOne().from(tsView)
+                        .where(tsView.DB_OFFICE_ID.eq(grpAssgn.DB_OFFICE_ID))
+                        .and(DSL.upper(tsView.CWMS_TS_ID).eq(DSL.upper(grpAssgn.ALIAS_ID))));
+        if (officeId != null) {
+            condition = condition.and(grpAssgn.DB_OFFICE_ID.equalIgnoreCase(officeId));
+        }
+        dsl.select(grpAssgn.DB_OFFICE_ID, grpAssgn.ALIAS_ID, grpAssgn.TS_ID)
+                .from(grpAssgn)
+                .where(condition)
+                .fetch()
+                .forEach(r -> consumer.accept(r.value1(), r.value2(), r.value3()));
+    }
+
     public void renameTimeSeriesGroup(String oldGroupId, TimeSeriesGroup group) {
         dsl.connection(c->
             CWMS_TS_PACKAGE.call_RENAME_TS_GROUP(
@@ -298,6 +325,7 @@ public class TimeSeriesGroupDao extends JooqDao<TimeSeriesGroup> {
                 group.getTimeSeriesCategory().getId(), group.getId(),
                 null, "T", group.getOfficeId())
         );
+        IdentifierAliases.groupsChanged(dsl, group.getOfficeId());
     }
 
 
@@ -67,6 +67,8 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
                 OracleTypeMap.formatBool(failIfExists), tsid.getOfficeId());
             logger.atFine().log("Created tsCode: %s for %s", tsCode, tsid.getTimeSeriesId());
         });
+        TimeSeriesDaoImpl.invalidateMetadata(tsid.getOfficeId(), tsid.getTimeSeriesId());
+        IdentifierAliases.timeSeriesStored(tsid.getOfficeId(), tsid.getTimeSeriesId());
     }
 
     public TimeSeriesIdentifierDescriptors getTimeSeriesIdentifiers(String cursor, int pageSize, String office,
@@ -180,7 +182,7 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.updateTsId(connection, office, timeseriesId, utcOffsetMinutes, intervalForward, intervalBackward, activeFlag);
         });
-
+        TimeSeriesDaoImpl.invalidateMetadata(office, timeseriesId);
     }
 
     public void rename(String officeId, String origId, String newId, Long utcOffset) {
@@ -193,7 +195,9 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
                         officeId);
             }
         });
-        
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, origId);
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, newId);
+        IdentifierAliases.timeSeriesStored(officeId, newId);
     }
 
     public void delete(String office, String timeseriesId, DeleteMethod method) {
@@ -219,6 +223,7 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteAll(connection, officeId, tsId);
         });
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, tsId);
     }
 
     public void deleteData(String officeId, String tsId) {
@@ -227,6 +232,7 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteData(connection, officeId, tsId);
         });
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, tsId);
     }
 
     public void deleteKey(String officeId, String tsId) {
@@ -235,5 +241,6 @@ public class TimeSeriesIdentifierDescriptorDao extends JooqDao<TimeSeriesIdentif
             CwmsDbTs tsDao = CwmsDbServiceLookup.buildCwmsDb(CwmsDbTs.class, connection);
             tsDao.deleteKey(connection, officeId, tsId);
         });
+        TimeSeriesDaoImpl.invalidateMetadata(officeId, tsId);
     }
 }
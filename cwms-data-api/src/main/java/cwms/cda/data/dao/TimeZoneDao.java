@@ -17,10 +17,24 @@ public class TimeZoneDao extends JooqDao<String> {
     }
 
     public String getTimeZones(String format) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.onDemand("time-zones:" + format,
+                    () -> CWMS_CAT_PACKAGE.call_RETRIEVE_TIME_ZONES_F(dsl.configuration(), format));
+        }
         return CWMS_CAT_PACKAGE.call_RETRIEVE_TIME_ZONES_F(dsl.configuration(), format);
     }
 
     public TimeZones getTimeZones()
+    {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.getTimeZones();
+        }
+        return fetchTimeZones();
+    }
+
+    TimeZones fetchTimeZones()
     {
         return new TimeZones(dsl.select(MV_TIME_ZONE.MV_TIME_ZONE.TIME_ZONE_NAME)
                                 .from(MV_TIME_ZONE.MV_TIME_ZONE)
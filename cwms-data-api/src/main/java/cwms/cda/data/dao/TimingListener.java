@@ -0,0 +1,43 @@
+package cwms.cda.data.dao;
+
+import cwms.cda.helpers.RequestTiming;
+import org.jooq.ExecuteContext;
+import org.jooq.impl.DefaultExecuteListener;
+
+/**
+ * Records statement execution and result fetching in the {@link RequestTiming} of the
+ * current request.
+ */
+class TimingListener extends DefaultExecuteListener {
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        super.executeStart(ctx);
+        RequestTiming.begin(RequestTiming.SQL);
+    }
+
+    @Override
+    public void executeEnd(ExecuteContext ctx) {
+        super.executeEnd(ctx);
+        RequestTiming.end(RequestTiming.SQL);
+    }
+
+    @Override
+    public void fetchStart(ExecuteContext ctx) {
+        super.fetchStart(ctx);
+        RequestTiming.begin(RequestTiming.FETCH);
+    }
+
+    @Override
+    public void fetchEnd(ExecuteContext ctx) {
+        super.fetchEnd(ctx);
+        RequestTiming.end(RequestTiming.FETCH);
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        super.exception(ctx);
+        RequestTiming.end(RequestTiming.FETCH);
+        RequestTiming.end(RequestTiming.SQL);
+    }
+}
@@ -0,0 +1,252 @@
+package cwms.cda.data.dao;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts values between CWMS units without the database, using the definitions of
+ * CWMS_UNIT_CONVERSION.
+ *
+ * <p>A conversion is value * factor + offset, or a function of ARG1 written either
+ * algebraically, e.g. "(ARG1 - 32) / 1.8", or in reverse polish notation, e.g.
+ * "ARG1 32 - 1.8 /". Functions may use + - * / ^, LOG (base 10), LN, EXP, SQRT and ABS.
+ * Definitions that can't be read are left out, values in those units are converted
+ * by the database as before. Unit ids are case sensitive, as they are in CWMS.
+ */
+public final class UnitConverter {
+    private static final Pattern TOKEN = Pattern.compile(
+            "\\s*(\\d+\\.?\\d*(?:[eE][-+]?\\d+)?|\\.\\d+(?:[eE][-+]?\\d+)?|[A-Za-z_][A-Za-z0-9_]*"
+                    + "|[-+*/^()])");
+    private static final String VARIABLE = "ARG1";
+    private static final Map<String, Integer> PRECEDENCE = new HashMap<>();
+    private static final Map<String, DoubleUnaryOperator> FUNCTIONS = new HashMap<>();
+
+    static {
+        PRECEDENCE.put("+", 1);
+        PRECEDENCE.put("-", 1);
+        PRECEDENCE.put("*", 2);
+        PRECEDENCE.put("/", 2);
+        PRECEDENCE.put("^", 3);
+        FUNCTIONS.put("LOG", Math::log10);
+        FUNCTIONS.put("LN", Math::log);
+        FUNCTIONS.put("EXP", Math::exp);
+        FUNCTIONS.put("SQRT", Math::sqrt);
+        FUNCTIONS.put("ABS", Math::abs);
+        FUNCTIONS.put("NEG", v -> -v);
+    }
+
+    private final Map<String, DoubleUnaryOperator> conversions;
+
+    private UnitConverter(Map<String, DoubleUnaryOperator> conversions) {
+        this.conversions = Collections.unmodifiableMap(conversions);
+    }
+
+    public static class Builder {
+        private final Map<String, DoubleUnaryOperator> conversions = new HashMap<>();
+
+        /**
+         * Adds a row of CWMS_UNIT_CONVERSION.
+         * @param function used instead of the factor and offset when not null
+         * @return false if the function can't be read and the conversion was left out
+         */
+        public boolean add(String fromUnit, String toUnit, Double factor, Double offset,
+                           String function) {
+            DoubleUnaryOperator conversion;
+            if (function != null && !function.trim().isEmpty()) {
+                try {
+                    conversion = compile(function);
+                } catch (IllegalArgumentException ex) {
+                    return false;
+                }
+            } else {
+                double f = factor == null ? 1.0 : factor;
+                double o = offset == null ? 0.0 : offset;
+                conversion = value -> value * f + o;
+            }
+            conversions.put(key(fromUnit, toUnit), conversion);
+            return true;
+        }
+
+        public UnitConverter build() {
+            return new UnitConverter(new HashMap<>(conversions));
+        }
+    }
+
+    private static String key(String fromUnit, String toUnit) {
+        return fromUnit + "\u0000" + toUnit;
+    }
+
+    public int size() {
+        return conversions.size();
+    }
+
+    /**
+     * @return the conversion, null if it is not known.
+     */
+    public DoubleUnaryOperator conversion(String fromUnit, String toUnit) {
+        if (fromUnit == null || toUnit == null) {
+            return null;
+        }
+        if (fromUnit.equals(toUnit)) {
+            return DoubleUnaryOperator.identity();
+        }
+        return conversions.get(key(fromUnit, toUnit));
+    }
+
+    public boolean canConvert(String fromUnit, String toUnit) {
+        return conversion(fromUnit, toUnit) != null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no conversion between the units
+     */
+    public double convert(double value, String fromUnit, String toUnit) {
+        DoubleUnaryOperator conversion = conversion(fromUnit, toUnit);
+        if (conversion == null) {
+            throw new IllegalArgumentException("Unable to convert from " + fromUnit + " to "
+                    + toUnit);
+        }
+        return conversion.applyAsDouble(value);
+    }
+
+    /**
+     * Compiles a conversion function of ARG1.
+     * @throws IllegalArgumentException if the function can't be read
+     */
+    static DoubleUnaryOperator compile(String function) {
+        List<String> tokens = tokenize(function);
+        String last = tokens.get(tokens.size() - 1);
+        List<String> program = isOperator(last) || FUNCTIONS.containsKey(last)
+                ? tokens : toPostfix(tokens);
+        // run it once so a broken function is found now and not for every value
+        evaluate(program, 1.0);
+        return value -> evaluate(program, value);
+    }
+
+    private static List<String> tokenize(String function) {
+        List<String> retVal = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(function);
+        int position = 0;
+        while (position < function.length() && matcher.find(position)
+                && matcher.start() == position) {
+            retVal.add(matcher.group(1).toUpperCase(Locale.ROOT));
+            position = matcher.end();
+        }
+        if (retVal.isEmpty() || !function.substring(position).trim().isEmpty()) {
+            throw new IllegalArgumentException("Unable to read conversion function "
+                    + function);
+        }
+        return retVal;
+    }
+
+    private static boolean isOperator(String token) {
+        return PRECEDENCE.containsKey(token);
+    }
+
+    /**
+     * Shunting yard, a minus at the start, after an operator or after "(" negates.
+     */
+    private static List<String> toPostfix(List<String> tokens) {
+        List<String> output = new ArrayList<>();
+        Deque<String> operators = new ArrayDeque<>();
+        String previous = null;
+        for (String token : tokens) {
+            boolean unary = "-".equals(token)
+                    && (previous == null || isOperator(previous) || "(".equals(previous));
+            if (unary) {
+                operators.push("NEG");
+            } else if (FUNCTIONS.containsKey(token)) {
+                operators.push(token);
+            } else if (isOperator(token)) {
+                while (!operators.isEmpty() && !"(".equals(operators.peek())
+                        && (FUNCTIONS.containsKey(operators.peek())
+                        || PRECEDENCE.get(operators.peek()) > PRECEDENCE.get(token)
+                        || PRECEDENCE.get(operators.peek()).equals(PRECEDENCE.get(token))
+                        && !"^".equals(token))) {
+                    output.add(operators.pop());
+                }
+                operators.push(token);
+            } else if ("(".equals(token)) {
+                operators.push(token);
+            } else if (")".equals(token)) {
+                while (!operators.isEmpty() && !"(".equals(operators.peek())) {
+                    output.add(operators.pop());
+                }
+                if (operators.isEmpty()) {
+                    throw new IllegalArgumentException("Unbalanced parentheses");
+                }
+                operators.pop();
+                if (!operators.isEmpty() && FUNCTIONS.containsKey(operators.peek())) {
+                    output.add(operators.pop());
+                }
+            } else {
+                output.add(token);
+            }
+            previous = token;
+        }
+        while (!operators.isEmpty()) {
+            String operator = operators.pop();
+            if ("(".equals(operator)) {
+                throw new IllegalArgumentException("Unbalanced parentheses");
+            }
+            output.add(operator);
+        }
+        return output;
+    }
+
+    private static double evaluate(List<String> program, double argument) {
+        double[] stack = new double[program.size()];
+        int size = 0;
+        for (String token : program) {
+            if (isOperator(token)) {
+                if (size < 2) {
+                    throw new IllegalArgumentException("Missing operand for " + token);
+                }
+                double right = stack[--size];
+                double left = stack[--size];
+                stack[size++] = apply(token, left, right);
+            } else if (FUNCTIONS.containsKey(token)) {
+                if (size < 1) {
+                    throw new IllegalArgumentException("Missing argument for " + token);
+                }
+                stack[size - 1] = FUNCTIONS.get(token).applyAsDouble(stack[size - 1]);
+            } else if (VARIABLE.equals(token)) {
+                stack[size++] = argument;
+            } else {
+                try {
+                    stack[size++] = Double.parseDouble(token);
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Unknown token " + token, ex);
+                }
+            }
+        }
+        if (size != 1) {
+            throw new IllegalArgumentException("Malformed conversion function");
+        }
+        return stack[0];
+    }
+
+    private static double apply(String operator, double left, double right) {
+        switch (operator) {
+            case "+":
+                return left + right;
+            case "-":
+                return left - right;
+            case "*":
+                return left * right;
+            case "/":
+                return left / right;
+            default:
+                return Math.pow(left, right);
+        }
+    }
+}
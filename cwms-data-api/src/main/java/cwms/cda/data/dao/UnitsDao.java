@@ -20,10 +20,24 @@ public class UnitsDao extends JooqDao<String> {
     }
 
     public String getUnits(String format) {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.onDemand("units:" + format,
+                    () -> CWMS_CAT_PACKAGE.call_RETRIEVE_UNITS_F(dsl.configuration(), format));
+        }
         return CWMS_CAT_PACKAGE.call_RETRIEVE_UNITS_F(dsl.configuration(), format);
     }
 
     public List<Unit> getUnits()
+    {
+        ReferenceData reference = ReferenceData.current();
+        if (reference != null) {
+            return reference.getUnits();
+        }
+        return fetchUnits();
+    }
+
+    List<Unit> fetchUnits()
     {
         Map<Long, List<String>> unitIdToAliasMap = dsl.select()
                                                       .from(table("CWMS_20.AT_UNIT_ALIAS"))
@@ -38,6 +52,22 @@ public class UnitsDao extends JooqDao<String> {
                   .collect(Collectors.toList());
     }
 
+    /**
+     * Reads CWMS_UNIT_CONVERSION, conversions with a function that can't be read are left
+     * out.
+     */
+    UnitConverter fetchUnitConversions()
+    {
+        UnitConverter.Builder builder = new UnitConverter.Builder();
+        dsl.select()
+           .from(table("CWMS_20.CWMS_UNIT_CONVERSION"))
+           .fetch()
+           .forEach(rec -> builder.add(rec.get("FROM_UNIT_ID", String.class),
+                   rec.get("TO_UNIT_ID", String.class), rec.get("FACTOR", Double.class),
+                   rec.get("OFFSET", Double.class), rec.get("FUNCTION", String.class)));
+        return builder.build();
+    }
+
     private Unit buildUnit(Record rec, Map<Long, List<String>> unitIdToAliasMap)
     {
         AV_UNIT view = AV_UNIT.AV_UNIT;
@@ -0,0 +1,89 @@
+package cwms.cda.data.dao.downsample;
+
+import cwms.cda.api.enums.Aggregate;
+
+/**
+ * Reduces each bucket to one value (min, max, mean, sum, first or last) stamped with the
+ * start time of the bucket.
+ */
+final class BucketAggregator extends Downsampler {
+    private final Aggregate aggregate;
+
+    private long bucket = Long.MIN_VALUE;
+    private boolean hasRows;
+    private int count;
+    private double sum;
+    private double selected;
+    private int selectedQuality;
+    private int combinedQuality;
+    private boolean stopped;
+
+    BucketAggregator(Aggregate aggregate, long begin, long end, int buckets, ValueSink sink) {
+        super(begin, end, buckets, sink);
+        this.aggregate = aggregate;
+    }
+
+    @Override
+    public boolean add(long dateTime, Double value, int qualityCode) {
+        if (stopped) {
+            return false;
+        }
+        long current = bucketOf(dateTime);
+        if (current != bucket) {
+            if (!emit()) {
+                return false;
+            }
+            bucket = current;
+            hasRows = true;
+        }
+        if (value == null) {
+            return true;
+        }
+        double v = value;
+        if (count == 0) {
+            selected = v;
+            selectedQuality = qualityCode;
+            combinedQuality = qualityCode;
+        } else {
+            combinedQuality = Qualities.combine(combinedQuality, qualityCode);
+            if ((aggregate == Aggregate.MIN && v < selected)
+                    || (aggregate == Aggregate.MAX && v > selected)
+                    || aggregate == Aggregate.LAST) {
+                selected = v;
+                selectedQuality = qualityCode;
+            }
+        }
+        sum += v;
+        count++;
+        return true;
+    }
+
+    private boolean emit() {
+        if (!hasRows) {
+            return true;
+        }
+        long dateTime = bucketStart(bucket);
+        boolean accepted;
+        if (count == 0) {
+            accepted = sink.accept(dateTime, null, Qualities.SCREENED_MISSING);
+        } else if (aggregate == Aggregate.MEAN) {
+            accepted = sink.accept(dateTime, sum / count, combinedQuality);
+        } else if (aggregate == Aggregate.SUM) {
+            accepted = sink.accept(dateTime, sum, combinedQuality);
+        } else {
+            accepted = sink.accept(dateTime, selected, selectedQuality);
+        }
+        hasRows = false;
+        count = 0;
+        sum = 0.0;
+        stopped = !accepted;
+        return accepted;
+    }
+
+    @Override
+    public void finish() {
+        if (!stopped) {
+            emit();
+        }
+    }
+}
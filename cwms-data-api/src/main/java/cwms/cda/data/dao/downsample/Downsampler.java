@@ -0,0 +1,66 @@
+package cwms.cda.data.dao.downsample;
+
+import cwms.cda.api.enums.Aggregate;
+
+/**
+ * Reduces a time ordered stream of values to a bounded number of values in a single pass.
+ *
+ * <p>The time window is split into equal width buckets starting at the window's begin.
+ * Missing values (null) never take part in a computation. Quality codes are combined as
+ * described in {@link Qualities}.</p>
+ */
+public abstract class Downsampler {
+    protected final long begin;
+    protected final long width;
+    protected final ValueSink sink;
+
+    protected Downsampler(long begin, long end, int buckets, ValueSink sink) {
+        this.begin = begin;
+        this.width = Math.max(1L, (end - begin + buckets) / buckets);
+        this.sink = sink;
+    }
+
+    /**
+     * Creates a downsampler that hands at most maxPoints values to the sink.
+     *
+     * @param aggregate how to reduce the values
+     * @param maxPoints the maximum number of values to produce, at least 3
+     * @param begin start of the window, epoch milliseconds
+     * @param end end of the window, epoch milliseconds
+     * @param sink receives the reduced values in time order
+     */
+    public static Downsampler create(Aggregate aggregate, int maxPoints, long begin, long end,
+                                     ValueSink sink) {
+        if (maxPoints < 3) {
+            throw new IllegalArgumentException("max-points must be at least 3");
+        }
+        switch (aggregate) {
+            case LTTB:
+                return new LttbDownsampler(begin, end, maxPoints, sink);
+            case MIN_MAX:
+                return new MinMaxDownsampler(begin, end, maxPoints, sink);
+            default:
+                return new BucketAggregator(aggregate, begin, end, maxPoints, sink);
+        }
+    }
+
+    protected long bucketOf(long dateTime) {
+        return Math.floorDiv(dateTime - begin, width);
+    }
+
+    protected long bucketStart(long bucket) {
+        return begin + bucket * width;
+    }
+
+    /**
+     * Adds the next value, values must be provided in increasing time order.
+     *
+     * @return false once the sink stopped accepting values
+     */
+    public abstract boolean add(long dateTime, Double value, int qualityCode);
+
+    /**
+     * Hands any values still held to the sink.
+     */
+    public abstract void finish();
+}
@@ -0,0 +1,126 @@
+package cwms.cda.data.dao.downsample;
+
+import java.util.Arrays;
+
+/**
+ * Largest Triangle Three Buckets decimation over time based buckets.
+ *
+ * <p>The first and last values are always kept.  From every bucket in between the value
+ * forming the largest triangle with the previously kept value and the average of the next
+ * bucket is kept.  Only the current and the next bucket are held in memory.</p>
+ */
+final class LttbDownsampler extends Downsampler {
+    private Bucket pending = new Bucket();
+    private Bucket current = new Bucket();
+    private boolean hasFirst;
+    private long keptTime;
+    private double keptValue;
+    private boolean stopped;
+
+    LttbDownsampler(long begin, long end, int maxPoints, ValueSink sink) {
+        super(begin, end, maxPoints - 2, sink);
+    }
+
+    @Override
+    public boolean add(long dateTime, Double value, int qualityCode) {
+        if (stopped) {
+            return false;
+        }
+        if (value == null) {
+            return true;
+        }
+        if (!hasFirst) {
+            hasFirst = true;
+            return keep(dateTime, value, qualityCode);
+        }
+        long bucket = bucketOf(dateTime);
+        if (current.size > 0 && bucket != current.index) {
+            if (pending.size > 0 && !select(pending, 0, pending.size,
+                    current.averageTime(), current.averageValue())) {
+                return false;
+            }
+            Bucket reuse = pending;
+            pending = current;
+            current = reuse;
+            current.clear();
+        }
+        current.index = bucket;
+        current.add(dateTime, value, qualityCode);
+        return true;
+    }
+
+    @Override
+    public void finish() {
+        if (stopped || current.size == 0) {
+            return;
+        }
+        int last = current.size - 1;
+        if (pending.size > 0 && !select(pending, 0, pending.size,
+                current.averageTime(), current.averageValue())) {
+            return;
+        }
+        if (last > 0 && !select(current, 0, last, current.times[last], current.values[last])) {
+            return;
+        }
+        keep(current.times[last], current.values[last], current.qualities[last]);
+    }
+
+    private boolean select(Bucket bucket, int from, int to, double nextTime, double nextValue) {
+        int best = from;
+        double bestArea = -1.0;
+        for (int i = from; i < to; i++) {
+            double area = Math.abs((keptTime - nextTime) * (bucket.values[i] - keptValue)
+                    - (keptTime - bucket.times[i]) * (nextValue - keptValue));
+            if (area > bestArea) {
+                bestArea = area;
+                best = i;
+            }
+        }
+        return keep(bucket.times[best], bucket.values[best], bucket.qualities[best]);
+    }
+
+    private boolean keep(long dateTime, double value, int qualityCode) {
+        keptTime = dateTime;
+        keptValue = value;
+        stopped = !sink.accept(dateTime, value, qualityCode);
+        return !stopped;
+    }
+
+    private static final class Bucket {
+        long index;
+        int size;
+        long[] times = new long[16];
+        double[] values = new double[16];
+        int[] qualities = new int[16];
+        double timeSum;
+        double valueSum;
+
+        void add(long dateTime, double value, int qualityCode) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                qualities = Arrays.copyOf(qualities, size * 2);
+            }
+            times[size] = dateTime;
+            values[size] = value;
+            qualities[size] = qualityCode;
+            timeSum += dateTime;
+            valueSum += value;
+            size++;
+        }
+
+        double averageTime() {
+            return timeSum / size;
+        }
+
+        double averageValue() {
+            return valueSum / size;
+        }
+
+        void clear() {
+            size = 0;
+            timeSum = 0.0;
+            valueSum = 0.0;
+        }
+    }
+}
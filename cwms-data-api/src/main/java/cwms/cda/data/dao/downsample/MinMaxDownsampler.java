@@ -0,0 +1,77 @@
+package cwms.cda.data.dao.downsample;
+
+/**
+ * Keeps the smallest and largest value of each bucket, in the order they occurred, so that
+ * peaks survive the reduction.  Uses half as many buckets as points requested.
+ */
+final class MinMaxDownsampler extends Downsampler {
+    private long bucket = Long.MIN_VALUE;
+    private boolean hasValue;
+    private long minTime;
+    private double min;
+    private int minQuality;
+    private long maxTime;
+    private double max;
+    private int maxQuality;
+    private boolean stopped;
+
+    MinMaxDownsampler(long begin, long end, int maxPoints, ValueSink sink) {
+        super(begin, end, maxPoints / 2, sink);
+    }
+
+    @Override
+    public boolean add(long dateTime, Double value, int qualityCode) {
+        if (stopped) {
+            return false;
+        }
+        if (value == null) {
+            return true;
+        }
+        long current = bucketOf(dateTime);
+        if (current != bucket) {
+            if (!emit()) {
+                return false;
+            }
+            bucket = current;
+        }
+        double v = value;
+        if (!hasValue || v < min) {
+            min = v;
+            minTime = dateTime;
+            minQuality = qualityCode;
+        }
+        if (!hasValue || v > max) {
+            max = v;
+            maxTime = dateTime;
+            maxQuality = qualityCode;
+        }
+        hasValue = true;
+        return true;
+    }
+
+    private boolean emit() {
+        if (!hasValue) {
+            return true;
+        }
+        hasValue = false;
+        boolean accepted;
+        if (minTime == maxTime) {
+            accepted = sink.accept(minTime, min, minQuality);
+        } else if (minTime < maxTime) {
+            accepted = sink.accept(minTime, min, minQuality)
+                    && sink.accept(maxTime, max, maxQuality);
+        } else {
+            accepted = sink.accept(maxTime, max, maxQuality)
+                    && sink.accept(minTime, min, minQuality);
+        }
+        stopped = !accepted;
+        return accepted;
+    }
+
+    @Override
+    public void finish() {
+        if (!stopped) {
+            emit();
+        }
+    }
+}
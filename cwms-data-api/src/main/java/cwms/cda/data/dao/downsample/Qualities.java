@@ -0,0 +1,62 @@
+package cwms.cda.data.dao.downsample;
+
+/**
+ * Rules used to combine the quality codes of several values into the quality of a computed
+ * (mean or sum) value.
+ *
+ * <ul>
+ *     <li>Identical quality codes are kept as is.</li>
+ *     <li>Otherwise, if any value is REJECTED the result is screened REJECTED (17).</li>
+ *     <li>Otherwise, if any value is QUESTIONABLE the result is screened QUESTIONABLE (9).</li>
+ *     <li>Otherwise, if all values are screened OKAY the result is screened OKAY (3), the
+ *     range, change and test flags are not carried over.</li>
+ *     <li>Otherwise the result is unscreened (0).</li>
+ * </ul>
+ *
+ * <p>A value selected from the series (min, max, first, last, lttb, min-max) keeps its own
+ * quality code. A bucket holding only missing values produces a missing value with quality
+ * screened MISSING (5).</p>
+ */
+public final class Qualities {
+    public static final int UNSCREENED = 0;
+    public static final int SCREENED = 1;
+    public static final int OKAY = 1 << 1;
+    public static final int MISSING = 1 << 2;
+    public static final int QUESTIONABLE = 1 << 3;
+    public static final int REJECTED = 1 << 4;
+    private static final int VALIDITY_MASK = OKAY | MISSING | QUESTIONABLE | REJECTED;
+
+    public static final int SCREENED_OKAY = SCREENED | OKAY;
+    public static final int SCREENED_MISSING = SCREENED | MISSING;
+    public static final int SCREENED_QUESTIONABLE = SCREENED | QUESTIONABLE;
+    public static final int SCREENED_REJECTED = SCREENED | REJECTED;
+
+    private Qualities() {
+    }
+
+    /**
+     * Combines the quality of another contributing value into an already combined quality.
+     *
+     * @param combined the quality combined so far
+     * @param qualityCode the quality of the next value
+     * @return the combined quality
+     */
+    public static int combine(int combined, int qualityCode) {
+        if (combined == qualityCode) {
+            return qualityCode;
+        }
+        int both = combined | qualityCode;
+        if ((both & REJECTED) != 0) {
+            return SCREENED_REJECTED;
+        } else if ((both & QUESTIONABLE) != 0) {
+            return SCREENED_QUESTIONABLE;
+        } else if (isScreenedOkay(combined) && isScreenedOkay(qualityCode)) {
+            return SCREENED_OKAY;
+        }
+        return UNSCREENED;
+    }
+
+    private static boolean isScreenedOkay(int qualityCode) {
+        return (qualityCode & SCREENED) != 0 && (qualityCode & VALIDITY_MASK) == OKAY;
+    }
+}
@@ -0,0 +1,15 @@
+package cwms.cda.data.dao.downsample;
+
+/**
+ * Receives the values produced by a {@link Downsampler}.
+ */
+@FunctionalInterface
+public interface ValueSink {
+    /**
+     * @param dateTime epoch milliseconds
+     * @param value the value, null if missing
+     * @param qualityCode the CWMS quality code
+     * @return false if no more values can be accepted
+     */
+    boolean accept(long dateTime, Double value, int qualityCode);
+}
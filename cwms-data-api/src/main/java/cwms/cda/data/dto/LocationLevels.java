@@ -12,7 +12,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @JsonRootName("location-levels")
 @FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class, aliases = {Formats.DEFAULT, Formats.JSON})
@@ -27,6 +29,7 @@ public class LocationLevels extends CwmsDTOPaginated {
     }
 
     private int offset;
+    private boolean keyset;
 
     public LocationLevels(int offset, int pageSize, Integer total) {
         super(Integer.toString(offset), pageSize, total);
@@ -34,10 +37,42 @@ public class LocationLevels extends CwmsDTOPaginated {
         this.offset = offset;
     }
 
+    /**
+     * Create a page that continues after a key instead of an offset.
+     * @param page the key of the last level of the previous page, see
+     *             {@link #encodeKey(LocationLevel)}, or "0" for the first page
+     */
+    public LocationLevels(String page, int pageSize, Integer total) {
+        super(page, pageSize, total);
+        levels = new ArrayList<>();
+        this.keyset = true;
+    }
+
     public List<LocationLevel> getLevels() {
         return Collections.unmodifiableList(levels);
     }
 
+    /**
+     * @return the (office, location level id, effective date in epoch milliseconds) a page
+     *     continues after, encoded for use as the first part of the cursor.
+     */
+    public static String encodeKey(LocationLevel level) {
+        return encodeCursor(CwmsDTOPaginated.delimiter, level.getOfficeId(),
+                level.getLocationLevelId(), level.getLevelDate().toInstant().toEpochMilli());
+    }
+
+    /**
+     * @param key the first part of a cursor
+     * @return office, location level id and effective date in epoch milliseconds; or an
+     *     empty array if the key is an offset from a cursor of an older version.
+     */
+    public static String[] decodeKey(String key) {
+        if (key == null || key.chars().allMatch(Character::isDigit)) {
+            return new String[0];
+        }
+        return CwmsDTOPaginated.decodeCursor(key);
+    }
+
 
     public static class Builder {
         private LocationLevels workingLevels;
@@ -46,8 +81,26 @@ public class LocationLevels extends CwmsDTOPaginated {
             workingLevels = new LocationLevels(offset, pageSize, total);
         }
 
+        public Builder(String page, int pageSize, Integer total) {
+            workingLevels = new LocationLevels(page, pageSize, total);
+        }
+
         public LocationLevels build() {
-            if (this.workingLevels.levels.size() == this.workingLevels.pageSize) {
+            if (this.workingLevels.keyset) {
+                // a page holds pageSize keys, levels that only differ by attribute share one
+                Set<String> keys = new HashSet<>();
+                for (LocationLevel level : this.workingLevels.levels) {
+                    keys.add(encodeKey(level));
+                }
+                if (!keys.isEmpty() && keys.size() >= this.workingLevels.pageSize) {
+                    LocationLevel last =
+                            this.workingLevels.levels.get(this.workingLevels.levels.size() - 1);
+                    this.workingLevels.nextPage = encodeCursor(encodeKey(last),
+                            this.workingLevels.pageSize, this.workingLevels.total);
+                } else {
+                    this.workingLevels.nextPage = null;
+                }
+            } else if (this.workingLevels.levels.size() == this.workingLevels.pageSize) {
 
                 String cursor =
                         Integer.toString(this.workingLevels.offset + this.workingLevels.levels.size());
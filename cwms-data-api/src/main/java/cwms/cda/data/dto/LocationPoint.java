@@ -0,0 +1,128 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import cwms.cda.api.errors.FieldException;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * A location found by a spatial query.
+ */
+@JsonDeserialize(builder = LocationPoint.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class, aliases = {Formats.DEFAULT, Formats.JSON})
+public final class LocationPoint implements CwmsDTOBase {
+
+    @Schema(description = "Owning office of the location")
+    private final String officeId;
+    @Schema(description = "Location id")
+    private final String name;
+    @Schema(description = "Latitude in decimal degrees")
+    private final double latitude;
+    @Schema(description = "Longitude in decimal degrees")
+    private final double longitude;
+    @Schema(description = "Location kind, e.g. SITE or STREAM_GAGE")
+    private final String kind;
+    @Schema(description = "Great circle distance from the query point in kilometers, only "
+            + "present for radius and nearest queries")
+    private final Double distanceKm;
+
+    private LocationPoint(Builder builder) {
+        this.officeId = builder.officeId;
+        this.name = builder.name;
+        this.latitude = builder.latitude;
+        this.longitude = builder.longitude;
+        this.kind = builder.kind;
+        this.distanceKm = builder.distanceKm;
+    }
+
+    public String getOfficeId() {
+        return officeId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        // points are produced by the server only
+    }
+
+    public static final class Builder {
+        private String officeId;
+        private String name;
+        private double latitude;
+        private double longitude;
+        private String kind;
+        private Double distanceKm;
+
+        public Builder() {
+        }
+
+        public Builder(LocationPoint point) {
+            this.officeId = point.officeId;
+            this.name = point.name;
+            this.latitude = point.latitude;
+            this.longitude = point.longitude;
+            this.kind = point.kind;
+            this.distanceKm = point.distanceKm;
+        }
+
+        public Builder withOfficeId(String officeId) {
+            this.officeId = officeId;
+            return this;
+        }
+
+        public Builder withName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder withLatitude(double latitude) {
+            this.latitude = latitude;
+            return this;
+        }
+
+        public Builder withLongitude(double longitude) {
+            this.longitude = longitude;
+            return this;
+        }
+
+        public Builder withKind(String kind) {
+            this.kind = kind;
+            return this;
+        }
+
+        public Builder withDistanceKm(Double distanceKm) {
+            this.distanceKm = distanceKm;
+            return this;
+        }
+
+        public LocationPoint build() {
+            return new LocationPoint(this);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import cwms.cda.api.errors.FieldException;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Execution statistics of all statements sharing one SQL fingerprint.
+ */
+@JsonDeserialize(builder = QueryStatistics.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class, aliases = {Formats.DEFAULT, Formats.JSON})
+public final class QueryStatistics implements CwmsDTOBase {
+
+    @Schema(description = "Identifier of the normalized statement")
+    private final String fingerprint;
+    @Schema(description = "The statement with literals and bind values replaced by ?")
+    private final String sql;
+    @Schema(description = "Number of executions")
+    private final long count;
+    @Schema(description = "Time spent in all executions, milliseconds")
+    private final double totalMillis;
+    @Schema(description = "Median execution time of recent executions, milliseconds")
+    private final double p50Millis;
+    @Schema(description = "99th percentile execution time of recent executions, milliseconds")
+    private final double p99Millis;
+    @Schema(description = "Longest execution time, milliseconds")
+    private final double maxMillis;
+    @Schema(description = "Rows returned or changed by all executions")
+    private final long rows;
+
+    private QueryStatistics(Builder builder) {
+        this.fingerprint = builder.fingerprint;
+        this.sql = builder.sql;
+        this.count = builder.count;
+        this.totalMillis = builder.totalMillis;
+        this.p50Millis = builder.p50Millis;
+        this.p99Millis = builder.p99Millis;
+        this.maxMillis = builder.maxMillis;
+        this.rows = builder.rows;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        // statistics are produced by the server only
+    }
+
+    public static final class Builder {
+        private String fingerprint;
+        private String sql;
+        private long count;
+        private double totalMillis;
+        private double p50Millis;
+        private double p99Millis;
+        private double maxMillis;
+        private long rows;
+
+        public Builder withFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+            return this;
+        }
+
+        public Builder withSql(String sql) {
+            this.sql = sql;
+            return this;
+        }
+
+        public Builder withCount(long count) {
+            this.count = count;
+            return this;
+        }
+
+        public Builder withTotalMillis(double totalMillis) {
+            this.totalMillis = totalMillis;
+            return this;
+        }
+
+        public Builder withP50Millis(double p50Millis) {
+            this.p50Millis = p50Millis;
+            return this;
+        }
+
+        public Builder withP99Millis(double p99Millis) {
+            this.p99Millis = p99Millis;
+            return this;
+        }
+
+        public Builder withMaxMillis(double maxMillis) {
+            this.maxMillis = maxMillis;
+            return this;
+        }
+
+        public Builder withRows(long rows) {
+            this.rows = rows;
+            return this;
+        }
+
+        public QueryStatistics build() {
+            return new QueryStatistics(this);
+        }
+    }
+}
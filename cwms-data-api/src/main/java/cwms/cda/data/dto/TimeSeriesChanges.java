@@ -0,0 +1,240 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonFormat.Shape;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonRootName;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import cwms.cda.api.errors.FieldException;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The time series values entered or updated after a watermark. Passing the returned
+ * watermark as the next changed-since continues where this response stopped.
+ */
+@JsonRootName("time-series-changes")
+@JsonDeserialize(builder = TimeSeriesChanges.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonPropertyOrder({"changedSince", "watermark", "complete", "nextPage", "timeSeries"})
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class, aliases = {Formats.DEFAULT, Formats.JSON})
+public final class TimeSeriesChanges implements CwmsDTOBase {
+
+    @JsonFormat(shape = Shape.STRING)
+    @Schema(description = "The watermark the changes were requested after.")
+    private final ZonedDateTime changedSince;
+
+    @JsonFormat(shape = Shape.STRING)
+    @Schema(description = "The data entry date of the last change included. Use it as the "
+            + "changed-since of the next request.")
+    private final ZonedDateTime watermark;
+
+    @Schema(description = "False if more changes were found than fit in the response, "
+            + "request again with the watermark to get the rest.")
+    private final boolean complete;
+
+    @Schema(description = "Set if the values of a single data entry date did not fit in the "
+            + "response, request again with the same changed-since and this page to get the "
+            + "rest of them.")
+    private final String nextPage;
+
+    @Schema(description = "The changed values of each time series with changes.")
+    private final List<Series> timeSeries;
+
+    private TimeSeriesChanges(Builder builder) {
+        this.changedSince = builder.changedSince;
+        this.watermark = builder.watermark;
+        this.complete = builder.complete;
+        this.nextPage = builder.nextPage;
+        this.timeSeries = new ArrayList<>(builder.timeSeries.values());
+    }
+
+    public ZonedDateTime getChangedSince() {
+        return changedSince;
+    }
+
+    public ZonedDateTime getWatermark() {
+        return watermark;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public String getNextPage() {
+        return nextPage;
+    }
+
+    public List<Series> getTimeSeries() {
+        return Collections.unmodifiableList(timeSeries);
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        // values come from the database as they are
+    }
+
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    @JsonPropertyOrder({"officeId", "name", "units", "values"})
+    public static final class Series {
+        private final String officeId;
+        private final String name;
+        private final String units;
+        private final List<Change> values;
+
+        @JsonCreator
+        public Series(@JsonProperty("office-id") String officeId,
+                      @JsonProperty("name") String name,
+                      @JsonProperty("units") String units,
+                      @JsonProperty("values") List<Change> values) {
+            this.officeId = officeId;
+            this.name = name;
+            this.units = units;
+            this.values = values == null ? new ArrayList<>() : new ArrayList<>(values);
+        }
+
+        public String getOfficeId() {
+            return officeId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getUnits() {
+            return units;
+        }
+
+        public List<Change> getValues() {
+            return Collections.unmodifiableList(values);
+        }
+    }
+
+    /**
+     * A changed value in the form [date-time, value, quality-code, version-date,
+     * data-entry-date], the dates in milliseconds since the epoch.
+     */
+    @JsonFormat(shape = Shape.ARRAY)
+    @JsonPropertyOrder({"date-time", "value", "quality-code", "version-date", "data-entry-date"})
+    @Schema(name = "TimeSeriesChanges.Change", type = "array",
+            example = "[1509654000000, 54.3, 0, null, 1509654123456]")
+    public static final class Change {
+        private final Timestamp dateTime;
+        private final Double value;
+        private final long qualityCode;
+        private final Timestamp versionDate;
+        private final Timestamp dataEntryDate;
+
+        @JsonCreator
+        public Change(@JsonProperty("date-time") Timestamp dateTime,
+                      @JsonProperty("value") Double value,
+                      @JsonProperty("quality-code") long qualityCode,
+                      @JsonProperty("version-date") Timestamp versionDate,
+                      @JsonProperty("data-entry-date") Timestamp dataEntryDate) {
+            this.dateTime = dateTime;
+            this.value = value;
+            this.qualityCode = qualityCode;
+            this.versionDate = versionDate;
+            this.dataEntryDate = dataEntryDate;
+        }
+
+        @JsonProperty("date-time")
+        public Timestamp getDateTime() {
+            return dateTime;
+        }
+
+        @JsonProperty("value")
+        public Double getValue() {
+            return value;
+        }
+
+        @JsonProperty("quality-code")
+        public long getQualityCode() {
+            return qualityCode;
+        }
+
+        @JsonProperty("version-date")
+        public Timestamp getVersionDate() {
+            return versionDate;
+        }
+
+        @JsonProperty("data-entry-date")
+        public Timestamp getDataEntryDate() {
+            return dataEntryDate;
+        }
+    }
+
+    public static final class Builder {
+        private ZonedDateTime changedSince;
+        private ZonedDateTime watermark;
+        private boolean complete = true;
+        private String nextPage;
+        private final Map<List<String>, Series> timeSeries = new LinkedHashMap<>();
+
+        public Builder withChangedSince(ZonedDateTime changedSince) {
+            this.changedSince = changedSince;
+            return this;
+        }
+
+        public Builder withWatermark(ZonedDateTime watermark) {
+            this.watermark = watermark;
+            return this;
+        }
+
+        public Builder withComplete(boolean complete) {
+            this.complete = complete;
+            return this;
+        }
+
+        public Builder withNextPage(String nextPage) {
+            this.nextPage = nextPage;
+            return this;
+        }
+
+        public Builder withTimeSeries(List<Series> timeSeries) {
+            this.timeSeries.clear();
+            if (timeSeries != null) {
+                for (Series series : timeSeries) {
+                    this.timeSeries.put(key(series.officeId, series.name, series.units), series);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Adds a value to its series, series are listed in the order of their first value.
+         */
+        public Builder addChange(String officeId, String name, String units, Change change) {
+            timeSeries.computeIfAbsent(key(officeId, name, units),
+                    k -> new Series(officeId, name, units, null)).values.add(change);
+            return this;
+        }
+
+        private static List<String> key(String officeId, String name, String units) {
+            List<String> key = new ArrayList<>(3);
+            key.add(officeId);
+            key.add(name);
+            key.add(units);
+            return key;
+        }
+
+        public TimeSeriesChanges build() {
+            return new TimeSeriesChanges(this);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRootName;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlElementWrapper;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import cwms.cda.api.errors.FieldException;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.xml.XMLv2;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Several time series sharing one request.  Series that could not be processed are listed
+ * in {@code errors} instead of failing the whole request.
+ */
+@JsonRootName("time-series-collection")
+@JsonDeserialize(builder = TimeSeriesCollection.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class, aliases = {Formats.DEFAULT, Formats.JSON})
+@FormattableWith(contentType = Formats.XMLV2, formatter = XMLv2.class, aliases = {Formats.XML})
+public final class TimeSeriesCollection implements CwmsDTOBase {
+
+    @JacksonXmlElementWrapper(localName = "time-series")
+    @JacksonXmlProperty(localName = "timeseries")
+    @Schema(description = "The time series, in the order they were requested.")
+    private final List<TimeSeries> timeSeries;
+
+    @JacksonXmlElementWrapper(localName = "errors")
+    @JacksonXmlProperty(localName = "error")
+    @Schema(description = "Time series that could not be processed and why.")
+    private final List<SeriesError> errors;
+
+    private TimeSeriesCollection(Builder builder) {
+        this.timeSeries = new ArrayList<>(builder.timeSeries);
+        this.errors = new ArrayList<>(builder.errors);
+    }
+
+    public List<TimeSeries> getTimeSeries() {
+        return Collections.unmodifiableList(timeSeries);
+    }
+
+    public List<SeriesError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public void validate() throws FieldException {
+        for (TimeSeries ts : timeSeries) {
+            ts.validate();
+        }
+    }
+
+    @JsonDeserialize(builder = SeriesError.Builder.class)
+    @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+    public static final class SeriesError {
+        private final String officeId;
+        private final String name;
+        private final String message;
+
+        private SeriesError(Builder builder) {
+            this.officeId = builder.officeId;
+            this.name = builder.name;
+            this.message = builder.message;
+        }
+
+        public String getOfficeId() {
+            return officeId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public static final class Builder {
+            private String officeId;
+            private String name;
+            private String message;
+
+            public Builder withOfficeId(String officeId) {
+                this.officeId = officeId;
+                return this;
+            }
+
+            public Builder withName(String name) {
+                this.name = name;
+                return this;
+            }
+
+            public Builder withMessage(String message) {
+                this.message = message;
+                return this;
+            }
+
+            public SeriesError build() {
+                return new SeriesError(this);
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final List<TimeSeries> timeSeries = new ArrayList<>();
+        private final List<SeriesError> errors = new ArrayList<>();
+
+        public Builder withTimeSeries(Collection<TimeSeries> timeSeries) {
+            this.timeSeries.clear();
+            if (timeSeries != null) {
+                this.timeSeries.addAll(timeSeries);
+            }
+            return this;
+        }
+
+        public Builder withErrors(Collection<SeriesError> errors) {
+            this.errors.clear();
+            if (errors != null) {
+                this.errors.addAll(errors);
+            }
+            return this;
+        }
+
+        public Builder addTimeSeries(TimeSeries ts) {
+            this.timeSeries.add(ts);
+            return this;
+        }
+
+        public Builder addError(SeriesError error) {
+            this.errors.add(error);
+            return this;
+        }
+
+        public TimeSeriesCollection build() {
+            return new TimeSeriesCollection(this);
+        }
+    }
+}
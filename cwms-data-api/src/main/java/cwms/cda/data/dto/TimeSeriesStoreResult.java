@@ -0,0 +1,90 @@
+package cwms.cda.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.formatters.json.JsonV2;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * The outcome of storing one time series as part of a batch.
+ */
+@JsonDeserialize(builder = TimeSeriesStoreResult.Builder.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@FormattableWith(contentType = Formats.JSONV2, formatter = JsonV2.class, aliases = {Formats.DEFAULT, Formats.JSON})
+public final class TimeSeriesStoreResult extends CwmsDTO {
+
+    @Schema(description = "Time series identifier")
+    private final String name;
+    @Schema(description = "Whether the values of this time series were stored")
+    private final boolean stored;
+    @Schema(description = "Number of values submitted for this time series")
+    private final int valueCount;
+    @Schema(description = "Why the time series was not stored")
+    private final String message;
+
+    private TimeSeriesStoreResult(Builder builder) {
+        super(builder.officeId);
+        this.name = builder.name;
+        this.stored = builder.stored;
+        this.valueCount = builder.valueCount;
+        this.message = builder.message;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isStored() {
+        return stored;
+    }
+
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public static final class Builder {
+        private String officeId;
+        private String name;
+        private boolean stored;
+        private int valueCount;
+        private String message;
+
+        public Builder withOfficeId(String officeId) {
+            this.officeId = officeId;
+            return this;
+        }
+
+        public Builder withName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder withStored(boolean stored) {
+            this.stored = stored;
+            return this;
+        }
+
+        public Builder withValueCount(int valueCount) {
+            this.valueCount = valueCount;
+            return this;
+        }
+
+        public Builder withMessage(String message) {
+            this.message = message;
+            return this;
+        }
+
+        public TimeSeriesStoreResult build() {
+            return new TimeSeriesStoreResult(this);
+        }
+    }
+}
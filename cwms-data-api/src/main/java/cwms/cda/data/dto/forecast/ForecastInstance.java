@@ -61,6 +61,10 @@ public class ForecastInstance implements CwmsDTOBase {
     @JacksonXmlProperty(isAttribute = true)
     private final String fileMediaType;
 
+    @Schema(description = "Size of the Forecast File in bytes")
+    @JacksonXmlProperty(isAttribute = true)
+    private final Long fileSize;
+
     @Schema(description = "Forecast File binary data")
     private final byte[] fileData;
 
@@ -82,6 +86,7 @@ public class ForecastInstance implements CwmsDTOBase {
         this.filename = builder.filename;
         this.fileDescription = builder.fileDescription;
         this.fileMediaType = builder.fileMediaType;
+        this.fileSize = builder.fileSize;
         this.fileData = builder.fileData;
         this.fileDataUrl = builder.fileDataUrl;
     }
@@ -131,6 +136,10 @@ public class ForecastInstance implements CwmsDTOBase {
         return fileMediaType;
     }
 
+    public Long getFileSize() {
+        return fileSize;
+    }
+
     public byte[] getFileData() {
         return fileData;
     }
@@ -157,6 +166,7 @@ public class ForecastInstance implements CwmsDTOBase {
                 ", filename='" + filename + '\'' +
                 ", fileDescription='" + fileDescription + '\'' +
                 ", fileMediaType='" + fileMediaType + '\'' +
+                ", fileSize=" + fileSize +
                 ", fileData=" + fileData +
                 ", fileDataUrl='" + fileDataUrl + '\'' +
                 '}';
@@ -175,6 +185,7 @@ public class ForecastInstance implements CwmsDTOBase {
         private Map<String, String> metadata;
         private String filename;
         private String fileDescription;
+        private Long fileSize;
         private byte[] fileData;
         private String fileDataUrl;
         private String fileMediaType;
@@ -239,6 +250,11 @@ public class ForecastInstance implements CwmsDTOBase {
             return this;
         }
 
+        public Builder withFileSize(Long fileSize) {
+            this.fileSize = fileSize;
+            return this;
+        }
+
         public Builder withFileData(byte[] fileData) {
             this.fileData = fileData;
             return this;
@@ -265,6 +281,7 @@ public class ForecastInstance implements CwmsDTOBase {
                     .withFilename(other.filename)
                     .withFileDescription(other.fileDescription)
                     .withFileMediaType(other.fileMediaType)
+                    .withFileSize(other.fileSize)
                     .withFileData(other.fileData)
                     .withFileDataUrl(other.fileDataUrl)
                     ;
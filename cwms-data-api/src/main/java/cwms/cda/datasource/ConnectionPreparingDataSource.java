@@ -1,5 +1,6 @@
 package cwms.cda.datasource;
 
+import cwms.cda.helpers.RequestTiming;
 import java.sql.Connection;
 import java.sql.SQLException;
 import javax.sql.DataSource;
@@ -19,8 +20,15 @@ public class ConnectionPreparingDataSource extends DelegatingDataSource {
 
     @Override
     public Connection getConnection() throws SQLException {
-        Connection connection = getDelegate().getConnection();
+        RequestTiming.begin(RequestTiming.CHECKOUT);
+        Connection connection;
+        try {
+            connection = getDelegate().getConnection();
+        } finally {
+            RequestTiming.end(RequestTiming.CHECKOUT);
+        }
 
+        RequestTiming.begin(RequestTiming.SESSION);
         try{
             return getPreparer().prepare(connection);
         } catch (Exception e) {
@@ -33,6 +41,8 @@ public class ConnectionPreparingDataSource extends DelegatingDataSource {
                 e.addSuppressed(ex);
             }
             throw e;
+        } finally {
+            RequestTiming.end(RequestTiming.SESSION);
         }
     }
 
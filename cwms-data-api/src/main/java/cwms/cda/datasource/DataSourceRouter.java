@@ -0,0 +1,118 @@
+package cwms.cda.datasource;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.flogger.FluentLogger;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * Picks the DataSource a request should use. Read only requests are spread
+ * round-robin over the configured read replicas; everything else, and reads that
+ * must see the latest writes, stays on the primary.
+ *
+ * <p>A replica that cannot hand out a connection is skipped for that request and
+ * the primary is used instead.
+ */
+public class DataSourceRouter {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final DataSource primary;
+    private final List<ReplicaDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Meter primaryMeter;
+    private final Meter fallbackMeter;
+
+    /**
+     * Create a new router.
+     * @param primary the read/write DataSource
+     * @param replicas read only DataSources by resource name, may be empty
+     * @param metrics registry for the routing meters
+     */
+    public DataSourceRouter(DataSource primary, Map<String, DataSource> replicas,
+                            MetricRegistry metrics) {
+        this.primary = primary;
+        List<ReplicaDataSource> wrapped = new ArrayList<>();
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            Meter meter = metrics.meter(name(DataSourceRouter.class, "replica", entry.getKey()));
+            wrapped.add(new ReplicaDataSource(entry.getKey(), entry.getValue(), meter));
+        }
+        this.replicas = Collections.unmodifiableList(wrapped);
+        this.primaryMeter = metrics.meter(name(DataSourceRouter.class, "primary"));
+        this.fallbackMeter = metrics.meter(name(DataSourceRouter.class, "fallback"));
+    }
+
+    public DataSourceRouter(DataSource primary, MetricRegistry metrics) {
+        this(primary, new LinkedHashMap<>(), metrics);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Returns the DataSource for a request.
+     * @param method the HTTP method of the request
+     * @param cacheControl the Cache-Control request header, may be null. A client
+     *                     sending no-cache wants to read its own writes and is
+     *                     kept on the primary.
+     * @return the DataSource to use
+     */
+    public DataSource select(String method, String cacheControl) {
+        if (replicas.isEmpty() || !isReadOnly(method) || requiresPrimary(cacheControl)) {
+            primaryMeter.mark();
+            return primary;
+        }
+        int index = Math.floorMod(next.getAndIncrement(), replicas.size());
+        ReplicaDataSource replica = replicas.get(index);
+        replica.meter.mark();
+        return replica;
+    }
+
+    static boolean isReadOnly(String method) {
+        return "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+    }
+
+    static boolean requiresPrimary(String cacheControl) {
+        return cacheControl != null && cacheControl.toLowerCase().contains("no-cache");
+    }
+
+    private final class ReplicaDataSource extends DelegatingDataSource {
+        private final String name;
+        private final Meter meter;
+
+        ReplicaDataSource(String name, DataSource delegate, Meter meter) {
+            super(delegate);
+            this.name = name;
+            this.meter = meter;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                return getDelegate().getConnection();
+            } catch (SQLException ex) {
+                logger.atWarning()
+                      .atMostEvery(1, TimeUnit.MINUTES)
+                      .withCause(ex)
+                      .log("Unable to get a connection from %s, using the primary.", name);
+                fallbackMeter.mark();
+                return primary.getConnection();
+            }
+        }
+    }
+}
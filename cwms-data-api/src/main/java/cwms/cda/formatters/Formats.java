@@ -26,16 +26,17 @@ package cwms.cda.formatters;
 
 import cwms.cda.data.dto.CwmsDTOBase;
 import cwms.cda.formatters.annotations.FormattableWith;
+import cwms.cda.helpers.RequestTiming;
 
 import javax.validation.constraints.NotNull;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -56,8 +57,11 @@ public class Formats {
     public static final String TAB = "text/tab-separated-values";
     public static final String CSV = "text/csv";
     public static final String GEOJSON = "application/geo+json";
+    public static final String NDJSON = "application/x-ndjson";
     public static final String PGJSON = "application/vnd.pg+json";
     public static final String NAMED_PGJSON = "application/vnd.named+pg+json";
+    public static final String CBOR_TIMESERIES = "application/vnd.cwms.timeseries+cbor";
+    public static final String EVENT_STREAM = "text/event-stream";
     public static final String DEFAULT = "*/*";
 
     public static final String JSON_LEGACY = "json";
@@ -66,15 +70,18 @@ public class Formats {
     public static final String TAB_LEGACY = "tab";
     public static final String CSV_LEGACY = "csv";
     public static final String GEOJSON_LEGACY = "geojson";
+    public static final String NDJSON_LEGACY = "ndjson";
     public static final String PGJSON_LEGACY = "pgjson";
     public static final String NAMED_PGJSON_LEGACY = "named-pgjson";
+    public static final String CBOR_LEGACY = "cbor";
 
 
     private static final List<ContentType> contentTypeList = new ArrayList<>();
 
     static {
         contentTypeList.addAll(
-                Stream.of(JSON, JSONV1, XML, XMLV1, XMLV2, WML2, JSONV2, TAB, CSV, GEOJSON, PGJSON, NAMED_PGJSON)
+                Stream.of(JSON, JSONV1, XML, XMLV1, XMLV2, WML2, JSONV2, TAB, CSV, GEOJSON, NDJSON, PGJSON, NAMED_PGJSON,
+                                CBOR_TIMESERIES)
                         .map(ContentType::new)
                         .collect(Collectors.toList()));
     }
@@ -88,12 +95,18 @@ public class Formats {
         typeMap.put(TAB_LEGACY, Formats.TAB);
         typeMap.put(CSV_LEGACY, Formats.CSV);
         typeMap.put(GEOJSON_LEGACY, Formats.GEOJSON);
+        typeMap.put(NDJSON_LEGACY, Formats.NDJSON);
         typeMap.put(PGJSON_LEGACY, Formats.PGJSON);
         typeMap.put(NAMED_PGJSON_LEGACY, Formats.NAMED_PGJSON);
+        typeMap.put(CBOR_LEGACY, Formats.CBOR_TIMESERIES);
     }
 
+    private static final List<ContentType> binaryTypeList = Collections.singletonList(
+            new ContentType(CBOR_TIMESERIES));
 
-    private final Map<ContentType, Map<Class<? extends CwmsDTOBase>, OutputFormatter>> formatters = new LinkedHashMap<>();
+
+    // filled in by requests and the startup warm-up at the same time
+    private final Map<ContentType, Map<Class<? extends CwmsDTOBase>, OutputFormatter>> formatters = new ConcurrentHashMap<>();
 
     private static final Formats formats = new Formats();
 
@@ -125,6 +138,19 @@ public class Formats {
 
     }
 
+    private byte[] getFormattedBytes(ContentType type, CwmsDTOBase toFormat) throws FormattingException {
+        Objects.requireNonNull(toFormat, "Object to be formatted should not be null");
+        OutputFormatter outputFormatter = getOutputFormatter(type, toFormat.getClass());
+
+        if (outputFormatter != null) {
+            return outputFormatter.formatBytes(toFormat);
+        } else {
+            String message = String.format("No Format for this content-type and data-type : (%s, %s)",
+                    type.toString(), toFormat.getClass().getName());
+            throw new UnsupportedFormatException(message);
+        }
+    }
+
     private String getFormatted(ContentType type, List<? extends CwmsDTOBase> dtos, Class<?
             extends CwmsDTOBase> rootType) throws FormattingException {
         for (ContentType key : formatters.keySet()) {
@@ -204,7 +230,7 @@ public class Formats {
                         outputFormatter = fw.formatter()
                                             .getDeclaredConstructor()
                                             .newInstance();
-                        formatters.computeIfAbsent(type, k -> new HashMap<>())
+                        formatters.computeIfAbsent(type, k -> new ConcurrentHashMap<>())
                                   .put(klass,outputFormatter);
                     } catch (Exception ex) {
                         logger.log(Level.SEVERE, "Unable to create formatter.", ex);
@@ -217,12 +243,63 @@ public class Formats {
     }
 
     public static String format(ContentType type, CwmsDTOBase toFormat) throws FormattingException {
-        return formats.getFormatted(type, toFormat);
+        RequestTiming.begin(RequestTiming.SERIALIZE);
+        try {
+            return formats.getFormatted(type, toFormat);
+        } finally {
+            RequestTiming.end(RequestTiming.SERIALIZE);
+        }
+    }
+
+    /**
+     * Formats the object to bytes. Must be used for content types where {@link #isBinary}
+     * is true, for text content types the result is the UTF-8 encoding of
+     * {@link #format(ContentType, CwmsDTOBase)}.
+     */
+    public static byte[] formatBytes(ContentType type, CwmsDTOBase toFormat) throws FormattingException {
+        RequestTiming.begin(RequestTiming.SERIALIZE);
+        try {
+            return formats.getFormattedBytes(type, toFormat);
+        } finally {
+            RequestTiming.end(RequestTiming.SERIALIZE);
+        }
+    }
+
+    /**
+     * @param type content type to check
+     * @return true if the content type is a binary encoding that can only be produced
+     *      by {@link #formatBytes(ContentType, CwmsDTOBase)}
+     */
+    public static boolean isBinary(ContentType type) {
+        return binaryTypeList.contains(type);
+    }
+
+    /**
+     * Creates the formatters for every content type the class is formattable with, so the
+     * first request for the type doesn't pay for building them and their mappers.
+     * @param klass the data type
+     * @return the number of formatters available for the type
+     */
+    public static int warmUp(Class<? extends CwmsDTOBase> klass) {
+        int count = 0;
+        for (FormattableWith fw : klass.getAnnotationsByType(FormattableWith.class)) {
+            OutputFormatter formatter = formats.getOutputFormatter(new ContentType(fw.contentType()), klass);
+            if (formatter != null) {
+                formatter.warmUp(klass);
+                count++;
+            }
+        }
+        return count;
     }
 
     public static String format(ContentType type, List<? extends CwmsDTOBase> toFormat, Class<?
             extends CwmsDTOBase> rootType) throws FormattingException {
-        return formats.getFormatted(type, toFormat, rootType);
+        RequestTiming.begin(RequestTiming.SERIALIZE);
+        try {
+            return formats.getFormatted(type, toFormat, rootType);
+        } finally {
+            RequestTiming.end(RequestTiming.SERIALIZE);
+        }
     }
 
     public static <T extends CwmsDTOBase> T parseContent(ContentType type, String content, Class<T> rootType)
@@ -376,4 +453,26 @@ public class Formats {
         }
         throw new UnsupportedFormatException("Format header " + header + " could not be parsed");
     }
+
+    /**
+     * Checks whether an Accept header lists a media type with a non-zero quality, whatever
+     * its other parameters. Unlike parseHeader the type doesn't need a formatter, it is for
+     * the responses a controller writes itself.
+     *
+     * @param header Accept header value
+     * @param mediaType the media type without parameters, e.g. {@link #EVENT_STREAM}
+     * @return whether the header accepts the media type
+     */
+    public static boolean accepts(String header, String mediaType) {
+        if (header == null || header.isEmpty()) {
+            return false;
+        }
+        for (String ct : header.split(",")) {
+            ContentType contentType = new ContentType(ct.trim());
+            if (contentType.getType().trim().equalsIgnoreCase(mediaType)) {
+                return Float.parseFloat(contentType.getParameters().getOrDefault("q", "1")) > 0;
+            }
+        }
+        return false;
+    }
 }
@@ -1,6 +1,7 @@
 package cwms.cda.formatters;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import cwms.cda.data.dto.CwmsDTOBase;
@@ -9,6 +10,22 @@ public interface OutputFormatter {
     String getContentType();
     String format(CwmsDTOBase dto);
     String format(List<? extends CwmsDTOBase> dtoList);
+
+    /**
+     * Binary formats override this to provide their encoding. Text formats are simply
+     * the UTF-8 bytes of {@link #format(CwmsDTOBase)}.
+     */
+    default byte[] formatBytes(CwmsDTOBase dto) {
+        return format(dto).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Called at startup with each type this formatter is used for. Formatters that build
+     * per type state, like serializers, can do that here instead of on the first request.
+     */
+    default void warmUp(Class<? extends CwmsDTOBase> type) {
+    }
+
     default <T extends CwmsDTOBase> T parseContent(String content, Class<T> type) {
         throw new UnsupportedOperationException("Unable to process your request. Deserialization of "
                 + getContentType() + " not yet supported.");
@@ -0,0 +1,327 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2024 Hydrologic Engineering Center
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package cwms.cda.formatters.cbor;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import cwms.cda.api.enums.VersionType;
+import cwms.cda.data.dto.CwmsDTOBase;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.data.dto.VerticalDatumInfo;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.FormattingException;
+import cwms.cda.formatters.OutputFormatter;
+import cwms.cda.formatters.UnsupportedFormatException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Columnar CBOR encoding of a {@link TimeSeries}.
+ *
+ * <p>The series metadata is written as a CBOR map using the same kebab-case names as
+ * {@link cwms.cda.formatters.json.JsonV2}.  The values are not written per record; instead the
+ * map holds three typed arrays (RFC 8746) of equal length:</p>
+ * <ul>
+ *     <li>{@code date-times} - big-endian signed 64-bit epoch milliseconds (tag 75)</li>
+ *     <li>{@code values} - big-endian IEEE 754 doubles (tag 82), missing values are NaN</li>
+ *     <li>{@code quality-codes} - big-endian signed 32-bit integers (tag 74)</li>
+ * </ul>
+ */
+public class CborV1 implements OutputFormatter {
+
+    static final int TAG_SINT32_BE = 74;
+    static final int TAG_SINT64_BE = 75;
+    static final int TAG_FLOAT64_BE = 82;
+
+    static final String NAME = "name";
+    static final String OFFICE_ID = "office-id";
+    static final String UNITS = "units";
+    static final String INTERVAL = "interval";
+    static final String INTERVAL_OFFSET = "interval-offset";
+    static final String TIME_ZONE = "time-zone";
+    static final String BEGIN = "begin";
+    static final String END = "end";
+    static final String VERSION_DATE = "version-date";
+    static final String DATE_VERSION_TYPE = "date-version-type";
+    static final String PAGE = "page";
+    static final String NEXT_PAGE = "next-page";
+    static final String PAGE_SIZE = "page-size";
+    static final String TOTAL = "total";
+    static final String VERTICAL_DATUM_INFO = "vertical-datum-info";
+    static final String DATE_TIMES = "date-times";
+    static final String VALUES = "values";
+    static final String QUALITY_CODES = "quality-codes";
+
+    private final ObjectMapper om;
+
+    public CborV1() {
+        this.om = buildObjectMapper();
+    }
+
+    @NotNull
+    public static ObjectMapper buildObjectMapper() {
+        ObjectMapper retVal = new ObjectMapper(new CBORFactory());
+
+        retVal.findAndRegisterModules();
+        retVal.disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS);
+        retVal.disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS);
+
+        retVal.setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE);
+        retVal.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        retVal.registerModule(new JavaTimeModule());
+        return retVal;
+    }
+
+    @Override
+    public String getContentType() {
+        return Formats.CBOR_TIMESERIES;
+    }
+
+    @Override
+    public String format(CwmsDTOBase dto) {
+        throw new UnsupportedFormatException(getContentType() + " is a binary format.");
+    }
+
+    @Override
+    public String format(List<? extends CwmsDTOBase> dtoList) {
+        throw new UnsupportedFormatException(getContentType() + " is a binary format.");
+    }
+
+    @Override
+    public byte[] formatBytes(CwmsDTOBase dto) {
+        if (!(dto instanceof TimeSeries)) {
+            throw new UnsupportedFormatException("Unable to process your request. "
+                    + getContentType() + " is only available for time series.");
+        }
+        TimeSeries ts = (TimeSeries) dto;
+        // 8 bytes time + 8 bytes value + 4 bytes quality plus some room for the metadata
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ts.getValues().size() * 20 + 512);
+        try (CBORGenerator gen = (CBORGenerator) om.getFactory().createGenerator(out)) {
+            writeTimeSeries(gen, ts);
+        } catch (IOException e) {
+            throw new FormattingException("Could not format :" + dto, e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public <T extends CwmsDTOBase> T parseContent(InputStream content, Class<T> type) {
+        if (!type.isAssignableFrom(TimeSeries.class)) {
+            throw new UnsupportedFormatException("Unable to process your request. "
+                    + getContentType() + " is only available for time series.");
+        }
+        try (CBORParser parser = (CBORParser) om.getFactory().createParser(content)) {
+            return type.cast(readTimeSeries(parser));
+        } catch (IOException e) {
+            throw new FormattingException("Could not deserialize:" + content, e);
+        }
+    }
+
+    private void writeTimeSeries(CBORGenerator gen, TimeSeries ts) throws IOException {
+        gen.writeStartObject();
+        writeString(gen, NAME, ts.getName());
+        writeString(gen, OFFICE_ID, ts.getOfficeId());
+        writeString(gen, UNITS, ts.getUnits());
+        if (ts.getInterval() != null) {
+            gen.writeStringField(INTERVAL, ts.getInterval().toString());
+        }
+        if (ts.getIntervalOffset() != null) {
+            gen.writeNumberField(INTERVAL_OFFSET, ts.getIntervalOffset());
+        }
+        writeString(gen, TIME_ZONE, ts.getTimeZone());
+        writeDate(gen, BEGIN, ts.getBegin());
+        writeDate(gen, END, ts.getEnd());
+        writeDate(gen, VERSION_DATE, ts.getVersionDate());
+        if (ts.getDateVersionType() != null) {
+            gen.writeStringField(DATE_VERSION_TYPE, ts.getDateVersionType().name());
+        }
+        writeString(gen, PAGE, ts.getPage());
+        writeString(gen, NEXT_PAGE, ts.getNextPage());
+        gen.writeNumberField(PAGE_SIZE, ts.getPageSize());
+        if (ts.getTotal() != null) {
+            gen.writeNumberField(TOTAL, ts.getTotal());
+        }
+        if (ts.getVerticalDatumInfo() != null) {
+            gen.writeFieldName(VERTICAL_DATUM_INFO);
+            om.writeValue(gen, ts.getVerticalDatumInfo());
+        }
+
+        List<TimeSeries.Record> values = ts.getValues();
+        int count = values.size();
+        ByteBuffer times = ByteBuffer.allocate(count * Long.BYTES);
+        ByteBuffer doubles = ByteBuffer.allocate(count * Double.BYTES);
+        ByteBuffer qualities = ByteBuffer.allocate(count * Integer.BYTES);
+        for (TimeSeries.Record tsRecord : values) {
+            times.putLong(tsRecord.getDateTime().getTime());
+            Double value = tsRecord.getValue();
+            doubles.putDouble(value == null ? Double.NaN : value);
+            qualities.putInt(tsRecord.getQualityCode());
+        }
+        writeTypedArray(gen, DATE_TIMES, TAG_SINT64_BE, times);
+        writeTypedArray(gen, VALUES, TAG_FLOAT64_BE, doubles);
+        writeTypedArray(gen, QUALITY_CODES, TAG_SINT32_BE, qualities);
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, String field, String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(field, value);
+        }
+    }
+
+    private static void writeDate(JsonGenerator gen, String field, ZonedDateTime value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(field, value.format(DateTimeFormatter.ISO_ZONED_DATE_TIME));
+        }
+    }
+
+    private static void writeTypedArray(CBORGenerator gen, String field, int tag, ByteBuffer buffer)
+            throws IOException {
+        gen.writeFieldName(field);
+        gen.writeTag(tag);
+        gen.writeBinary(buffer.array());
+    }
+
+    private TimeSeries readTimeSeries(CBORParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new FormattingException("Expected a CBOR map holding a time series.");
+        }
+        String name = null;
+        String officeId = null;
+        String units = null;
+        Duration interval = null;
+        Long intervalOffset = null;
+        String timeZone = null;
+        ZonedDateTime begin = null;
+        ZonedDateTime end = null;
+        ZonedDateTime versionDate = null;
+        VersionType versionType = null;
+        VerticalDatumInfo datumInfo = null;
+        ByteBuffer times = null;
+        ByteBuffer doubles = null;
+        ByteBuffer qualities = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case NAME:
+                    name = parser.getText();
+                    break;
+                case OFFICE_ID:
+                    officeId = parser.getText();
+                    break;
+                case UNITS:
+                    units = parser.getText();
+                    break;
+                case INTERVAL:
+                    interval = Duration.parse(parser.getText());
+                    break;
+                case INTERVAL_OFFSET:
+                    intervalOffset = parser.getLongValue();
+                    break;
+                case TIME_ZONE:
+                    timeZone = parser.getText();
+                    break;
+                case BEGIN:
+                    begin = ZonedDateTime.parse(parser.getText());
+                    break;
+                case END:
+                    end = ZonedDateTime.parse(parser.getText());
+                    break;
+                case VERSION_DATE:
+                    versionDate = ZonedDateTime.parse(parser.getText());
+                    break;
+                case DATE_VERSION_TYPE:
+                    versionType = VersionType.versionTypeFor(parser.getText());
+                    break;
+                case VERTICAL_DATUM_INFO:
+                    datumInfo = om.readValue(parser, VerticalDatumInfo.class);
+                    break;
+                case DATE_TIMES:
+                    times = readTypedArray(parser, TAG_SINT64_BE);
+                    break;
+                case VALUES:
+                    doubles = readTypedArray(parser, TAG_FLOAT64_BE);
+                    break;
+                case QUALITY_CODES:
+                    qualities = readTypedArray(parser, TAG_SINT32_BE);
+                    break;
+                default:
+                    // page information and unknown fields are not needed to rebuild the series
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        TimeSeries ts = new TimeSeries(null, 0, null, name, officeId, begin, end, units,
+                interval, datumInfo, intervalOffset, timeZone, versionDate, versionType);
+        if (times != null) {
+            int count = times.remaining() / Long.BYTES;
+            if (doubles == null || doubles.remaining() != count * Double.BYTES
+                    || qualities == null || qualities.remaining() != count * Integer.BYTES) {
+                throw new FormattingException("The " + DATE_TIMES + ", " + VALUES + " and "
+                        + QUALITY_CODES + " arrays must all be present and the same length.");
+            }
+            for (int i = 0; i < count; i++) {
+                double value = doubles.getDouble();
+                ts.addValue(new Timestamp(times.getLong()), Double.isNaN(value) ? null : value,
+                        qualities.getInt());
+            }
+        }
+        return ts;
+    }
+
+    private static ByteBuffer readTypedArray(CBORParser parser, int expectedTag) throws IOException {
+        int tag = parser.getCurrentTag();
+        if (tag != expectedTag || parser.currentToken() != JsonToken.VALUE_EMBEDDED_OBJECT) {
+            throw new FormattingException("Field " + parser.getCurrentName()
+                    + " must be a typed array with tag " + expectedTag);
+        }
+        return ByteBuffer.wrap(parser.getBinaryValue());
+    }
+}
@@ -0,0 +1,133 @@
+package cwms.cda.formatters.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.geojson.Feature;
+
+/**
+ * Writes a GeoJSON FeatureCollection one feature at a time, so only the feature being
+ * written is held in memory.
+ *
+ * <p>The document has the same shape as a serialized {@link org.geojson.FeatureCollection}.
+ * When a property projection is given, the nested property maps of each feature, e.g.
+ * "avLoc", only keep the listed columns; the feature id and geometry are always written.
+ */
+public final class GeoJsonFeatureWriter implements Closeable {
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private final Set<String> projection;
+    private int count;
+
+    /**
+     * Starts the collection.
+     * @param mapper serializes the features
+     * @param out where the collection is written to, it is not closed
+     * @param projection property names to keep, case insensitive; empty keeps all
+     * @throws IOException if the start of the collection can not be written
+     */
+    public GeoJsonFeatureWriter(ObjectMapper mapper, OutputStream out, Set<String> projection)
+            throws IOException {
+        // the output stream's buffer and close() do the flushing, not every value
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.projection = projection;
+        this.generator = mapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // a collection cut short by an error must not be closed into a valid document
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.writeStartObject();
+        generator.writeStringField("type", "FeatureCollection");
+        generator.writeArrayFieldStart("features");
+    }
+
+    /**
+     * Parses a properties query parameter.
+     * @param properties comma separated property names
+     * @return the upper case names, empty if properties is null or empty
+     */
+    public static Set<String> parseProjection(String properties) {
+        if (properties == null || properties.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(properties.split(","))
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .map(p -> p.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Writes one feature of the collection.
+     * @throws UncheckedIOException if the feature can not be written, e.g. the client
+     *     went away; meant to be called from a stream of features.
+     */
+    public void write(Feature feature) {
+        if (!projection.isEmpty()) {
+            feature.setProperties(project(feature.getProperties()));
+        }
+        try {
+            writer.writeValue(generator, feature);
+            count++;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> project(Map<String, Object> properties) {
+        Map<String, Object> retVal = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                Map<String, Object> kept = new LinkedHashMap<>();
+                ((Map<String, Object>) value).forEach((k, v) -> {
+                    if (projection.contains(k.toUpperCase(Locale.ROOT))) {
+                        kept.put(k, v);
+                    }
+                });
+                retVal.put(entry.getKey(), kept);
+            } else if (projection.contains(entry.getKey().toUpperCase(Locale.ROOT))) {
+                retVal.put(entry.getKey(), value);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * @return the number of features written so far.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Ends the collection, call it once all features are written.
+     * @throws IOException if the end of the collection can not be written
+     */
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Flushes what was written, the output stream stays open. The collection is only
+     * complete if {@link #finish()} was called.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
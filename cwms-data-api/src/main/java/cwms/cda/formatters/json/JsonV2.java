@@ -72,6 +72,13 @@ public class JsonV2 implements OutputFormatter {
         return Formats.JSONV2;
     }
 
+    @Override
+    public void warmUp(Class<? extends CwmsDTOBase> type) {
+        // both build and cache the (de)serializers for the type
+        om.canSerialize(type);
+        om.canDeserialize(om.constructType(type));
+    }
+
     @Override
     public String format(CwmsDTOBase dto) {
         try {
@@ -0,0 +1,83 @@
+package cwms.cda.formatters.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes newline delimited JSON, one compact JSON document per line, so only the value
+ * being written is held in memory.
+ *
+ * <p>{@link #finish()} ends the lines with a trailer holding the number of values, a
+ * reader that gets no trailer knows the output was cut off.
+ */
+public final class NdJsonWriter implements Closeable {
+    public static final String TRAILER_COUNT = "count";
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private int count;
+
+    /**
+     * @param mapper serializes the values
+     * @param out where the lines are written to, it is not closed
+     * @throws IOException if the generator can not be created
+     */
+    public NdJsonWriter(ObjectMapper mapper, OutputStream out) throws IOException {
+        // the output stream's buffer and close() do the flushing, not every value
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = mapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        // no indenting and no separator between root values, each value ends its own line
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+
+    /**
+     * Writes one value as a line.
+     * @throws UncheckedIOException if the value can not be written, e.g. the client
+     *     went away; meant to be called from a stream of values.
+     */
+    public void write(Object value) {
+        try {
+            writer.writeValue(generator, value);
+            generator.writeRaw('\n');
+            count++;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return the number of lines written so far.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the trailer, {"count":n}, call it once all values are written.
+     * @throws IOException if the trailer can not be written
+     */
+    public void finish() throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField(TRAILER_COUNT, count);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * Flushes the lines, the output stream stays open. The output is only complete if
+     * {@link #finish()} was called.
+     */
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
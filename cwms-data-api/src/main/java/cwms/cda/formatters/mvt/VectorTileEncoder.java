@@ -0,0 +1,142 @@
+package cwms.cda.formatters.mvt;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes point features as a Mapbox Vector Tile (version 2.1) with a single layer.
+ *
+ * <p>Only what the location tiles need is supported: point geometries and string
+ * attributes. Keys and values are shared by all features of the layer as the
+ * specification requires.
+ */
+public final class VectorTileEncoder {
+    public static final String CONTENT_TYPE = "application/vnd.mapbox-vector-tile";
+    public static final int DEFAULT_EXTENT = 4096;
+
+    // field numbers of vector_tile.proto
+    private static final int TILE_LAYERS = 3;
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int LAYER_VERSION = 15;
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int VALUE_STRING = 1;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int GEOM_TYPE_POINT = 1;
+    private static final int COMMAND_MOVE_TO = 1;
+
+    private final String layerName;
+    private final int extent;
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<String, Integer> values = new LinkedHashMap<>();
+    private final List<byte[]> features = new ArrayList<>();
+
+    public VectorTileEncoder(String layerName, int extent) {
+        this.layerName = layerName;
+        this.extent = extent;
+    }
+
+    public int getExtent() {
+        return extent;
+    }
+
+    public int getFeatureCount() {
+        return features.size();
+    }
+
+    /**
+     * Adds a point feature.
+     * @param id the feature id, must not be negative
+     * @param x column in tile coordinates, 0 to extent
+     * @param y row in tile coordinates, 0 to extent, growing downwards
+     * @param attributes string attributes of the feature, null values are left out
+     */
+    public void addPoint(long id, int x, int y, Map<String, String> attributes) {
+        ByteArrayOutputStream tags = new ByteArrayOutputStream();
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            if (attribute.getValue() != null) {
+                writeVarint(tags, keys.computeIfAbsent(attribute.getKey(), k -> keys.size()));
+                writeVarint(tags, values.computeIfAbsent(attribute.getValue(),
+                        v -> values.size()));
+            }
+        }
+        ByteArrayOutputStream geometry = new ByteArrayOutputStream();
+        writeVarint(geometry, (COMMAND_MOVE_TO & 0x7) | (1 << 3));
+        writeVarint(geometry, zigZag(x));
+        writeVarint(geometry, zigZag(y));
+
+        ByteArrayOutputStream feature = new ByteArrayOutputStream();
+        writeTag(feature, FEATURE_ID, WIRE_VARINT);
+        writeVarint(feature, id);
+        writeBytes(feature, FEATURE_TAGS, tags.toByteArray());
+        writeTag(feature, FEATURE_TYPE, WIRE_VARINT);
+        writeVarint(feature, GEOM_TYPE_POINT);
+        writeBytes(feature, FEATURE_GEOMETRY, geometry.toByteArray());
+        features.add(feature.toByteArray());
+    }
+
+    /**
+     * @return the encoded tile, empty if no feature was added.
+     */
+    public byte[] encode() {
+        if (features.isEmpty()) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream layer = new ByteArrayOutputStream();
+        writeTag(layer, LAYER_VERSION, WIRE_VARINT);
+        writeVarint(layer, 2);
+        writeBytes(layer, LAYER_NAME, layerName.getBytes(StandardCharsets.UTF_8));
+        for (byte[] feature : features) {
+            writeBytes(layer, LAYER_FEATURES, feature);
+        }
+        for (String key : keys.keySet()) {
+            writeBytes(layer, LAYER_KEYS, key.getBytes(StandardCharsets.UTF_8));
+        }
+        for (String value : values.keySet()) {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            writeBytes(encoded, VALUE_STRING, value.getBytes(StandardCharsets.UTF_8));
+            writeBytes(layer, LAYER_VALUES, encoded.toByteArray());
+        }
+        writeTag(layer, LAYER_EXTENT, WIRE_VARINT);
+        writeVarint(layer, extent);
+
+        ByteArrayOutputStream tile = new ByteArrayOutputStream();
+        writeBytes(tile, TILE_LAYERS, layer.toByteArray());
+        return tile.toByteArray();
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeTag(ByteArrayOutputStream out, int field, int wireType) {
+        writeVarint(out, ((long) field << 3) | wireType);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, int field, byte[] bytes) {
+        writeTag(out, field, WIRE_LENGTH_DELIMITED);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        // values are never negative here, so this is the unsigned encoding
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
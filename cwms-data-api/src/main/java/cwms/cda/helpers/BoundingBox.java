@@ -0,0 +1,110 @@
+package cwms.cda.helpers;
+
+import java.util.Locale;
+import org.jooq.Condition;
+import org.jooq.Field;
+
+/**
+ * A longitude/latitude box in the GeoJSON bbox order: west, south, east, north.
+ *
+ * <p>A box whose west edge is greater than its east edge crosses the antimeridian.
+ */
+public final class BoundingBox {
+    private final double west;
+    private final double south;
+    private final double east;
+    private final double north;
+
+    public BoundingBox(double west, double south, double east, double north) {
+        if (south > north) {
+            throw new IllegalArgumentException("The south edge of the bounding box must not be "
+                    + "north of its north edge.");
+        }
+        if (!inRange(west, 180) || !inRange(east, 180) || !inRange(south, 90)
+                || !inRange(north, 90)) {
+            throw new IllegalArgumentException("Bounding box edges must be degrees of "
+                    + "longitude and latitude.");
+        }
+        this.west = west;
+        this.south = south;
+        this.east = east;
+        this.north = north;
+    }
+
+    private static boolean inRange(double degrees, double limit) {
+        return degrees >= -limit && degrees <= limit;
+    }
+
+    /**
+     * Parses a bbox query parameter.
+     * @param bbox "west,south,east,north" in decimal degrees
+     * @return the box, null if bbox is null or empty
+     * @throws IllegalArgumentException if bbox is not four numbers forming a box
+     */
+    public static BoundingBox parse(String bbox) {
+        if (bbox == null || bbox.trim().isEmpty()) {
+            return null;
+        }
+        String[] edges = bbox.split(",");
+        if (edges.length != 4) {
+            throw new IllegalArgumentException("A bounding box must be given as "
+                    + "west,south,east,north, not " + bbox);
+        }
+        try {
+            return new BoundingBox(Double.parseDouble(edges[0].trim()),
+                    Double.parseDouble(edges[1].trim()), Double.parseDouble(edges[2].trim()),
+                    Double.parseDouble(edges[3].trim()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("A bounding box must be given as "
+                    + "west,south,east,north, not " + bbox, ex);
+        }
+    }
+
+    public double getWest() {
+        return west;
+    }
+
+    public double getSouth() {
+        return south;
+    }
+
+    public double getEast() {
+        return east;
+    }
+
+    public double getNorth() {
+        return north;
+    }
+
+    public boolean crossesAntimeridian() {
+        return west > east;
+    }
+
+    public boolean contains(double longitude, double latitude) {
+        if (latitude < south || latitude > north) {
+            return false;
+        }
+        return crossesAntimeridian() ? longitude >= west || longitude <= east
+                : longitude >= west && longitude <= east;
+    }
+
+    /**
+     * @return a condition that is true for rows whose point lies in the box.
+     */
+    public Condition condition(Field<? extends Number> longitude,
+                               Field<? extends Number> latitude) {
+        // coerce only changes the Java type, the columns are compared as they are
+        Field<Double> lat = latitude.coerce(Double.class);
+        Field<Double> lon = longitude.coerce(Double.class);
+        Condition inLatitude = lat.between(south, north);
+        Condition inLongitude = crossesAntimeridian()
+                ? lon.greaterOrEqual(west).or(lon.lessOrEqual(east))
+                : lon.between(west, east);
+        return inLatitude.and(inLongitude);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s,%s,%s,%s", west, south, east, north);
+    }
+}
@@ -0,0 +1,124 @@
+package cwms.cda.helpers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects how long the phases of a request took on the request thread.
+ *
+ * <p>Phases are timed exclusively: when a phase starts while another one is running
+ * the time is only counted for the inner phase. Getting a connection from a pool
+ * wrapped by several preparing DataSources therefore counts the session setup once.
+ * Work done on other threads, e.g. the bulk retrieval executor, is not included.
+ */
+public final class RequestTiming {
+    public static final String HEADER = "Server-Timing";
+    public static final String CHECKOUT = "checkout";
+    public static final String SESSION = "session";
+    public static final String SQL = "sql";
+    public static final String FETCH = "fetch";
+    public static final String SERIALIZE = "serialize";
+    public static final String TOTAL = "total";
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long started = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    private final Deque<Running> running = new ArrayDeque<>();
+
+    private static final class Running {
+        final String name;
+        final long start = System.nanoTime();
+        long children;
+
+        Running(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Starts timing a request on the current thread.
+     * @return the timing of the request
+     */
+    public static RequestTiming start() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * @return the timing of the request running on this thread, null if there is none.
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops timing on the current thread.
+     * @return the timing of the request, null if there was none.
+     */
+    public static RequestTiming finish() {
+        RequestTiming timing = CURRENT.get();
+        CURRENT.remove();
+        if (timing != null) {
+            timing.phases.put(TOTAL, System.nanoTime() - timing.started);
+        }
+        return timing;
+    }
+
+    /**
+     * Marks the start of a phase, does nothing when the request is not timed.
+     */
+    public static void begin(String phase) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.running.push(new Running(phase));
+        }
+    }
+
+    /**
+     * Marks the end of a phase started with {@link #begin(String)}. Ending a phase that
+     * is not the innermost running one is ignored.
+     */
+    public static void end(String phase) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null || timing.running.isEmpty()
+                || !timing.running.peek().name.equals(phase)) {
+            return;
+        }
+        Running done = timing.running.pop();
+        long elapsed = System.nanoTime() - done.start;
+        timing.phases.merge(phase, elapsed - done.children, Long::sum);
+        Running parent = timing.running.peek();
+        if (parent != null) {
+            parent.children += elapsed;
+        }
+    }
+
+    /**
+     * @return nanoseconds spent in each phase, in the order the phases first finished.
+     */
+    public Map<String, Long> getPhases() {
+        return phases;
+    }
+
+    /**
+     * @return the phases formatted for the Server-Timing response header.
+     */
+    public String toServerTiming() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            double millis = phase.getValue() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            builder.append(phase.getKey()).append(";dur=")
+                   .append(String.format(Locale.ROOT, "%.3f", millis));
+        }
+        return builder.toString();
+    }
+}
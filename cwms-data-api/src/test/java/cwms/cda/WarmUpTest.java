@@ -0,0 +1,43 @@
+package cwms.cda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.health.HealthCheck;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import javax.servlet.ServletContext;
+import org.junit.jupiter.api.Test;
+
+class WarmUpTest {
+
+    @Test
+    void ready_after_the_warm_up() {
+        ServletContext context = mock(ServletContext.class);
+        when(context.getResourcePaths(anyString())).thenReturn(Collections.emptySet());
+        WarmUp warmUp = new WarmUp(context);
+        HealthCheck readiness = warmUp.readiness();
+
+        assertFalse(readiness.execute().isHealthy());
+        warmUp.run();
+        assertTrue(warmUp.isReady());
+        assertTrue(readiness.execute().isHealthy());
+    }
+
+    @Test
+    void formatters_of_the_dto_classes_are_built() {
+        ServletContext context = mock(ServletContext.class);
+        when(context.getResourcePaths("/WEB-INF/classes/cwms/cda/data/dto/"))
+                .thenReturn(new HashSet<>(Arrays.asList(
+                        "/WEB-INF/classes/cwms/cda/data/dto/QueryStatistics.class",
+                        "/WEB-INF/classes/cwms/cda/data/dto/QueryStatistics$Builder.class",
+                        "/WEB-INF/classes/cwms/cda/data/dto/NotThere.class")));
+        WarmUp warmUp = new WarmUp(context);
+        assertEquals(1, warmUp.warmUpFormatters());
+    }
+}
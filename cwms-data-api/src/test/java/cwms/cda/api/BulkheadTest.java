@@ -0,0 +1,97 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.api.errors.TooBusyException;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BulkheadTest {
+
+    @Test
+    void requests_over_the_limit_are_rejected() throws Exception {
+        MetricRegistry metrics = new MetricRegistry();
+        Bulkhead bulkhead = new Bulkhead("test", 1, 0, 0, 7, metrics);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Handler slow = bulkhead.wrap(ctx -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        });
+        Thread running = new Thread(() -> {
+            try {
+                slow.handle(mock(Context.class));
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        running.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(1, gauge(metrics, "in-flight"));
+
+        TooBusyException ex = assertThrows(TooBusyException.class,
+                () -> slow.handle(mock(Context.class)));
+        assertEquals(7, ex.getRetryAfterSeconds());
+        assertEquals(1, metrics.meter(MetricRegistry.name(Bulkhead.class, "test", "rejected"))
+                .getCount());
+
+        release.countDown();
+        running.join(10_000);
+        assertEquals(0, gauge(metrics, "in-flight"));
+        // the permit was returned
+        bulkhead.wrap(ctx -> { }).handle(mock(Context.class));
+    }
+
+    @Test
+    void queued_requests_wait_for_a_permit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 10_000, 5, new MetricRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Handler slow = bulkhead.wrap(ctx -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+        });
+        Thread running = new Thread(() -> {
+            try {
+                slow.handle(mock(Context.class));
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        running.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        }).start();
+        // waits in the queue until the first request finishes
+        bulkhead.wrap(ctx -> { }).handle(mock(Context.class));
+        running.join(10_000);
+    }
+
+    @Test
+    void zero_limit_disables_the_bulkhead() {
+        Handler handler = ctx -> { };
+        assertSame(handler, new Bulkhead("test", 0, 0, 0, 5, new MetricRegistry()).wrap(handler));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int gauge(MetricRegistry metrics, String name) {
+        Gauge<Integer> gauge = metrics.getGauges()
+                .get(MetricRegistry.name(Bulkhead.class, "test", name));
+        return gauge.getValue();
+    }
+}
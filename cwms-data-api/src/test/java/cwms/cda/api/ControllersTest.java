@@ -5,21 +5,26 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.codahale.metrics.MetricRegistry;
 import cwms.cda.api.enums.UnitSystem;
 import cwms.cda.api.enums.VersionType;
 import cwms.cda.api.errors.RequiredQueryParameterException;
+import cwms.cda.api.errors.StreamAbortedException;
 import cwms.cda.data.dao.JooqDao;
 import cwms.cda.formatters.Formats;
 import io.javalin.core.util.Header;
 import io.javalin.core.validation.JavalinValidation;
 import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
@@ -349,7 +354,24 @@ class ControllersTest {
         assertThrows(RequiredQueryParameterException.class, () -> Controllers.requiredZdt(ctx, Controllers.BEGIN));
     }
 
-
-
-
-}
\ No newline at end of file
+    @Test
+    void testStreamFailed() {
+        final HttpServletRequest request = mock(HttpServletRequest.class);
+        final HttpServletResponse response = mock(HttpServletResponse.class);
+        Context ctx = new Context(request, response, new LinkedHashMap<String, String>());
+        IllegalStateException failure = new IllegalStateException("database went away");
+
+        // nothing sent yet, the partial body is dropped and the failure reported as usual
+        when(response.isCommitted()).thenReturn(false);
+        assertSame(failure, Controllers.streamFailed(ctx, failure));
+        verify(response).resetBuffer();
+        assertTrue(Controllers.streamFailed(ctx, new IOException("closed"))
+                instanceof UncheckedIOException);
+
+        // part of the response was sent, the connection has to be aborted
+        when(response.isCommitted()).thenReturn(true);
+        RuntimeException aborted = Controllers.streamFailed(ctx, failure);
+        assertTrue(aborted instanceof StreamAbortedException);
+        assertSame(failure, aborted.getCause());
+    }
+}
@@ -564,4 +564,95 @@ public class ForecastInstanceControllerTestIT extends DataApiTestIT {
         ;
     }
 
-}
\ No newline at end of file
+    @Test
+    void test_list_file_data_modes() throws IOException {
+
+        // Structure of test:
+        // 1)Create the inst
+        // 2)List the insts and assert the file is only referenced
+        // 3)List the insts with inline file data and assert the file is included
+
+        // Step 1)
+        // Create the inst
+        InputStream resource = this.getClass().getResourceAsStream("/cwms/cda/api/spk/forecast_inst_create.json");
+        assertNotNull(resource);
+        String tsData = IOUtils.toString(resource, StandardCharsets.UTF_8);
+        assertNotNull(tsData);
+
+        ForecastSpec spec = JsonV2.buildObjectMapper().readValue(tsData, ForecastInstance.class).getSpec();
+        String specJson = JsonV2.buildObjectMapper().writeValueAsString(spec);
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        given()
+            .log().ifValidationFails(LogDetail.ALL, true)
+            .accept(Formats.JSONV2)
+            .contentType(Formats.JSONV2)
+            .body(specJson)
+            .header(AUTH_HEADER, user.toHeaderValue())
+        .when()
+            .redirects().follow(true)
+            .redirects().max(3)
+            .post("/forecast-spec/")
+        .then()
+            .log().ifValidationFails(LogDetail.ALL, true)
+        .assertThat()
+            .statusCode(is(HttpServletResponse.SC_CREATED));
+
+        given()
+            .log().ifValidationFails(LogDetail.ALL,true)
+            .accept(Formats.JSONV2)
+            .contentType(Formats.JSONV2)
+            .body(tsData)
+            .header(AUTH_HEADER, user.toHeaderValue())
+        .when()
+            .redirects().follow(true)
+            .redirects().max(3)
+            .post(PATH)
+        .then()
+            .log().ifValidationFails(LogDetail.ALL,true)
+        .assertThat()
+            .statusCode(is(HttpServletResponse.SC_CREATED));
+
+        // Step 2)
+        // List the insts, the file contents should not be included
+        given()
+            .log().ifValidationFails(LogDetail.ALL,true)
+            .accept(Formats.JSONV2)
+            .queryParam(Controllers.OFFICE, OFFICE)
+            .queryParam(Controllers.NAME, SPEC_ID)
+        .when()
+            .redirects().follow(true)
+            .redirects().max(3)
+            .get(PATH)
+        .then()
+            .log().ifValidationFails(LogDetail.ALL,true)
+        .assertThat()
+            .statusCode(is(HttpServletResponse.SC_OK))
+            .body("[0].filename", equalTo("testFilename.txt"))
+            .body("[0].file-size", equalTo(17))
+            .body("[0].file-data", is(nullValue()))
+            .body("[0].file-data-url", is(notNullValue()))
+        ;
+
+        // Step 3)
+        // List the insts asking for inline file data
+        given()
+            .log().ifValidationFails(LogDetail.ALL,true)
+            .accept(Formats.JSONV2)
+            .queryParam(Controllers.OFFICE, OFFICE)
+            .queryParam(Controllers.NAME, SPEC_ID)
+            .queryParam(Controllers.INCLUDE_FILE_DATA, true)
+        .when()
+            .redirects().follow(true)
+            .redirects().max(3)
+            .get(PATH)
+        .then()
+            .log().ifValidationFails(LogDetail.ALL,true)
+        .assertThat()
+            .statusCode(is(HttpServletResponse.SC_OK))
+            .body("[0].file-size", equalTo(17))
+            .body("[0].file-data", equalTo("dGVzdCBmaWxlIGNvbnRlbnQ="))
+        ;
+    }
+
+}
@@ -0,0 +1,47 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cwms.cda.helpers.BoundingBox;
+import org.junit.jupiter.api.Test;
+
+class LocationTileControllerTest {
+
+    @Test
+    void world_tile_covers_everything() {
+        BoundingBox bounds = LocationTileController.tileBounds(0, 0, 0);
+        assertEquals(-180, bounds.getWest(), 1e-9);
+        assertEquals(180, bounds.getEast(), 1e-9);
+        assertEquals(-90, bounds.getSouth(), 1e-9);
+        assertEquals(90, bounds.getNorth(), 1e-9);
+    }
+
+    @Test
+    void tile_bounds_follow_web_mercator() {
+        // zoom 2, column 0, row 1 is west of -90 between the equator and 66.51 north
+        BoundingBox bounds = LocationTileController.tileBounds(2, 0, 1);
+        assertEquals(-180, bounds.getWest(), 1e-9);
+        assertEquals(-90, bounds.getEast(), 1e-9);
+        assertEquals(0, bounds.getSouth(), 1e-9);
+        assertEquals(66.5132604, bounds.getNorth(), 1e-6);
+    }
+
+    @Test
+    void points_project_into_their_tile() {
+        double tiles = 1 << 10;
+        // Folsom dam is in tile 10/167/392
+        assertEquals(167, (int) LocationTileController.longitudeToTile(-121.16, tiles));
+        assertEquals(392, (int) LocationTileController.latitudeToTile(38.70, tiles));
+        assertEquals(0, LocationTileController.latitudeToTile(90, tiles), 1e-6);
+    }
+
+    @Test
+    void only_office_and_kind_attributes_are_allowed() {
+        assertEquals("[kind, office]",
+                LocationTileController.parseAttributes("Kind, office").toString());
+        assertEquals(0, LocationTileController.parseAttributes(null).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationTileController.parseAttributes("elevation"));
+    }
+}
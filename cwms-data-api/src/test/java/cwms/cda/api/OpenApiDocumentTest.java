@@ -0,0 +1,57 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.util.ContextUtil;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.info.Info;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+class OpenApiDocumentTest {
+
+    private static Context context(HttpServletRequest request, HttpServletResponse response) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(ContextUtil.maxRequestSizeKey, Integer.MAX_VALUE);
+        return ContextUtil.init(request, response, "*", new HashMap<>(), HandlerType.GET,
+                attributes);
+    }
+
+    @Test
+    void document_is_generated_once_and_revalidated_with_etag() throws Exception {
+        AtomicInteger generated = new AtomicInteger();
+        OpenApiDocument document = new OpenApiDocument(() -> {
+            generated.incrementAndGet();
+            return new OpenAPI();
+        }, api -> api.info(new Info().title("CWMS Data API")), api -> ((OpenAPI) api).getInfo().getTitle());
+
+        document.prepare();
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        document.handle(context(request, response));
+        String etag = OpenApiDocument.etag("CWMS Data API".getBytes("UTF-8"));
+        verify(response).setHeader(Header.ETAG, etag);
+        verify(response, never()).setStatus(304);
+
+        HttpServletRequest revalidate = mock(HttpServletRequest.class);
+        when(revalidate.getHeader(Header.IF_NONE_MATCH)).thenReturn(etag);
+        HttpServletResponse notModified = mock(HttpServletResponse.class);
+        document.handle(context(revalidate, notModified));
+        verify(notModified).setStatus(304);
+        verify(notModified, never()).setContentType(any());
+
+        assertEquals(1, generated.get());
+    }
+}
@@ -0,0 +1,151 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import cwms.cda.api.errors.NotFoundException;
+import io.javalin.core.util.Header;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.util.ContextUtil;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+class RequestCoalescerTest {
+
+    private static Context context(String method, String uri, String query, String accept) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn(uri);
+        when(request.getQueryString()).thenReturn(query);
+        when(request.getHeader(Header.ACCEPT)).thenReturn(accept);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(ContextUtil.maxRequestSizeKey, Integer.MAX_VALUE);
+        return ContextUtil.init(request, response, "*", new HashMap<>(), HandlerType.GET,
+                attributes);
+    }
+
+    private static void handle(Handler handler, Context ctx, AtomicReference<Exception> failure) {
+        try {
+            handler.handle(ctx);
+        } catch (Exception ex) {
+            failure.set(ex);
+        }
+    }
+
+    @Test
+    void identical_requests_share_one_execution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Handler handler = ctx -> {
+            executions.incrementAndGet();
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            ctx.result("shared body");
+        };
+        MetricRegistry metrics = new MetricRegistry();
+        Handler coalesced = new RequestCoalescer(metrics).wrap(handler);
+
+        Context first = context("GET", "/timeseries", "name=a&office=SPK", "application/json");
+        Context second = context("GET", "/timeseries", "office=SPK&name=a", "application/json");
+        runTogether(coalesced, first, second, started, release);
+
+        assertEquals(1, executions.get());
+        assertEquals("shared body", first.resultString());
+        assertEquals("shared body", second.resultString());
+        assertEquals(1, metrics.meter(MetricRegistry.name(RequestCoalescer.class, "coalesced"))
+                .getCount());
+    }
+
+    @Test
+    void shared_headers_replace_the_followers_headers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Handler coalesced = new RequestCoalescer(new MetricRegistry()).wrap(ctx -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            ctx.result("shared body");
+        });
+        Context first = context("GET", "/timeseries", "name=a", null);
+        Context second = context("GET", "/timeseries", "name=a", null);
+        when(first.res.getHeaderNames())
+                .thenReturn(Arrays.asList(Header.ACCESS_CONTROL_ALLOW_ORIGIN));
+        when(first.res.getHeaders(Header.ACCESS_CONTROL_ALLOW_ORIGIN))
+                .thenReturn(Collections.singletonList("*"));
+        runTogether(coalesced, first, second, started, release);
+
+        verify(second.res).setHeader(Header.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        verify(second.res, never()).addHeader(anyString(), anyString());
+    }
+
+    private static void runTogether(Handler coalesced, Context first, Context second,
+                                    CountDownLatch started, CountDownLatch release)
+            throws InterruptedException {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread leader = new Thread(() -> handle(coalesced, first, failure));
+        leader.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        Thread follower = new Thread(() -> handle(coalesced, second, failure));
+        follower.start();
+        // wait until the follower is parked on the running request
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (follower.getState() != Thread.State.TIMED_WAITING
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        leader.join(10_000);
+        follower.join(10_000);
+        assertNull(failure.get());
+    }
+
+    @Test
+    void key_includes_accept_header() {
+        assertNotEquals(
+                RequestCoalescer.key(context("GET", "/catalog/TIMESERIES", null, "application/json")),
+                RequestCoalescer.key(context("GET", "/catalog/TIMESERIES", null, "application/xml")));
+    }
+
+    @Test
+    void sequential_requests_each_execute() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        Handler coalesced = new RequestCoalescer(new MetricRegistry())
+                .wrap(ctx -> ctx.result("body " + executions.incrementAndGet()));
+        Context first = context("GET", "/catalog/TIMESERIES", null, null);
+        Context second = context("GET", "/catalog/TIMESERIES", null, null);
+        coalesced.handle(first);
+        coalesced.handle(second);
+        assertEquals(2, executions.get());
+        assertEquals("body 2", second.resultString());
+    }
+
+    @Test
+    void errors_are_passed_on() {
+        Handler coalesced = new RequestCoalescer(new MetricRegistry()).wrap(ctx -> {
+            throw new NotFoundException("missing");
+        });
+        assertThrows(NotFoundException.class,
+                () -> coalesced.handle(context("GET", "/timeseries", null, null)));
+    }
+}
@@ -0,0 +1,40 @@
+package cwms.cda.api;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesStreamControllerTest {
+
+    @Test
+    void exact_ids_match_case_insensitive() {
+        TimeSeriesStreamController.Filter filter = new TimeSeriesStreamController.Filter("SPK",
+                Collections.singletonList("Folsom.Elev.Inst.1Hour.0.raw"));
+        assertTrue(filter.matches("SPK", "FOLSOM.Elev.Inst.1Hour.0.RAW"));
+        assertTrue(filter.matches("spk", "Folsom.Elev.Inst.1Hour.0.raw"));
+        assertFalse(filter.matches("SWT", "Folsom.Elev.Inst.1Hour.0.raw"));
+        assertFalse(filter.matches("SPK", "Folsom.Elev.Inst.1Hour.0.rev"));
+    }
+
+    @Test
+    void wildcards_match_any_text_or_character() {
+        TimeSeriesStreamController.Filter filter = new TimeSeriesStreamController.Filter(null,
+                Arrays.asList("Folsom.*.Inst.1Hour.0.*", "Black Butte.Flow.Ave.?Hour.0.raw"));
+        assertTrue(filter.matches("SPK", "Folsom.Flow-Out.Inst.1Hour.0.raw"));
+        assertTrue(filter.matches("SWT", "folsom.Elev.Inst.1Hour.0.rev"));
+        assertTrue(filter.matches("SPK", "Black Butte.Flow.Ave.6Hour.0.raw"));
+        assertFalse(filter.matches("SPK", "Black Butte.Flow.Ave.12Hour.0.raw"));
+        assertFalse(filter.matches("SPK", "Folsom.Elev.Inst.15Minutes.0.raw"));
+    }
+
+    @Test
+    void regex_characters_are_literal() {
+        TimeSeriesStreamController.Filter filter = new TimeSeriesStreamController.Filter(null,
+                Collections.singletonList("A(1).Stage.Inst.*"));
+        assertTrue(filter.matches("SPK", "A(1).Stage.Inst.1Hour.0.raw"));
+        assertFalse(filter.matches("SPK", "A1xStage.Inst.1Hour.0.raw"));
+    }
+}
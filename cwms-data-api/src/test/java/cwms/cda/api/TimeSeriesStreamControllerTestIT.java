@@ -0,0 +1,131 @@
+package cwms.cda.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.formatters.Formats;
+import fixtures.CwmsDataApiSetupCallback;
+import fixtures.TestAccounts;
+import io.restassured.filter.log.LogDetail;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("integration")
+class TimeSeriesStreamControllerTestIT extends DataApiTestIT {
+
+    @Test
+    void test_stored_values_are_streamed() throws Exception {
+        InputStream resource = this.getClass().getResourceAsStream(
+                "/cwms/cda/api/lrl/pseudo_reg_1hour.json");
+        assertNotNull(resource);
+        String tsData = IOUtils.toString(resource, "UTF-8");
+
+        JsonNode ts = new ObjectMapper().readTree(tsData);
+        String tsName = ts.get("name").asText();
+        String location = tsName.split("\\.")[0];
+        String officeId = ts.get("office-id").asText();
+        createLocation(location, true, officeId);
+
+        // goes through the whole filter chain, which must allow the async request
+        URL url = new URL(CwmsDataApiSetupCallback.httpUrl() + ":"
+                + CwmsDataApiSetupCallback.httpPort() + "/cwms-data/timeseries/stream?ts-ids="
+                + URLEncoder.encode(location + ".*", "UTF-8") + "&office=" + officeId);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty("Accept", Formats.EVENT_STREAM + ";charset=UTF-8, */*;q=0.1");
+        connection.setRequestProperty("Origin", "http://example.com");
+        connection.setReadTimeout(30000);
+        try {
+            assertEquals(HttpServletResponse.SC_OK, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith(Formats.EVENT_STREAM),
+                    connection.getContentType());
+            assertEquals("*", connection.getHeaderField("Access-Control-Allow-Origin"));
+
+            BufferedReader events = new BufferedReader(new InputStreamReader(
+                    connection.getInputStream(), StandardCharsets.UTF_8));
+            // wait for the client to be subscribed
+            readUntil(events, line -> line.startsWith(":"), deadline());
+
+            given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSONV2)
+                .body(tsData)
+                .header("Authorization", TestAccounts.KeyUser.SPK_NORMAL.toHeaderValue())
+                .queryParam("office", officeId)
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK));
+
+            // keep-alive comments arrive in between, the deadline bounds the wait
+            long deadline = deadline();
+            String event = readUntil(events, line -> line.startsWith("event:"), deadline);
+            assertEquals(TimeSeriesStreamController.EVENT_NAME,
+                    event.substring("event:".length()).trim());
+            String data = readUntil(events, line -> line.startsWith("data:"), deadline)
+                    .substring("data:".length()).trim();
+            JsonNode values = new ObjectMapper().readTree(data);
+            assertEquals(tsName, values.get("name").asText());
+            assertEquals(2, values.get("values").size());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static long deadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    }
+
+    /**
+     * @return the first line matching, fails once the deadline passed or the stream ended
+     */
+    private static String readUntil(BufferedReader events, Predicate<String> matches,
+                                    long deadline) throws IOException {
+        String line;
+        while ((line = events.readLine()) != null) {
+            if (matches.test(line)) {
+                return line;
+            }
+            if (System.nanoTime() > deadline) {
+                fail("No matching line before the deadline, last read: " + line);
+            }
+        }
+        return fail("The stream ended before a matching line.");
+    }
+
+    @Test
+    void test_requires_event_stream() {
+        given()
+            .log().ifValidationFails(LogDetail.ALL, true)
+            .accept(Formats.JSONV2)
+            .queryParam("ts-ids", "Calhoun.*")
+        .when()
+            .get("/timeseries/stream")
+        .then()
+            .log().ifValidationFails(LogDetail.ALL, true)
+            .assertThat()
+            .statusCode(is(HttpServletResponse.SC_BAD_REQUEST));
+    }
+}
@@ -13,6 +13,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import cwms.cda.formatters.Formats;
 import fixtures.CwmsDataApiSetupCallback;
 import fixtures.TestAccounts;
@@ -98,6 +99,95 @@ class TimeseriesControllerTestIT extends DataApiTestIT {
         }
     }
 
+    @Test
+    void test_unit_system_retrieve() throws Exception {
+        String tsName = storePseudoReg1Hour();
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        // EN resolves to the default english unit of the parameter for the values too
+        given()
+                .config(RestAssured.config().jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE)))
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .header("Authorization", user.toHeaderValue())
+                .queryParam("office", user.getOperatingOffice())
+                .queryParam("units", "EN")
+                .queryParam("name", tsName)
+                .queryParam("begin", "2023-01-11T12:00:00-00:00")
+                .queryParam("end", "2023-01-11T13:00:00-00:00")
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .get("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("units", equalTo("cfs"))
+                .body("total", equalTo(2))
+                .body("values.size()", equalTo(2))
+                .body("values[0][1]", closeTo(500.0, 0.0001))
+                .body("values[1][1]", closeTo(600.0, 0.0001));
+    }
+
+    @Test
+    void test_retrieve_without_office() throws Exception {
+        String tsName = storePseudoReg1Hour();
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        // the office of the session is used for the metadata and the values
+        given()
+                .config(RestAssured.config().jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE)))
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .header("Authorization", user.toHeaderValue())
+                .queryParam("units", "cfs")
+                .queryParam("name", tsName)
+                .queryParam("begin", "2023-01-11T12:00:00-00:00")
+                .queryParam("end", "2023-01-11T13:00:00-00:00")
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .get("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("office-id", equalTo(user.getOperatingOffice()))
+                .body("values.size()", equalTo(2))
+                .body("values[0][1]", closeTo(500.0, 0.0001))
+                .body("values[1][1]", closeTo(600.0, 0.0001));
+    }
+
+    private String storePseudoReg1Hour() throws Exception {
+        InputStream resource = this.getClass().getResourceAsStream(
+                "/cwms/cda/api/lrl/pseudo_reg_1hour.json");
+        assertNotNull(resource);
+        String tsData = IOUtils.toString(resource, "UTF-8");
+
+        JsonNode ts = new ObjectMapper().readTree(tsData);
+        String location = ts.get("name").asText().split("\\.")[0];
+        String officeId = ts.get("office-id").asText();
+        createLocation(location, true, officeId);
+
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSONV2)
+                .body(tsData)
+                .header("Authorization", TestAccounts.KeyUser.SPK_NORMAL.toHeaderValue())
+                .queryParam("office", officeId)
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK));
+        return ts.get("name").asText();
+    }
+
     @Test
     void test_lrl_1day() throws Exception {
         ObjectMapper mapper = new ObjectMapper();
@@ -162,6 +252,122 @@ class TimeseriesControllerTestIT extends DataApiTestIT {
 
     }
 
+    @Test
+    void test_bulk_retrieval() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        InputStream resource = this.getClass().getResourceAsStream(
+                "/cwms/cda/api/lrl/1day_offset.json");
+        assertNotNull(resource);
+        String tsData = IOUtils.toString(resource, "UTF-8");
+
+        JsonNode ts = mapper.readTree(tsData);
+        String tsId = ts.get("name").asText();
+        String location = tsId.split("\\.")[0];
+        String officeId = ts.get("office-id").asText();
+
+        createLocation(location, true, officeId);
+
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSONV2)
+                .body(tsData)
+                .header("Authorization", user.toHeaderValue())
+                .queryParam("office", officeId)
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK));
+
+        String missing = location + ".Flow.Inst.1Hour.0.doesnotexist";
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .queryParam(Controllers.OFFICE, officeId)
+                .queryParam(Controllers.UNIT, "F")
+                .queryParam(Controllers.TS_IDS, tsId + "," + missing)
+                .queryParam(Controllers.BEGIN, "2023-02-02T06:00:00-05:00")
+                .queryParam(Controllers.END, "2023-02-02T06:00:00-05:00")
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .get("/timeseries/bulk")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("time-series.size()", equalTo(1))
+                .body("time-series[0].name", equalTo(tsId))
+                .body("time-series[0].values.size()", equalTo(1))
+                .body("errors.size()", equalTo(1))
+                .body("errors[0].name", equalTo(missing));
+    }
+
+    @Test
+    void test_bulk_store() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        InputStream resource = this.getClass().getResourceAsStream(
+                "/cwms/cda/api/lrl/1day_offset.json");
+        assertNotNull(resource);
+        String tsData = IOUtils.toString(resource, "UTF-8");
+
+        JsonNode ts = mapper.readTree(tsData);
+        String tsId = ts.get("name").asText();
+        String location = tsId.split("\\.")[0];
+        String officeId = ts.get("office-id").asText();
+
+        createLocation(location, true, officeId);
+
+        ObjectNode collection = mapper.createObjectNode();
+        collection.putArray("time-series").add(ts);
+
+        TestAccounts.KeyUser user = TestAccounts.KeyUser.SPK_NORMAL;
+
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .contentType(Formats.JSONV2)
+                .body(mapper.writeValueAsString(collection))
+                .header("Authorization", user.toHeaderValue())
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .post("/timeseries/bulk")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("size()", equalTo(1))
+                .body("[0].name", equalTo(tsId))
+                .body("[0].stored", equalTo(true));
+
+        given()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .accept(Formats.JSONV2)
+                .queryParam(Controllers.OFFICE, officeId)
+                .queryParam(Controllers.UNIT, "F")
+                .queryParam(Controllers.NAME, tsId)
+                .queryParam(Controllers.BEGIN, "2023-02-02T06:00:00-05:00")
+                .queryParam(Controllers.END, "2023-02-02T06:00:00-05:00")
+            .when()
+                .redirects().follow(true)
+                .redirects().max(3)
+                .get("/timeseries/")
+            .then()
+                .log().ifValidationFails(LogDetail.ALL, true)
+                .assertThat()
+                .statusCode(is(HttpServletResponse.SC_OK))
+                .body("values.size()", equalTo(1));
+    }
+
     @Test
     void test_lrl_1day_bad_units() throws Exception {
         ObjectMapper mapper = new ObjectMapper();
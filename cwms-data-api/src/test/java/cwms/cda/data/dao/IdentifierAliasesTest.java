@@ -0,0 +1,63 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class IdentifierAliasesTest {
+
+    private static IdentifierAliases aliases() {
+        IdentifierAliases aliases = new IdentifierAliases();
+        aliases.putLocation("SPK", "FOL", "Folsom");
+        aliases.putLocation("SPK", "Black Butte", "BBDam");
+        aliases.putLocation("SPK", "Dam", "Folsom");
+        aliases.putLocation("SPK", "dam", "Nimbus");
+        aliases.putLocation("SWT", "KEY", "Keystone");
+        aliases.putTimeSeries("SPK", "Folsom Flow", "Folsom.Flow-Out.Ave.1Hour.1Hour.Best");
+        return aliases;
+    }
+
+    @Test
+    void location_alias_resolves_case_insensitive_within_its_office() {
+        IdentifierAliases aliases = aliases();
+        assertEquals("Folsom", aliases.location("SPK", "FOL"));
+        assertEquals("Folsom", aliases.location("spk", "fol"));
+        assertEquals("FOL", aliases.location("SWT", "FOL"));
+        assertEquals("Keystone", aliases.location("SWT", "Key"));
+    }
+
+    @Test
+    void unknown_and_ambiguous_names_are_left_alone() {
+        IdentifierAliases aliases = aliases();
+        assertEquals("Folsom", aliases.location("SPK", "Folsom"));
+        assertEquals("Dam", aliases.location("SPK", "Dam"));
+        assertEquals("FOL", aliases.location("NWD", "FOL"));
+        assertEquals("FOL", aliases.location(null, "FOL"));
+    }
+
+    @Test
+    void time_series_alias_or_location_alias_resolves() {
+        IdentifierAliases aliases = aliases();
+        assertEquals("Folsom.Flow-Out.Ave.1Hour.1Hour.Best",
+                aliases.timeSeries("SPK", "FOLSOM FLOW"));
+        assertEquals("Folsom.Stage.Inst.1Hour.0.Raw",
+                aliases.timeSeries("SPK", "FOL.Stage.Inst.1Hour.0.Raw"));
+        assertEquals("Dam.Stage.Inst.1Hour.0.Raw",
+                aliases.timeSeries("SPK", "Dam.Stage.Inst.1Hour.0.Raw"));
+        assertEquals("Nimbus.Stage.Inst.1Hour.0.Raw",
+                aliases.timeSeries("SPK", "Nimbus.Stage.Inst.1Hour.0.Raw"));
+    }
+
+    @Test
+    void alias_stops_resolving_once_an_id_of_that_name_exists() {
+        IdentifierAliases aliases = aliases();
+        aliases.removeLocation("SPK", "fol");
+        assertEquals("FOL", aliases.location("SPK", "FOL"));
+        assertEquals("FOL.Stage.Inst.1Hour.0.Raw",
+                aliases.timeSeries("SPK", "FOL.Stage.Inst.1Hour.0.Raw"));
+        assertEquals("BBDam", aliases.location("SPK", "Black Butte"));
+
+        aliases.removeTimeSeries("SPK", "Folsom Flow");
+        assertEquals("Folsom Flow", aliases.timeSeries("SPK", "Folsom Flow"));
+    }
+}
@@ -0,0 +1,101 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.LocationPoint;
+import cwms.cda.helpers.BoundingBox;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class LocationIndexTest {
+
+    private static LocationPoint point(String office, String name, double latitude,
+                                       double longitude) {
+        return new LocationPoint.Builder()
+                .withOfficeId(office)
+                .withName(name)
+                .withLatitude(latitude)
+                .withLongitude(longitude)
+                .build();
+    }
+
+    private static LocationIndex index() {
+        LocationIndex index = new LocationIndex();
+        index.put(point("SPK", "Folsom", 38.70, -121.16));
+        index.put(point("SPK", "Nimbus", 38.64, -121.22));
+        index.put(point("SPK", "Oroville", 39.54, -121.49));
+        index.put(point("SPK", "Pine Flat", 36.83, -119.33));
+        index.put(point("SWT", "Keystone", 36.15, -96.25));
+        index.put(point("POA", "Chena", 64.80, -147.52));
+        index.put(point("POH", "Attu", 52.90, 172.90));
+        return index;
+    }
+
+    private static List<String> names(List<LocationPoint> points) {
+        return points.stream().map(LocationPoint::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void finds_locations_inside_a_box() {
+        LocationIndex index = index();
+        assertEquals(Arrays.asList("Folsom", "Nimbus", "Oroville"),
+                names(index.within(BoundingBox.parse("-122,38,-121,40"), null, 100)));
+        assertEquals(Arrays.asList("Folsom", "Nimbus"),
+                names(index.within(BoundingBox.parse("-122,38,-121,40"), "spk", 2)));
+        assertEquals(Arrays.asList("Attu"),
+                names(index.within(BoundingBox.parse("170,50,-170,60"), null, 100)));
+    }
+
+    @Test
+    void radius_results_are_ordered_by_distance() {
+        List<LocationPoint> points = index().withinRadius(38.68, -121.18, 50, null, 100);
+        assertEquals(Arrays.asList("Folsom", "Nimbus"), names(points));
+        assertTrue(points.get(0).getDistanceKm() < points.get(1).getDistanceKm());
+        assertTrue(points.get(1).getDistanceKm() < 50);
+    }
+
+    @Test
+    void nearest_expands_until_enough_locations_are_found() {
+        LocationIndex index = index();
+        assertEquals(Arrays.asList("Folsom", "Nimbus", "Oroville", "Pine Flat"),
+                names(index.nearest(38.68, -121.18, 4, null)));
+        assertEquals(Arrays.asList("Keystone"),
+                names(index.nearest(38.68, -121.18, 5, "SWT")));
+        assertEquals(7, index.nearest(0, 0, 20, null).size());
+    }
+
+    @Test
+    void stored_and_deleted_locations_move_in_the_index() {
+        LocationIndex index = index();
+        index.put(point("SPK", "folsom", 36.0, -96.0));
+        assertEquals(7, index.size());
+        assertEquals(Arrays.asList("folsom", "Keystone"),
+                names(index.nearest(36.1, -96.1, 2, null)));
+        index.remove("SPK", "FOLSOM");
+        assertEquals(6, index.size());
+        assertEquals(Arrays.asList("Keystone"),
+                names(index.nearest(36.1, -96.1, 1, null)));
+    }
+
+    @Test
+    void changes_only_move_the_generation_of_their_office() {
+        long spk = LocationIndex.generation("SPK");
+        long swt = LocationIndex.generation("SWT");
+        long all = LocationIndex.generation(null);
+        LocationIndex.locationDeleted("spk", "Not Indexed");
+        assertTrue(LocationIndex.generation("SPK") > spk);
+        assertEquals(swt, LocationIndex.generation("SWT"));
+        assertTrue(LocationIndex.generation(null) > all);
+    }
+
+    @Test
+    void distance_is_great_circle() {
+        // one degree of latitude
+        assertEquals(111.19, LocationIndex.distanceKm(0, 0, 1, 0), 0.01);
+        assertEquals(LocationIndex.distanceKm(10, 179.5, 10, -179.5),
+                LocationIndex.distanceKm(10, 0, 10, 1), 1e-9);
+    }
+}
@@ -0,0 +1,104 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import cwms.cda.ApiServlet;
+import cwms.cda.security.DataApiPrincipal;
+import cwms.cda.security.Role;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.util.ContextUtil;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+class QueryTimeoutsTest {
+
+    private static Context context(Integer routeDefault, String header, String role) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getAttribute(ApiServlet.QUERY_TIMEOUT)).thenReturn(routeDefault);
+        when(request.getHeader(QueryTimeouts.HEADER)).thenReturn(header);
+        if (role != null) {
+            when(request.getAttribute(AuthDao.DATA_API_PRINCIPAL)).thenReturn(
+                    new DataApiPrincipal("user", Collections.singleton(new Role(role))));
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(ContextUtil.maxRequestSizeKey, Integer.MAX_VALUE);
+        return ContextUtil.init(request, mock(HttpServletResponse.class), "*", new HashMap<>(),
+                HandlerType.GET, attributes);
+    }
+
+    @Test
+    void route_default_is_used() {
+        assertEquals(60, QueryTimeouts.forRequest(context(60, null, null)));
+        assertEquals(QueryTimeouts.DEFAULT_SECONDS,
+                QueryTimeouts.forRequest(context(null, null, null)));
+    }
+
+    @Test
+    void anyone_may_shorten() {
+        assertEquals(10, QueryTimeouts.forRequest(context(60, "10", null)));
+        assertEquals(60, QueryTimeouts.forRequest(context(60, "600", null)));
+    }
+
+    @Test
+    void anyone_may_limit_a_route_without_timeout() {
+        assertEquals(0, QueryTimeouts.forRequest(context(0, null, null)));
+        assertEquals(600, QueryTimeouts.forRequest(context(0, "600", null)));
+    }
+
+    @Test
+    void admins_may_extend() {
+        assertEquals(600, QueryTimeouts.forRequest(context(60, "600",
+                ApiServlet.CWMS_ADMIN_ROLE)));
+        assertEquals(QueryTimeouts.MAX_SECONDS,
+                QueryTimeouts.forRequest(context(60, "999999", ApiServlet.CWMS_ADMIN_ROLE)));
+    }
+
+    @Test
+    void other_users_may_not_extend() {
+        assertEquals(60, QueryTimeouts.forRequest(context(60, "600",
+                ApiServlet.CWMS_USERS_ROLE)));
+    }
+
+    @Test
+    void bad_header_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> QueryTimeouts.forRequest(context(60, "soon", null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> QueryTimeouts.forRequest(context(60, "0", null)));
+    }
+
+    @Test
+    void request_statements_are_cancelled() throws SQLException {
+        Statement statement = mock(Statement.class);
+        Set<Statement> statements = ConcurrentHashMap.newKeySet();
+        statements.add(statement);
+
+        assertEquals(1, StatementTrackingListener.cancel(statements));
+        verify(statement).cancel();
+        assertTrue(statements.isEmpty());
+        assertEquals(0, StatementTrackingListener.cancel(statements));
+    }
+
+    @Test
+    void cancelled_statements_are_timeouts() {
+        assertTrue(StatementTrackingListener.isTimeout(new SQLTimeoutException("timeout")));
+        assertTrue(StatementTrackingListener.isTimeout(
+                new SQLException("ORA-01013: user requested cancel of current operation",
+                        "72000", 1013)));
+    }
+}
@@ -0,0 +1,79 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import cwms.cda.api.enums.UnitSystem;
+import cwms.cda.data.dto.County;
+import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.State;
+import cwms.cda.data.dto.TimeZone;
+import cwms.cda.data.dto.TimeZones;
+import cwms.cda.data.dto.Unit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ReferenceDataTest {
+
+    private static ReferenceData referenceData() {
+        Office spk = new Office("SPK", "Sacramento District", "MSCO", "SPD");
+        Office swt = new Office("SWT", "Tulsa District", "MSCO", "SWD");
+        Map<UnitSystem, Map<String, String>> defaultUnits = new EnumMap<>(UnitSystem.class);
+        defaultUnits.put(UnitSystem.SI, new HashMap<>());
+        defaultUnits.put(UnitSystem.EN, new HashMap<>());
+        defaultUnits.get(UnitSystem.SI).put("FLOW", "cms");
+        defaultUnits.get(UnitSystem.EN).put("FLOW", "cfs");
+        return new ReferenceData(Arrays.asList(spk, swt), Collections.singletonList(spk),
+                Collections.singletonList(new Unit("cfs", "cubic feet per second", "Volume Rate",
+                        "", "EN", new ArrayList<>())),
+                new TimeZones(new ArrayList<>(Collections.singletonList(new TimeZone("UTC")))),
+                Collections.singletonList(new State("CA", "California")),
+                Collections.singletonList(new County("Sacramento", "067", "CA")),
+                defaultUnits, new UnitConverter.Builder().build());
+    }
+
+    @Test
+    void offices_are_found_case_insensitive() {
+        ReferenceData data = referenceData();
+        assertEquals("SPK", data.getOffice("spk").getName());
+        assertNull(data.getOffice("LRL"));
+        assertEquals(2, data.getOffices(false).size());
+        assertEquals(1, data.getOffices(true).size());
+    }
+
+    @Test
+    void default_units_use_the_base_parameter() {
+        ReferenceData data = referenceData();
+        assertEquals("cfs", data.getDefaultUnits("Flow-Out", UnitSystem.EN));
+        assertEquals("cms", data.getDefaultUnits("flow", UnitSystem.SI));
+        assertNull(data.getDefaultUnits("Stage", UnitSystem.SI));
+    }
+
+    @Test
+    void tables_are_immutable() {
+        ReferenceData data = referenceData();
+        List<Office> offices = data.getOffices(false);
+        assertThrows(UnsupportedOperationException.class, () -> offices.add(new Office()));
+        List<TimeZone> zones = data.getTimeZones().getTimeZones();
+        assertThrows(UnsupportedOperationException.class, zones::clear);
+    }
+
+    @Test
+    void on_demand_values_load_once() {
+        ReferenceData data = referenceData();
+        AtomicInteger loads = new AtomicInteger();
+        String first = data.onDemand("units:tab", () -> "loaded" + loads.incrementAndGet());
+        String second = data.onDemand("units:tab", () -> "loaded" + loads.incrementAndGet());
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+}
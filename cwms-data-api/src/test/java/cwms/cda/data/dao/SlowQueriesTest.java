@@ -0,0 +1,61 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.QueryStatistics;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SlowQueriesTest {
+
+    @AfterEach
+    void reset() {
+        SlowQueries.reset();
+    }
+
+    @Test
+    void literals_are_removed() {
+        assertEquals("select * from t where a = ? and b in (?, ...) and c = ?",
+                SlowQueries.normalize("select *  from t\n where a = 'it''s' and b in (?, ?,?)"
+                        + " and c = 42"));
+        assertEquals("select col1 from t2", SlowQueries.normalize("select col1 from t2"));
+    }
+
+    @Test
+    void same_statement_same_fingerprint() {
+        String first = SlowQueries.fingerprint(SlowQueries.normalize("select ? from dual where x = 1"));
+        String second = SlowQueries.fingerprint(SlowQueries.normalize("select ? from dual where x = 2"));
+        String other = SlowQueries.fingerprint(SlowQueries.normalize("select ? from t"));
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    void top_orders_by_total_time() {
+        long ms = TimeUnit.MILLISECONDS.toNanos(1);
+        SlowQueries.record("select a from t where x = ?", 5 * ms, 10, Collections::emptyList);
+        SlowQueries.record("select a from t where x = ?", 7 * ms, 5, Collections::emptyList);
+        SlowQueries.record("select b from u", 3 * ms, 1, Collections::emptyList);
+
+        List<QueryStatistics> top = SlowQueries.top(10);
+        assertEquals(2, top.size());
+        QueryStatistics slowest = top.get(0);
+        assertEquals("select a from t where x = ?", slowest.getSql());
+        assertEquals(2, slowest.getCount());
+        assertEquals(12.0, slowest.getTotalMillis(), 0.001);
+        assertEquals(7.0, slowest.getMaxMillis(), 0.001);
+        assertEquals(15, slowest.getRows());
+        assertEquals(1, SlowQueries.top(1).size());
+
+        ContentType contentType = Formats.parseHeader(Formats.JSONV2, QueryStatistics.class);
+        String json = Formats.format(contentType, top, QueryStatistics.class);
+        assertTrue(json.contains("\"total-millis\""), json);
+    }
+}
@@ -0,0 +1,68 @@
+package cwms.cda.data.dao;
+
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jooq.DSLContext;
+import org.jooq.Param;
+import org.jooq.QueryPart;
+import org.jooq.ResultQuery;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+
+class SqlTemplateTest {
+    private final DSLContext dsl = DSL.using(SQLDialect.DEFAULT);
+
+    private static QueryPart query() {
+        Param<Long> begin = DSL.param("begin", Long.class);
+        return DSL.select(field(name("VALUE")), DSL.nvl(DSL.param("cursor", Long.class), begin))
+                  .from(DSL.sql("table(retrieve(?, 'a:b', ?)) t", DSL.param("name", String.class), begin))
+                  .where(field(name("QUALITY")).eq(DSL.val(5)));
+    }
+
+    @Test
+    void named_params_become_binds_in_order() {
+        SqlTemplate template = SqlTemplate.render(dsl, query());
+        assertEquals("select \"VALUE\", nvl(?, ?) from table(retrieve(?, 'a:b', ?)) t"
+                + " where \"QUALITY\" = 5", template.getSql());
+
+        Map<String, Object> values = new HashMap<>();
+        values.put("begin", 10L);
+        values.put("cursor", null);
+        values.put("name", "Loc.Flow.Inst.1Hour.0.raw");
+        ResultQuery<?> bound = template.query(dsl, values);
+        assertEquals(Arrays.asList(null, 10L, "Loc.Flow.Inst.1Hour.0.raw", 10L),
+                bound.getBindValues());
+    }
+
+    @Test
+    void missing_value_is_rejected() {
+        SqlTemplate template = SqlTemplate.render(dsl, query());
+        Map<String, Object> values = new HashMap<>();
+        values.put("begin", 10L);
+        assertThrows(IllegalArgumentException.class, () -> template.query(dsl, values));
+    }
+
+    @Test
+    void templates_are_built_once_per_key() {
+        AtomicInteger builds = new AtomicInteger();
+        SqlTemplate first = SqlTemplate.get(dsl, "test.once", () -> {
+            builds.incrementAndGet();
+            return query();
+        });
+        SqlTemplate second = SqlTemplate.get(dsl, "test.once", () -> {
+            builds.incrementAndGet();
+            return query();
+        });
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+    }
+}
@@ -0,0 +1,65 @@
+package cwms.cda.data.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class UnitConverterTest {
+
+    private static UnitConverter converter() {
+        UnitConverter.Builder builder = new UnitConverter.Builder();
+        builder.add("ft", "m", 0.3048, 0.0, null);
+        builder.add("C", "F", 1.8, 32.0, null);
+        builder.add("F", "C", null, null, "(ARG1 - 32) / 1.8");
+        builder.add("F", "K", null, null, "ARG1 32 - 1.8 / 273.15 +");
+        builder.add("ft", "in", 12.0, null, null);
+        return builder.build();
+    }
+
+    @Test
+    void factor_and_offset_conversions() {
+        UnitConverter converter = converter();
+        assertEquals(3.048, converter.convert(10.0, "ft", "m"), 1e-9);
+        assertEquals(212.0, converter.convert(100.0, "C", "F"), 1e-9);
+        assertEquals(24.0, converter.convert(2.0, "ft", "in"), 1e-9);
+        assertEquals(5, converter.size());
+    }
+
+    @Test
+    void infix_and_rpn_functions_are_evaluated() {
+        UnitConverter converter = converter();
+        assertEquals(100.0, converter.convert(212.0, "F", "C"), 1e-9);
+        assertEquals(373.15, converter.convert(212.0, "F", "K"), 1e-9);
+
+        assertEquals(-4.0, UnitConverter.compile("-ARG1 * 2").applyAsDouble(2.0), 1e-9);
+        assertEquals(8.0, UnitConverter.compile("2 ^ ARG1").applyAsDouble(3.0), 1e-9);
+        assertEquals(2.0, UnitConverter.compile("LOG(ARG1)").applyAsDouble(100.0), 1e-9);
+        assertEquals(3.0, UnitConverter.compile("SQRT(ABS(ARG1))").applyAsDouble(-9.0), 1e-9);
+        assertEquals(1.0, UnitConverter.compile("ARG1 LN").applyAsDouble(Math.E), 1e-9);
+    }
+
+    @Test
+    void unreadable_functions_are_left_out() {
+        UnitConverter.Builder builder = new UnitConverter.Builder();
+        assertFalse(builder.add("a", "b", null, null, "ARG1 +* 2"));
+        assertFalse(builder.add("a", "b", null, null, "FOO(ARG1)"));
+        assertTrue(builder.add("a", "c", 2.0, null, null));
+        UnitConverter converter = builder.build();
+        assertFalse(converter.canConvert("a", "b"));
+        assertTrue(converter.canConvert("a", "c"));
+    }
+
+    @Test
+    void unknown_pairs_are_null_and_same_units_are_identity() {
+        UnitConverter converter = converter();
+        assertEquals(42.0, converter.convert(42.0, "cfs", "cfs"), 0.0);
+        assertNull(converter.conversion("m", "ft"));
+        assertNull(converter.conversion(null, "ft"));
+        assertFalse(converter.canConvert("FT", "m"));
+        assertThrows(IllegalArgumentException.class, () -> converter.convert(1.0, "m", "ft"));
+    }
+}
@@ -0,0 +1,128 @@
+package cwms.cda.data.dao.downsample;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.api.enums.Aggregate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DownsamplerTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private static final class Point {
+        final long dateTime;
+        final Double value;
+        final int qualityCode;
+
+        Point(long dateTime, Double value, int qualityCode) {
+            this.dateTime = dateTime;
+            this.value = value;
+            this.qualityCode = qualityCode;
+        }
+    }
+
+    private List<Point> run(Aggregate aggregate, int maxPoints, long end, double[] values) {
+        List<Point> points = new ArrayList<>();
+        Downsampler downsampler = Downsampler.create(aggregate, maxPoints, 0, end,
+                (t, v, q) -> points.add(new Point(t, v, q)));
+        for (int i = 0; i < values.length; i++) {
+            downsampler.add(i * HOUR, values[i], Qualities.SCREENED_OKAY);
+        }
+        downsampler.finish();
+        return points;
+    }
+
+    @Test
+    void bucket_aggregates() {
+        double[] values = {1, 5, 3, 2, 8, 4};
+        // 6 hourly values over a 6 hour window, 3 buckets of 2 hours
+        long end = 6 * HOUR - 1;
+        List<Point> mean = run(Aggregate.MEAN, 3, end, values);
+        assertEquals(3, mean.size());
+        assertEquals(3.0, mean.get(0).value);
+        assertEquals(2.5, mean.get(1).value);
+        assertEquals(6.0, mean.get(2).value);
+        assertEquals(0, mean.get(0).dateTime);
+        assertEquals(2 * HOUR, mean.get(1).dateTime);
+        assertEquals(Qualities.SCREENED_OKAY, mean.get(0).qualityCode);
+
+        List<Point> sum = run(Aggregate.SUM, 3, end, values);
+        assertEquals(12.0, sum.get(2).value);
+        List<Point> min = run(Aggregate.MIN, 3, end, values);
+        assertEquals(2.0, min.get(1).value);
+        List<Point> max = run(Aggregate.MAX, 3, end, values);
+        assertEquals(5.0, max.get(0).value);
+        List<Point> first = run(Aggregate.FIRST, 3, end, values);
+        assertEquals(8.0, first.get(2).value);
+        List<Point> last = run(Aggregate.LAST, 3, end, values);
+        assertEquals(4.0, last.get(2).value);
+    }
+
+    @Test
+    void missing_values_are_skipped() {
+        List<Point> points = new ArrayList<>();
+        Downsampler downsampler = Downsampler.create(Aggregate.MEAN, 3, 0, 5 * HOUR,
+                (t, v, q) -> points.add(new Point(t, v, q)));
+        downsampler.add(0, null, Qualities.SCREENED_MISSING);
+        downsampler.add(HOUR, null, Qualities.SCREENED_MISSING);
+        downsampler.add(2 * HOUR, 4.0, Qualities.SCREENED_OKAY);
+        downsampler.add(3 * HOUR, null, Qualities.SCREENED_MISSING);
+        downsampler.finish();
+        assertEquals(2, points.size());
+        assertNull(points.get(0).value);
+        assertEquals(Qualities.SCREENED_MISSING, points.get(0).qualityCode);
+        assertEquals(4.0, points.get(1).value);
+    }
+
+    @Test
+    void lttb_keeps_first_and_last() {
+        int count = 1000;
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.sin(i / 10.0);
+        }
+        values[500] = 100.0;
+        List<Point> points = run(Aggregate.LTTB, 50, (count - 1) * HOUR, values);
+        assertTrue(points.size() <= 50, "returned " + points.size());
+        assertEquals(0, points.get(0).dateTime);
+        assertEquals((count - 1) * HOUR, points.get(points.size() - 1).dateTime);
+        assertTrue(points.stream().anyMatch(p -> p.value == 100.0), "peak was dropped");
+        for (int i = 1; i < points.size(); i++) {
+            assertTrue(points.get(i).dateTime > points.get(i - 1).dateTime);
+        }
+    }
+
+    @Test
+    void min_max_in_time_order() {
+        double[] values = {3, 9, 1, 4, 7, 2, 8, 5};
+        List<Point> points = run(Aggregate.MIN_MAX, 4, 7 * HOUR, values);
+        assertEquals(4, points.size());
+        assertEquals(9.0, points.get(0).value);
+        assertEquals(1.0, points.get(1).value);
+        assertEquals(2.0, points.get(2).value);
+        assertEquals(8.0, points.get(3).value);
+    }
+
+    @Test
+    void quality_combine() {
+        assertEquals(Qualities.SCREENED_OKAY,
+                Qualities.combine(Qualities.SCREENED_OKAY, Qualities.SCREENED_OKAY));
+        assertEquals(Qualities.SCREENED_REJECTED,
+                Qualities.combine(Qualities.SCREENED_QUESTIONABLE, Qualities.SCREENED_REJECTED));
+        assertEquals(Qualities.SCREENED_QUESTIONABLE,
+                Qualities.combine(Qualities.SCREENED_OKAY, Qualities.SCREENED_QUESTIONABLE));
+        assertEquals(Qualities.UNSCREENED,
+                Qualities.combine(Qualities.SCREENED_OKAY, Qualities.UNSCREENED));
+    }
+
+    @Test
+    void too_few_points_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> Downsampler.create(Aggregate.LTTB, 2, 0, HOUR, (t, v, q) -> true));
+    }
+}
@@ -0,0 +1,53 @@
+package cwms.cda.data.dto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class LocationLevelsTest {
+
+    private static LocationLevel level(String id, String date) {
+        return new LocationLevel.Builder(id, ZonedDateTime.parse(date))
+                .withOfficeId("SPK")
+                .build();
+    }
+
+    @Test
+    void full_page_continues_after_the_last_key() {
+        LocationLevel last = level("Alpha.Elev.Inst.0.Top of Flood", "2021-06-21T08:00:00Z");
+        LocationLevels levels = new LocationLevels.Builder("0", 2, null)
+                .add(level("Alpha.Elev.Inst.0.Bottom of Flood", "2021-06-21T08:00:00Z"))
+                .add(last)
+                .build();
+
+        String[] cursor = CwmsDTOPaginated.decodeCursor(levels.getNextPage());
+        assertEquals(3, cursor.length);
+        assertEquals("2", cursor[2]);
+        assertArrayEquals(new String[]{"SPK", "Alpha.Elev.Inst.0.Top of Flood",
+                Long.toString(last.getLevelDate().toInstant().toEpochMilli())},
+                LocationLevels.decodeKey(cursor[0]));
+
+        LocationLevels next = new LocationLevels.Builder(cursor[0], 2, null).build();
+        assertEquals(levels.getNextPage(), next.getPage());
+        assertNull(next.getNextPage());
+    }
+
+    @Test
+    void levels_that_differ_by_attribute_share_a_key() {
+        LocationLevels levels = new LocationLevels.Builder("0", 2, null)
+                .add(level("Alpha.Stor.Inst.0.Top of Conservation", "2021-06-21T08:00:00Z"))
+                .add(level("Alpha.Stor.Inst.0.Top of Conservation", "2021-06-21T08:00:00Z"))
+                .build();
+        assertNull(levels.getNextPage());
+    }
+
+    @Test
+    void offset_cursor_has_no_key() {
+        assertNotNull(new LocationLevels.Builder("0", 10, null).build().getPage());
+        assertEquals(0, LocationLevels.decodeKey("500").length);
+    }
+}
@@ -0,0 +1,54 @@
+package cwms.cda.data.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesChangesTest {
+
+    @Test
+    void test_round_trip_json() {
+        Timestamp entered = Timestamp.from(Instant.parse("2024-03-01T12:00:00.123456Z"));
+        TimeSeriesChanges changes = new TimeSeriesChanges.Builder()
+                .withChangedSince(ZonedDateTime.parse("2024-03-01T00:00:00Z"))
+                .withWatermark(ZonedDateTime.parse("2024-03-01T12:00:00.123456Z"))
+                .withComplete(false)
+                .withNextPage("cGFnZQ==")
+                .addChange("SPK", "Test.Elev.Inst.1Hour.0.raw", "ft", change(0, 10.0, entered))
+                .addChange("SPK", "Test.Flow.Inst.1Hour.0.raw", "cfs", change(0, 200.0, entered))
+                .addChange("SPK", "Test.Elev.Inst.1Hour.0.raw", "ft", change(1, 10.5, entered))
+                .build();
+
+        ContentType contentType = Formats.parseHeader(Formats.JSONV2, TimeSeriesChanges.class);
+        String json = Formats.format(contentType, changes);
+        assertTrue(json.contains("\"watermark\""));
+        assertTrue(json.contains("[1709251200000,10.0,0,null,1709294400123]"), json);
+
+        TimeSeriesChanges parsed = Formats.parseContent(contentType, json, TimeSeriesChanges.class);
+        assertFalse(parsed.isComplete());
+        assertEquals("cGFnZQ==", parsed.getNextPage());
+        assertEquals(changes.getWatermark().toInstant(), parsed.getWatermark().toInstant());
+        assertEquals(2, parsed.getTimeSeries().size());
+        TimeSeriesChanges.Series elev = parsed.getTimeSeries().get(0);
+        assertEquals("Test.Elev.Inst.1Hour.0.raw", elev.getName());
+        assertEquals("ft", elev.getUnits());
+        assertEquals(2, elev.getValues().size());
+        assertEquals(10.5, elev.getValues().get(1).getValue());
+        assertNull(elev.getValues().get(1).getVersionDate());
+        assertEquals("cfs", parsed.getTimeSeries().get(1).getUnits());
+    }
+
+    private static TimeSeriesChanges.Change change(int hour, double value, Timestamp entered) {
+        Timestamp dateTime = Timestamp.from(Instant.parse("2024-03-01T00:00:00Z")
+                .plusSeconds(hour * 3600L));
+        return new TimeSeriesChanges.Change(dateTime, value, 0, null, entered);
+    }
+}
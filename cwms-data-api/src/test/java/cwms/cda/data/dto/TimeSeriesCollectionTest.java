@@ -0,0 +1,60 @@
+package cwms.cda.data.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class TimeSeriesCollectionTest {
+
+    @Test
+    void test_round_trip_json() {
+        TimeSeriesCollection collection = new TimeSeriesCollection.Builder()
+                .addTimeSeries(buildTimeSeries("Test.Test.Elev.0.0.RAW"))
+                .addTimeSeries(buildTimeSeries("Test.Test.Flow.0.0.RAW"))
+                .addError(new TimeSeriesCollection.SeriesError.Builder()
+                        .withOfficeId("SPK")
+                        .withName("Test.Test.Stage.0.0.RAW")
+                        .withMessage("not found")
+                        .build())
+                .build();
+
+        ContentType contentType = Formats.parseHeader(Formats.JSONV2, TimeSeriesCollection.class);
+        String json = Formats.format(contentType, collection);
+        assertNotNull(json);
+        assertTrue(json.contains("\"time-series\""));
+
+        TimeSeriesCollection parsed = Formats.parseContent(contentType, json, TimeSeriesCollection.class);
+        assertEquals(2, parsed.getTimeSeries().size());
+        assertEquals("Test.Test.Flow.0.0.RAW", parsed.getTimeSeries().get(1).getName());
+        assertEquals(1, parsed.getTimeSeries().get(0).getValues().size());
+        assertEquals(1, parsed.getErrors().size());
+        assertEquals("Test.Test.Stage.0.0.RAW", parsed.getErrors().get(0).getName());
+    }
+
+    @Test
+    void test_serialize_xml() {
+        TimeSeriesCollection collection = new TimeSeriesCollection.Builder()
+                .addTimeSeries(buildTimeSeries("Test.Test.Elev.0.0.RAW"))
+                .build();
+
+        ContentType contentType = Formats.parseHeader(Formats.XMLV2, TimeSeriesCollection.class);
+        String xml = Formats.format(contentType, collection);
+        assertNotNull(xml);
+        assertTrue(xml.contains("Test.Test.Elev.0.0.RAW"));
+    }
+
+    private static TimeSeries buildTimeSeries(String name) {
+        TimeSeries ts = new TimeSeries(null, -1, 0, name, "SPK",
+                ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]"),
+                ZonedDateTime.parse("2021-06-22T08:00:00-07:00[PST8PDT]"), "ft", Duration.ZERO);
+        ts.addValue(Timestamp.from(ts.getBegin().toInstant()), 30.0, 0);
+        return ts;
+    }
+}
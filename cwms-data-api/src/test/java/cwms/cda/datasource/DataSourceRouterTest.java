@@ -0,0 +1,58 @@
+package cwms.cda.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class DataSourceRouterTest {
+
+    @Test
+    void writes_and_no_cache_reads_use_primary() {
+        DataSource primary = mock(DataSource.class);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("jdbc/CWMS3-RO", mock(DataSource.class));
+        MetricRegistry metrics = new MetricRegistry();
+        DataSourceRouter router = new DataSourceRouter(primary, replicas, metrics);
+
+        assertSame(primary, router.select("POST", null));
+        assertSame(primary, router.select("DELETE", null));
+        assertSame(primary, router.select("GET", "no-cache"));
+        assertNotSame(primary, router.select("GET", null));
+        assertEquals(3, metrics.meter(MetricRegistry.name(DataSourceRouter.class, "primary"))
+                .getCount());
+    }
+
+    @Test
+    void reads_without_replicas_use_primary() {
+        DataSource primary = mock(DataSource.class);
+        DataSourceRouter router = new DataSourceRouter(primary, new MetricRegistry());
+        assertSame(primary, router.select("GET", null));
+    }
+
+    @Test
+    void replica_failure_falls_back_to_primary() throws SQLException {
+        DataSource primary = mock(DataSource.class);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenThrow(new SQLException("down"));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("jdbc/CWMS3-RO", replica);
+        MetricRegistry metrics = new MetricRegistry();
+        DataSourceRouter router = new DataSourceRouter(primary, replicas, metrics);
+
+        assertSame(primaryConnection, router.select("GET", null).getConnection());
+        assertEquals(1, metrics.meter(MetricRegistry.name(DataSourceRouter.class, "fallback"))
+                .getCount());
+    }
+}
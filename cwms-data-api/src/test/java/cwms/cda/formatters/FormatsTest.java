@@ -165,6 +165,18 @@ class FormatsTest
 		assertEquals("application/json", contentType.getType());
 	}
 
+	@Test
+	void testAcceptsWithParametersAndOtherTypes()
+	{
+		assertTrue(Formats.accepts("text/event-stream", Formats.EVENT_STREAM));
+		assertTrue(Formats.accepts("text/event-stream;charset=UTF-8", Formats.EVENT_STREAM));
+		assertTrue(Formats.accepts("text/event-stream, */*;q=0.1", Formats.EVENT_STREAM));
+		assertTrue(Formats.accepts("application/json, Text/Event-Stream", Formats.EVENT_STREAM));
+		assertFalse(Formats.accepts("text/event-stream;q=0", Formats.EVENT_STREAM));
+		assertFalse(Formats.accepts("*/*", Formats.EVENT_STREAM));
+		assertFalse(Formats.accepts(null, Formats.EVENT_STREAM));
+	}
+
 	@Test
 	void testParseHeaderFromFirefox()
 	{
@@ -0,0 +1,106 @@
+package cwms.cda.formatters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cwms.cda.formatters.json.GeoJsonFeatureWriter;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geojson.Feature;
+import org.geojson.FeatureCollection;
+import org.geojson.Point;
+import org.junit.jupiter.api.Test;
+
+class GeoJsonFeatureWriterTest {
+
+    private static Feature feature(String id, double lon, double lat) {
+        Feature feature = new Feature();
+        feature.setId(id);
+        feature.setGeometry(new Point(lon, lat));
+        Map<String, Object> avLoc = new LinkedHashMap<>();
+        avLoc.put("LOCATION_ID", id);
+        avLoc.put("LOCATION_KIND", "SITE");
+        avLoc.put("ELEVATION", 10.0);
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("avLoc", avLoc);
+        feature.setProperties(properties);
+        return feature;
+    }
+
+    @Test
+    void streamed_collection_matches_serialized_collection() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        FeatureCollection collection = new FeatureCollection();
+        collection.add(feature("Alpha", -121.5, 38.5));
+        collection.add(feature("Beta", -122.0, 39.0));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GeoJsonFeatureWriter writer = new GeoJsonFeatureWriter(mapper, out,
+                Collections.emptySet())) {
+            writer.write(feature("Alpha", -121.5, 38.5));
+            writer.write(feature("Beta", -122.0, 39.0));
+            assertEquals(2, writer.getCount());
+            writer.finish();
+        }
+
+        assertEquals(mapper.readTree(mapper.writeValueAsString(collection)),
+                mapper.readTree(out.toByteArray()));
+    }
+
+    @Test
+    void projection_keeps_only_listed_columns() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GeoJsonFeatureWriter writer = new GeoJsonFeatureWriter(mapper, out,
+                GeoJsonFeatureWriter.parseProjection("location_id, location_kind"))) {
+            writer.write(feature("Alpha", -121.5, 38.5));
+            writer.finish();
+        }
+
+        JsonNode feature = mapper.readTree(out.toByteArray()).get("features").get(0);
+        JsonNode avLoc = feature.get("properties").get("avLoc");
+        assertEquals("Alpha", avLoc.get("LOCATION_ID").asText());
+        assertEquals("SITE", avLoc.get("LOCATION_KIND").asText());
+        assertFalse(avLoc.has("ELEVATION"));
+        assertTrue(feature.has("geometry"));
+        assertEquals("Alpha", feature.get("id").asText());
+    }
+
+    @Test
+    void unfinished_collection_is_not_valid_json() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GeoJsonFeatureWriter writer = new GeoJsonFeatureWriter(mapper, out,
+                Collections.emptySet())) {
+            writer.write(feature("Alpha", -121.5, 38.5));
+        }
+
+        assertThrows(JsonProcessingException.class, () -> mapper.readTree(out.toByteArray()));
+    }
+
+    @Test
+    void values_are_not_flushed_one_by_one() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        try (GeoJsonFeatureWriter writer = new GeoJsonFeatureWriter(new ObjectMapper(), out,
+                Collections.emptySet())) {
+            writer.write(feature("Alpha", -121.5, 38.5));
+            writer.write(feature("Beta", -122.0, 39.0));
+            assertEquals(0, flushes.get());
+        }
+        assertEquals(1, flushes.get());
+    }
+}
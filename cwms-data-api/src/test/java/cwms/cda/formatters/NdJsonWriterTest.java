@@ -0,0 +1,97 @@
+package cwms.cda.formatters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cwms.cda.data.dto.catalog.LocationAlias;
+import cwms.cda.data.dto.catalog.LocationCatalogEntry;
+import cwms.cda.formatters.json.JsonV2;
+import cwms.cda.formatters.json.NdJsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class NdJsonWriterTest {
+
+    private static LocationCatalogEntry entry(String name) {
+        return new LocationCatalogEntry.Builder()
+                .officeId("SPK")
+                .name(name)
+                .kind("SITE")
+                .active(true)
+                .aliases(Collections.singleton(new LocationAlias("Agency Aliases-USGS", name + "-USGS")))
+                .build();
+    }
+
+    @Test
+    void each_value_is_one_line() throws Exception {
+        ObjectMapper mapper = JsonV2.buildObjectMapper();
+        // indenting the mapper's documents must not split a line
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (NdJsonWriter writer = new NdJsonWriter(mapper, out)) {
+            writer.write(entry("Alpha"));
+            writer.write(entry("Beta"));
+            assertEquals(2, writer.getCount());
+            writer.finish();
+        }
+
+        String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(text.endsWith("\n"), text);
+        String[] lines = text.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"count\":2}", lines[2]);
+        assertFalse(lines[1].startsWith(" "), text);
+
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals(mapper.readTree(mapper.writeValueAsString(entry("Alpha"))), first);
+        assertEquals("Beta", mapper.readTree(lines[1]).get("name").asText());
+    }
+
+    @Test
+    void output_stream_stays_open() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new IllegalStateException("closed");
+            }
+        };
+        try (NdJsonWriter writer = new NdJsonWriter(new ObjectMapper(), out)) {
+            writer.write(Collections.singletonMap("a", 1));
+        }
+        assertEquals("{\"a\":1}\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void unfinished_output_has_no_trailer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (NdJsonWriter writer = new NdJsonWriter(new ObjectMapper(), out)) {
+            writer.write(Collections.singletonMap("a", 1));
+        }
+        assertFalse(new String(out.toByteArray(), StandardCharsets.UTF_8)
+                .contains(NdJsonWriter.TRAILER_COUNT));
+    }
+
+    @Test
+    void values_are_not_flushed_one_by_one() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        try (NdJsonWriter writer = new NdJsonWriter(JsonV2.buildObjectMapper(), out)) {
+            writer.write(entry("Alpha"));
+            writer.write(entry("Beta"));
+            assertEquals(0, flushes.get());
+        }
+        assertEquals(1, flushes.get());
+    }
+}
@@ -0,0 +1,70 @@
+package cwms.cda.formatters.cbor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cwms.cda.data.dto.Office;
+import cwms.cda.data.dto.TimeSeries;
+import cwms.cda.formatters.ContentType;
+import cwms.cda.formatters.Formats;
+import cwms.cda.formatters.UnsupportedFormatException;
+import java.io.ByteArrayInputStream;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class CborV1Test {
+
+    private TimeSeries getTimeSeries() {
+        TimeSeries ts = new TimeSeries(null, -1, 0, "Test.Test.Elev.0.0.RAW", "SPK",
+                ZonedDateTime.parse("2021-06-21T08:00:00-07:00[PST8PDT]"),
+                ZonedDateTime.parse("2021-06-22T08:00:00-07:00[PST8PDT]"), "ft", Duration.ZERO);
+        long start = ts.getBegin().toInstant().toEpochMilli();
+        ts.addValue(new Timestamp(start), 30.0, 0);
+        ts.addValue(new Timestamp(start + 3_600_000L), null, 5);
+        ts.addValue(new Timestamp(start + 7_200_000L), 31.5, 3);
+        return ts;
+    }
+
+    @Test
+    void round_trip_time_series() {
+        TimeSeries ts = getTimeSeries();
+        CborV1 cbor = new CborV1();
+        byte[] bytes = cbor.formatBytes(ts);
+        assertNotNull(bytes);
+
+        TimeSeries parsed = cbor.parseContent(new ByteArrayInputStream(bytes), TimeSeries.class);
+        assertEquals(ts.getName(), parsed.getName());
+        assertEquals(ts.getOfficeId(), parsed.getOfficeId());
+        assertEquals(ts.getUnits(), parsed.getUnits());
+        assertEquals(ts.getInterval(), parsed.getInterval());
+        assertEquals(ts.getBegin().toInstant(), parsed.getBegin().toInstant());
+        assertEquals(ts.getEnd().toInstant(), parsed.getEnd().toInstant());
+        assertEquals(3, parsed.getValues().size());
+        for (int i = 0; i < 3; i++) {
+            TimeSeries.Record expected = ts.getValues().get(i);
+            TimeSeries.Record actual = parsed.getValues().get(i);
+            assertEquals(expected.getDateTime(), actual.getDateTime());
+            assertEquals(expected.getValue(), actual.getValue());
+            assertEquals(expected.getQualityCode(), actual.getQualityCode());
+        }
+        assertNull(parsed.getValues().get(1).getValue());
+    }
+
+    @Test
+    void available_through_formats() {
+        ContentType contentType = Formats.parseHeader(Formats.CBOR_TIMESERIES);
+        assertTrue(Formats.isBinary(contentType));
+        assertEquals(contentType, Formats.parseHeaderAndQueryParm(null, Formats.CBOR_LEGACY));
+        TimeSeries ts = getTimeSeries();
+        assertArrayEquals(new CborV1().formatBytes(ts), Formats.formatBytes(contentType, ts));
+        assertThrows(UnsupportedFormatException.class, () -> Formats.format(contentType, ts));
+        assertThrows(UnsupportedFormatException.class,
+                () -> new CborV1().formatBytes(new Office("SPK", "Sacramento", "MSC", "SPD")));
+    }
+}
@@ -0,0 +1,134 @@
+package cwms.cda.formatters.mvt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class VectorTileEncoderTest {
+
+    /**
+     * Reads the fields of one protobuf message, length delimited fields as byte[] and
+     * varints as Long.
+     */
+    private static List<Object[]> fields(byte[] message) {
+        List<Object[]> retVal = new ArrayList<>();
+        int[] position = {0};
+        while (position[0] < message.length) {
+            long tag = varint(message, position);
+            int field = (int) (tag >>> 3);
+            if ((tag & 0x7) == 0) {
+                retVal.add(new Object[]{field, varint(message, position)});
+            } else {
+                int length = (int) varint(message, position);
+                byte[] bytes = new byte[length];
+                System.arraycopy(message, position[0], bytes, 0, length);
+                position[0] += length;
+                retVal.add(new Object[]{field, bytes});
+            }
+        }
+        return retVal;
+    }
+
+    private static long varint(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long[] packed(byte[] bytes) {
+        List<Long> values = new ArrayList<>();
+        int[] position = {0};
+        while (position[0] < bytes.length) {
+            values.add(varint(bytes, position));
+        }
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Test
+    void varints_and_zigzag_follow_protobuf() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VectorTileEncoder.writeVarint(out, 300);
+        assertArrayEquals(new byte[]{(byte) 0xAC, 0x02}, out.toByteArray());
+        assertEquals(0, VectorTileEncoder.zigZag(0));
+        assertEquals(1, VectorTileEncoder.zigZag(-1));
+        assertEquals(2, VectorTileEncoder.zigZag(1));
+        assertEquals(8191, VectorTileEncoder.zigZag(-4096));
+    }
+
+    @Test
+    void empty_tile_has_no_bytes() {
+        assertEquals(0, new VectorTileEncoder("locations", 4096).encode().length);
+    }
+
+    @Test
+    void points_are_encoded_in_one_layer_with_shared_keys_and_values() {
+        VectorTileEncoder encoder = new VectorTileEncoder("locations", 4096);
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("name", "Folsom");
+        first.put("office", "SPK");
+        encoder.addPoint(1, 25, 17, first);
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("name", "Nimbus");
+        second.put("office", "SPK");
+        second.put("kind", null);
+        encoder.addPoint(2, 4096, 0, second);
+
+        List<Object[]> tile = fields(encoder.encode());
+        assertEquals(1, tile.size());
+        assertEquals(3, tile.get(0)[0]);
+
+        List<Object[]> layer = fields((byte[]) tile.get(0)[1]);
+        List<byte[]> features = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (Object[] field : layer) {
+            switch ((Integer) field[0]) {
+                case 15:
+                    assertEquals(2L, field[1]);
+                    break;
+                case 1:
+                    assertEquals("locations", new String((byte[]) field[1],
+                            StandardCharsets.UTF_8));
+                    break;
+                case 2:
+                    features.add((byte[]) field[1]);
+                    break;
+                case 3:
+                    keys.add(new String((byte[]) field[1], StandardCharsets.UTF_8));
+                    break;
+                case 4:
+                    values.add(new String((byte[]) fields((byte[]) field[1]).get(0)[1],
+                            StandardCharsets.UTF_8));
+                    break;
+                case 5:
+                    assertEquals(4096L, field[1]);
+                    break;
+                default:
+                    throw new AssertionError("Unexpected layer field " + field[0]);
+            }
+        }
+        assertEquals(2, features.size());
+        assertEquals(2, keys.size());
+        assertEquals("[name, office]", keys.toString());
+        assertEquals("[Folsom, SPK, Nimbus]", values.toString());
+
+        List<Object[]> feature = fields(features.get(1));
+        assertEquals(2L, feature.get(0)[1]);
+        assertArrayEquals(new long[]{0, 2, 1, 1}, packed((byte[]) feature.get(1)[1]));
+        assertEquals(1L, feature.get(2)[1]);
+        assertArrayEquals(new long[]{9, 8192, 0}, packed((byte[]) feature.get(3)[1]));
+    }
+}
@@ -0,0 +1,51 @@
+package cwms.cda.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jooq.Field;
+import org.jooq.conf.ParamType;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+
+class BoundingBoxTest {
+
+    @Test
+    void parses_west_south_east_north() {
+        BoundingBox box = BoundingBox.parse("-122.5, 37.5,-121, 39");
+        assertEquals(-122.5, box.getWest());
+        assertEquals(37.5, box.getSouth());
+        assertEquals(-121.0, box.getEast());
+        assertEquals(39.0, box.getNorth());
+        assertTrue(box.contains(-121.5, 38.5));
+        assertFalse(box.contains(-120.5, 38.5));
+        assertNull(BoundingBox.parse(""));
+    }
+
+    @Test
+    void rejects_malformed_boxes() {
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("1,2,3"));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("a,2,3,4"));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("0,40,1,30"));
+        assertThrows(IllegalArgumentException.class, () -> BoundingBox.parse("0,0,200,1"));
+    }
+
+    @Test
+    void box_can_cross_the_antimeridian() {
+        BoundingBox box = BoundingBox.parse("170,-10,-170,10");
+        assertTrue(box.crossesAntimeridian());
+        assertTrue(box.contains(175, 0));
+        assertTrue(box.contains(-175, 0));
+        assertFalse(box.contains(0, 0));
+
+        Field<Double> lon = DSL.field("longitude", Double.class);
+        Field<Double> lat = DSL.field("latitude", Double.class);
+        String sql = DSL.using(org.jooq.SQLDialect.DEFAULT)
+                .renderContext().paramType(ParamType.INLINED)
+                .render(box.condition(lon, lat));
+        assertTrue(sql.contains("longitude >= 1.7E2 or longitude <= -1.7E2"), sql);
+    }
+}
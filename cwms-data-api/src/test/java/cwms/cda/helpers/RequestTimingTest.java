@@ -0,0 +1,61 @@
+package cwms.cda.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RequestTimingTest {
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void nested_phases_are_exclusive() {
+        RequestTiming.start();
+        RequestTiming.begin(RequestTiming.CHECKOUT);
+        RequestTiming.begin(RequestTiming.SESSION);
+        sleep(50);
+        RequestTiming.end(RequestTiming.SESSION);
+        RequestTiming.end(RequestTiming.CHECKOUT);
+        RequestTiming timing = RequestTiming.finish();
+
+        Map<String, Long> phases = timing.getPhases();
+        assertTrue(phases.get(RequestTiming.SESSION) >= 50_000_000L);
+        assertTrue(phases.get(RequestTiming.CHECKOUT) < phases.get(RequestTiming.SESSION));
+        assertTrue(phases.get(RequestTiming.TOTAL) >= phases.get(RequestTiming.SESSION));
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void untimed_threads_are_ignored() {
+        RequestTiming.begin(RequestTiming.SQL);
+        RequestTiming.end(RequestTiming.SQL);
+        assertNull(RequestTiming.finish());
+    }
+
+    @Test
+    void server_timing_header() {
+        RequestTiming.start();
+        RequestTiming.begin(RequestTiming.SQL);
+        RequestTiming.end(RequestTiming.SQL);
+        String header = RequestTiming.finish().toServerTiming();
+        assertTrue(header.matches("sql;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"), header);
+    }
+
+    @Test
+    void mismatched_end_is_ignored() {
+        RequestTiming.start();
+        RequestTiming.begin(RequestTiming.SQL);
+        RequestTiming.end(RequestTiming.FETCH);
+        RequestTiming.end(RequestTiming.SQL);
+        assertEquals(2, RequestTiming.finish().getPhases().size());
+    }
+}